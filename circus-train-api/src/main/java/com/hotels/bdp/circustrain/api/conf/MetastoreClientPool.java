@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.api.conf;
+
+import javax.validation.constraints.Min;
+
+public class MetastoreClientPool {
+
+  private @Min(0) int size = 0;
+  private @Min(1) long idleTimeoutMs = 60000L;
+  private @Min(0) long validationIntervalMs = 30000L;
+  private @Min(0) long borrowTimeoutMs = 60000L;
+
+  public int getSize() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public long getIdleTimeoutMs() {
+    return idleTimeoutMs;
+  }
+
+  public void setIdleTimeoutMs(long idleTimeoutMs) {
+    this.idleTimeoutMs = idleTimeoutMs;
+  }
+
+  public long getValidationIntervalMs() {
+    return validationIntervalMs;
+  }
+
+  public void setValidationIntervalMs(long validationIntervalMs) {
+    this.validationIntervalMs = validationIntervalMs;
+  }
+
+  public long getBorrowTimeoutMs() {
+    return borrowTimeoutMs;
+  }
+
+  public void setBorrowTimeoutMs(long borrowTimeoutMs) {
+    this.borrowTimeoutMs = borrowTimeoutMs;
+  }
+
+}
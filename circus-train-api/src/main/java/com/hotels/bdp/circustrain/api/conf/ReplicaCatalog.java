@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 
 import org.hibernate.validator.constraints.NotBlank;
 
@@ -31,6 +32,9 @@ public class ReplicaCatalog implements TunnelMetastoreCatalog {
   private @Valid MetastoreTunnel metastoreTunnel;
   private List<String> siteXml;
   private Map<String, String> configurationProperties;
+  private @Min(1) Integer maxConcurrentReplications;
+  private @Valid PartitionBatching partitionBatching = new PartitionBatching();
+  private @Valid MetastoreClientPool metastoreClientPool = new MetastoreClientPool();
 
   @Override
   public String getName() {
@@ -77,4 +81,28 @@ public class ReplicaCatalog implements TunnelMetastoreCatalog {
     this.configurationProperties = configurationProperties;
   }
 
+  public Integer getMaxConcurrentReplications() {
+    return maxConcurrentReplications;
+  }
+
+  public void setMaxConcurrentReplications(Integer maxConcurrentReplications) {
+    this.maxConcurrentReplications = maxConcurrentReplications;
+  }
+
+  public PartitionBatching getPartitionBatching() {
+    return partitionBatching;
+  }
+
+  public void setPartitionBatching(PartitionBatching partitionBatching) {
+    this.partitionBatching = partitionBatching;
+  }
+
+  public MetastoreClientPool getMetastoreClientPool() {
+    return metastoreClientPool;
+  }
+
+  public void setMetastoreClientPool(MetastoreClientPool metastoreClientPool) {
+    this.metastoreClientPool = metastoreClientPool;
+  }
+
 }
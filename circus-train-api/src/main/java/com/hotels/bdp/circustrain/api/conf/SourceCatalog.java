@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 
 import org.hibernate.validator.constraints.NotBlank;
 
@@ -32,6 +33,8 @@ public class SourceCatalog implements TunnelMetastoreCatalog {
   private @Valid MetastoreTunnel metastoreTunnel;
   private List<String> siteXml;
   private Map<String, String> configurationProperties;
+  private @Min(1) Integer maxConcurrentReplications;
+  private @Valid MetastoreClientPool metastoreClientPool = new MetastoreClientPool();
 
   @Override
   public String getName() {
@@ -86,4 +89,20 @@ public class SourceCatalog implements TunnelMetastoreCatalog {
     this.hiveMetastoreUris = hiveMetastoreUris;
   }
 
+  public Integer getMaxConcurrentReplications() {
+    return maxConcurrentReplications;
+  }
+
+  public void setMaxConcurrentReplications(Integer maxConcurrentReplications) {
+    this.maxConcurrentReplications = maxConcurrentReplications;
+  }
+
+  public MetastoreClientPool getMetastoreClientPool() {
+    return metastoreClientPool;
+  }
+
+  public void setMetastoreClientPool(MetastoreClientPool metastoreClientPool) {
+    this.metastoreClientPool = metastoreClientPool;
+  }
+
 }
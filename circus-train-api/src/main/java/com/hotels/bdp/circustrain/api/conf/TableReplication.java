@@ -20,6 +20,7 @@ import java.util.Locale;
 import java.util.Map;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import com.hotels.bdp.circustrain.api.validation.constraints.TableReplicationFullReplicationModeConstraint;
@@ -33,6 +34,8 @@ public class TableReplication {
   private Map<String, Object> transformOptions = new HashMap<>();
   private short partitionIteratorBatchSize = (short) 1000;
   private short partitionFetcherBufferSize = (short) 1000;
+  private @Min(0) short partitionPageSize = (short) 0;
+  private @Valid PartitionStatistics partitionStatistics = new PartitionStatistics();
   private @NotNull ReplicationMode replicationMode = ReplicationMode.FULL;
   private @NotNull ReplicationStrategy replicationStrategy = ReplicationStrategy.UPSERT;
   // Only relevant to view replications
@@ -106,6 +109,22 @@ public class TableReplication {
     this.partitionFetcherBufferSize = partitionFetcherBufferSize;
   }
 
+  public short getPartitionPageSize() {
+    return partitionPageSize;
+  }
+
+  public void setPartitionPageSize(short partitionPageSize) {
+    this.partitionPageSize = partitionPageSize;
+  }
+
+  public PartitionStatistics getPartitionStatistics() {
+    return partitionStatistics;
+  }
+
+  public void setPartitionStatistics(PartitionStatistics partitionStatistics) {
+    this.partitionStatistics = partitionStatistics;
+  }
+
   public ReplicationMode getReplicationMode() {
     return replicationMode;
   }
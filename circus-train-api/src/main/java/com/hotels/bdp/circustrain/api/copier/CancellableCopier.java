@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.api.copier;
+
+/**
+ * A {@link Copier} whose copy can be stopped from another thread while it is running, for example by killing the job
+ * it has submitted. A cancelled copy fails and cleans up the data it has written as if it had failed on its own.
+ */
+public interface CancellableCopier extends Copier {
+
+  /**
+   * Stops the copy running in {@link #copy()}, does nothing if the copy has not started or has completed.
+   */
+  void cancel();
+
+}
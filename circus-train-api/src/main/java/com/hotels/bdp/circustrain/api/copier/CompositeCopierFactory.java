@@ -21,28 +21,59 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 
 public class CompositeCopierFactory implements CopierFactory {
 
-  private static class CompositeCopier implements Copier {
+  private static final Logger LOG = LoggerFactory.getLogger(CompositeCopierFactory.class);
+
+  private static class CompositeCopier implements CancellableCopier {
 
     private final List<Copier> copiers;
     private final MetricsMerger metricsMerger;
+    private final int maxConcurrency;
 
-    private CompositeCopier(List<Copier> copiers, MetricsMerger metricsMerger) {
+    private CompositeCopier(List<Copier> copiers, MetricsMerger metricsMerger, int maxConcurrency) {
       this.copiers = ImmutableList.copyOf(copiers);
       this.metricsMerger = metricsMerger;
+      this.maxConcurrency = maxConcurrency;
     }
 
     @Override
     public Metrics copy() throws CircusTrainException {
+      if (maxConcurrency <= 1 || copiers.size() <= 1) {
+        return copySequentially();
+      }
+      return copyConcurrently();
+    }
+
+    @Override
+    public void cancel() {
+      for (Copier copier : copiers) {
+        if (copier instanceof CancellableCopier) {
+          ((CancellableCopier) copier).cancel();
+        }
+      }
+    }
+
+    private Metrics copySequentially() {
       Metrics metrics = Metrics.NULL_VALUE;
       for (Copier copier : copiers) {
         Metrics copierMetrics = copier.copy();
@@ -54,11 +85,85 @@ public class CompositeCopierFactory implements CopierFactory {
       return metrics;
     }
 
+    /**
+     * Runs all copiers at the same time, at most {@code maxConcurrency} at once, and merges their metrics as they
+     * complete. The first copier to fail cancels all the others and this method only returns once they have stopped,
+     * so that no copier is still writing to its replica location after the copy has been reported as failed.
+     */
+    private Metrics copyConcurrently() {
+      ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxConcurrency, copiers.size()),
+          new ThreadFactoryBuilder().setNameFormat("composite-copier-%d").setDaemon(true).build());
+      CompletionService<Metrics> completionService = new ExecutorCompletionService<>(executor);
+      List<Future<Metrics>> futures = new ArrayList<>(copiers.size());
+      boolean completed = false;
+      try {
+        for (final Copier copier : copiers) {
+          futures.add(completionService.submit(new Callable<Metrics>() {
+            @Override
+            public Metrics call() throws Exception {
+              return copier.copy();
+            }
+          }));
+        }
+        Metrics metrics = Metrics.NULL_VALUE;
+        for (int i = 0; i < copiers.size(); i++) {
+          Metrics copierMetrics = completionService.take().get();
+          if (copierMetrics == null) {
+            continue;
+          }
+          metrics = metricsMerger.merge(metrics, copierMetrics);
+        }
+        completed = true;
+        return metrics;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CircusTrainException("Interrupted while waiting for copiers", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof CircusTrainException) {
+          throw (CircusTrainException) cause;
+        }
+        throw new CircusTrainException("Copier failed", cause);
+      } finally {
+        if (!completed) {
+          cancelRunningCopiers(futures);
+        }
+        // Interrupts the copiers still running, copiers that cannot be cancelled otherwise fail when interrupted
+        executor.shutdownNow();
+        awaitTermination(executor);
+      }
+    }
+
+    private void cancelRunningCopiers(List<Future<Metrics>> futures) {
+      for (int i = 0; i < futures.size(); i++) {
+        Copier copier = copiers.get(i);
+        if (!futures.get(i).isDone() && copier instanceof CancellableCopier) {
+          try {
+            ((CancellableCopier) copier).cancel();
+          } catch (RuntimeException e) {
+            LOG.warn("Unable to cancel copier {}", copier, e);
+          }
+        }
+      }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+      try {
+        while (!executor.awaitTermination(1L, TimeUnit.MINUTES)) {
+          LOG.warn("Waiting for cancelled copiers to stop");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        LOG.warn("Interrupted while waiting for cancelled copiers to stop");
+      }
+    }
+
   }
 
   private final List<CopierFactory> delegates;
   private final CopierPathGenerator pathGenerator;
   private final MetricsMerger metricsMerger;
+  private final int maxConcurrency;
 
   public CompositeCopierFactory(List<CopierFactory> delegates) {
     this(delegates, CopierPathGenerator.IDENTITY, MetricsMerger.DEFAULT);
@@ -68,12 +173,28 @@ public class CompositeCopierFactory implements CopierFactory {
       List<CopierFactory> delegates,
       CopierPathGenerator pathGenerator,
       MetricsMerger metricsMerger) {
+    this(delegates, pathGenerator, metricsMerger, 1);
+  }
+
+  /**
+   * @param maxConcurrency maximum number of delegate copiers to run at the same time. Copiers only run concurrently if
+   *          none of them reads what another one writes, e.g. when copying from the same source to several replica
+   *          locations. A value of {@code 1} runs the copiers one after another in the order of the delegates. The
+   *          copier option {@value CopierOptions#COMPOSITE_COPIER_MAX_CONCURRENCY} takes precedence over this value.
+   */
+  public CompositeCopierFactory(
+      List<CopierFactory> delegates,
+      CopierPathGenerator pathGenerator,
+      MetricsMerger metricsMerger,
+      int maxConcurrency) {
     checkArgument(delegates != null && !delegates.isEmpty(), "At least one delegate is required");
     checkNotNull(pathGenerator, "pathGenerator is required");
     checkNotNull(metricsMerger, "metricsMerger is required");
+    checkArgument(maxConcurrency > 0, "maxConcurrency must be greater than zero");
     this.delegates = delegates;
     this.pathGenerator = pathGenerator;
     this.metricsMerger = metricsMerger;
+    this.maxConcurrency = maxConcurrency;
   }
 
   @Override
@@ -99,7 +220,7 @@ public class CompositeCopierFactory implements CopierFactory {
           copierOptions);
       copiers.add(copier);
     }
-    return new CompositeCopier(copiers, metricsMerger);
+    return new CompositeCopier(copiers, metricsMerger, maxConcurrency(copierOptions));
   }
 
   @Override
@@ -118,7 +239,18 @@ public class CompositeCopierFactory implements CopierFactory {
       Copier copier = delegatee.newInstance(eventId, newSourceBaseLocation, newReplicaLocation, copierOptions);
       copiers.add(copier);
     }
-    return new CompositeCopier(copiers, metricsMerger);
+    return new CompositeCopier(copiers, metricsMerger, maxConcurrency(copierOptions));
+  }
+
+  private int maxConcurrency(Map<String, Object> copierOptions) {
+    Object value = copierOptions == null ? null : copierOptions.get(CopierOptions.COMPOSITE_COPIER_MAX_CONCURRENCY);
+    if (value == null) {
+      return maxConcurrency;
+    }
+    int configuredMaxConcurrency = Integer.parseInt(value.toString().trim());
+    checkArgument(configuredMaxConcurrency > 0, CopierOptions.COMPOSITE_COPIER_MAX_CONCURRENCY
+        + " must be greater than zero");
+    return configuredMaxConcurrency;
   }
 
 }
@@ -20,6 +20,13 @@ import java.util.Map;
 public interface CopierOptions {
 
   String IGNORE_MISSING_PARTITION_FOLDER_ERRORS = "ignore-missing-partition-folder-errors";
+  String MISSING_PARTITION_FOLDER_CHECK_THREADS = "missing-partition-folder-check-threads";
+  String COMPOSITE_COPIER_MAX_CONCURRENCY = "composite-copier-max-concurrency";
+  /**
+   * Set by the replication to a {@code Map<Path, Path>} from each source location being copied to the location the
+   * replica metastore currently holds for it, when it has been replicated before. Not set on a first replication.
+   */
+  String PREVIOUS_REPLICA_LOCATIONS = "previous-replica-locations";
 
   Map<String, Object> getCopierOptions();
 
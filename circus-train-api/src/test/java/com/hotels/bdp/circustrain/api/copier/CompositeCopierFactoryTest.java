@@ -17,15 +17,24 @@ package com.hotels.bdp.circustrain.api.copier;
 
 import static java.util.Arrays.asList;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hadoop.fs.Path;
 import org.junit.Before;
@@ -33,7 +42,15 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.metrics.Metrics;
 
 @RunWith(MockitoJUnitRunner.class)
 public class CompositeCopierFactoryTest {
@@ -63,6 +80,9 @@ public class CompositeCopierFactoryTest {
   private @Mock CopierFactory secondCopierFactory;
   private @Mock Copier secondCopier;
   private @Mock Map<String, Object> overridingCopierOptions;
+  private @Mock Metrics firstMetrics;
+  private @Mock Metrics secondMetrics;
+  private @Mock CancellableCopier cancellableCopier;
 
   @Before
   public void init() {
@@ -152,4 +172,139 @@ public class CompositeCopierFactoryTest {
         overridingCopierOptions);
   }
 
+  @Test
+  public void copyConcurrentlyMergesMetrics() {
+    when(firstMetrics.getBytesReplicated()).thenReturn(1L);
+    when(firstMetrics.getMetrics()).thenReturn(ImmutableMap.of("files", 1L));
+    when(secondMetrics.getBytesReplicated()).thenReturn(2L);
+    when(secondMetrics.getMetrics()).thenReturn(ImmutableMap.of("files", 3L));
+    when(firstCopier.copy()).thenReturn(firstMetrics);
+    when(secondCopier.copy()).thenReturn(secondMetrics);
+    CompositeCopierFactory copierFactory = new CompositeCopierFactory(
+        Arrays.asList(firstCopierFactory, secondCopierFactory), CopierPathGenerator.IDENTITY, MetricsMerger.DEFAULT, 2);
+
+    Metrics metrics = copierFactory
+        .newInstance("eventId", new Path("source"), new Path("replicaLocation"), overridingCopierOptions)
+        .copy();
+    assertThat(metrics.getBytesReplicated(), is(3L));
+    assertThat(metrics.getMetrics().get("files"), is(4L));
+  }
+
+  @Test
+  public void copyConcurrentlyCancelsRunningCopiersOnFailure() throws Exception {
+    final CountDownLatch secondCopierStarted = new CountDownLatch(1);
+    final CountDownLatch secondCopierInterrupted = new CountDownLatch(1);
+    when(firstCopier.copy()).thenAnswer(new Answer<Metrics>() {
+      @Override
+      public Metrics answer(InvocationOnMock invocation) throws Throwable {
+        secondCopierStarted.await();
+        throw new CircusTrainException("first copier failed");
+      }
+    });
+    when(secondCopier.copy()).thenAnswer(new Answer<Metrics>() {
+      @Override
+      public Metrics answer(InvocationOnMock invocation) throws Throwable {
+        secondCopierStarted.countDown();
+        try {
+          Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+          secondCopierInterrupted.countDown();
+        }
+        return secondMetrics;
+      }
+    });
+    CompositeCopierFactory copierFactory = new CompositeCopierFactory(
+        Arrays.asList(firstCopierFactory, secondCopierFactory), CopierPathGenerator.IDENTITY, MetricsMerger.DEFAULT, 2);
+
+    try {
+      copierFactory
+          .newInstance("eventId", new Path("source"), new Path("replicaLocation"), overridingCopierOptions)
+          .copy();
+      fail("Exception should have been thrown");
+    } catch (CircusTrainException e) {
+      assertThat(e.getMessage(), is("first copier failed"));
+    }
+    assertThat(secondCopierInterrupted.await(10, TimeUnit.SECONDS), is(true));
+  }
+
+  @Test
+  public void copyConcurrentlyCancelsCancellableCopiersAndWaitsForThem() throws Exception {
+    final CountDownLatch copierStarted = new CountDownLatch(1);
+    final CountDownLatch copierCancelled = new CountDownLatch(1);
+    final AtomicBoolean copierStopped = new AtomicBoolean();
+    doReturn(cancellableCopier).when(secondCopierFactory).newInstance(anyString(), any(Path.class), any(Path.class),
+        Matchers.<Map<String, Object>> any());
+    when(firstCopier.copy()).thenAnswer(new Answer<Metrics>() {
+      @Override
+      public Metrics answer(InvocationOnMock invocation) throws Throwable {
+        copierStarted.await();
+        throw new CircusTrainException("first copier failed");
+      }
+    });
+    when(cancellableCopier.copy()).thenAnswer(new Answer<Metrics>() {
+      @Override
+      public Metrics answer(InvocationOnMock invocation) throws Throwable {
+        copierStarted.countDown();
+        // Ignores interruption, only stops when cancelled
+        Uninterruptibles.awaitUninterruptibly(copierCancelled);
+        Uninterruptibles.sleepUninterruptibly(100L, TimeUnit.MILLISECONDS);
+        copierStopped.set(true);
+        throw new CircusTrainException("cancelled");
+      }
+    });
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        copierCancelled.countDown();
+        return null;
+      }
+    }).when(cancellableCopier).cancel();
+    CompositeCopierFactory copierFactory = new CompositeCopierFactory(
+        Arrays.asList(firstCopierFactory, secondCopierFactory), CopierPathGenerator.IDENTITY, MetricsMerger.DEFAULT, 2);
+
+    try {
+      copierFactory
+          .newInstance("eventId", new Path("source"), new Path("replicaLocation"), overridingCopierOptions)
+          .copy();
+      fail("Exception should have been thrown");
+    } catch (CircusTrainException e) {
+      assertThat(e.getMessage(), is("first copier failed"));
+    }
+    verify(cancellableCopier).cancel();
+    assertThat(copierStopped.get(), is(true));
+  }
+
+  @Test
+  public void copierOptionsOverrideMaxConcurrency() {
+    final CyclicBarrier bothCopiersStarted = new CyclicBarrier(2);
+    Answer<Metrics> awaitOtherCopier = new Answer<Metrics>() {
+      @Override
+      public Metrics answer(InvocationOnMock invocation) throws Throwable {
+        // Only returns if both copiers run at the same time
+        bothCopiersStarted.await(10, TimeUnit.SECONDS);
+        return Metrics.NULL_VALUE;
+      }
+    };
+    when(firstCopier.copy()).thenAnswer(awaitOtherCopier);
+    when(secondCopier.copy()).thenAnswer(awaitOtherCopier);
+    CompositeCopierFactory copierFactory = new CompositeCopierFactory(
+        Arrays.asList(firstCopierFactory, secondCopierFactory), CopierPathGenerator.IDENTITY, MetricsMerger.DEFAULT);
+
+    Map<String, Object> copierOptions = ImmutableMap
+        .<String, Object> of(CopierOptions.COMPOSITE_COPIER_MAX_CONCURRENCY, "2");
+    copierFactory.newInstance("eventId", new Path("source"), new Path("replicaLocation"), copierOptions).copy();
+    verify(firstCopier).copy();
+    verify(secondCopier).copy();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void copierOptionsMaxConcurrencyMustBePositive() {
+    CompositeCopierFactory copierFactory = new CompositeCopierFactory(
+        Arrays.asList(firstCopierFactory, secondCopierFactory), CopierPathGenerator.IDENTITY, MetricsMerger.DEFAULT);
+
+    Map<String, Object> copierOptions = ImmutableMap
+        .<String, Object> of(CopierOptions.COMPOSITE_COPIER_MAX_CONCURRENCY, 0);
+    copierFactory.newInstance("eventId", new Path("source"), new Path("replicaLocation"), copierOptions);
+  }
+
 }
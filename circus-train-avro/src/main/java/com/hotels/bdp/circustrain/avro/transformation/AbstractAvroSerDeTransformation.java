@@ -29,21 +29,31 @@ import com.hotels.bdp.circustrain.avro.conf.AvroSerDeConfig;
 public abstract class AbstractAvroSerDeTransformation implements TableReplicationListener {
 
   private final AvroSerDeConfig avroSerDeConfig;
-  private String eventId;
-  private String tableLocation;
-  private Map<String, Object> avroSerdeConfigOverride = Collections.emptyMap();
+  /* Replications may run concurrently, each one on its own thread. */
+  private final ThreadLocal<ReplicationState> replicationState = new ThreadLocal<ReplicationState>() {
+    @Override
+    protected ReplicationState initialValue() {
+      return new ReplicationState();
+    }
+  };
   static final String AVRO_SCHEMA_URL_PARAMETER = "avro.schema.url";
 
+  private static class ReplicationState {
+    String eventId;
+    String tableLocation;
+    Map<String, Object> avroSerdeConfigOverride = Collections.emptyMap();
+  }
+
   protected AbstractAvroSerDeTransformation(AvroSerDeConfig avroSerDeConfig) {
     this.avroSerDeConfig = avroSerDeConfig;
   }
 
   protected String getEventId() {
-    return eventId;
+    return replicationState.get().eventId;
   }
 
   protected String getTableLocation() {
-    return tableLocation;
+    return replicationState.get().tableLocation;
   }
 
   protected boolean avroTransformationSpecified() {
@@ -51,7 +61,8 @@ public abstract class AbstractAvroSerDeTransformation implements TableReplicatio
   }
 
   protected String getAvroSchemaDestinationFolder() {
-    Object urlOverride = avroSerdeConfigOverride.get(AvroSerDeConfig.TABLE_REPLICATION_OVERRIDE_BASE_URL);
+    Object urlOverride = replicationState.get().avroSerdeConfigOverride
+        .get(AvroSerDeConfig.TABLE_REPLICATION_OVERRIDE_BASE_URL);
     if (urlOverride != null && StringUtils.isNotBlank(urlOverride.toString())) {
       return urlOverride.toString();
     }
@@ -61,18 +72,24 @@ public abstract class AbstractAvroSerDeTransformation implements TableReplicatio
   @SuppressWarnings("unchecked")
   @Override
   public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {
-    this.eventId = eventId;
-    tableLocation = tableReplication.getReplicaTable().getTableLocation();
+    ReplicationState state = new ReplicationState();
+    state.eventId = eventId;
+    state.tableLocation = tableReplication.getReplicaTable().getTableLocation();
     Map<String, Object> transformOptions = tableReplication.getTransformOptions();
     Object avroSerDeOverride = transformOptions.get(AvroSerDeConfig.TABLE_REPLICATION_OVERRIDE_AVRO_SERDE_OPTIONS);
     if (avroSerDeOverride != null && avroSerDeOverride instanceof Map) {
-      avroSerdeConfigOverride = (Map<String, Object>) avroSerDeOverride;
+      state.avroSerdeConfigOverride = (Map<String, Object>) avroSerDeOverride;
     }
+    replicationState.set(state);
   }
 
   @Override
-  public void tableReplicationSuccess(EventTableReplication tableReplication, String eventId) {}
+  public void tableReplicationSuccess(EventTableReplication tableReplication, String eventId) {
+    replicationState.remove();
+  }
 
   @Override
-  public void tableReplicationFailure(EventTableReplication tableReplication, String eventId, Throwable t) {}
+  public void tableReplicationFailure(EventTableReplication tableReplication, String eventId, Throwable t) {
+    replicationState.remove();
+  }
 }
@@ -17,6 +17,7 @@ package com.hotels.bdp.circustrain.avro.transformation;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
@@ -24,6 +25,11 @@ import static com.hotels.bdp.circustrain.avro.TestUtils.newTable;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.api.Table;
@@ -133,4 +139,37 @@ public class AvroSerDeTableTransformationTest {
     assertThat(result.getParameters().get(AVRO_SCHEMA_URL_PARAMETER), is(destinationPathString));
   }
 
+  @Test
+  public void concurrentReplicationsKeepTheirOwnEventId() throws Exception {
+    when(avroSerDeConfig.getBaseUrl()).thenReturn("schema");
+    when(schemaCopier.copy("avroSourceUrl", "schema/eventId1/")).thenReturn(new Path("/destination/1"));
+    when(schemaCopier.copy("avroSourceUrl", "schema/eventId2/")).thenReturn(new Path("/destination/2"));
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Table> first = executor.submit(replication(barrier, "eventId1", "location1"));
+      Future<Table> second = executor.submit(replication(barrier, "eventId2", "location2"));
+      assertThat(first.get().getParameters().get(AVRO_SCHEMA_URL_PARAMETER), is("/destination/1"));
+      assertThat(second.get().getParameters().get(AVRO_SCHEMA_URL_PARAMETER), is("/destination/2"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Callable<Table> replication(final CyclicBarrier barrier, final String eventId, final String location) {
+    return new Callable<Table>() {
+      @Override
+      public Table call() throws Exception {
+        EventTableReplication tableReplication = mock(EventTableReplication.class);
+        when(tableReplication.getReplicaTable()).thenReturn(new EventReplicaTable("db", "table", location));
+        transformation.tableReplicationStart(tableReplication, eventId);
+        // Both replications have started before either one transforms its table
+        barrier.await();
+        Table replicaTable = newTable();
+        HiveObjectUtils.updateSerDeUrl(replicaTable, AVRO_SCHEMA_URL_PARAMETER, "avroSourceUrl");
+        return transformation.transform(replicaTable);
+      }
+    };
+  }
+
 }
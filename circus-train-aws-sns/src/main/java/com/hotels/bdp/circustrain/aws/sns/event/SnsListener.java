@@ -68,13 +68,23 @@ public class SnsListener implements LocomotiveListener, SourceCatalogListener, R
   private final ObjectWriter startWriter;
   private final Clock clock;
 
-  private Metrics metrics;
-  private List<EventPartition> partitionsToCreate;
-  private List<EventPartition> partitionsToAlter;
-  private String startTime;
   private EventSourceCatalog sourceCatalog;
   private EventReplicaCatalog replicaCatalog;
-  private LinkedHashMap<String, String> partitionKeyTypes;
+  /* Replications may run concurrently, each one on its own thread. */
+  private final ThreadLocal<ReplicationState> replicationState = new ThreadLocal<ReplicationState>() {
+    @Override
+    protected ReplicationState initialValue() {
+      return new ReplicationState();
+    }
+  };
+
+  private static class ReplicationState {
+    Metrics metrics;
+    List<EventPartition> partitionsToCreate;
+    List<EventPartition> partitionsToAlter;
+    String startTime;
+    LinkedHashMap<String, String> partitionKeyTypes;
+  }
 
   @Autowired
   public SnsListener(AmazonSNSAsync sns, ListenerConfig config) {
@@ -101,30 +111,32 @@ public class SnsListener implements LocomotiveListener, SourceCatalogListener, R
 
   @Override
   public void copierEnd(Metrics metrics) {
-    this.metrics = metrics;
+    replicationState.get().metrics = metrics;
   }
 
   @Override
   public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {
-    startTime = clock.getTime();
+    ReplicationState state = replicationState.get();
+    state.startTime = clock.getTime();
     EventReplicaTable replicaTable = tableReplication.getReplicaTable();
-    SnsMessage message = new SnsMessage(SnsMessageType.START, config.getHeaders(), startTime, null, eventId,
+    SnsMessage message = new SnsMessage(SnsMessageType.START, config.getHeaders(), state.startTime, null, eventId,
         sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
         tableReplication.getSourceTable().getQualifiedName(), tableReplication.getQualifiedReplicaName(),
-        replicaTable.getTableLocation(), partitionKeyTypes, null, null, null);
+        replicaTable.getTableLocation(), state.partitionKeyTypes, null, null, null);
     publish(config.getStartTopic(), message);
   }
 
   @Override
   public void tableReplicationSuccess(EventTableReplication tableReplication, String eventId) {
     try {
+      ReplicationState state = replicationState.get();
       String endTime = clock.getTime();
       EventReplicaTable replicaTable = tableReplication.getReplicaTable();
-      SnsMessage message = new SnsMessage(SnsMessageType.SUCCESS, config.getHeaders(), startTime, endTime, eventId,
-          sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
+      SnsMessage message = new SnsMessage(SnsMessageType.SUCCESS, config.getHeaders(), state.startTime, endTime,
+          eventId, sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
           tableReplication.getSourceTable().getQualifiedName(), tableReplication.getQualifiedReplicaName(),
-          replicaTable.getTableLocation(), partitionKeyTypes,
-          getModifiedPartitions(partitionsToAlter, partitionsToCreate), getBytesReplicated(), null);
+          replicaTable.getTableLocation(), state.partitionKeyTypes,
+          getModifiedPartitions(state.partitionsToAlter, state.partitionsToCreate), getBytesReplicated(state), null);
       publish(config.getSuccessTopic(), message);
     } finally {
       resetState();
@@ -134,51 +146,61 @@ public class SnsListener implements LocomotiveListener, SourceCatalogListener, R
   @Override
   public void tableReplicationFailure(EventTableReplication tableReplication, String eventId, Throwable t) {
     try {
-      if (startTime == null) {
-        startTime = clock.getTime();
+      ReplicationState state = replicationState.get();
+      if (state.startTime == null) {
+        state.startTime = clock.getTime();
       }
       String endTime = clock.getTime();
       EventReplicaTable replicaTable = tableReplication.getReplicaTable();
-      SnsMessage message = new SnsMessage(SnsMessageType.FAILURE, config.getHeaders(), startTime, endTime, eventId,
-          sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
+      SnsMessage message = new SnsMessage(SnsMessageType.FAILURE, config.getHeaders(), state.startTime, endTime,
+          eventId, sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
           tableReplication.getSourceTable().getQualifiedName(), tableReplication.getQualifiedReplicaName(),
-          replicaTable.getTableLocation(), partitionKeyTypes,
-          getModifiedPartitions(partitionsToAlter, partitionsToCreate), getBytesReplicated(), t.getMessage());
+          replicaTable.getTableLocation(), state.partitionKeyTypes,
+          getModifiedPartitions(state.partitionsToAlter, state.partitionsToCreate), getBytesReplicated(state),
+          t.getMessage());
       publish(config.getFailTopic(), message);
     } finally {
       resetState();
     }
   }
 
-  private Long getBytesReplicated() {
-    if (metrics != null) {
-      return metrics.getBytesReplicated();
+  private static Long getBytesReplicated(ReplicationState state) {
+    if (state.metrics != null) {
+      return state.metrics.getBytesReplicated();
     }
     return 0L;
   }
 
   private void resetState() {
-    partitionsToCreate = null;
-    partitionsToAlter = null;
-    partitionKeyTypes = null;
-    startTime = null;
+    replicationState.remove();
   }
 
   @Override
   public void partitionsToCreate(EventPartitions eventPartitions) {
-    partitionsToCreate = eventPartitions.getEventPartitions();
+    ReplicationState state = replicationState.get();
+    state.partitionsToCreate = append(state.partitionsToCreate, eventPartitions.getEventPartitions());
     setPartitionKeyTypes(eventPartitions.getPartitionKeyTypes());
   }
 
   @Override
   public void partitionsToAlter(EventPartitions eventPartitions) {
-    partitionsToAlter = eventPartitions.getEventPartitions();
+    ReplicationState state = replicationState.get();
+    state.partitionsToAlter = append(state.partitionsToAlter, eventPartitions.getEventPartitions());
     setPartitionKeyTypes(eventPartitions.getPartitionKeyTypes());
   }
 
+  /* Partitions are reported once per page when a replication pages through the source partitions. */
+  private static List<EventPartition> append(List<EventPartition> partitions, List<EventPartition> page) {
+    if (partitions == null) {
+      return new ArrayList<>(page);
+    }
+    partitions.addAll(page);
+    return partitions;
+  }
+
   private void setPartitionKeyTypes(LinkedHashMap<String, String> partitionKeyTypes) {
     if (partitionKeyTypes != null) {
-      this.partitionKeyTypes = partitionKeyTypes;
+      replicationState.get().partitionKeyTypes = partitionKeyTypes;
     }
   }
 
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2018 Expedia Inc.
+ * Copyright (C) 2016-2019 Expedia Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,9 +15,21 @@
  */
 package com.hotels.bdp.circustrain.comparator.hive.functions;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 
@@ -28,44 +40,245 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
 import com.google.common.base.Function;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.comparator.hive.wrappers.PathMetadata;
 
+/**
+ * Describes a location and everything below it. Directories are walked one level at a time: the listings of all
+ * directories of a level are requested in parallel on a bounded pool of threads. The status of a child is taken from
+ * the listing of its parent rather than requested again. The checksums of all files are then requested in parallel on
+ * the same pool. The walk is also available on its own through {@link #list(Path)}, so callers can inspect a location
+ * before deciding whether its checksums are needed.
+ * <p>
+ * When file checksums are disabled the length of each file is used in place of its checksum, which is much cheaper on
+ * object stores. Both variants produce different metadata for the same files, so checksums computed with one cannot be
+ * compared with checksums computed with the other.
+ * </p>
+ */
 public class PathToPathMetadata implements Function<Path, PathMetadata> {
 
   private final Configuration conf;
+  private final boolean fileChecksums;
+  private final ExecutorService executor;
 
   public PathToPathMetadata(Configuration conf) {
+    this(conf, 1, true);
+  }
+
+  public PathToPathMetadata(Configuration conf, int maxConcurrency, boolean fileChecksums) {
     this.conf = new Configuration(conf);
+    this.fileChecksums = fileChecksums;
+    if (maxConcurrency <= 1) {
+      executor = MoreExecutors.newDirectExecutorService();
+    } else {
+      // Idle threads are let go so the function does not need to be closed
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 1L, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(),
+          new ThreadFactoryBuilder().setNameFormat("path-metadata-%d").setDaemon(true).build());
+      pool.allowCoreThreadTimeOut(true);
+      executor = pool;
+    }
   }
 
   @Override
   public PathMetadata apply(@Nonnull Path location) {
+    return apply(list(location));
+  }
+
+  /**
+   * Describes a location that has already been walked, requesting only the checksums of its files.
+   */
+  public PathMetadata apply(@Nonnull Listing listing) {
+    Path location = listing.getLocation();
     try {
       FileSystem fs = location.getFileSystem(conf);
-      FileStatus fileStatus = fs.getFileStatus(location);
-      FileChecksum checksum = null;
-      if (fileStatus.isFile()) {
-        checksum = fs.getFileChecksum(location);
+      Map<Path, Future<FileChecksum>> checksums = new HashMap<>();
+      for (FileStatus status : listing.getStatuses()) {
+        if (status.isFile()) {
+          checksums.put(status.getPath(), submitChecksum(fs, status));
+        }
       }
+      return toPathMetadata(location, listing.getStatus(), listing.listings, checksums);
+    } catch (IOException e) {
+      throw new CircusTrainException("Unable to compute digest for location " + location.toString(), e);
+    }
+  }
 
-      long modificationTime = 0;
-      List<PathMetadata> childPathDescriptors = new ArrayList<>();
+  /**
+   * Walks a location without requesting any checksum.
+   */
+  public Listing list(@Nonnull Path location) {
+    try {
+      final FileSystem fs = location.getFileSystem(conf);
+      FileStatus fileStatus = fs.getFileStatus(location);
 
-      if (fileStatus.isDirectory()) {
-        FileStatus[] childStatuses = fs.listStatus(location);
-        for (FileStatus childStatus : childStatuses) {
-          childPathDescriptors.add(apply(childStatus.getPath()));
+      Map<Path, FileStatus[]> listings = new HashMap<>();
+      List<FileStatus> level = new ArrayList<>();
+      level.add(fileStatus);
+      while (!level.isEmpty()) {
+        Map<Path, Future<FileStatus[]>> futures = new HashMap<>();
+        for (FileStatus status : level) {
+          if (status.isDirectory()) {
+            futures.put(status.getPath(), submitListStatus(fs, status.getPath()));
+          }
         }
-      } else {
-        modificationTime = fileStatus.getModificationTime();
+        List<FileStatus> nextLevel = new ArrayList<>();
+        for (FileStatus status : level) {
+          if (status.isDirectory()) {
+            FileStatus[] childStatuses = get(futures.get(status.getPath()));
+            listings.put(status.getPath(), childStatuses);
+            Collections.addAll(nextLevel, childStatuses);
+          }
+        }
+        level = nextLevel;
       }
 
-      return new PathMetadata(location, modificationTime, checksum, childPathDescriptors);
+      return new Listing(location, fileStatus, listings);
     } catch (IOException e) {
-      throw new CircusTrainException("Unable to compute digest for location " + location.toString(), e);
+      throw new CircusTrainException("Unable to list location " + location.toString(), e);
+    }
+  }
+
+  private PathMetadata toPathMetadata(
+      Path location,
+      FileStatus fileStatus,
+      Map<Path, FileStatus[]> listings,
+      Map<Path, Future<FileChecksum>> checksums)
+    throws IOException {
+    FileChecksum checksum = null;
+    if (fileStatus.isFile()) {
+      checksum = get(checksums.get(fileStatus.getPath()));
+    }
+
+    long modificationTime = 0;
+    List<PathMetadata> childPathDescriptors = new ArrayList<>();
+
+    if (fileStatus.isDirectory()) {
+      for (FileStatus childStatus : listings.get(fileStatus.getPath())) {
+        childPathDescriptors.add(toPathMetadata(childStatus.getPath(), childStatus, listings, checksums));
+      }
+    } else {
+      modificationTime = fileStatus.getModificationTime();
+    }
+
+    return new PathMetadata(location, modificationTime, checksum, childPathDescriptors);
+  }
+
+  private Future<FileStatus[]> submitListStatus(final FileSystem fs, final Path path) {
+    return executor.submit(new Callable<FileStatus[]>() {
+      @Override
+      public FileStatus[] call() throws Exception {
+        return fs.listStatus(path);
+      }
+    });
+  }
+
+  private Future<FileChecksum> submitChecksum(final FileSystem fs, final FileStatus status) {
+    return executor.submit(new Callable<FileChecksum>() {
+      @Override
+      public FileChecksum call() throws Exception {
+        if (fileChecksums) {
+          return fs.getFileChecksum(status.getPath());
+        }
+        return new FileLengthChecksum(status.getLen());
+      }
+    });
+  }
+
+  private static <T> T get(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading path metadata", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * The statuses of a location and of everything below it, as returned by {@link PathToPathMetadata#list(Path)}.
+   */
+  public static class Listing {
+
+    private final Path location;
+    private final FileStatus status;
+    private final Map<Path, FileStatus[]> listings;
+
+    Listing(Path location, FileStatus status, Map<Path, FileStatus[]> listings) {
+      this.location = location;
+      this.status = status;
+      this.listings = listings;
+    }
+
+    public Path getLocation() {
+      return location;
+    }
+
+    public FileStatus getStatus() {
+      return status;
+    }
+
+    /**
+     * @return the status of the location followed by the statuses of all files and directories below it.
+     */
+    public List<FileStatus> getStatuses() {
+      List<FileStatus> statuses = new ArrayList<>();
+      statuses.add(status);
+      for (FileStatus[] childStatuses : listings.values()) {
+        Collections.addAll(statuses, childStatuses);
+      }
+      return statuses;
+    }
+
+  }
+
+  static class FileLengthChecksum extends FileChecksum {
+
+    static final String ALGORITHM_NAME = "FILE-LENGTH";
+
+    private long length;
+
+    FileLengthChecksum(long length) {
+      this.length = length;
+    }
+
+    @Override
+    public String getAlgorithmName() {
+      return ALGORITHM_NAME;
     }
+
+    @Override
+    public int getLength() {
+      return Longs.BYTES;
+    }
+
+    @Override
+    public byte[] getBytes() {
+      return Longs.toByteArray(length);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+      out.writeLong(length);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+      length = in.readLong();
+    }
+
   }
 
 }
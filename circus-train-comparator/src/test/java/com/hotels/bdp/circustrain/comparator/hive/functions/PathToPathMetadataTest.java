@@ -26,6 +26,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
+import java.util.Arrays;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileChecksum;
@@ -38,6 +39,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.common.primitives.Longs;
+
 import com.hotels.bdp.circustrain.comparator.hive.wrappers.PathMetadata;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -133,4 +136,67 @@ public class PathToPathMetadataTest {
     verify(fs, times(1)).getFileChecksum(childPath);
   }
 
+  @Test
+  public void fileLengthInsteadOfChecksum() throws Exception {
+    when(fileStatus.isFile()).thenReturn(true);
+    when(fileStatus.isDirectory()).thenReturn(false);
+    when(fileStatus.getLen()).thenReturn(42L);
+
+    PathMetadata metadata = new PathToPathMetadata(new Configuration(), 1, false).apply(path);
+
+    assertThat(metadata.getLastModifiedTimestamp(), is(LAST_MODIFIED));
+    assertThat(metadata.getChecksumAlgorithmName(), is(PathToPathMetadata.FileLengthChecksum.ALGORITHM_NAME));
+    assertThat(metadata.getChecksum(), is(Longs.toByteArray(42L)));
+    verify(fs, never()).getFileChecksum(any(Path.class));
+  }
+
+  @Test
+  public void concurrentWalkKeepsListingOrder() throws Exception {
+    when(fileStatus.isFile()).thenReturn(false);
+    when(fileStatus.isDirectory()).thenReturn(true);
+
+    FileStatus[] childStatuses = new FileStatus[3];
+    Path[] childPaths = new Path[3];
+    for (int i = 0; i < childStatuses.length; i++) {
+      Path childPath = mock(Path.class);
+      childPaths[i] = childPath;
+      when(childPath.toUri()).thenReturn(new URI(FILE_PATH + i));
+      FileStatus childStatus = mock(FileStatus.class);
+      when(childStatus.getPath()).thenReturn(childPath);
+      when(childStatus.isFile()).thenReturn(true);
+      when(fs.getFileChecksum(childPath)).thenReturn(fileChecksum);
+      childStatuses[i] = childStatus;
+    }
+    when(fs.listStatus(path)).thenReturn(childStatuses);
+
+    PathMetadata metadata = new PathToPathMetadata(new Configuration(), 4, true).apply(path);
+
+    assertThat(metadata.getChildrenMetadata().size(), is(3));
+    for (int i = 0; i < childStatuses.length; i++) {
+      PathMetadata childMetadata = metadata.getChildrenMetadata().get(i);
+      assertThat(childMetadata.getLocation(), is(FILE_PATH + i));
+      assertThat(childMetadata.getChecksum(), is(CHECKSUM_BYTES));
+    }
+    verify(fs, never()).getFileStatus(childPaths[0]);
+  }
+
+  @Test
+  public void listingRequestsNoChecksum() throws Exception {
+    when(fileStatus.isFile()).thenReturn(false);
+    when(fileStatus.isDirectory()).thenReturn(true);
+
+    Path childPath = mock(Path.class);
+    FileStatus childStatus = mock(FileStatus.class);
+    when(childStatus.getPath()).thenReturn(childPath);
+    when(childStatus.isFile()).thenReturn(true);
+    when(fs.listStatus(path)).thenReturn(new FileStatus[] { childStatus });
+
+    PathToPathMetadata.Listing listing = new PathToPathMetadata(new Configuration(), 2, true).list(path);
+
+    assertThat(listing.getLocation(), is(path));
+    assertThat(listing.getStatus(), is(fileStatus));
+    assertThat(listing.getStatuses(), is(Arrays.asList(fileStatus, childStatus)));
+    verify(fs, never()).getFileChecksum(any(Path.class));
+  }
+
 }
@@ -40,9 +40,12 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
+import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.PartitionBatching;
+import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
 import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.event.CopierListener;
 import com.hotels.bdp.circustrain.api.event.LocomotiveListener;
@@ -63,6 +66,10 @@ import com.hotels.bdp.circustrain.core.PartitionPredicateFactory;
 import com.hotels.bdp.circustrain.core.ReplicationFactory;
 import com.hotels.bdp.circustrain.core.ReplicationFactoryImpl;
 import com.hotels.bdp.circustrain.core.StrategyBasedReplicationFactory;
+import com.hotels.bdp.circustrain.core.checksum.CachingChecksumFunction;
+import com.hotels.bdp.circustrain.core.checksum.ChecksumCacheMetrics;
+import com.hotels.bdp.circustrain.core.checksum.ChecksumStore;
+import com.hotels.bdp.circustrain.core.checksum.FileChecksumStore;
 import com.hotels.bdp.circustrain.core.conf.SpringExpressionParser;
 import com.hotels.bdp.circustrain.core.event.CompositeCopierListener;
 import com.hotels.bdp.circustrain.core.event.CompositeLocomotiveListener;
@@ -242,11 +249,18 @@ public class CircusTrain {
       Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier,
       Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier,
       HousekeepingListener housekeepingListener,
-      ReplicaCatalogListener replicaCatalogListener) {
+      ReplicaCatalogListener replicaCatalogListener,
+      ReplicaCatalog replicaCatalog,
+      MetricRegistry runningMetricRegistry) {
     ReplicationFactoryImpl upsertReplicationFactory = new ReplicationFactoryImpl(sourceFactory, replicaFactory,
         copierFactoryManager, copierListener, partitionPredicateFactory, copierOptions);
+    PartitionBatching partitionBatching = replicaCatalog.getPartitionBatching();
+    if (partitionBatching == null) {
+      partitionBatching = new PartitionBatching();
+    }
     return new StrategyBasedReplicationFactory(upsertReplicationFactory, sourceMetaStoreClientSupplier,
-        replicaMetaStoreClientSupplier, housekeepingListener, replicaCatalogListener);
+        replicaMetaStoreClientSupplier, housekeepingListener, replicaCatalogListener, partitionBatching,
+        runningMetricRegistry);
 
   }
 
@@ -262,7 +276,20 @@ public class CircusTrain {
 
   @Profile({ Modules.REPLICATION })
   @Bean
-  Function<Path, String> checksumFunction(HiveConf sourceHiveConf) {
-    return Functions.compose(new PathDigest(), new PathToPathMetadata(sourceHiveConf));
+  Function<Path, String> checksumFunction(
+      HiveConf sourceHiveConf,
+      @Value("${partition-checksum.max-concurrency:1}") int maxConcurrency,
+      @Value("${partition-checksum.file-checksums:true}") boolean fileChecksums,
+      @Value("${partition-checksum.cache.location:}") String cacheLocation,
+      @Value("${partition-checksum.cache.max-entries:1000000}") int cacheMaxEntries,
+      MetricRegistry runningMetricRegistry) {
+    PathToPathMetadata pathToPathMetadata = new PathToPathMetadata(sourceHiveConf, maxConcurrency, fileChecksums);
+    if (Strings.isNullOrEmpty(cacheLocation)) {
+      return Functions.compose(new PathDigest(), pathToPathMetadata);
+    }
+    ChecksumStore store = new FileChecksumStore(new Path(cacheLocation), sourceHiveConf, cacheMaxEntries,
+        runningMetricRegistry.counter(ChecksumCacheMetrics.CHECKSUM_CACHE_EVICTIONS.name()));
+    return new CachingChecksumFunction(pathToPathMetadata, new PathDigest(), store,
+        fileChecksums ? "file-checksums" : "file-lengths", runningMetricRegistry);
   }
 }
@@ -35,13 +35,16 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.MetastoreClientPool;
 import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
 import com.hotels.bdp.circustrain.api.conf.Security;
 import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
 import com.hotels.bdp.circustrain.api.conf.TunnelMetastoreCatalog;
+import com.hotels.bdp.circustrain.core.metastore.PooledMetaStoreClientSupplier;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 import com.hotels.hcommon.hive.metastore.client.api.ConditionalMetaStoreClientFactory;
 import com.hotels.hcommon.hive.metastore.client.api.MetaStoreClientFactory;
@@ -128,7 +131,8 @@ public class CommonBeans {
   Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier(
       SourceCatalog sourceCatalog,
       @Value("#{sourceHiveConf}") HiveConf sourceHiveConf,
-      ConditionalMetaStoreClientFactoryManager conditionalMetaStoreClientFactoryManager) {
+      ConditionalMetaStoreClientFactoryManager conditionalMetaStoreClientFactoryManager,
+      MetricRegistry runningMetricRegistry) {
     String metaStoreUris = sourceCatalog.getHiveMetastoreUris();
     if (metaStoreUris == null) {
       // Default to Thrift is not specified - optional attribute in SourceCatalog
@@ -136,8 +140,10 @@ public class CommonBeans {
     }
     MetaStoreClientFactory sourceMetaStoreClientFactory = conditionalMetaStoreClientFactoryManager
         .factoryForUri(metaStoreUris);
-    return metaStoreClientSupplier(sourceHiveConf, sourceCatalog.getName(), sourceCatalog.getMetastoreTunnel(),
-        sourceMetaStoreClientFactory);
+    Supplier<CloseableMetaStoreClient> supplier = metaStoreClientSupplier(sourceHiveConf, sourceCatalog.getName(),
+        sourceCatalog.getMetastoreTunnel(), sourceMetaStoreClientFactory);
+    return pooled(supplier, sourceCatalog.getName(), "source", sourceCatalog.getMetastoreClientPool(),
+        runningMetricRegistry);
   }
 
   @Profile({ Modules.REPLICATION })
@@ -145,7 +151,8 @@ public class CommonBeans {
   Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier(
       ReplicaCatalog replicaCatalog,
       @Value("#{replicaHiveConf}") HiveConf replicaHiveConf,
-      ConditionalMetaStoreClientFactoryManager conditionalMetaStoreClientFactoryManager) {
+      ConditionalMetaStoreClientFactoryManager conditionalMetaStoreClientFactoryManager,
+      MetricRegistry runningMetricRegistry) {
     String metaStoreUris = replicaCatalog.getHiveMetastoreUris();
     if (metaStoreUris == null) {
       // Default to Thrift is not specified - optional attribute in ReplicaCatalog
@@ -153,8 +160,24 @@ public class CommonBeans {
     }
     MetaStoreClientFactory replicaMetaStoreClientFactory = conditionalMetaStoreClientFactoryManager
         .factoryForUri(metaStoreUris);
-    return metaStoreClientSupplier(replicaHiveConf, replicaCatalog.getName(), replicaCatalog.getMetastoreTunnel(),
-        replicaMetaStoreClientFactory);
+    Supplier<CloseableMetaStoreClient> supplier = metaStoreClientSupplier(replicaHiveConf, replicaCatalog.getName(),
+        replicaCatalog.getMetastoreTunnel(), replicaMetaStoreClientFactory);
+    return pooled(supplier, replicaCatalog.getName(), "replica", replicaCatalog.getMetastoreClientPool(),
+        runningMetricRegistry);
+  }
+
+  private Supplier<CloseableMetaStoreClient> pooled(
+      Supplier<CloseableMetaStoreClient> supplier,
+      String name,
+      String endpoint,
+      MetastoreClientPool pool,
+      MetricRegistry runningMetricRegistry) {
+    if (pool == null || pool.getSize() == 0) {
+      return supplier;
+    }
+    LOG.info("Using up to {} pooled metastore clients for {}.", pool.getSize(), name);
+    return new PooledMetaStoreClientSupplier(name, endpoint, supplier, pool.getSize(), pool.getIdleTimeoutMs(),
+        pool.getValidationIntervalMs(), pool.getBorrowTimeoutMs(), runningMetricRegistry);
   }
 
   private Supplier<CloseableMetaStoreClient> metaStoreClientSupplier(
@@ -32,7 +32,6 @@ import com.hotels.bdp.circustrain.comparator.api.ComparatorType;
 import com.hotels.bdp.circustrain.comparator.hive.HiveDifferences;
 import com.hotels.bdp.circustrain.comparator.listener.PartitionSpecCreatingDiffListener;
 import com.hotels.bdp.circustrain.hive.fetcher.BufferedPartitionFetcher;
-import com.hotels.bdp.circustrain.hive.fetcher.PartitionFetcher;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 import com.hotels.hcommon.hive.metastore.iterator.PartitionIterator;
 
@@ -64,21 +63,29 @@ public class DiffGeneratedPartitionPredicate implements PartitionPredicate {
         PartitionIterator partitionIterator = new PartitionIterator(sourceMetastore, sourceTable,
             tableReplication.getPartitionIteratorBatchSize());
         Optional<Table> replicaTable = getReplicaTable(tableReplication);
-        Optional<? extends PartitionFetcher> replicaPartitionFetcher = Optional.absent();
+        Optional<BufferedPartitionFetcher> replicaPartitionFetcher = Optional.absent();
         if (replicaTable.isPresent()) {
           replicaPartitionFetcher = Optional.of(new BufferedPartitionFetcher(replicaMetastore, replicaTable.get(),
-              tableReplication.getPartitionFetcherBufferSize()));
+              tableReplication.getPartitionFetcherBufferSize(), true));
+        }
+        try {
+          PartitionSpecCreatingDiffListener diffListener = new PartitionSpecCreatingDiffListener(
+              source.getHiveConf());
+          HiveDifferences diffs = HiveDifferences
+              .builder(diffListener)
+              .checksumFunction(checksumFunction)
+              .comparatorRegistry(comparatorRegistry())
+              .source(source.getHiveConf(), sourceTable, partitionIterator)
+              .replica(replicaTable, replicaPartitionFetcher)
+              .build();
+          diffs.run();
+          return diffListener.getPartitionSpecFilter();
+        } finally {
+          // The fetcher may still be prefetching with the replica client, which must be free before it is closed
+          if (replicaPartitionFetcher.isPresent()) {
+            replicaPartitionFetcher.get().close();
+          }
         }
-        PartitionSpecCreatingDiffListener diffListener = new PartitionSpecCreatingDiffListener(source.getHiveConf());
-        HiveDifferences diffs = HiveDifferences
-            .builder(diffListener)
-            .checksumFunction(checksumFunction)
-            .comparatorRegistry(comparatorRegistry())
-            .source(source.getHiveConf(), sourceTable, partitionIterator)
-            .replica(replicaTable, replicaPartitionFetcher)
-            .build();
-        diffs.run();
-        return diffListener.getPartitionSpecFilter();
       } catch (TException e) {
         throw new CircusTrainException("Cannot auto generate partition filter, error: ", e);
       }
@@ -17,8 +17,20 @@
 package com.hotels.bdp.circustrain.core;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
@@ -37,15 +49,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.conf.PartitionStatistics;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 import com.hotels.hcommon.hive.metastore.exception.MetaStoreClientException;
+import com.hotels.hcommon.hive.metastore.iterator.PartitionIterator;
 
+/**
+ * Endpoints are created for a single table replication. Databases and tables read with {@link #getDatabase(String)} and
+ * {@link #getTableAndStatistics(String, String)} are cached for the lifetime of the endpoint so the several steps of a
+ * replication only fetch them once. Callers receive copies of the cached metadata and may modify them freely.
+ */
 public abstract class HiveEndpoint {
 
   private final Logger log = LoggerFactory.getLogger(getClass());
@@ -53,12 +76,27 @@ public abstract class HiveEndpoint {
   private final String name;
   private final HiveConf hiveConf;
   private final Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private final PartitionStatistics partitionStatistics;
+  private final ConcurrentMap<String, Database> databases = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, TableAndStatistics> tables = new ConcurrentHashMap<>();
 
   @Autowired
   public HiveEndpoint(String name, HiveConf hiveConf, Supplier<CloseableMetaStoreClient> metaStoreClientSupplier) {
+    this(name, hiveConf, metaStoreClientSupplier, new PartitionStatistics());
+  }
+
+  /**
+   * @param partitionStatistics controls which partition column statistics are fetched and how.
+   */
+  public HiveEndpoint(
+      String name,
+      HiveConf hiveConf,
+      Supplier<CloseableMetaStoreClient> metaStoreClientSupplier,
+      PartitionStatistics partitionStatistics) {
     this.name = name;
     this.hiveConf = hiveConf;
     this.metaStoreClientSupplier = metaStoreClientSupplier;
+    this.partitionStatistics = partitionStatistics;
   }
 
   public String getName() {
@@ -78,9 +116,17 @@ public abstract class HiveEndpoint {
   }
 
   public Database getDatabase(String database) {
+    String key = database.toLowerCase(Locale.ROOT);
+    Database cached = databases.get(key);
+    if (cached != null) {
+      log.debug("Using cached database metadata for '{}'", database);
+      return new Database(cached);
+    }
     log.debug("Retrieving database metadata for '{}'", database);
     try (CloseableMetaStoreClient client = metaStoreClientSupplier.get()) {
-      return client.getDatabase(database);
+      Database result = client.getDatabase(database);
+      databases.put(key, new Database(result));
+      return result;
     } catch (NoSuchObjectException e) {
       String message = String.format("Database '%s' not found", database);
       throw new CircusTrainException(message, e);
@@ -110,6 +156,12 @@ public abstract class HiveEndpoint {
   }
 
   public TableAndStatistics getTableAndStatistics(String database, String tableName) {
+    String key = tableKey(database, tableName);
+    TableAndStatistics cached = tables.get(key);
+    if (cached != null) {
+      log.debug("Using cached table metadata for '{}.{}'", database, tableName);
+      return copy(cached);
+    }
     log.info("Retrieving table metadata for '{}.{}'", database, tableName);
     try (CloseableMetaStoreClient client = metaStoreClientSupplier.get()) {
       Table table = client.getTable(database, tableName);
@@ -124,7 +176,9 @@ public abstract class HiveEndpoint {
       } else {
         log.debug("No table column stats retrieved for table {}.{}", table.getDbName(), table.getTableName());
       }
-      return new TableAndStatistics(table, statistics);
+      TableAndStatistics result = new TableAndStatistics(table, statistics);
+      tables.put(key, copy(result));
+      return result;
     } catch (NoSuchObjectException e) {
       String message = String.format("Table '%s.%s' not found", database, tableName);
       throw new CircusTrainException(message, e);
@@ -136,6 +190,23 @@ public abstract class HiveEndpoint {
 
   abstract public TableAndStatistics getTableAndStatistics(TableReplication tableReplication);
 
+  /**
+   * Removes the given table from the metadata cache, must be called after the table or its statistics are written.
+   */
+  protected void invalidateTable(String database, String tableName) {
+    tables.remove(tableKey(database, tableName));
+  }
+
+  private static String tableKey(String database, String tableName) {
+    return (database + "." + tableName).toLowerCase(Locale.ROOT);
+  }
+
+  private static TableAndStatistics copy(TableAndStatistics tableAndStatistics) {
+    ColumnStatistics statistics = tableAndStatistics.getStatistics();
+    return new TableAndStatistics(new Table(tableAndStatistics.getTable()),
+        statistics == null ? null : new ColumnStatistics(statistics));
+  }
+
   private List<String> getColumnNames(Table table) {
     List<FieldSchema> fields = table.getSd().getCols();
     List<String> columnNames = new ArrayList<>(fields.size());
@@ -155,22 +226,167 @@ public abstract class HiveEndpoint {
         partitions = client.listPartitionsByFilter(table.getDbName(), table.getTableName(), partitionPredicate,
             (short) maxPartitions);
       }
+      return getPartitionsAndStatistics(client, table, partitions);
+    }
+  }
 
-      // Generate a list of partition names
-      List<String> partitionNames = getPartitionNames(table.getPartitionKeys(), partitions);
-      // Fetch the partition statistics
-      List<String> columnNames = getColumnNames(table);
+  /**
+   * Streams the partitions that match the given predicate in pages of at most {@code pageSize} partitions. The column
+   * statistics of each page are fetched when the page is consumed so memory is bounded by the page size rather than
+   * by the number of partitions of the table.
+   * <p>
+   * Unfiltered partitions are fetched from the metastore in batches. Filtered partitions are listed in one call as the
+   * metastore cannot page through a filter, but their statistics are still fetched per page. The maximum number of
+   * partitions is applied while iterating as the metastore call only accepts a {@code short} limit.
+   * </p>
+   *
+   * @param client Metastore client, must remain open while the returned iterator is in use.
+   * @param maxPartitions Maximum number of partitions to return, a negative value means all of them.
+   */
+  public Iterator<PartitionsAndStatistics> getPartitionPages(
+      final CloseableMetaStoreClient client,
+      final Table table,
+      String partitionPredicate,
+      int maxPartitions,
+      short pageSize)
+    throws TException {
+    Iterator<Partition> partitions;
+    if (Strings.isNullOrEmpty(partitionPredicate)) {
+      partitions = new PartitionIterator(client, table, pageSize);
+    } else {
+      partitions = client
+          .listPartitionsByFilter(table.getDbName(), table.getTableName(), partitionPredicate, (short) -1)
+          .iterator();
+    }
+    if (maxPartitions >= 0) {
+      partitions = Iterators.limit(partitions, maxPartitions);
+    }
+    return Iterators.transform(Iterators.partition(partitions, pageSize),
+        new Function<List<Partition>, PartitionsAndStatistics>() {
+          @Override
+          public PartitionsAndStatistics apply(List<Partition> page) {
+            try {
+              return getPartitionsAndStatistics(client, table, page);
+            } catch (TException e) {
+              String message = String
+                  .format("Cannot fetch partition statistics for '%s.%s'", table.getDbName(), table.getTableName());
+              throw new MetaStoreClientException(message, e);
+            }
+          }
+        });
+  }
 
-      Map<String, List<ColumnStatisticsObj>> statisticsByPartitionName = client
-          .getPartitionColumnStatistics(table.getDbName(), table.getTableName(), partitionNames, columnNames);
-      if (statisticsByPartitionName != null && !statisticsByPartitionName.isEmpty()) {
-        log.debug("Retrieved column stats entries for {} partitions of table {}.{}", statisticsByPartitionName.size(),
-            table.getDbName(), table.getTableName());
-      } else {
-        log.debug("No partition column stats retrieved for table {}.{}", table.getDbName(), table.getTableName());
+  private PartitionsAndStatistics getPartitionsAndStatistics(
+      CloseableMetaStoreClient client,
+      Table table,
+      List<Partition> partitions)
+    throws TException {
+    if (!partitionStatistics.isEnabled()) {
+      log.debug("Partition column stats are disabled for table {}.{}", table.getDbName(), table.getTableName());
+      return new PartitionsAndStatistics(table.getPartitionKeys(), partitions,
+          new HashMap<String, List<ColumnStatisticsObj>>());
+    }
+    // Generate a list of partition names
+    List<String> partitionNames = getPartitionNames(table.getPartitionKeys(), partitions);
+    // Fetch the partition statistics
+    List<String> columnNames = getStatisticsColumnNames(table);
+
+    Map<String, List<ColumnStatisticsObj>> statisticsByPartitionName = getPartitionColumnStatistics(client, table,
+        partitionNames, columnNames);
+    if (!statisticsByPartitionName.isEmpty()) {
+      log.debug("Retrieved column stats entries for {} partitions of table {}.{}", statisticsByPartitionName.size(),
+          table.getDbName(), table.getTableName());
+    } else {
+      log.debug("No partition column stats retrieved for table {}.{}", table.getDbName(), table.getTableName());
+    }
+
+    return new PartitionsAndStatistics(table.getPartitionKeys(), partitions, statisticsByPartitionName);
+  }
+
+  private List<String> getStatisticsColumnNames(Table table) {
+    List<String> columnNames = getColumnNames(table);
+    if (partitionStatistics.getColumns() == null) {
+      return columnNames;
+    }
+    Set<String> selectedColumns = new HashSet<>();
+    for (String column : partitionStatistics.getColumns()) {
+      selectedColumns.add(column.toLowerCase(Locale.ROOT));
+    }
+    List<String> selectedColumnNames = new ArrayList<>(selectedColumns.size());
+    for (String columnName : columnNames) {
+      if (selectedColumns.contains(columnName.toLowerCase(Locale.ROOT))) {
+        selectedColumnNames.add(columnName);
+      }
+    }
+    return selectedColumnNames;
+  }
+
+  /**
+   * Fetches the statistics in chunks of partition names. When more than one chunk may be fetched at a time each chunk
+   * is fetched with its own metastore client as clients must not be shared between threads.
+   */
+  private Map<String, List<ColumnStatisticsObj>> getPartitionColumnStatistics(
+      CloseableMetaStoreClient client,
+      final Table table,
+      List<String> partitionNames,
+      final List<String> columnNames)
+    throws TException {
+    Map<String, List<ColumnStatisticsObj>> statisticsByPartitionName = new HashMap<>();
+    if (partitionNames.isEmpty() || columnNames.isEmpty()) {
+      return statisticsByPartitionName;
+    }
+    List<List<String>> chunks = Lists.partition(partitionNames, partitionStatistics.getChunkSize());
+    int concurrency = Math.min(partitionStatistics.getMaxConcurrency(), chunks.size());
+    if (concurrency <= 1) {
+      for (List<String> chunk : chunks) {
+        putAll(statisticsByPartitionName,
+            client.getPartitionColumnStatistics(table.getDbName(), table.getTableName(), chunk, columnNames));
       }
+      return statisticsByPartitionName;
+    }
+
+    ExecutorService executor = Executors
+        .newFixedThreadPool(concurrency,
+            new ThreadFactoryBuilder().setNameFormat("partition-statistics-%d").setDaemon(true).build());
+    try {
+      List<Future<Map<String, List<ColumnStatisticsObj>>>> futures = new ArrayList<>(chunks.size());
+      for (final List<String> chunk : chunks) {
+        futures.add(executor.submit(new Callable<Map<String, List<ColumnStatisticsObj>>>() {
+          @Override
+          public Map<String, List<ColumnStatisticsObj>> call() throws Exception {
+            try (CloseableMetaStoreClient chunkClient = metaStoreClientSupplier.get()) {
+              return chunkClient
+                  .getPartitionColumnStatistics(table.getDbName(), table.getTableName(), chunk, columnNames);
+            }
+          }
+        }));
+      }
+      for (Future<Map<String, List<ColumnStatisticsObj>>> future : futures) {
+        putAll(statisticsByPartitionName, future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CircusTrainException("Interrupted while fetching partition statistics", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof TException) {
+        throw (TException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new CircusTrainException("Unable to fetch partition statistics", cause);
+    } finally {
+      executor.shutdownNow();
+    }
+    return statisticsByPartitionName;
+  }
 
-      return new PartitionsAndStatistics(table.getPartitionKeys(), partitions, statisticsByPartitionName);
+  private static void putAll(
+      Map<String, List<ColumnStatisticsObj>> statisticsByPartitionName,
+      Map<String, List<ColumnStatisticsObj>> chunkStatistics) {
+    if (chunkStatistics != null) {
+      statisticsByPartitionName.putAll(chunkStatistics);
     }
   }
 
@@ -15,12 +15,20 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.ExitCodeGenerator;
@@ -32,7 +40,10 @@ import org.springframework.stereotype.Component;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.CompletionCode;
 import com.hotels.bdp.circustrain.api.Modules;
 import com.hotels.bdp.circustrain.api.Replication;
@@ -49,8 +60,13 @@ import com.hotels.bdp.circustrain.core.event.EventUtils;
 /**
  * This class is in charge of configuring replications and executing them.
  * <p>
- * This has to be of the highest precedence because <b>Circus Train</b> is not multithread at the moment and each
- * application runner is executed in sequence:
+ * Up to {@code max-concurrent-replications} tables are replicated at the same time, further capped by the
+ * {@code max-concurrent-replications} of the source and replica catalogs. Replications that target the same replica
+ * table are never run concurrently, they are executed in the order in which they are configured. All the listener
+ * callbacks of a replication are issued from the thread that executes it.
+ * </p>
+ * <p>
+ * This has to be of the highest precedence because each application runner is executed in sequence:
  * <ol>
  * <li>Do replication</li>
  * <li>Remove paths left by old replications (housekeeping)</li>
@@ -72,7 +88,9 @@ class Locomotive implements ApplicationRunner, ExitCodeGenerator {
   private final Security security;
   private final LocomotiveListener locomotiveListener;
   private final TableReplicationListener tableReplicationListener;
-  private long replicationFailures;
+  private final int maxConcurrentReplications;
+  private final AtomicLong replicationFailures = new AtomicLong();
+  private final AtomicLong replicated = new AtomicLong();
 
   @Autowired
   Locomotive(
@@ -83,7 +101,8 @@ class Locomotive implements ApplicationRunner, ExitCodeGenerator {
       ReplicationFactory replicationFactory,
       MetricSender metricSender,
       LocomotiveListener locomotiveListener,
-      TableReplicationListener tableReplicationListener) {
+      TableReplicationListener tableReplicationListener,
+      @Value("${max-concurrent-replications:1}") int maxConcurrentReplications) {
     this.sourceCatalog = sourceCatalog;
     this.replicaCatalog = replicaCatalog;
     this.security = security;
@@ -92,52 +111,114 @@ class Locomotive implements ApplicationRunner, ExitCodeGenerator {
     this.tableReplications = tableReplications.getTableReplications();
     this.replicationFactory = replicationFactory;
     this.metricSender = metricSender;
+    this.maxConcurrentReplications = maxConcurrentReplications;
   }
 
   @Override
   public void run(ApplicationArguments args) {
     locomotiveListener.circusTrainStartUp(args.getSourceArgs(), EventUtils.toEventSourceCatalog(sourceCatalog),
         EventUtils.toEventReplicaCatalog(replicaCatalog, security));
-    CompletionCode completionCode = CompletionCode.SUCCESS;
     Builder<String, Long> metrics = ImmutableMap.builder();
-    replicationFailures = 0;
-    long replicated = 0;
+    replicationFailures.set(0);
+    replicated.set(0);
 
-    LOG.info("{} tables to replicate.", tableReplications.size());
-    for (TableReplication tableReplication : tableReplications) {
-      String summary = getReplicationSummary(tableReplication);
-      LOG.info("Replicating {} replication mode '{}', strategy '{}'.", summary, tableReplication.getReplicationMode(), tableReplication.getReplicationStrategy());
-      try {
-        Replication replication = replicationFactory.newInstance(tableReplication);
-        tableReplicationListener.tableReplicationStart(EventUtils.toEventTableReplication(tableReplication),
-            replication.getEventId());
-        replication.replicate();
-        LOG.info("Completed replicating: {}.", summary);
-        tableReplicationListener.tableReplicationSuccess(EventUtils.toEventTableReplication(tableReplication),
-            replication.getEventId());
-      } catch (Throwable t) {
-        replicationFailures++;
-        completionCode = CompletionCode.FAILURE;
-        LOG.error("Failed to replicate: {}.", summary, t);
-        tableReplicationListener.tableReplicationFailure(EventUtils.toEventTableReplication(tableReplication),
-            EventUtils.EVENT_ID_UNAVAILABLE, t);
+    int concurrency = getConcurrency();
+    LOG.info("{} tables to replicate, {} at a time.", tableReplications.size(), concurrency);
+    ExecutorService executorService = newExecutorService(concurrency);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (final List<TableReplication> replicaTableReplications : groupByReplicaTable().values()) {
+        futures.add(executorService.submit(new Runnable() {
+          @Override
+          public void run() {
+            for (TableReplication tableReplication : replicaTableReplications) {
+              replicate(tableReplication);
+            }
+          }
+        }));
       }
-      replicated++;
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CircusTrainException("Interrupted while waiting for replications to complete", e);
+    } catch (ExecutionException e) {
+      throw new CircusTrainException("Unexpected error while replicating", e.getCause());
+    } finally {
+      executorService.shutdownNow();
     }
 
-    metrics.put("tables_replicated", replicated);
+    CompletionCode completionCode = replicationFailures.get() > 0 ? CompletionCode.FAILURE : CompletionCode.SUCCESS;
+    metrics.put("tables_replicated", replicated.get());
     metrics.put(completionCode.getMetricName(), completionCode.getCode());
     Map<String, Long> metricsMap = metrics.build();
     metricSender.send(metricsMap);
     locomotiveListener.circusTrainShutDown(completionCode, metricsMap);
   }
 
+  private void replicate(TableReplication tableReplication) {
+    String summary = getReplicationSummary(tableReplication);
+    LOG.info("Replicating {} replication mode '{}', strategy '{}'.", summary, tableReplication.getReplicationMode(),
+        tableReplication.getReplicationStrategy());
+    try {
+      Replication replication = replicationFactory.newInstance(tableReplication);
+      tableReplicationListener.tableReplicationStart(EventUtils.toEventTableReplication(tableReplication),
+          replication.getEventId());
+      replication.replicate();
+      LOG.info("Completed replicating: {}.", summary);
+      tableReplicationListener.tableReplicationSuccess(EventUtils.toEventTableReplication(tableReplication),
+          replication.getEventId());
+    } catch (Throwable t) {
+      replicationFailures.incrementAndGet();
+      LOG.error("Failed to replicate: {}.", summary, t);
+      tableReplicationListener.tableReplicationFailure(EventUtils.toEventTableReplication(tableReplication),
+          EventUtils.EVENT_ID_UNAVAILABLE, t);
+    }
+    replicated.incrementAndGet();
+  }
+
+  private Map<String, List<TableReplication>> groupByReplicaTable() {
+    Map<String, List<TableReplication>> groups = new LinkedHashMap<>();
+    for (TableReplication tableReplication : tableReplications) {
+      String qualifiedReplicaName = tableReplication.getQualifiedReplicaName();
+      List<TableReplication> group = groups.get(qualifiedReplicaName);
+      if (group == null) {
+        group = new ArrayList<>();
+        groups.put(qualifiedReplicaName, group);
+      }
+      group.add(tableReplication);
+    }
+    return groups;
+  }
+
+  @VisibleForTesting
+  int getConcurrency() {
+    int concurrency = Math.max(1, maxConcurrentReplications);
+    if (sourceCatalog.getMaxConcurrentReplications() != null) {
+      concurrency = Math.min(concurrency, sourceCatalog.getMaxConcurrentReplications());
+    }
+    if (replicaCatalog.getMaxConcurrentReplications() != null) {
+      concurrency = Math.min(concurrency, replicaCatalog.getMaxConcurrentReplications());
+    }
+    return concurrency;
+  }
+
+  private static ExecutorService newExecutorService(int concurrency) {
+    if (concurrency == 1) {
+      return MoreExecutors.newDirectExecutorService();
+    }
+    return Executors
+        .newFixedThreadPool(concurrency, new ThreadFactoryBuilder().setNameFormat("replication-%d").build());
+  }
+
   @Override
   public int getExitCode() {
-    if (replicationFailures == tableReplications.size()) {
+    long failures = replicationFailures.get();
+    if (failures == tableReplications.size()) {
       return -1;
     }
-    if (replicationFailures > 0) {
+    if (failures > 0) {
       return -2;
     }
     return 0;
@@ -42,8 +42,20 @@ public class PartitionPredicateFactory {
 
   public PartitionPredicate newInstance(TableReplication tableReplication) {
     if (tableReplication.getSourceTable().isGeneratePartitionFilter()) {
-      return new DiffGeneratedPartitionPredicate(sourceFactory.newInstance(tableReplication),
-          replicaFactory.newInstance(tableReplication), tableReplication, checksumFunction);
+      return newInstance(tableReplication, sourceFactory.newInstance(tableReplication),
+          replicaFactory.newInstance(tableReplication));
+    } else {
+      return new SpelParsedPartitionPredicate(expressionParser, tableReplication);
+    }
+  }
+
+  /**
+   * Creates a predicate that reads metadata through the given endpoints, sharing their metadata cache with the
+   * replication that uses them.
+   */
+  public PartitionPredicate newInstance(TableReplication tableReplication, HiveEndpoint source, HiveEndpoint replica) {
+    if (tableReplication.getSourceTable().isGeneratePartitionFilter()) {
+      return new DiffGeneratedPartitionPredicate(source, replica, tableReplication, checksumFunction);
     } else {
       return new SpelParsedPartitionPredicate(expressionParser, tableReplication);
     }
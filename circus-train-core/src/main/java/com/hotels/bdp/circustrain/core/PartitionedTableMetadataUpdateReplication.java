@@ -15,20 +15,23 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
-import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
@@ -47,6 +50,10 @@ public class PartitionedTableMetadataUpdateReplication implements Replication {
 
   private final static Logger LOG = LoggerFactory.getLogger(PartitionedTableMetadataUpdateReplication.class);
 
+  private static final short ALL = (short) -1;
+  @VisibleForTesting
+  static final int MAX_PARTITIONS_BY_NAME = 1000;
+
   private final String eventId;
   private final String database;
   private final String table;
@@ -132,17 +139,36 @@ public class PartitionedTableMetadataUpdateReplication implements Replication {
         replicaDatabaseName, replicaTableName);
   }
 
+  /**
+   * Keeps the source partitions that exist in the replica table. Small sets of partitions are looked up by name,
+   * otherwise the names of all replica partitions are listed, so either way a single metastore call is made.
+   */
   private PartitionsAndStatistics filterOnReplicatedPartitions(
       CloseableMetaStoreClient replicaClient,
       PartitionsAndStatistics sourcePartitionsAndStatistics,
       List<FieldSchema> partitionKeys)
     throws TException {
+    List<Partition> sourcePartitions = sourcePartitionsAndStatistics.getPartitions();
+    List<String> sourcePartitionNames = new ArrayList<>(sourcePartitions.size());
+    for (Partition partition : sourcePartitions) {
+      sourcePartitionNames.add(Warehouse.makePartName(partitionKeys, partition.getValues()));
+    }
+    Set<String> replicaPartitionNames = new HashSet<>();
+    if (sourcePartitionNames.size() <= MAX_PARTITIONS_BY_NAME) {
+      for (Partition replicaPartition : replicaClient
+          .getPartitionsByNames(replicaDatabaseName, replicaTableName, sourcePartitionNames)) {
+        replicaPartitionNames.add(Warehouse.makePartName(partitionKeys, replicaPartition.getValues()));
+      }
+    } else {
+      replicaPartitionNames.addAll(replicaClient.listPartitionNames(replicaDatabaseName, replicaTableName, ALL));
+    }
+
     Map<Partition, ColumnStatistics> statisticsByPartition = new LinkedHashMap<>();
-    for (Partition partition : sourcePartitionsAndStatistics.getPartitions()) {
-      try {
-        replicaClient.getPartition(replicaDatabaseName, replicaTableName, partition.getValues());
+    for (int i = 0; i < sourcePartitions.size(); i++) {
+      Partition partition = sourcePartitions.get(i);
+      if (replicaPartitionNames.contains(sourcePartitionNames.get(i))) {
         statisticsByPartition.put(partition, sourcePartitionsAndStatistics.getStatisticsForPartition(partition));
-      } catch (NoSuchObjectException e) {
+      } else {
         LOG.debug("Partition {} doesn't exist, skipping it...", Warehouse.getQualifiedName(partition));
       }
     }
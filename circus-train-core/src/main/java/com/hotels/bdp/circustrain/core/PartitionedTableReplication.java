@@ -15,6 +15,9 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -30,12 +33,15 @@ import com.hotels.bdp.circustrain.api.Replication;
 import com.hotels.bdp.circustrain.api.SourceLocationManager;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.copier.CopierFactory;
+import com.hotels.bdp.circustrain.api.copier.CopierOptions;
+import com.hotels.bdp.circustrain.api.copier.MetricsMerger;
 import com.hotels.bdp.circustrain.api.event.CopierListener;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.api.util.DotJoiner;
 import com.hotels.bdp.circustrain.core.replica.Replica;
 import com.hotels.bdp.circustrain.core.replica.TableType;
 import com.hotels.bdp.circustrain.core.source.Source;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 
 class PartitionedTableReplication implements Replication {
 
@@ -54,6 +60,7 @@ class PartitionedTableReplication implements Replication {
   private Metrics metrics = Metrics.NULL_VALUE;
   private final Map<String, Object> copierOptions;
   private final CopierListener copierListener;
+  private final short partitionPageSize;
 
   PartitionedTableReplication(
       String database,
@@ -68,6 +75,28 @@ class PartitionedTableReplication implements Replication {
       String replicaTableName,
       Map<String, Object> copierOptions,
       CopierListener copierListener) {
+    this(database, table, partitionPredicate, source, replica, copierFactoryManager, eventIdFactory,
+        targetTableLocation, replicaDatabaseName, replicaTableName, copierOptions, copierListener, (short) 0);
+  }
+
+  /**
+   * @param partitionPageSize If greater than zero partitions are streamed from the source and copied and registered in
+   *          the replica in pages of this size, otherwise all partitions are processed at once.
+   */
+  PartitionedTableReplication(
+      String database,
+      String table,
+      PartitionPredicate partitionPredicate,
+      Source source,
+      Replica replica,
+      CopierFactoryManager copierFactoryManager,
+      EventIdFactory eventIdFactory,
+      String targetTableLocation,
+      String replicaDatabaseName,
+      String replicaTableName,
+      Map<String, Object> copierOptions,
+      CopierListener copierListener,
+      short partitionPageSize) {
     this.database = database;
     this.table = table;
     this.partitionPredicate = partitionPredicate;
@@ -79,6 +108,7 @@ class PartitionedTableReplication implements Replication {
     this.replicaTableName = replicaTableName;
     this.copierOptions = copierOptions;
     this.copierListener = copierListener;
+    this.partitionPageSize = partitionPageSize;
     eventId = eventIdFactory.newEventId(EventIdPrefix.CIRCUS_TRAIN_PARTITIONED_TABLE.getPrefix());
   }
 
@@ -88,6 +118,11 @@ class PartitionedTableReplication implements Replication {
       TableAndStatistics sourceTableAndStatistics = source.getTableAndStatistics(database, table);
       Table sourceTable = sourceTableAndStatistics.getTable();
 
+      if (partitionPageSize > 0) {
+        replicatePartitionPages(sourceTableAndStatistics);
+        return;
+      }
+
       PartitionsAndStatistics sourcePartitionsAndStatistics = source
           .getPartitions(sourceTable, partitionPredicate.getPartitionPredicate(),
               partitionPredicate.getPartitionPredicateLimit());
@@ -118,7 +153,8 @@ class PartitionedTableReplication implements Replication {
         CopierFactory copierFactory = copierFactoryManager
             .getCopierFactory(sourceBaseLocation, replicaPartitionBaseLocation, copierOptions);
         Copier copier = copierFactory
-            .newInstance(eventId, sourceBaseLocation, sourceSubLocations, replicaPartitionBaseLocation, copierOptions);
+            .newInstance(eventId, sourceBaseLocation, sourceSubLocations, replicaPartitionBaseLocation,
+                copierOptions(sourcePartitionsAndStatistics, sourceSubLocations));
         copierListener.copierStart(copier.getClass().getName());
         try {
           metrics = copier.copy();
@@ -141,6 +177,106 @@ class PartitionedTableReplication implements Replication {
     }
   }
 
+  private void replicatePartitionPages(TableAndStatistics sourceTableAndStatistics) throws Exception {
+    Table sourceTable = sourceTableAndStatistics.getTable();
+    replica.validateReplicaTable(replicaDatabaseName, replicaTableName);
+
+    // A single table level location manager so all pages are copied from the same snapshot
+    SourceLocationManager sourceLocationManager = source
+        .getLocationManager(sourceTable, Collections.<Partition> emptyList(), eventId, copierOptions);
+    Path sourceBaseLocation = sourceLocationManager.getTableLocation();
+
+    ReplicaLocationManager replicaLocationManager = replica
+        .getLocationManager(TableType.PARTITIONED, targetTableLocation, eventId, sourceLocationManager,
+            replicaDatabaseName, replicaTableName);
+    Path replicaPartitionBaseLocation = replicaLocationManager.getPartitionBaseLocation();
+
+    int partitionsCopied = 0;
+    try (CloseableMetaStoreClient client = source.getMetaStoreClientSupplier().get()) {
+      Iterator<PartitionsAndStatistics> pages = source
+          .getPartitionPages(client, sourceTable, partitionPredicate.getPartitionPredicate(),
+              partitionPredicate.getPartitionPredicateLimit(), partitionPageSize);
+      if (!pages.hasNext()) {
+        LOG.debug("Update table {}.{} metadata only", database, table);
+        replica
+            .updateMetadata(eventId, sourceTableAndStatistics, replicaDatabaseName, replicaTableName,
+                replicaLocationManager);
+        LOG
+            .info("No matching partitions found on table {}.{} with predicate {}."
+                + " Table metadata updated, no partitions were updated.", database, table, partitionPredicate);
+        return;
+      }
+
+      CopierFactory copierFactory = copierFactoryManager
+          .getCopierFactory(sourceBaseLocation, replicaPartitionBaseLocation, copierOptions);
+      boolean copierStarted = false;
+      try {
+        while (pages.hasNext()) {
+          PartitionsAndStatistics sourcePartitionsAndStatistics = pages.next();
+          List<Partition> sourcePartitions = sourcePartitionsAndStatistics.getPartitions();
+          List<Path> sourceSubLocations = source
+              .getLocationManager(sourceLocationManager, sourceBaseLocation, sourcePartitions, copierOptions)
+              .getPartitionLocations();
+
+          Copier copier = copierFactory
+              .newInstance(eventId, sourceBaseLocation, sourceSubLocations, replicaPartitionBaseLocation,
+                  copierOptions(sourcePartitionsAndStatistics, sourceSubLocations));
+          if (!copierStarted) {
+            copierListener.copierStart(copier.getClass().getName());
+            copierStarted = true;
+          }
+          metrics = MetricsMerger.DEFAULT.merge(metrics, copier.copy());
+
+          if (partitionsCopied == 0) {
+            replica
+                .updateMetadata(eventId, sourceTableAndStatistics, sourcePartitionsAndStatistics, replicaDatabaseName,
+                    replicaTableName, replicaLocationManager);
+          } else {
+            replica
+                .updatePartitionMetadata(eventId, sourceTableAndStatistics, sourcePartitionsAndStatistics,
+                    replicaDatabaseName, replicaTableName, replicaLocationManager);
+          }
+          replicaLocationManager.cleanUpLocations();
+
+          partitionsCopied += sourcePartitions.size();
+          LOG.info("Replicated {} partitions of table {}.{} so far.", partitionsCopied, database, table);
+        }
+      } finally {
+        if (copierStarted) {
+          copierListener.copierEnd(metrics);
+        }
+      }
+    }
+    sourceLocationManager.cleanUpLocations();
+    LOG.info("Replicated {} partitions of table {}.{}.", partitionsCopied, database, table);
+  }
+
+  /**
+   * Adds the location each source partition was last replicated to, as held by the replica metastore, so that the
+   * copier can reuse unchanged data from it.
+   */
+  private Map<String, Object> copierOptions(
+      PartitionsAndStatistics sourcePartitionsAndStatistics,
+      List<Path> sourceSubLocations) {
+    List<Partition> sourcePartitions = sourcePartitionsAndStatistics.getPartitions();
+    Map<List<String>, Path> replicaPartitionLocations = replica
+        .getPartitionLocations(replicaDatabaseName, replicaTableName, sourcePartitionsAndStatistics);
+    // Sub locations are calculated in the same order as the partitions
+    if (replicaPartitionLocations.isEmpty() || sourcePartitions.size() != sourceSubLocations.size()) {
+      return copierOptions;
+    }
+    Map<Path, Path> previousReplicaLocations = new HashMap<>(replicaPartitionLocations.size());
+    for (int i = 0; i < sourcePartitions.size(); i++) {
+      Path previousReplicaLocation = replicaPartitionLocations.get(sourcePartitions.get(i).getValues());
+      if (previousReplicaLocation != null) {
+        previousReplicaLocations.put(sourceSubLocations.get(i), previousReplicaLocation);
+      }
+    }
+    Map<String, Object> options = new HashMap<>(copierOptions);
+    options.put(CopierOptions.PREVIOUS_REPLICA_LOCATIONS, previousReplicaLocations);
+    return options;
+  }
+
   @Override
   public String name() {
     return DotJoiner.join(database, table);
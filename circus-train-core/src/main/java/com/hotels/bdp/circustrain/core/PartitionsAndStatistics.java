@@ -17,7 +17,8 @@ package com.hotels.bdp.circustrain.core;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,57 +32,59 @@ import org.apache.hadoop.hive.metastore.api.Partition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Partitions and their column statistics. Partition names are computed once, the partition list is shared by all
+ * callers and {@link ColumnStatistics} are only created for the partitions whose statistics are requested.
+ */
 public class PartitionsAndStatistics {
 
   private static final Logger LOG = LoggerFactory.getLogger(PartitionsAndStatistics.class);
 
-  private final Map<Partition, ColumnStatistics> statisticsByPartition;
-  private final List<String> partitionNames = new ArrayList<>();
-  private List<FieldSchema> partitionKeys;
+  private final List<FieldSchema> partitionKeys;
+  private final List<Partition> partitions;
+  private final List<String> partitionNames;
+  // Indexed like partitions, entries are created on first use when built from statistics by partition name
+  private final ColumnStatistics[] statistics;
+  private final Map<String, List<ColumnStatisticsObj>> statisticsByPartitionName;
+  private Map<Partition, Integer> indexByPartition;
+  private Map<String, Integer> indexByPartitionName;
 
   public PartitionsAndStatistics(
       List<FieldSchema> partitionKeys,
       List<Partition> partitions,
       Map<String, List<ColumnStatisticsObj>> statisticsByPartitionName) {
-    this(partitionKeys, createStatisticsByPartitionMap(partitionKeys, partitions, statisticsByPartitionName));
+    this.partitionKeys = partitionKeys;
+    List<Partition> partitionList = new ArrayList<>(partitions.size());
+    List<String> names = new ArrayList<>(partitions.size());
+    for (Partition partition : partitions) {
+      if (partition == null) {
+        throw new IllegalArgumentException("partition == null");
+      }
+      partitionList.add(partition);
+      names.add(getPartitionName(partitionKeys, partition));
+    }
+    this.partitions = Collections.unmodifiableList(partitionList);
+    partitionNames = Collections.unmodifiableList(names);
+    statistics = new ColumnStatistics[partitionList.size()];
+    this.statisticsByPartitionName = statisticsByPartitionName;
+    LOG.debug("Indexed column stats entries for {} partitions.", statisticsByPartitionName.size());
   }
 
   public PartitionsAndStatistics(
       List<FieldSchema> partitionKeys,
       Map<Partition, ColumnStatistics> statisticsByPartition) {
     this.partitionKeys = partitionKeys;
-    this.statisticsByPartition = statisticsByPartition;
-    for (Partition partition : statisticsByPartition.keySet()) {
-      String partitionName = getPartitionName(partitionKeys, partition);
-      partitionNames.add(partitionName);
+    List<Partition> partitionList = new ArrayList<>(statisticsByPartition.size());
+    List<String> names = new ArrayList<>(statisticsByPartition.size());
+    statistics = new ColumnStatistics[statisticsByPartition.size()];
+    for (Map.Entry<Partition, ColumnStatistics> entry : statisticsByPartition.entrySet()) {
+      statistics[partitionList.size()] = entry.getValue();
+      partitionList.add(entry.getKey());
+      names.add(getPartitionName(partitionKeys, entry.getKey()));
     }
-  }
-
-  private static Map<Partition, ColumnStatistics> createStatisticsByPartitionMap(
-      List<FieldSchema> partitionKeys,
-      List<Partition> partitions,
-      Map<String, List<ColumnStatisticsObj>> statisticsByPartitionName) {
-    int entryCount = 0;
-    // LinkedHashMap so order is preserved, nice for tests mostly
-    Map<Partition, ColumnStatistics> result = new LinkedHashMap<>(partitions.size());
-    for (Partition partition : partitions) {
-      if (partition == null) {
-        throw new IllegalArgumentException("partition == null");
-      }
-      String partitionName = getPartitionName(partitionKeys, partition);
-      ColumnStatistics statistics = null;
-      List<ColumnStatisticsObj> statisticsObj = statisticsByPartitionName.get(partitionName);
-      if (statisticsObj != null && !statisticsObj.isEmpty()) {
-        entryCount += statisticsObj.size();
-        ColumnStatisticsDesc statsDesc = new ColumnStatisticsDesc(false, partition.getDbName(),
-            partition.getTableName());
-        statsDesc.setPartName(partitionName);
-        statistics = new ColumnStatistics(statsDesc, statisticsObj);
-      }
-      result.put(partition, statistics);
-    }
-    LOG.debug("Indexed {} column stats entries for {} partitions.", entryCount, statisticsByPartitionName.size());
-    return result;
+    partitions = Collections.unmodifiableList(partitionList);
+    partitionNames = Collections.unmodifiableList(names);
+    statisticsByPartitionName = Collections.emptyMap();
   }
 
   private static String getPartitionName(List<FieldSchema> partitionKeys, Partition partition) {
@@ -93,9 +96,9 @@ public class PartitionsAndStatistics {
   }
 
   public List<Partition> getPartitions() {
-    return Collections.unmodifiableList(new ArrayList<>(statisticsByPartition.keySet()));
+    return partitions;
   }
-  
+
   public List<FieldSchema> getPartitionKeys() {
     return Collections.unmodifiableList(partitionKeys);
   }
@@ -104,14 +107,59 @@ public class PartitionsAndStatistics {
     if (partition == null) {
       throw new IllegalArgumentException("partition == null");
     }
-    return statisticsByPartition.get(partition);
+    int index = indexOf(partition);
+    if (index < 0) {
+      return null;
+    }
+    ColumnStatistics partitionStatistics = statistics[index];
+    if (partitionStatistics == null) {
+      String partitionName = partitionNames.get(index);
+      List<ColumnStatisticsObj> statisticsObj = statisticsByPartitionName.get(partitionName);
+      if (statisticsObj != null && !statisticsObj.isEmpty()) {
+        Partition indexedPartition = partitions.get(index);
+        ColumnStatisticsDesc statsDesc = new ColumnStatisticsDesc(false, indexedPartition.getDbName(),
+            indexedPartition.getTableName());
+        statsDesc.setPartName(partitionName);
+        partitionStatistics = new ColumnStatistics(statsDesc, statisticsObj);
+        statistics[index] = partitionStatistics;
+      }
+    }
+    return partitionStatistics;
+  }
+
+  /**
+   * Partitions are usually looked up with the instances returned by {@link #getPartitions()} so they are first looked
+   * up by identity, which avoids hashing every field of the partition. Other instances are looked up by name.
+   */
+  private synchronized int indexOf(Partition partition) {
+    if (indexByPartition == null) {
+      indexByPartition = new IdentityHashMap<>(partitions.size());
+      for (int i = 0; i < partitions.size(); i++) {
+        indexByPartition.put(partitions.get(i), i);
+      }
+    }
+    Integer index = indexByPartition.get(partition);
+    if (index != null) {
+      return index;
+    }
+    if (indexByPartitionName == null) {
+      indexByPartitionName = new HashMap<>(partitionNames.size());
+      for (int i = 0; i < partitionNames.size(); i++) {
+        indexByPartitionName.put(partitionNames.get(i), i);
+      }
+    }
+    index = indexByPartitionName.get(getPartitionName(partitionKeys, partition));
+    if (index == null || !partitions.get(index).equals(partition)) {
+      return -1;
+    }
+    return index;
   }
 
   /**
    * @return list of partition names example: [key1=a/key2=b, key1=c/key2=d]
    */
   public List<String> getPartitionNames() {
-    return Collections.unmodifiableList(partitionNames);
+    return partitionNames;
   }
 
 }
@@ -104,7 +104,8 @@ public class ReplicationFactoryImpl implements ReplicationFactory {
       String replicaTableName,
       String replicaTableLocation) {
     Replication replication = null;
-    PartitionPredicate partitionPredicate = partitionPredicateFactory.newInstance(tableReplication);
+    PartitionPredicate partitionPredicate = partitionPredicateFactory
+        .newInstance(tableReplication, source, replica);
     switch (tableReplication.getReplicationMode()) {
     case METADATA_MIRROR:
       replication = new PartitionedTableMetadataMirrorReplication(sourceDatabaseName, sourceTableName,
@@ -114,7 +115,7 @@ public class ReplicationFactoryImpl implements ReplicationFactory {
       Map<String, Object> mergedCopierOptions = mergeCopierOptions(tableReplication.getCopierOptions());
       replication = new PartitionedTableReplication(sourceDatabaseName, sourceTableName, partitionPredicate, source,
           replica, copierFactoryManager, eventIdFactory, replicaTableLocation, replicaDatabaseName, replicaTableName,
-          mergedCopierOptions, copierListener);
+          mergedCopierOptions, copierListener, tableReplication.getPartitionPageSize());
       break;
     case METADATA_UPDATE:
       replication = new PartitionedTableMetadataUpdateReplication(sourceDatabaseName, sourceTableName,
@@ -15,9 +15,11 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Replication;
+import com.hotels.bdp.circustrain.api.conf.PartitionBatching;
 import com.hotels.bdp.circustrain.api.conf.ReplicationMode;
 import com.hotels.bdp.circustrain.api.conf.ReplicationStrategy;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
@@ -37,18 +39,24 @@ public class StrategyBasedReplicationFactory implements ReplicationFactory {
   private final Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier;
   private final HousekeepingListener housekeepingListener;
   private final ReplicaCatalogListener replicaCatalogListener;
+  private final PartitionBatching partitionBatching;
+  private final MetricRegistry runningMetricRegistry;
 
   public StrategyBasedReplicationFactory(
       ReplicationFactoryImpl upsertReplicationFactory,
       Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier,
       Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier,
       HousekeepingListener housekeepingListener,
-      ReplicaCatalogListener replicaCatalogListener) {
+      ReplicaCatalogListener replicaCatalogListener,
+      PartitionBatching partitionBatching,
+      MetricRegistry runningMetricRegistry) {
     this.upsertReplicationFactory = upsertReplicationFactory;
     this.sourceMetaStoreClientSupplier = sourceMetaStoreClientSupplier;
     this.replicaMetaStoreClientSupplier = replicaMetaStoreClientSupplier;
     this.housekeepingListener = housekeepingListener;
     this.replicaCatalogListener = replicaCatalogListener;
+    this.partitionBatching = partitionBatching;
+    this.runningMetricRegistry = runningMetricRegistry;
   }
 
   @Override
@@ -58,7 +66,8 @@ public class StrategyBasedReplicationFactory implements ReplicationFactory {
       return new DestructiveReplication(upsertReplicationFactory, tableReplication, eventId,
           new DestructiveSource(sourceMetaStoreClientSupplier, tableReplication),
           new DestructiveReplica(replicaMetaStoreClientSupplier,
-              createDestructiveCleanupLocationManager(eventId, tableReplication), tableReplication));
+              createDestructiveCleanupLocationManager(eventId, tableReplication), tableReplication,
+              partitionBatching, runningMetricRegistry));
     }
     return upsertReplicationFactory.newInstance(tableReplication);
   }
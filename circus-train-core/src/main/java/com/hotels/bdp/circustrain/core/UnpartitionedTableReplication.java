@@ -15,6 +15,8 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.hadoop.fs.Path;
@@ -22,12 +24,15 @@ import org.apache.hadoop.hive.metastore.api.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Optional;
+
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.ReplicaLocationManager;
 import com.hotels.bdp.circustrain.api.Replication;
 import com.hotels.bdp.circustrain.api.SourceLocationManager;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.copier.CopierFactory;
+import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.event.CopierListener;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.api.util.DotJoiner;
@@ -94,7 +99,8 @@ class UnpartitionedTableReplication implements Replication {
 
       CopierFactory copierFactory = copierFactoryManager
           .getCopierFactory(sourceLocation, replicaLocation, copierOptions);
-      Copier copier = copierFactory.newInstance(eventId, sourceLocation, replicaLocation, copierOptions);
+      Copier copier = copierFactory
+          .newInstance(eventId, sourceLocation, replicaLocation, copierOptions(sourceLocation));
       copierListener.copierStart(copier.getClass().getName());
       try {
         metrics = copier.copy();
@@ -114,6 +120,21 @@ class UnpartitionedTableReplication implements Replication {
     }
   }
 
+  /**
+   * Adds the location the table was last replicated to, as held by the replica metastore, so that the copier can reuse
+   * unchanged data from it.
+   */
+  private Map<String, Object> copierOptions(Path sourceLocation) {
+    Optional<Path> previousReplicaLocation = replica.getTableLocation(replicaDatabaseName, replicaTableName);
+    if (!previousReplicaLocation.isPresent()) {
+      return copierOptions;
+    }
+    Map<String, Object> options = new HashMap<>(copierOptions);
+    options.put(CopierOptions.PREVIOUS_REPLICA_LOCATIONS,
+        Collections.singletonMap(sourceLocation, previousReplicaLocation.get()));
+    return options;
+  }
+
   @Override
   public String name() {
     return DotJoiner.join(database, table);
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.checksum;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Function;
+
+import com.hotels.bdp.circustrain.comparator.hive.functions.PathToPathMetadata;
+import com.hotels.bdp.circustrain.comparator.hive.wrappers.PathMetadata;
+
+/**
+ * Looks up the checksum of a location in a {@link ChecksumStore} before computing it. Entries are fingerprinted with
+ * the total length, the number of files and directories and the latest modification time of any file or directory
+ * below the location, so a location is checksummed again when files are added, removed, appended or overwritten at any
+ * depth. The fingerprint is built from the same parallel walk that the checksum is computed from, and directories
+ * without a modification time, such as those on S3, are fingerprinted by their files alone.
+ */
+public class CachingChecksumFunction implements Function<Path, String>, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CachingChecksumFunction.class);
+
+  private final PathToPathMetadata pathToPathMetadata;
+  private final Function<PathMetadata, String> digest;
+  private final ChecksumStore store;
+  private final String variant;
+  private final Counter hits;
+  private final Counter misses;
+
+  /**
+   * @param variant identifies how checksums are computed, checksums stored with another variant are ignored.
+   */
+  public CachingChecksumFunction(
+      PathToPathMetadata pathToPathMetadata,
+      Function<PathMetadata, String> digest,
+      ChecksumStore store,
+      String variant,
+      MetricRegistry runningMetricRegistry) {
+    this.pathToPathMetadata = pathToPathMetadata;
+    this.digest = digest;
+    this.store = store;
+    this.variant = variant;
+    hits = runningMetricRegistry.counter(ChecksumCacheMetrics.CHECKSUM_CACHE_HITS.name());
+    misses = runningMetricRegistry.counter(ChecksumCacheMetrics.CHECKSUM_CACHE_MISSES.name());
+  }
+
+  @Override
+  public String apply(@Nonnull Path location) {
+    PathToPathMetadata.Listing listing = pathToPathMetadata.list(location);
+    String fingerprint = fingerprint(listing);
+
+    String key = location.toUri().toString();
+    String checksum = store.get(key, fingerprint);
+    if (checksum != null) {
+      hits.inc();
+      LOG.debug("Using cached checksum of {}", location);
+      return checksum;
+    }
+    misses.inc();
+    checksum = digest.apply(pathToPathMetadata.apply(listing));
+    store.put(key, fingerprint, checksum);
+    return checksum;
+  }
+
+  /**
+   * A directory is not modified when a file below it is appended or overwritten in place, nor when a nested directory
+   * changes, so every status of the walk is considered.
+   */
+  private String fingerprint(PathToPathMetadata.Listing listing) {
+    long length = 0;
+    long fileCount = 0;
+    long directoryCount = 0;
+    long latestModificationTime = 0;
+    for (FileStatus status : listing.getStatuses()) {
+      if (status.isDirectory()) {
+        directoryCount++;
+      } else {
+        fileCount++;
+        length += status.getLen();
+      }
+      latestModificationTime = Math.max(latestModificationTime, status.getModificationTime());
+    }
+    return variant + "/" + length + "/" + fileCount + "/" + directoryCount + "/" + latestModificationTime;
+  }
+
+  @Override
+  public void close() throws IOException {
+    LOG.info("Checksum cache hits: {}, misses: {}", hits.getCount(), misses.getCount());
+    store.close();
+  }
+
+}
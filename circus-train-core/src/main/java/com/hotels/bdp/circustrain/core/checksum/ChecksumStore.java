@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.checksum;
+
+import java.io.Closeable;
+
+/**
+ * Stores checksums of locations across runs. A checksum is only returned if it was stored with the same fingerprint,
+ * which describes the state of the location when the checksum was computed. Implementations must be thread safe.
+ */
+public interface ChecksumStore extends Closeable {
+
+  /**
+   * @return the checksum stored for the location and fingerprint, or {@code null} if there is none.
+   */
+  String get(String location, String fingerprint);
+
+  void put(String location, String fingerprint, String checksum);
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.checksum;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+
+/**
+ * Keeps checksums in memory and persists them to a single file on {@link #close()}. The file can be on any Hadoop file
+ * system and holds one tab separated {@code location, fingerprint, checksum} line per location. When more than the
+ * maximum number of entries are stored the least recently used ones are evicted.
+ */
+public class FileChecksumStore implements ChecksumStore {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FileChecksumStore.class);
+
+  private static final String SEPARATOR = "\t";
+
+  private static class Entry {
+    private final String fingerprint;
+    private final String checksum;
+
+    private Entry(String fingerprint, String checksum) {
+      this.fingerprint = fingerprint;
+      this.checksum = checksum;
+    }
+  }
+
+  private final Path file;
+  private final FileSystem fs;
+  private final Map<String, Entry> entries;
+
+  public FileChecksumStore(Path file, Configuration conf, final int maxEntries, final Counter evictions) {
+    this.file = file;
+    try {
+      fs = file.getFileSystem(conf);
+    } catch (IOException e) {
+      throw new CircusTrainException("Unable to access checksum cache " + file, e);
+    }
+    entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > maxEntries) {
+          evictions.inc();
+          return true;
+        }
+        return false;
+      }
+    };
+    load();
+  }
+
+  private void load() {
+    try {
+      if (!fs.exists(file)) {
+        LOG.info("Checksum cache {} does not exist yet.", file);
+        return;
+      }
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(fs.open(file), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          String[] fields = line.split(SEPARATOR);
+          if (fields.length == 3) {
+            entries.put(fields[0], new Entry(fields[1], fields[2]));
+          }
+        }
+      }
+      LOG.info("Loaded {} checksums from cache {}.", entries.size(), file);
+    } catch (IOException e) {
+      LOG.warn("Unable to load checksum cache {}, starting with an empty cache.", file, e);
+      entries.clear();
+    }
+  }
+
+  @Override
+  public synchronized String get(String location, String fingerprint) {
+    Entry entry = entries.get(location);
+    if (entry == null || !entry.fingerprint.equals(fingerprint)) {
+      return null;
+    }
+    return entry.checksum;
+  }
+
+  @Override
+  public synchronized void put(String location, String fingerprint, String checksum) {
+    entries.put(location, new Entry(fingerprint, checksum));
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    Path tempFile = file.suffix(".tmp");
+    try (BufferedWriter writer = new BufferedWriter(
+        new OutputStreamWriter(fs.create(tempFile, true), StandardCharsets.UTF_8))) {
+      for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+        writer
+            .append(entry.getKey())
+            .append(SEPARATOR)
+            .append(entry.getValue().fingerprint)
+            .append(SEPARATOR)
+            .append(entry.getValue().checksum);
+        writer.newLine();
+      }
+    }
+    fs.delete(file, false);
+    if (!fs.rename(tempFile, file)) {
+      throw new IOException("Unable to rename " + tempFile + " to " + file);
+    }
+    LOG.info("Stored {} checksums in cache {}.", entries.size(), file);
+  }
+
+}
@@ -47,7 +47,13 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
 
   private EventSourceCatalog sourceCatalog;
   private EventReplicaCatalog replicaCatalog;
-  private ReplicationState replicationState = new ReplicationState();
+  /* Replications may run concurrently, each one on its own thread. */
+  private final ThreadLocal<ReplicationState> replicationState = new ThreadLocal<ReplicationState>() {
+    @Override
+    protected ReplicationState initialValue() {
+      return new ReplicationState();
+    }
+  };
 
   private static class ReplicationState {
     List<String> partitionKeys = Collections.emptyList();
@@ -57,7 +63,7 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
 
   @Override
   public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {
-    replicationState = new ReplicationState();
+    replicationState.set(new ReplicationState());
     if (sourceCatalog != null && replicaCatalog != null) {
       LOG
           .info("[{}] Attempting to replicate '{}:{}' to '{}:{}'", eventId, sourceCatalog.getName(),
@@ -68,22 +74,31 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
 
   @Override
   public void tableReplicationSuccess(EventTableReplication tableReplication, String eventId) {
-    String amount = transferAmount(replicationState.partitionKeys, replicationState.partitionsAltered);
-    if (sourceCatalog != null && replicaCatalog != null) {
-      LOG
-          .info("[{}] Successfully replicated {} of '{}:{}' to '{}:{}' ({} bytes)", eventId, amount,
-              sourceCatalog.getName(), tableReplication.getSourceTable().getQualifiedName(), replicaCatalog.getName(),
-              tableReplication.getQualifiedReplicaName(), replicationState.bytesReplicated);
+    try {
+      ReplicationState state = replicationState.get();
+      String amount = transferAmount(state.partitionKeys, state.partitionsAltered);
+      if (sourceCatalog != null && replicaCatalog != null) {
+        LOG
+            .info("[{}] Successfully replicated {} of '{}:{}' to '{}:{}' ({} bytes)", eventId, amount,
+                sourceCatalog.getName(), tableReplication.getSourceTable().getQualifiedName(),
+                replicaCatalog.getName(), tableReplication.getQualifiedReplicaName(), state.bytesReplicated);
+      }
+    } finally {
+      replicationState.remove();
     }
   }
 
   @Override
   public void tableReplicationFailure(EventTableReplication tableReplication, String eventId, Throwable t) {
-    if (sourceCatalog != null && replicaCatalog != null) {
-      LOG
-          .error("[{}] Failed to replicate '{}:{}' to '{}:{}' with error '{}'", eventId, sourceCatalog.getName(),
-              tableReplication.getSourceTable().getQualifiedName(), replicaCatalog.getName(),
-              tableReplication.getQualifiedReplicaName(), t.getMessage());
+    try {
+      if (sourceCatalog != null && replicaCatalog != null) {
+        LOG
+            .error("[{}] Failed to replicate '{}:{}' to '{}:{}' with error '{}'", eventId, sourceCatalog.getName(),
+                tableReplication.getSourceTable().getQualifiedName(), replicaCatalog.getName(),
+                tableReplication.getQualifiedReplicaName(), t.getMessage());
+      }
+    } finally {
+      replicationState.remove();
     }
   }
 
@@ -100,22 +115,22 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
 
   @Override
   public void resolvedMetaStoreSourceTable(EventTable table) {
-    replicationState.partitionKeys = table.getPartitionKeys();
+    replicationState.get().partitionKeys = table.getPartitionKeys();
   }
 
   @Override
   public void partitionsToCreate(EventPartitions partitions) {
-    replicationState.partitionsAltered += partitions.getEventPartitions().size();
+    replicationState.get().partitionsAltered += partitions.getEventPartitions().size();
   }
 
   @Override
   public void partitionsToAlter(EventPartitions partitions) {
-    replicationState.partitionsAltered += partitions.getEventPartitions().size();
+    replicationState.get().partitionsAltered += partitions.getEventPartitions().size();
   }
 
   @Override
   public void copierEnd(Metrics metrics) {
-    replicationState.bytesReplicated = metrics.getBytesReplicated();
+    replicationState.get().bytesReplicated = metrics.getBytesReplicated();
   }
 
   @Override
@@ -140,15 +155,15 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
   public void copierStart(String copierImplementation) {}
 
   List<String> getPartitionKeys() {
-    return Collections.unmodifiableList(replicationState.partitionKeys);
+    return Collections.unmodifiableList(replicationState.get().partitionKeys);
   }
 
   int getPartitionsAltered() {
-    return replicationState.partitionsAltered;
+    return replicationState.get().partitionsAltered;
   }
 
   long getBytesReplicated() {
-    return replicationState.bytesReplicated;
+    return replicationState.get().bytesReplicated;
   }
 
 }
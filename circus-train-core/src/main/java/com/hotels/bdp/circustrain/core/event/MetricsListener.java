@@ -15,7 +15,6 @@
  */
 package com.hotels.bdp.circustrain.core.event;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
@@ -38,14 +37,28 @@ import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.api.metrics.ScheduledReporterFactory;
 import com.hotels.bdp.circustrain.api.util.DotJoiner;
 
+/**
+ * Replications may run concurrently on different threads; all callbacks for a single replication are issued from the
+ * thread executing it so the state of the replication in progress is kept per thread.
+ */
 @Component
 class MetricsListener implements TableReplicationListener, CopierListener {
 
-  private final Map<String, Long> startTimes = new HashMap<>();
+  private static class ReplicationState {
+    String qualifiedReplicaName;
+    Long startTime;
+    Metrics metrics;
+    ScheduledReporter runningMetricsReporter;
+  }
+
+  private final ThreadLocal<ReplicationState> replicationState = new ThreadLocal<ReplicationState>() {
+    @Override
+    protected ReplicationState initialValue() {
+      return new ReplicationState();
+    }
+  };
+
   private final MetricSender metricSender;
-  private String qualifiedReplicaName;
-  private Metrics metrics;
-  private ScheduledReporter runningMetricsReporter;
   private final ScheduledReporterFactory runningMetricsReporterFactory;
   private final long metricsReporterPeriod;
   private final TimeUnit metricsReporterTimeUnit;
@@ -64,35 +77,46 @@ class MetricsListener implements TableReplicationListener, CopierListener {
 
   @Override
   public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {
-    qualifiedReplicaName = tableReplication.getQualifiedReplicaName();
-    startTimes.put(qualifiedReplicaName, System.currentTimeMillis());
+    ReplicationState state = new ReplicationState();
+    state.qualifiedReplicaName = tableReplication.getQualifiedReplicaName();
+    state.startTime = System.currentTimeMillis();
+    replicationState.set(state);
   }
 
   @Override
   public void tableReplicationSuccess(EventTableReplication tableReplication, String eventId) {
-    sendMetrics(CompletionCode.SUCCESS, tableReplication.getQualifiedReplicaName(), metrics);
+    try {
+      sendMetrics(CompletionCode.SUCCESS, tableReplication.getQualifiedReplicaName(), replicationState.get().metrics);
+    } finally {
+      replicationState.remove();
+    }
   }
 
   @Override
   public void tableReplicationFailure(EventTableReplication tableReplication, String eventId, Throwable t) {
-    sendMetrics(CompletionCode.FAILURE, tableReplication.getQualifiedReplicaName(), Metrics.NULL_VALUE);
+    try {
+      sendMetrics(CompletionCode.FAILURE, tableReplication.getQualifiedReplicaName(), Metrics.NULL_VALUE);
+    } finally {
+      replicationState.remove();
+    }
   }
 
   @Override
   public void copierEnd(Metrics metrics) {
-    if (runningMetricsReporter == null) {
+    ReplicationState state = replicationState.get();
+    if (state.runningMetricsReporter == null) {
       throw new IllegalStateException("Metrics reporter should not be null");
     }
-    runningMetricsReporter.report();
-    runningMetricsReporter.stop();
+    state.runningMetricsReporter.report();
+    state.runningMetricsReporter.stop();
     // once stopped unusable so get rid of it
-    runningMetricsReporter = null;
-    this.metrics = metrics;
+    state.runningMetricsReporter = null;
+    state.metrics = metrics;
   }
 
   private void sendMetrics(CompletionCode completionCode, String target, Metrics metrics) {
     Builder<String, Long> builder = ImmutableMap.builder();
-    builder.put(replicationTime(target));
+    builder.put(replicationTime(target, replicationState.get().startTime));
     builder.put(completionCode(target, completionCode));
 
     if (metrics != null) {
@@ -105,8 +129,7 @@ class MetricsListener implements TableReplicationListener, CopierListener {
     metricSender.send(builder.build());
   }
 
-  private Entry<String, Long> replicationTime(String target) {
-    Long startTime = startTimes.remove(target);
+  private Entry<String, Long> replicationTime(String target, Long startTime) {
     long replicationTime = -1L;
     if (startTime != null) {
       replicationTime = System.currentTimeMillis() - startTime;
@@ -124,9 +147,10 @@ class MetricsListener implements TableReplicationListener, CopierListener {
 
   @Override
   public void copierStart(String copierImplementation) {
-    runningMetricsReporter = runningMetricsReporterFactory.newInstance(qualifiedReplicaName);
-    runningMetricsReporter.start(metricsReporterPeriod, metricsReporterTimeUnit);
-    runningMetricsReporter.report();
+    ReplicationState state = replicationState.get();
+    state.runningMetricsReporter = runningMetricsReporterFactory.newInstance(state.qualifiedReplicaName);
+    state.runningMetricsReporter.start(metricsReporterPeriod, metricsReporterTimeUnit);
+    state.runningMetricsReporter.report();
   }
 
 }
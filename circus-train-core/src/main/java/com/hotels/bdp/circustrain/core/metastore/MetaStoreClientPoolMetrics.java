@@ -0,0 +1,26 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.metastore;
+
+public enum MetaStoreClientPoolMetrics {
+
+  METASTORE_CLIENT_BORROW,
+  METASTORE_CLIENT_BORROW_WAIT,
+  METASTORE_CLIENT_RETURN,
+  METASTORE_CLIENT_CREATED,
+  METASTORE_CLIENT_EVICTED
+
+}
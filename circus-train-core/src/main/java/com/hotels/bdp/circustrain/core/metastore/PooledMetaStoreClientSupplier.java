@@ -0,0 +1,360 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.metastore;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.InvalidObjectException;
+import org.apache.hadoop.hive.metastore.api.InvalidOperationException;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.UnknownDBException;
+import org.apache.hadoop.hive.metastore.api.UnknownTableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+/**
+ * Keeps metastore clients open after they are closed so that they can be handed out again. Clients are returned to the
+ * pool by calling {@link CloseableMetaStoreClient#close()} as usual.
+ * <p>
+ * At most {@code size} clients are in use at the same time. When all of them are in use a caller waits up to the borrow
+ * timeout for one to be returned and then fails, so a caller that holds a client while borrowing another one needs a
+ * pool with room for both. A new client is only opened when no idle client is available. Idle clients are closed after
+ * the idle timeout, also when the pool is no longer used, clients that have been idle for longer than the validation
+ * interval are checked with a metastore call before they are reused, and clients that failed with anything but a
+ * metastore error are not reused at all.
+ * </p>
+ */
+public class PooledMetaStoreClientSupplier implements Supplier<CloseableMetaStoreClient>, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PooledMetaStoreClientSupplier.class);
+
+  private static final String VALIDATION_DATABASE = "default";
+
+  private static class IdleClient {
+    private final CloseableMetaStoreClient client;
+    private final long idleSinceNanos;
+
+    private IdleClient(CloseableMetaStoreClient client, long idleSinceNanos) {
+      this.client = client;
+      this.idleSinceNanos = idleSinceNanos;
+    }
+  }
+
+  private final String name;
+  private final Supplier<CloseableMetaStoreClient> delegate;
+  private final int size;
+  private final long idleTimeoutNanos;
+  private final long validationIntervalNanos;
+  private final long borrowTimeoutMs;
+  private final Ticker ticker;
+  private final ScheduledExecutorService evictionExecutor;
+  private final Timer borrowTimer;
+  private final Timer borrowWaitTimer;
+  private final Timer returnTimer;
+  private final Counter created;
+  private final Counter evicted;
+  // Most recently returned client first
+  private final Deque<IdleClient> idleClients = new ArrayDeque<>();
+  private int inUse;
+  private boolean closed;
+
+  /**
+   * @param endpoint used to name the metrics of this pool, e.g. {@code source} or {@code replica}.
+   */
+  public PooledMetaStoreClientSupplier(
+      String name,
+      String endpoint,
+      Supplier<CloseableMetaStoreClient> delegate,
+      int size,
+      long idleTimeoutMs,
+      long validationIntervalMs,
+      long borrowTimeoutMs,
+      MetricRegistry runningMetricRegistry) {
+    this(name, endpoint, delegate, size, idleTimeoutMs, validationIntervalMs, borrowTimeoutMs, runningMetricRegistry,
+        Ticker.systemTicker(), Executors
+            .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("metastore-client-pool-" + endpoint + "-%d")
+                .setDaemon(true)
+                .build()));
+  }
+
+  PooledMetaStoreClientSupplier(
+      String name,
+      String endpoint,
+      Supplier<CloseableMetaStoreClient> delegate,
+      int size,
+      long idleTimeoutMs,
+      long validationIntervalMs,
+      long borrowTimeoutMs,
+      MetricRegistry runningMetricRegistry,
+      Ticker ticker,
+      ScheduledExecutorService evictionExecutor) {
+    this.name = name;
+    this.delegate = delegate;
+    this.size = size;
+    idleTimeoutNanos = idleTimeoutMs * 1000000L;
+    validationIntervalNanos = validationIntervalMs * 1000000L;
+    this.borrowTimeoutMs = borrowTimeoutMs;
+    this.ticker = ticker;
+    this.evictionExecutor = evictionExecutor;
+    borrowTimer = runningMetricRegistry
+        .timer(MetricRegistry.name(MetaStoreClientPoolMetrics.METASTORE_CLIENT_BORROW.name(), endpoint));
+    borrowWaitTimer = runningMetricRegistry
+        .timer(MetricRegistry.name(MetaStoreClientPoolMetrics.METASTORE_CLIENT_BORROW_WAIT.name(), endpoint));
+    returnTimer = runningMetricRegistry
+        .timer(MetricRegistry.name(MetaStoreClientPoolMetrics.METASTORE_CLIENT_RETURN.name(), endpoint));
+    created = runningMetricRegistry
+        .counter(MetricRegistry.name(MetaStoreClientPoolMetrics.METASTORE_CLIENT_CREATED.name(), endpoint));
+    evicted = runningMetricRegistry
+        .counter(MetricRegistry.name(MetaStoreClientPoolMetrics.METASTORE_CLIENT_EVICTED.name(), endpoint));
+    // Idle clients are also closed when nobody borrows or returns a client any more
+    evictionExecutor.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        evictExpired();
+      }
+    }, idleTimeoutMs, idleTimeoutMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public CloseableMetaStoreClient get() {
+    Timer.Context context = borrowTimer.time();
+    try {
+      reserve();
+      CloseableMetaStoreClient client;
+      try {
+        client = takeIdleClient();
+        if (client == null) {
+          client = delegate.get();
+          created.inc();
+          LOG.debug("Opened a new metastore client for {}", name);
+        }
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          inUse--;
+          notifyAll();
+        }
+        throw e;
+      }
+      return (CloseableMetaStoreClient) Proxy
+          .newProxyInstance(CloseableMetaStoreClient.class.getClassLoader(),
+              new Class<?>[] { CloseableMetaStoreClient.class }, new PooledClientHandler(client));
+    } finally {
+      context.stop();
+    }
+  }
+
+  /**
+   * Waits until fewer than {@code size} clients are in use and counts the caller in.
+   */
+  private synchronized void reserve() {
+    long start = ticker.read();
+    try {
+      while (inUse >= size) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs) - (ticker.read() - start);
+        if (remainingNanos <= 0) {
+          throw new CircusTrainException("All "
+              + size
+              + " metastore clients for "
+              + name
+              + " are still in use after waiting "
+              + borrowTimeoutMs
+              + " ms, consider increasing metastore-client-pool.size or metastore-client-pool.borrow-timeout-ms");
+        }
+        TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+      }
+      inUse++;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CircusTrainException("Interrupted while waiting for a metastore client for " + name, e);
+    } finally {
+      borrowWaitTimer.update(ticker.read() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private CloseableMetaStoreClient takeIdleClient() {
+    evictExpired();
+    while (true) {
+      IdleClient idleClient;
+      synchronized (this) {
+        idleClient = idleClients.pollFirst();
+      }
+      if (idleClient == null) {
+        return null;
+      }
+      if (ticker.read() - idleClient.idleSinceNanos < validationIntervalNanos || isValid(idleClient.client)) {
+        return idleClient.client;
+      }
+      LOG.debug("Discarding a broken metastore client for {}", name);
+      evict(idleClient.client);
+    }
+  }
+
+  private boolean isValid(CloseableMetaStoreClient client) {
+    try {
+      client.getDatabase(VALIDATION_DATABASE);
+      return true;
+    } catch (NoSuchObjectException e) {
+      // The metastore answered
+      return true;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private void release(CloseableMetaStoreClient client, boolean broken) {
+    Timer.Context context = returnTimer.time();
+    try {
+      evictExpired();
+      synchronized (this) {
+        inUse--;
+        notifyAll();
+        if (!broken && !closed && idleClients.size() < size) {
+          idleClients.addFirst(new IdleClient(client, ticker.read()));
+          return;
+        }
+      }
+      evict(client);
+    } finally {
+      context.stop();
+    }
+  }
+
+  private void evictExpired() {
+    List<CloseableMetaStoreClient> expired = new ArrayList<>();
+    synchronized (this) {
+      long now = ticker.read();
+      while (!idleClients.isEmpty() && now - idleClients.peekLast().idleSinceNanos >= idleTimeoutNanos) {
+        expired.add(idleClients.pollLast().client);
+      }
+    }
+    for (CloseableMetaStoreClient client : expired) {
+      LOG.debug("Closing an idle metastore client for {}", name);
+      evict(client);
+    }
+  }
+
+  private void evict(CloseableMetaStoreClient client) {
+    evicted.inc();
+    try {
+      client.close();
+    } catch (Exception e) {
+      LOG.debug("Unable to close metastore client for {}", name, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    evictionExecutor.shutdownNow();
+    List<IdleClient> clients;
+    synchronized (this) {
+      closed = true;
+      clients = new ArrayList<>(idleClients);
+      idleClients.clear();
+    }
+    for (IdleClient idleClient : clients) {
+      evict(idleClient.client);
+    }
+  }
+
+  synchronized int idleCount() {
+    return idleClients.size();
+  }
+
+  synchronized int inUseCount() {
+    return inUse;
+  }
+
+  /**
+   * Errors raised by the metastore for a specific request leave the connection usable, anything else might not.
+   */
+  private static boolean isConnectionFailure(Throwable t) {
+    return !(t instanceof NoSuchObjectException
+        || t instanceof AlreadyExistsException
+        || t instanceof InvalidObjectException
+        || t instanceof InvalidOperationException
+        || t instanceof UnknownDBException
+        || t instanceof UnknownTableException);
+  }
+
+  private class PooledClientHandler implements InvocationHandler {
+
+    private final CloseableMetaStoreClient client;
+    private boolean broken;
+    private boolean released;
+
+    private PooledClientHandler(CloseableMetaStoreClient client) {
+      this.client = client;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String methodName = method.getName();
+      int parameterCount = method.getParameterTypes().length;
+      if ("close".equals(methodName) && parameterCount == 0) {
+        if (!released) {
+          released = true;
+          release(client, broken);
+        }
+        return null;
+      }
+      if ("equals".equals(methodName) && parameterCount == 1) {
+        return proxy == args[0];
+      }
+      if ("hashCode".equals(methodName) && parameterCount == 0) {
+        return System.identityHashCode(proxy);
+      }
+      if ("toString".equals(methodName) && parameterCount == 0) {
+        return "Pooled " + client;
+      }
+      if (released) {
+        throw new IllegalStateException("Metastore client for " + name + " has already been closed");
+      }
+      try {
+        return method.invoke(client, args);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (isConnectionFailure(cause)) {
+          broken = true;
+        }
+        throw cause;
+      }
+    }
+  }
+
+}
@@ -18,7 +18,10 @@ package com.hotels.bdp.circustrain.core.replica;
 import static com.hotels.bdp.circustrain.api.CircusTrainTableParameter.REPLICATION_EVENT;
 import static com.hotels.hcommon.hive.metastore.util.LocationUtils.locationAsPath;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.Warehouse;
@@ -31,11 +34,14 @@ import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.CircusTrainTableParameter;
+import com.hotels.bdp.circustrain.api.conf.PartitionBatching;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 import com.hotels.hcommon.hive.metastore.iterator.PartitionIterator;
@@ -46,21 +52,42 @@ public class DestructiveReplica {
 
   private static final boolean DELETE_DATA = false;
   private static final boolean IGNORE_UNKNOWN = true;
+  private static final short PARTITION_PAGE_SIZE = 1000;
   private final Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier;
   private final TableReplication tableReplication;
   private final String databaseName;
   private final String tableName;
   private final CleanupLocationManager cleanupLocationManager;
+  private final PartitionBatchWriter partitionBatchWriter;
+  private final Counter partitionsScanned;
+  private final Counter partitionsDropped;
 
   public DestructiveReplica(
       Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier,
       CleanupLocationManager cleanupLocationManager,
       TableReplication tableReplication) {
+    this(replicaMetaStoreClientSupplier, cleanupLocationManager, tableReplication, new PartitionBatching(),
+        new MetricRegistry());
+  }
+
+  /**
+   * @param partitionBatching controls how deleted partitions are dropped, see {@link PartitionBatchWriter}.
+   */
+  public DestructiveReplica(
+      Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier,
+      CleanupLocationManager cleanupLocationManager,
+      TableReplication tableReplication,
+      PartitionBatching partitionBatching,
+      MetricRegistry runningMetricRegistry) {
     this.replicaMetaStoreClientSupplier = replicaMetaStoreClientSupplier;
     this.cleanupLocationManager = cleanupLocationManager;
     this.tableReplication = tableReplication;
     databaseName = tableReplication.getReplicaDatabaseName();
     tableName = tableReplication.getReplicaTableName();
+    partitionBatchWriter = new PartitionBatchWriter(partitionBatching, replicaMetaStoreClientSupplier,
+        runningMetricRegistry);
+    partitionsScanned = runningMetricRegistry.counter(RunningMetrics.REPLICA_PARTITIONS_SCANNED_FOR_DELETION.name());
+    partitionsDropped = runningMetricRegistry.counter(RunningMetrics.REPLICA_PARTITIONS_DROPPED.name());
   }
 
   public boolean tableIsUnderCircusTrainControl() throws TException {
@@ -80,15 +107,16 @@ public class DestructiveReplica {
     return false;
   }
 
-  public void dropDeletedPartitions(final List<String> sourcePartitionNames) throws TException {
+  public void dropDeletedPartitions(List<String> sourcePartitionNames) throws TException {
     try (CloseableMetaStoreClient client = replicaMetaStoreClientSupplier.get()) {
       if (!client.tableExists(databaseName, tableName)) {
         return;
       }
+      final Set<String> sourcePartitionNameSet = new HashSet<>(sourcePartitionNames);
       dropAndDeletePartitions(client, new Predicate<String>() {
         @Override
         public boolean apply(String partitionName) {
-          return !sourcePartitionNames.contains(partitionName);
+          return !sourcePartitionNameSet.contains(partitionName);
         }
       });
     } finally {
@@ -104,9 +132,12 @@ public class DestructiveReplica {
       // unpartitioned table nothing to delete
       return;
     }
-    PartitionIterator partitionIterator = new PartitionIterator(client, replicaTable, (short) 1000);
+    PartitionIterator partitionIterator = new PartitionIterator(client, replicaTable, PARTITION_PAGE_SIZE);
+    List<String> partitionNames = new ArrayList<>(PARTITION_PAGE_SIZE);
+    List<Partition> partitions = new ArrayList<>(PARTITION_PAGE_SIZE);
     while (partitionIterator.hasNext()) {
       Partition replicaPartition = partitionIterator.next();
+      partitionsScanned.inc();
       List<String> values = replicaPartition.getValues();
       String partitionName = Warehouse.makePartName(partitionKeys, values);
       if (shouldDelete.apply(partitionName)) {
@@ -118,12 +149,48 @@ public class DestructiveReplica {
                 + ", partition value: '"
                 + partitionName
                 + "'");
-        client.dropPartition(databaseName, tableName, partitionName, DELETE_DATA);
-        Path oldLocation = locationAsPath(replicaPartition);
-        String oldEventId = replicaPartition.getParameters().get(REPLICATION_EVENT.parameterName());
-        cleanupLocationManager.addCleanupLocation(oldEventId, oldLocation);
+        partitionNames.add(partitionName);
+        partitions.add(replicaPartition);
+        if (partitionNames.size() == PARTITION_PAGE_SIZE) {
+          dropPartitions(client, partitionNames, partitions);
+        }
       }
     }
+    dropPartitions(client, partitionNames, partitions);
+  }
+
+  /**
+   * Drops the given partitions in batches and schedules their locations for clean up. Both lists are cleared.
+   */
+  private void dropPartitions(CloseableMetaStoreClient client, List<String> partitionNames, List<Partition> partitions)
+    throws TException {
+    if (partitionNames.isEmpty()) {
+      return;
+    }
+    partitionBatchWriter
+        .write(client, RunningMetrics.REPLICA_DROP_PARTITIONS_BATCH, partitionNames,
+            new PartitionBatchWriter.BatchOperation<String>() {
+              @Override
+              public void apply(CloseableMetaStoreClient client, List<String> batch) throws TException {
+                for (String partitionName : batch) {
+                  try {
+                    client.dropPartition(databaseName, tableName, partitionName, DELETE_DATA);
+                  } catch (NoSuchObjectException e) {
+                    // Already dropped by an earlier attempt of this batch
+                    log.debug("Partition {} of replica table {}.{} does not exist", partitionName, databaseName,
+                        tableName);
+                  }
+                }
+              }
+            });
+    partitionsDropped.inc(partitionNames.size());
+    for (Partition replicaPartition : partitions) {
+      Path oldLocation = locationAsPath(replicaPartition);
+      String oldEventId = replicaPartition.getParameters().get(REPLICATION_EVENT.parameterName());
+      cleanupLocationManager.addCleanupLocation(oldEventId, oldLocation);
+    }
+    partitionNames.clear();
+    partitions.clear();
   }
 
   public void dropTable() throws TException {
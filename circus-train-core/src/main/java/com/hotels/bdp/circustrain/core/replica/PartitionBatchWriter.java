@@ -0,0 +1,222 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.replica;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.conf.PartitionBatching;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+/**
+ * Applies a metastore write to a list of items in batches. The batch size starts at the configured size and is
+ * adapted after every batch: it is halved when a batch is slower than the target latency or had to be retried, and
+ * doubled (up to the maximum size) when a batch completes in less than half the target latency. A failing batch is
+ * retried on its own, batches that have already been written are not repeated. Each retry uses a new metastore client
+ * because the failure may have left the connection of the previous one unusable, operations must therefore be safe to
+ * repeat if the failed attempt did complete on the metastore.
+ * <p>
+ * When the maximum concurrency is greater than one batches are written in parallel, each with its own metastore client.
+ * The time taken by each batch is recorded in a {@link Timer} of the running metric registry.
+ * </p>
+ */
+class PartitionBatchWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PartitionBatchWriter.class);
+
+  interface BatchOperation<T> {
+    void apply(CloseableMetaStoreClient client, List<T> batch) throws TException;
+  }
+
+  private static class BatchResult {
+    private final long elapsedMillis;
+    private final boolean retried;
+
+    private BatchResult(long elapsedMillis, boolean retried) {
+      this.elapsedMillis = elapsedMillis;
+      this.retried = retried;
+    }
+  }
+
+  private final PartitionBatching batching;
+  private final Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private final MetricRegistry runningMetricRegistry;
+
+  PartitionBatchWriter(
+      PartitionBatching batching,
+      Supplier<CloseableMetaStoreClient> metaStoreClientSupplier,
+      MetricRegistry runningMetricRegistry) {
+    this.batching = batching;
+    this.metaStoreClientSupplier = metaStoreClientSupplier;
+    this.runningMetricRegistry = runningMetricRegistry;
+  }
+
+  /**
+   * @param client used for all batches when they are written sequentially.
+   */
+  <T> void write(CloseableMetaStoreClient client, RunningMetrics metric, List<T> items, BatchOperation<T> operation)
+    throws TException {
+    if (batching.getSize() == 0 || items.size() <= batching.getSize()) {
+      writeBatch(client, metric, items, operation, 0);
+      return;
+    }
+    if (batching.getMaxConcurrency() == 1) {
+      writeSequentially(client, metric, items, operation);
+    } else {
+      writeConcurrently(metric, items, operation);
+    }
+  }
+
+  private <T> void writeSequentially(
+      CloseableMetaStoreClient client,
+      RunningMetrics metric,
+      List<T> items,
+      BatchOperation<T> operation)
+    throws TException {
+    int batchSize = batching.getSize();
+    int offset = 0;
+    while (offset < items.size()) {
+      int end = Math.min(items.size(), offset + batchSize);
+      BatchResult result = writeBatch(client, metric, items.subList(offset, end), operation, batching.getRetries());
+      batchSize = nextBatchSize(batchSize, result.elapsedMillis, result.retried);
+      offset = end;
+    }
+  }
+
+  private <T> void writeConcurrently(
+      final RunningMetrics metric,
+      List<T> items,
+      final BatchOperation<T> operation)
+    throws TException {
+    int concurrency = batching.getMaxConcurrency();
+    ExecutorService executor = Executors
+        .newFixedThreadPool(concurrency, new ThreadFactoryBuilder().setNameFormat("partition-batch-%d").build());
+    CompletionService<BatchResult> completionService = new ExecutorCompletionService<>(executor);
+    try {
+      int batchSize = batching.getSize();
+      int offset = 0;
+      int inFlight = 0;
+      while (offset < items.size() || inFlight > 0) {
+        while (offset < items.size() && inFlight < concurrency) {
+          int end = Math.min(items.size(), offset + batchSize);
+          final List<T> batch = items.subList(offset, end);
+          completionService.submit(new Callable<BatchResult>() {
+            @Override
+            public BatchResult call() throws Exception {
+              try (CloseableMetaStoreClient client = metaStoreClientSupplier.get()) {
+                return writeBatch(client, metric, batch, operation, batching.getRetries());
+              }
+            }
+          });
+          offset = end;
+          inFlight++;
+        }
+        BatchResult result = completionService.take().get();
+        inFlight--;
+        batchSize = nextBatchSize(batchSize, result.elapsedMillis, result.retried);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CircusTrainException("Interrupted while writing partition batches", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof TException) {
+        throw (TException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new CircusTrainException("Unable to write partition batch", cause);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private <T> BatchResult writeBatch(
+      CloseableMetaStoreClient client,
+      RunningMetrics metric,
+      List<T> batch,
+      BatchOperation<T> operation,
+      int retries)
+    throws TException {
+    Timer timer = runningMetricRegistry.timer(metric.name());
+    CloseableMetaStoreClient attemptClient = client;
+    CloseableMetaStoreClient retryClient = null;
+    try {
+      for (int attempt = 0;; attempt++) {
+        Timer.Context context = timer.time();
+        try {
+          operation.apply(attemptClient, batch);
+          long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(context.stop());
+          LOG.debug("{} of {} items completed in {}ms", metric.name(), batch.size(), elapsedMillis);
+          return new BatchResult(elapsedMillis, attempt > 0);
+        } catch (TException e) {
+          context.stop();
+          if (attempt >= retries) {
+            throw e;
+          }
+          LOG.warn("{} of {} items failed, retrying with a new client: {}", metric.name(), batch.size(),
+              e.getMessage());
+          closeRetryClient(retryClient);
+          retryClient = metaStoreClientSupplier.get();
+          attemptClient = retryClient;
+        }
+      }
+    } finally {
+      closeRetryClient(retryClient);
+    }
+  }
+
+  private static void closeRetryClient(CloseableMetaStoreClient retryClient) {
+    if (retryClient == null) {
+      return;
+    }
+    try {
+      retryClient.close();
+    } catch (RuntimeException e) {
+      LOG.warn("Unable to close metastore client", e);
+    }
+  }
+
+  @VisibleForTesting
+  int nextBatchSize(int batchSize, long elapsedMillis, boolean retried) {
+    if (retried || elapsedMillis > batching.getTargetLatencyMs()) {
+      return Math.max(1, batchSize / 2);
+    }
+    if (elapsedMillis < batching.getTargetLatencyMs() / 2) {
+      return Math.max(batchSize, Math.min(batching.getMaxSize(), batchSize * 2));
+    }
+    return batchSize;
+  }
+
+}
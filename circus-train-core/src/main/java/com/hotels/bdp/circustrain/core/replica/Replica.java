@@ -25,6 +25,7 @@ import static com.hotels.bdp.circustrain.api.conf.ReplicationMode.METADATA_UPDAT
 import static com.hotels.hcommon.hive.metastore.util.LocationUtils.locationAsPath;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -70,6 +71,7 @@ public class Replica extends HiveEndpoint {
   private final HousekeepingListener housekeepingListener;
   private final ReplicaCatalogListener replicaCatalogListener;
   private final ReplicationMode replicationMode;
+  private final PartitionBatchWriter partitionBatchWriter;
 
   /**
    * Use {@link ReplicaFactory}
@@ -81,12 +83,14 @@ public class Replica extends HiveEndpoint {
       ReplicaTableFactory replicaTableFactory,
       HousekeepingListener housekeepingListener,
       ReplicaCatalogListener replicaCatalogListener,
-      ReplicationMode replicationMode) {
+      ReplicationMode replicationMode,
+      PartitionBatchWriter partitionBatchWriter) {
     super(replicaCatalog.getName(), replicaHiveConf, replicaMetaStoreClientSupplier);
     this.replicaCatalogListener = replicaCatalogListener;
     tableFactory = replicaTableFactory;
     this.housekeepingListener = housekeepingListener;
     this.replicationMode = replicationMode;
+    this.partitionBatchWriter = partitionBatchWriter;
   }
 
   public void updateMetadata(
@@ -123,98 +127,144 @@ public class Replica extends HiveEndpoint {
     try (CloseableMetaStoreClient client = getMetaStoreClientSupplier().get()) {
       updateTableMetadata(client, eventId, sourceTableAndStatistics, replicaDatabaseName, replicaTableName,
           locationManager.getTableLocation(), replicationMode);
+      updatePartitionMetadata(client, eventId, sourceTableAndStatistics, sourcePartitionsAndStatistics,
+          replicaDatabaseName, replicaTableName, locationManager);
+    }
+  }
 
-      List<Partition> oldPartitions = getOldPartitions(sourceTableAndStatistics, sourcePartitionsAndStatistics,
-          replicaDatabaseName, replicaTableName, client);
-      LOG.debug("Found {} existing partitions that may match.", oldPartitions.size());
-
-      replicaCatalogListener
-          .existingReplicaPartitions(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), oldPartitions));
-
-      Map<List<String>, Partition> oldPartitionsByKey = mapPartitionsByKey(oldPartitions);
-
-      List<Partition> sourcePartitions = sourcePartitionsAndStatistics.getPartitions();
-      List<Partition> partitionsToCreate = new ArrayList<>(sourcePartitions.size());
-      List<Partition> partitionsToAlter = new ArrayList<>(sourcePartitions.size());
-      List<ColumnStatistics> statisticsToSet = new ArrayList<>(sourcePartitions.size());
-      for (Partition sourcePartition : sourcePartitions) {
-        Path replicaPartitionLocation = locationManager.getPartitionLocation(sourcePartition);
-        LOG.debug("Generated replica partition path: {}", replicaPartitionLocation);
-
-        Partition replicaPartition = tableFactory
-            .newReplicaPartition(eventId, sourceTableAndStatistics.getTable(), sourcePartition, replicaDatabaseName,
-                replicaTableName, replicaPartitionLocation, replicationMode);
-        Partition oldPartition = oldPartitionsByKey.get(sourcePartition.getValues());
-        if (oldPartition == null) {
-          partitionsToCreate.add(replicaPartition);
-        } else {
-          partitionsToAlter.add(replicaPartition);
-          if (LocationUtils.hasLocation(oldPartition)) {
-            Path oldLocation = locationAsPath(oldPartition);
-            String oldEventId = oldPartition.getParameters().get(REPLICATION_EVENT.parameterName());
-            locationManager.addCleanUpLocation(oldEventId, oldLocation);
-          }
-        }
+  /**
+   * Creates or alters the given partitions without updating the replica table itself. Used to apply further pages of
+   * partitions once the table has been updated with the first one.
+   */
+  public void updatePartitionMetadata(
+      String eventId,
+      TableAndStatistics sourceTableAndStatistics,
+      PartitionsAndStatistics sourcePartitionsAndStatistics,
+      String replicaDatabaseName,
+      String replicaTableName,
+      ReplicaLocationManager locationManager) {
+    try (CloseableMetaStoreClient client = getMetaStoreClientSupplier().get()) {
+      updatePartitionMetadata(client, eventId, sourceTableAndStatistics, sourcePartitionsAndStatistics,
+          replicaDatabaseName, replicaTableName, locationManager);
+    }
+  }
 
-        ColumnStatistics sourcePartitionStatistics = sourcePartitionsAndStatistics
-            .getStatisticsForPartition(sourcePartition);
-        if (sourcePartitionStatistics != null) {
-          statisticsToSet
-              .add(tableFactory
-                  .newReplicaPartitionStatistics(sourceTableAndStatistics.getTable(), replicaPartition,
-                      sourcePartitionStatistics));
+  private void updatePartitionMetadata(
+      CloseableMetaStoreClient client,
+      String eventId,
+      TableAndStatistics sourceTableAndStatistics,
+      PartitionsAndStatistics sourcePartitionsAndStatistics,
+      final String replicaDatabaseName,
+      final String replicaTableName,
+      ReplicaLocationManager locationManager) {
+    List<Partition> oldPartitions = getOldPartitions(sourcePartitionsAndStatistics, replicaDatabaseName,
+        replicaTableName, client);
+    LOG.debug("Found {} existing partitions that may match.", oldPartitions.size());
+
+    replicaCatalogListener
+        .existingReplicaPartitions(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), oldPartitions));
+
+    Map<List<String>, Partition> oldPartitionsByKey = mapPartitionsByKey(oldPartitions);
+
+    List<Partition> sourcePartitions = sourcePartitionsAndStatistics.getPartitions();
+    List<Partition> partitionsToCreate = new ArrayList<>(sourcePartitions.size());
+    List<Partition> partitionsToAlter = new ArrayList<>(sourcePartitions.size());
+    List<ColumnStatistics> statisticsToSet = new ArrayList<>(sourcePartitions.size());
+    for (Partition sourcePartition : sourcePartitions) {
+      Path replicaPartitionLocation = locationManager.getPartitionLocation(sourcePartition);
+      LOG.debug("Generated replica partition path: {}", replicaPartitionLocation);
+
+      Partition replicaPartition = tableFactory
+          .newReplicaPartition(eventId, sourceTableAndStatistics.getTable(), sourcePartition, replicaDatabaseName,
+              replicaTableName, replicaPartitionLocation, replicationMode);
+      Partition oldPartition = oldPartitionsByKey.get(sourcePartition.getValues());
+      if (oldPartition == null) {
+        partitionsToCreate.add(replicaPartition);
+      } else {
+        partitionsToAlter.add(replicaPartition);
+        if (LocationUtils.hasLocation(oldPartition)) {
+          Path oldLocation = locationAsPath(oldPartition);
+          String oldEventId = oldPartition.getParameters().get(REPLICATION_EVENT.parameterName());
+          locationManager.addCleanUpLocation(oldEventId, oldLocation);
         }
       }
-      replicaCatalogListener
-          .partitionsToAlter(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), partitionsToAlter));
-      replicaCatalogListener
-          .partitionsToCreate(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), partitionsToCreate));
-
-      if (!partitionsToCreate.isEmpty()) {
-        LOG.info("Creating {} new partitions.", partitionsToCreate.size());
-        try {
-          client.add_partitions(partitionsToCreate);
-        } catch (TException e) {
-          throw new MetaStoreClientException("Unable to add partitions '"
-              + partitionsToCreate
-              + "' to replica table '"
-              + replicaDatabaseName
-              + "."
-              + replicaTableName
-              + "'", e);
-        }
+
+      ColumnStatistics sourcePartitionStatistics = sourcePartitionsAndStatistics
+          .getStatisticsForPartition(sourcePartition);
+      if (sourcePartitionStatistics != null) {
+        statisticsToSet
+            .add(tableFactory
+                .newReplicaPartitionStatistics(sourceTableAndStatistics.getTable(), replicaPartition,
+                    sourcePartitionStatistics));
       }
-      if (!partitionsToAlter.isEmpty()) {
-        LOG.info("Altering {} existing partitions.", partitionsToAlter.size());
-        try {
-          client.alter_partitions(replicaDatabaseName, replicaTableName, partitionsToAlter);
-        } catch (TException e) {
-          throw new MetaStoreClientException("Unable to alter partitions '"
-              + partitionsToAlter
-              + "' of replica table '"
-              + replicaDatabaseName
-              + "."
-              + replicaTableName
-              + "'", e);
-        }
+    }
+    replicaCatalogListener
+        .partitionsToAlter(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), partitionsToAlter));
+    replicaCatalogListener
+        .partitionsToCreate(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), partitionsToCreate));
+
+    if (!partitionsToCreate.isEmpty()) {
+      LOG.info("Creating {} new partitions.", partitionsToCreate.size());
+      try {
+        partitionBatchWriter.write(client, RunningMetrics.REPLICA_ADD_PARTITIONS_BATCH, partitionsToCreate,
+            new PartitionBatchWriter.BatchOperation<Partition>() {
+              @Override
+              public void apply(CloseableMetaStoreClient batchClient, List<Partition> batch) throws TException {
+                // A retried batch may have been added by an attempt that timed out
+                batchClient.add_partitions(batch, true, false);
+              }
+            });
+      } catch (TException e) {
+        throw new MetaStoreClientException("Unable to add partitions '"
+            + partitionsToCreate
+            + "' to replica table '"
+            + replicaDatabaseName
+            + "."
+            + replicaTableName
+            + "'", e);
       }
-      if (!statisticsToSet.isEmpty()) {
-        LOG.info("Setting column statistics for {} partitions.", statisticsToSet.size());
-        try {
-          client.setPartitionColumnStatistics(new SetPartitionsStatsRequest(statisticsToSet));
-        } catch (TException e) {
-          throw new MetaStoreClientException(
-              "Unable to set column statistics of replica table '" + replicaDatabaseName + "." + replicaTableName + "'",
-              e);
-        }
-      } else {
-        LOG.debug("No partition column stats to set.");
+    }
+    if (!partitionsToAlter.isEmpty()) {
+      LOG.info("Altering {} existing partitions.", partitionsToAlter.size());
+      try {
+        partitionBatchWriter.write(client, RunningMetrics.REPLICA_ALTER_PARTITIONS_BATCH, partitionsToAlter,
+            new PartitionBatchWriter.BatchOperation<Partition>() {
+              @Override
+              public void apply(CloseableMetaStoreClient batchClient, List<Partition> batch) throws TException {
+                batchClient.alter_partitions(replicaDatabaseName, replicaTableName, batch);
+              }
+            });
+      } catch (TException e) {
+        throw new MetaStoreClientException("Unable to alter partitions '"
+            + partitionsToAlter
+            + "' of replica table '"
+            + replicaDatabaseName
+            + "."
+            + replicaTableName
+            + "'", e);
       }
     }
+    if (!statisticsToSet.isEmpty()) {
+      LOG.info("Setting column statistics for {} partitions.", statisticsToSet.size());
+      try {
+        partitionBatchWriter.write(client, RunningMetrics.REPLICA_SET_PARTITION_STATISTICS_BATCH, statisticsToSet,
+            new PartitionBatchWriter.BatchOperation<ColumnStatistics>() {
+              @Override
+              public void apply(CloseableMetaStoreClient batchClient, List<ColumnStatistics> batch) throws TException {
+                batchClient.setPartitionColumnStatistics(new SetPartitionsStatsRequest(batch));
+              }
+            });
+      } catch (TException e) {
+        throw new MetaStoreClientException(
+            "Unable to set column statistics of replica table '" + replicaDatabaseName + "." + replicaTableName + "'",
+            e);
+      }
+    } else {
+      LOG.debug("No partition column stats to set.");
+    }
   }
 
   private List<Partition> getOldPartitions(
-      TableAndStatistics sourceTableAndStatistics,
       PartitionsAndStatistics sourcePartitionsAndStatistics,
       String replicaDatabaseName,
       String replicaTableName,
@@ -233,6 +283,45 @@ public class Replica extends HiveEndpoint {
     }
   }
 
+  /**
+   * @return the current location of each replica partition matching one of the source partitions, keyed by partition
+   *         values
+   */
+  public Map<List<String>, Path> getPartitionLocations(
+      String replicaDatabaseName,
+      String replicaTableName,
+      PartitionsAndStatistics sourcePartitionsAndStatistics) {
+    try (CloseableMetaStoreClient client = getMetaStoreClientSupplier().get()) {
+      if (!getTable(client, replicaDatabaseName, replicaTableName).isPresent()) {
+        return Collections.emptyMap();
+      }
+      List<Partition> oldPartitions = getOldPartitions(sourcePartitionsAndStatistics, replicaDatabaseName,
+          replicaTableName, client);
+      Map<List<String>, Path> locations = new HashMap<>(oldPartitions.size());
+      for (Partition oldPartition : oldPartitions) {
+        if (LocationUtils.hasLocation(oldPartition)) {
+          locations.put(oldPartition.getValues(), locationAsPath(oldPartition));
+        }
+      }
+      return locations;
+    }
+  }
+
+  /**
+   * @return the current location of the replica table if it is an unpartitioned table that has been replicated before
+   */
+  public Optional<Path> getTableLocation(String replicaDatabaseName, String replicaTableName) {
+    try (CloseableMetaStoreClient client = getMetaStoreClientSupplier().get()) {
+      Optional<Table> oldReplicaTable = getTable(client, replicaDatabaseName, replicaTableName);
+      if (oldReplicaTable.isPresent()
+          && LocationUtils.hasLocation(oldReplicaTable.get())
+          && isUnpartitioned(oldReplicaTable.get())) {
+        return Optional.of(locationAsPath(oldReplicaTable.get()));
+      }
+      return Optional.absent();
+    }
+  }
+
   private Map<List<String>, Partition> mapPartitionsByKey(List<Partition> partitions) {
     Map<List<String>, Partition> partitionsByKey = new HashMap<>(partitions.size());
     for (Partition partition : partitions) {
@@ -253,6 +342,8 @@ public class Replica extends HiveEndpoint {
     TableAndStatistics replicaTable = tableFactory
         .newReplicaTable(eventId, sourceTable, replicaDatabaseName, replicaTableName, tableLocation, replicationMode);
     Optional<Table> oldReplicaTable = getTable(client, replicaDatabaseName, replicaTableName);
+    // Whatever the outcome the cached replica table may be stale from now on
+    invalidateTable(replicaDatabaseName, replicaTableName);
     if (!oldReplicaTable.isPresent()) {
       LOG.debug("No existing replica table found, creating.");
       try {
@@ -22,9 +22,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.PartitionBatching;
 import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.event.ReplicaCatalogListener;
@@ -42,6 +44,7 @@ public class ReplicaFactory implements HiveEndpointFactory<Replica> {
   private final HousekeepingListener housekeepingListener;
   private final ReplicaCatalogListener replicaCatalogListener;
   private final ReplicaTableFactoryProvider replicaTableFactoryPicker;
+  private final MetricRegistry runningMetricRegistry;
 
   @Autowired
   public ReplicaFactory(
@@ -50,19 +53,31 @@ public class ReplicaFactory implements HiveEndpointFactory<Replica> {
       Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier,
       HousekeepingListener housekeepingListener,
       ReplicaCatalogListener replicaCatalogListener,
-      ReplicaTableFactoryProvider replicaTableFactoryPicker) {
+      ReplicaTableFactoryProvider replicaTableFactoryPicker,
+      MetricRegistry runningMetricRegistry) {
     this.replicaCatalog = replicaCatalog;
     this.replicaHiveConf = replicaHiveConf;
     this.replicaMetaStoreClientSupplier = replicaMetaStoreClientSupplier;
     this.housekeepingListener = housekeepingListener;
     this.replicaCatalogListener = replicaCatalogListener;
     this.replicaTableFactoryPicker = replicaTableFactoryPicker;
+    this.runningMetricRegistry = runningMetricRegistry;
   }
 
   @Override
   public Replica newInstance(TableReplication tableReplication) {
     ReplicaTableFactory replicaTableFactory = replicaTableFactoryPicker.newInstance(tableReplication);
+    PartitionBatchWriter partitionBatchWriter = new PartitionBatchWriter(getPartitionBatching(),
+        replicaMetaStoreClientSupplier, runningMetricRegistry);
     return new Replica(replicaCatalog, replicaHiveConf, replicaMetaStoreClientSupplier, replicaTableFactory,
-        housekeepingListener, replicaCatalogListener, tableReplication.getReplicationMode());
+        housekeepingListener, replicaCatalogListener, tableReplication.getReplicationMode(), partitionBatchWriter);
+  }
+
+  private PartitionBatching getPartitionBatching() {
+    PartitionBatching partitionBatching = replicaCatalog.getPartitionBatching();
+    if (partitionBatching == null) {
+      return new PartitionBatching();
+    }
+    return partitionBatching;
   }
 }
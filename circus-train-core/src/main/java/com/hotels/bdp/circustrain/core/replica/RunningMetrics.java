@@ -0,0 +1,27 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.replica;
+
+public enum RunningMetrics {
+
+  REPLICA_ADD_PARTITIONS_BATCH,
+  REPLICA_ALTER_PARTITIONS_BATCH,
+  REPLICA_SET_PARTITION_STATISTICS_BATCH,
+  REPLICA_DROP_PARTITIONS_BATCH,
+  REPLICA_PARTITIONS_SCANNED_FOR_DELETION,
+  REPLICA_PARTITIONS_DROPPED
+
+}
@@ -15,11 +15,10 @@
  */
 package com.hotels.bdp.circustrain.core.source;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.slf4j.Logger;
@@ -33,11 +32,17 @@ public class FilterMissingPartitionsLocationManager implements SourceLocationMan
   private final static Logger LOG = LoggerFactory.getLogger(FilterMissingPartitionsLocationManager.class);
 
   private final SourceLocationManager sourceLocationManager;
-  private final HiveConf hiveConf;
+  private final PathExistenceChecker pathExistenceChecker;
 
   public FilterMissingPartitionsLocationManager(SourceLocationManager sourceLocationManager, HiveConf hiveConf) {
+    this(sourceLocationManager, new PathExistenceChecker(hiveConf, PathExistenceChecker.DEFAULT_MAX_CONCURRENCY));
+  }
+
+  public FilterMissingPartitionsLocationManager(
+      SourceLocationManager sourceLocationManager,
+      PathExistenceChecker pathExistenceChecker) {
     this.sourceLocationManager = sourceLocationManager;
-    this.hiveConf = hiveConf;
+    this.pathExistenceChecker = pathExistenceChecker;
   }
 
   @Override
@@ -49,22 +54,20 @@ public class FilterMissingPartitionsLocationManager implements SourceLocationMan
   public List<Path> getPartitionLocations() throws CircusTrainException {
     List<Path> result = new ArrayList<>();
     List<Path> paths = sourceLocationManager.getPartitionLocations();
-    FileSystem fileSystem = null;
+    Map<Path, Boolean> existingPaths = pathExistenceChecker.exist(paths);
     for (Path path : paths) {
-      try {
-        if (fileSystem == null) {
-          fileSystem = path.getFileSystem(hiveConf);
-        }
-        if (fileSystem.exists(path)) {
-          result.add(path);
-        } else {
-          LOG
-              .warn("Source path '{}' does not exist skipping it for replication."
-                  + " WARNING: this means there is a partition in Hive that does not have a corresponding folder in"
-                  + " source file store, check your table and data.", path);
-        }
-      } catch (IOException e) {
-        LOG.warn("Exception while checking path, skipping path '{}',  error {}", path, e);
+      Boolean exists = existingPaths.get(path);
+      if (exists == null) {
+        // Already reported by the checker
+        continue;
+      }
+      if (exists) {
+        result.add(path);
+      } else {
+        LOG
+            .warn("Source path '{}' does not exist skipping it for replication."
+                + " WARNING: this means there is a partition in Hive that does not have a corresponding folder in"
+                + " source file store, check your table and data.", path);
       }
     }
     return result;
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2016-2018 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.source;
+
+import static com.hotels.hcommon.hive.metastore.util.LocationUtils.locationAsPath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Partition;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.SourceLocationManager;
+
+/**
+ * Resolves the locations of a page of partitions against the table level {@link SourceLocationManager} so that all the
+ * pages of a replication share the same source snapshot. Cleaning up is left to the table level manager.
+ */
+public class PartitionPageLocationManager implements SourceLocationManager {
+
+  private final SourceLocationManager tableLocationManager;
+  private final Path tableLocation;
+  private final List<Path> partitionLocations;
+
+  PartitionPageLocationManager(
+      SourceLocationManager tableLocationManager,
+      Path tableLocation,
+      List<Partition> partitions) {
+    this.tableLocationManager = tableLocationManager;
+    this.tableLocation = tableLocation;
+    partitionLocations = new ArrayList<>(partitions.size());
+    for (Partition partition : partitions) {
+      partitionLocations.add(new Path(tableLocation, getPartitionSubPath(locationAsPath(partition))));
+    }
+  }
+
+  @Override
+  public Path getTableLocation() throws CircusTrainException {
+    return tableLocation;
+  }
+
+  @Override
+  public List<Path> getPartitionLocations() throws CircusTrainException {
+    return Collections.unmodifiableList(partitionLocations);
+  }
+
+  @Override
+  public void cleanUpLocations() throws CircusTrainException {}
+
+  @Override
+  public Path getPartitionSubPath(Path partitionLocation) {
+    return tableLocationManager.getPartitionSubPath(partitionLocation);
+  }
+
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.source;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+
+/**
+ * Checks whether many paths exist. On object stores, where every existence check is a request, paths that share a
+ * parent are checked with a single listing of the parent. Other paths are checked one by one. Listings and checks run
+ * on a bounded number of threads.
+ */
+public class PathExistenceChecker {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PathExistenceChecker.class);
+
+  public static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+  private final Configuration conf;
+  private final int maxConcurrency;
+
+  public PathExistenceChecker(Configuration conf, int maxConcurrency) {
+    this.conf = conf;
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * @return whether each of the given paths exists, paths that could not be checked are left out.
+   */
+  public Map<Path, Boolean> exist(List<Path> paths) {
+    Map<Path, List<Path>> pathsByParent = new LinkedHashMap<>();
+    Map<Path, FileSystem> fileSystemsByParent = new HashMap<>();
+    List<Callable<Map<Path, Boolean>>> checks = new ArrayList<>();
+    for (Path path : paths) {
+      FileSystem fileSystem;
+      try {
+        fileSystem = path.getFileSystem(conf);
+      } catch (IOException e) {
+        LOG.warn("Exception while checking path, skipping path '{}',  error {}", path, e);
+        continue;
+      }
+      Path parent = path.getParent();
+      if (parent != null && isObjectStore(fileSystem)) {
+        List<Path> children = pathsByParent.get(parent);
+        if (children == null) {
+          children = new ArrayList<>();
+          pathsByParent.put(parent, children);
+          fileSystemsByParent.put(parent, fileSystem);
+        }
+        children.add(path);
+      } else {
+        checks.add(new ExistsCheck(fileSystem, path));
+      }
+    }
+    for (Map.Entry<Path, List<Path>> entry : pathsByParent.entrySet()) {
+      FileSystem fileSystem = fileSystemsByParent.get(entry.getKey());
+      if (entry.getValue().size() == 1) {
+        checks.add(new ExistsCheck(fileSystem, entry.getValue().get(0)));
+      } else {
+        checks.add(new ListingCheck(fileSystem, entry.getKey(), entry.getValue()));
+      }
+    }
+    return run(checks);
+  }
+
+  @VisibleForTesting
+  boolean isObjectStore(FileSystem fileSystem) {
+    URI uri = fileSystem.getUri();
+    return uri != null && uri.getScheme() != null && uri.getScheme().toLowerCase(Locale.ROOT).startsWith("s3");
+  }
+
+  private Map<Path, Boolean> run(List<Callable<Map<Path, Boolean>>> checks) {
+    Map<Path, Boolean> result = new HashMap<>();
+    int concurrency = Math.min(maxConcurrency, checks.size());
+    try {
+      if (concurrency <= 1) {
+        for (Callable<Map<Path, Boolean>> check : checks) {
+          result.putAll(check.call());
+        }
+        return result;
+      }
+      ExecutorService executor = Executors
+          .newFixedThreadPool(concurrency,
+              new ThreadFactoryBuilder().setNameFormat("path-existence-%d").setDaemon(true).build());
+      try {
+        List<Future<Map<Path, Boolean>>> futures = new ArrayList<>(checks.size());
+        for (Callable<Map<Path, Boolean>> check : checks) {
+          futures.add(executor.submit(check));
+        }
+        for (Future<Map<Path, Boolean>> future : futures) {
+          result.putAll(future.get());
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CircusTrainException("Interrupted while checking paths", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new CircusTrainException("Unable to check paths", cause);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CircusTrainException("Unable to check paths", e);
+    }
+    return result;
+  }
+
+  private static Map<Path, Boolean> exists(FileSystem fileSystem, List<Path> paths) {
+    Map<Path, Boolean> result = new HashMap<>();
+    for (Path path : paths) {
+      try {
+        result.put(path, fileSystem.exists(path));
+      } catch (IOException e) {
+        LOG.warn("Exception while checking path, skipping path '{}',  error {}", path, e);
+      }
+    }
+    return result;
+  }
+
+  private static class ExistsCheck implements Callable<Map<Path, Boolean>> {
+    private final FileSystem fileSystem;
+    private final Path path;
+
+    private ExistsCheck(FileSystem fileSystem, Path path) {
+      this.fileSystem = fileSystem;
+      this.path = path;
+    }
+
+    @Override
+    public Map<Path, Boolean> call() {
+      List<Path> paths = new ArrayList<>(1);
+      paths.add(path);
+      return exists(fileSystem, paths);
+    }
+  }
+
+  private static class ListingCheck implements Callable<Map<Path, Boolean>> {
+    private final FileSystem fileSystem;
+    private final Path parent;
+    private final List<Path> children;
+
+    private ListingCheck(FileSystem fileSystem, Path parent, List<Path> children) {
+      this.fileSystem = fileSystem;
+      this.parent = parent;
+      this.children = children;
+    }
+
+    @Override
+    public Map<Path, Boolean> call() {
+      Set<String> names = new HashSet<>();
+      try {
+        for (FileStatus status : fileSystem.listStatus(parent)) {
+          names.add(status.getPath().getName());
+        }
+      } catch (FileNotFoundException e) {
+        LOG.debug("Parent path '{}' does not exist", parent);
+      } catch (IOException e) {
+        LOG.debug("Unable to list '{}', checking its {} children one by one", parent, children.size(), e);
+        return exists(fileSystem, children);
+      }
+      Map<Path, Boolean> result = new HashMap<>();
+      for (Path child : children) {
+        result.put(child, names.contains(child.getName()));
+      }
+      return result;
+    }
+  }
+
+}
@@ -17,10 +17,12 @@
 package com.hotels.bdp.circustrain.core.source;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.collections.MapUtils;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.MetaStoreUtils;
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -28,9 +30,12 @@ import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Iterators;
 
 import com.hotels.bdp.circustrain.api.SourceLocationManager;
+import com.hotels.bdp.circustrain.api.conf.PartitionStatistics;
 import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
 import com.hotels.bdp.circustrain.api.conf.SourceTable;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
@@ -57,8 +62,9 @@ public class Source extends HiveEndpoint {
       Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier,
       SourceCatalogListener sourceCatalogListener,
       boolean snapshotsDisabled,
-      String sourceTableLocation) {
-    super(sourceCatalog.getName(), sourceHiveConf, sourceMetaStoreClientSupplier);
+      String sourceTableLocation,
+      PartitionStatistics partitionStatistics) {
+    super(sourceCatalog.getName(), sourceHiveConf, sourceMetaStoreClientSupplier, partitionStatistics);
     this.sourceTableLocation = sourceTableLocation;
     this.sourceCatalogListener = sourceCatalogListener;
     this.snapshotsDisabled = snapshotsDisabled;
@@ -80,6 +86,26 @@ public class Source extends HiveEndpoint {
     return sourcePartitions;
   }
 
+  @Override
+  public Iterator<PartitionsAndStatistics> getPartitionPages(
+      CloseableMetaStoreClient client,
+      final Table sourceTable,
+      String partitionPredicate,
+      int maxPartitions,
+      short pageSize)
+    throws TException {
+    return Iterators
+        .transform(super.getPartitionPages(client, sourceTable, partitionPredicate, maxPartitions, pageSize),
+            new Function<PartitionsAndStatistics, PartitionsAndStatistics>() {
+              @Override
+              public PartitionsAndStatistics apply(PartitionsAndStatistics page) {
+                sourceCatalogListener
+                    .resolvedSourcePartitions(EventUtils.toEventPartitions(sourceTable, page.getPartitions()));
+                return page;
+              }
+            });
+  }
+
   public SourceLocationManager getLocationManager(Table table, String eventId) throws IOException {
     if (MetaStoreUtils.isView(table)) {
       return new ViewLocationManager();
@@ -102,11 +128,39 @@ public class Source extends HiveEndpoint {
     boolean ignoreMissingFolder = MapUtils.getBooleanValue(copierOptions,
         CopierOptions.IGNORE_MISSING_PARTITION_FOLDER_ERRORS, false);
     if (ignoreMissingFolder) {
-      return new FilterMissingPartitionsLocationManager(hdfsSnapshotLocationManager, getHiveConf());
+      return new FilterMissingPartitionsLocationManager(hdfsSnapshotLocationManager,
+          newPathExistenceChecker(copierOptions));
     }
     return hdfsSnapshotLocationManager;
   }
 
+  /**
+   * @param tableLocationManager Table level manager obtained from
+   *          {@link #getLocationManager(Table, List, String, Map)}, it owns the source snapshot.
+   * @param tableLocation Location returned by the table level manager.
+   * @return a manager for the locations of a page of partitions.
+   */
+  public SourceLocationManager getLocationManager(
+      SourceLocationManager tableLocationManager,
+      Path tableLocation,
+      List<Partition> partitions,
+      Map<String, Object> copierOptions) {
+    SourceLocationManager pageLocationManager = new PartitionPageLocationManager(tableLocationManager, tableLocation,
+        partitions);
+    boolean ignoreMissingFolder = MapUtils.getBooleanValue(copierOptions,
+        CopierOptions.IGNORE_MISSING_PARTITION_FOLDER_ERRORS, false);
+    if (ignoreMissingFolder) {
+      return new FilterMissingPartitionsLocationManager(pageLocationManager, newPathExistenceChecker(copierOptions));
+    }
+    return pageLocationManager;
+  }
+
+  private PathExistenceChecker newPathExistenceChecker(Map<String, Object> copierOptions) {
+    int maxConcurrency = MapUtils.getIntValue(copierOptions, CopierOptions.MISSING_PARTITION_FOLDER_CHECK_THREADS,
+        PathExistenceChecker.DEFAULT_MAX_CONCURRENCY);
+    return new PathExistenceChecker(getHiveConf(), maxConcurrency);
+  }
+
   @Override
   public TableAndStatistics getTableAndStatistics(TableReplication tableReplication) {
     SourceTable sourceTable = tableReplication.getSourceTable();
@@ -24,6 +24,7 @@ import org.springframework.stereotype.Component;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.PartitionStatistics;
 import com.hotels.bdp.circustrain.api.conf.ReplicationMode;
 import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
@@ -60,7 +61,16 @@ public class SourceFactory implements HiveEndpointFactory<Source> {
       snapshotsDisabled = sourceCatalog.isDisableSnapshots();
     }
     return new Source(sourceCatalog, sourceHiveConf, sourceMetaStoreClientSupplier, sourceCatalogListener,
-        snapshotsDisabled, tableReplication.getSourceTable().getTableLocation());
+        snapshotsDisabled, tableReplication.getSourceTable().getTableLocation(),
+        getPartitionStatistics(tableReplication));
+  }
+
+  private PartitionStatistics getPartitionStatistics(TableReplication tableReplication) {
+    PartitionStatistics partitionStatistics = tableReplication.getPartitionStatistics();
+    if (partitionStatistics == null) {
+      return new PartitionStatistics();
+    }
+    return partitionStatistics;
   }
 
 }
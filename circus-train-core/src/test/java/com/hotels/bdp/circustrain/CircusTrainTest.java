@@ -50,8 +50,10 @@ import com.google.common.io.Files;
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.copier.CopierFactory;
+import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.beeju.ThriftHiveMetaStoreJUnitRule;
+import com.hotels.test.composite.TestCompositeCopierConfiguration;
 import com.hotels.test.extension.TestLocomotiveListener;
 
 public class CircusTrainTest {
@@ -157,6 +159,46 @@ public class CircusTrainTest {
     CircusTrain.main(new String[] { "--config=" + ymlFile.getAbsolutePath() });
   }
 
+  @Test
+  public void compositeCopierFactoryMaxConcurrencyFromCopierOptions() throws Exception {
+    TestCompositeCopierConfiguration.completedCopies.set(0);
+    exit.expectSystemExitWithStatus(0);
+    File ymlFile = temp.newFile("test-application.yml");
+    List<String> lines = ImmutableList
+        .<String>builder()
+        .add("extension-packages: " + TestCompositeCopierConfiguration.class.getPackage().getName())
+        .add("source-catalog:")
+        .add("  name: source")
+        .add("  configuration-properties:")
+        .add("    " + ConfVars.METASTOREURIS.varname + ": " + hive.getThriftConnectionUri())
+        .add("replica-catalog:")
+        .add("  name: replica")
+        .add("  hive-metastore-uris: " + hive.getThriftConnectionUri())
+        .add("copier-options:")
+        .add("  " + CopierOptions.COMPOSITE_COPIER_MAX_CONCURRENCY + ": 2")
+        .add("table-replications:")
+        .add("  -")
+        .add("    source-table:")
+        .add("      database-name: " + DATABASE)
+        .add("      table-name: source_" + TABLE)
+        .add("    replica-table:")
+        .add("      table-name: replica_" + TABLE)
+        .add("      table-location: " + temp.newFolder("replica"))
+        .build();
+    Files.asCharSink(ymlFile, UTF_8).writeLines(lines);
+
+    exit.checkAssertionAfterwards(new Assertion() {
+      @Override
+      public void checkAssertion() throws Exception {
+        // The delegate copiers of the composite bean only complete when they run at the same time
+        assertThat(TestCompositeCopierConfiguration.completedCopies.get(), is(2));
+        assertTrue(hive.client().tableExists(DATABASE, "replica_" + TABLE));
+      }
+    });
+
+    CircusTrain.main(new String[] { "--config=" + ymlFile.getAbsolutePath() });
+  }
+
   @Test
   public void twoYmlFiles() throws Exception {
     exit.expectSystemExitWithStatus(0);
@@ -18,11 +18,17 @@ package com.hotels.bdp.circustrain.core;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +39,7 @@ import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData._Fields;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsDesc;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -46,6 +53,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import com.google.common.base.Supplier;
 
+import com.hotels.bdp.circustrain.api.conf.PartitionStatistics;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 
@@ -176,6 +184,40 @@ public class HiveEndpointTest {
     assertThat(sourceTable.getStatistics(), is(nullValue()));
   }
 
+  @Test
+  public void getTableIsCached() throws Exception {
+    when(metaStoreClient.getTable(DATABASE, TABLE)).thenReturn(table);
+    when(metaStoreClient.getTableColumnStatistics(DATABASE, TABLE, COLUMN_NAMES)).thenReturn(columnStatisticsObjs);
+
+    hiveEndpoint.getTableAndStatistics(DATABASE, TABLE).getTable().setOwner("owner");
+    TableAndStatistics sourceTable = hiveEndpoint.getTableAndStatistics(DATABASE, TABLE);
+    assertThat(sourceTable.getTable(), is(table));
+    assertThat(sourceTable.getStatistics(), is(columnStatistics));
+    verify(metaStoreClient, times(1)).getTable(DATABASE, TABLE);
+    verify(metaStoreClient, times(1)).getTableColumnStatistics(DATABASE, TABLE, COLUMN_NAMES);
+  }
+
+  @Test
+  public void getTableAfterInvalidation() throws Exception {
+    when(metaStoreClient.getTable(DATABASE, TABLE)).thenReturn(table);
+    when(metaStoreClient.getTableColumnStatistics(DATABASE, TABLE, COLUMN_NAMES)).thenReturn(columnStatisticsObjs);
+
+    hiveEndpoint.getTableAndStatistics(DATABASE, TABLE);
+    hiveEndpoint.invalidateTable(DATABASE, TABLE);
+    hiveEndpoint.getTableAndStatistics(DATABASE, TABLE);
+    verify(metaStoreClient, times(2)).getTable(DATABASE, TABLE);
+  }
+
+  @Test
+  public void getDatabaseIsCached() throws Exception {
+    Database database = new Database(DATABASE, null, "location", null);
+    when(metaStoreClient.getDatabase(DATABASE)).thenReturn(database);
+
+    assertThat(hiveEndpoint.getDatabase(DATABASE), is(database));
+    assertThat(hiveEndpoint.getDatabase(DATABASE), is(database));
+    verify(metaStoreClient, times(1)).getDatabase(DATABASE);
+  }
+
   @Test
   public void getPartitions() throws Exception {
     List<Partition> filteredPartitions = Arrays.asList(partitionOneTwo);
@@ -214,4 +256,117 @@ public class HiveEndpointTest {
     assertThat(partitionsAndStatistics.getStatisticsForPartition(partitionOneTwo), is(nullValue()));
   }
 
+  private HiveEndpoint newHiveEndpoint(PartitionStatistics partitionStatistics) {
+    return new HiveEndpoint(NAME, hiveConf, metaStoreClientSupplier, partitionStatistics) {
+
+      @Override
+      public TableAndStatistics getTableAndStatistics(TableReplication tableReplication) {
+        return null;
+      }
+
+    };
+  }
+
+  @Test
+  public void getPartitionsStatisticsInConcurrentChunks() throws Exception {
+    PartitionStatistics partitionStatistics = new PartitionStatistics();
+    partitionStatistics.setChunkSize(1);
+    partitionStatistics.setMaxConcurrency(2);
+    List<Partition> filteredPartitions = Arrays.asList(partitionOneTwo, partitionThreeFour);
+    when(metaStoreClient.listPartitionsByFilter(DATABASE, TABLE, PARTITION_PREDICATE, (short) MAX_PARTITIONS))
+        .thenReturn(filteredPartitions);
+    when(metaStoreClient.getPartitionColumnStatistics(DATABASE, TABLE, PARTITION_NAMES, COLUMN_NAMES))
+        .thenReturn(partitionStatsMap);
+    Map<String, List<ColumnStatisticsObj>> partitionThreeFourStatsMap = new HashMap<>();
+    partitionThreeFourStatsMap.put(PARTITION_THREE_FOUR, columnStatisticsObjs);
+    when(metaStoreClient
+        .getPartitionColumnStatistics(DATABASE, TABLE, Arrays.asList(PARTITION_THREE_FOUR), COLUMN_NAMES))
+            .thenReturn(partitionThreeFourStatsMap);
+
+    PartitionsAndStatistics partitionsAndStatistics = newHiveEndpoint(partitionStatistics)
+        .getPartitions(table, PARTITION_PREDICATE, MAX_PARTITIONS);
+    assertThat(partitionsAndStatistics.getPartitions(), is(filteredPartitions));
+    assertThat(partitionsAndStatistics.getStatisticsForPartition(partitionOneTwo), is(partitionColumnStatistics));
+    assertThat(partitionsAndStatistics.getStatisticsForPartition(partitionThreeFour).getStatsObj(),
+        is(columnStatisticsObjs));
+    // One client to list the partitions and one per chunk
+    verify(metaStoreClientSupplier, times(3)).get();
+  }
+
+  @Test
+  public void getPartitionsStatisticsOfSelectedColumns() throws Exception {
+    PartitionStatistics partitionStatistics = new PartitionStatistics();
+    partitionStatistics.setColumns(Arrays.asList("A", "unknown"));
+    List<Partition> filteredPartitions = Arrays.asList(partitionOneTwo);
+    when(metaStoreClient.listPartitionsByFilter(DATABASE, TABLE, PARTITION_PREDICATE, (short) MAX_PARTITIONS))
+        .thenReturn(filteredPartitions);
+
+    newHiveEndpoint(partitionStatistics).getPartitions(table, PARTITION_PREDICATE, MAX_PARTITIONS);
+    verify(metaStoreClient).getPartitionColumnStatistics(DATABASE, TABLE, PARTITION_NAMES, Arrays.asList(COLUMN_A));
+  }
+
+  @Test
+  public void getPartitionsWithoutStatistics() throws Exception {
+    PartitionStatistics partitionStatistics = new PartitionStatistics();
+    partitionStatistics.setEnabled(false);
+    List<Partition> filteredPartitions = Arrays.asList(partitionOneTwo);
+    when(metaStoreClient.listPartitionsByFilter(DATABASE, TABLE, PARTITION_PREDICATE, (short) MAX_PARTITIONS))
+        .thenReturn(filteredPartitions);
+
+    PartitionsAndStatistics partitionsAndStatistics = newHiveEndpoint(partitionStatistics)
+        .getPartitions(table, PARTITION_PREDICATE, MAX_PARTITIONS);
+    assertThat(partitionsAndStatistics.getPartitions(), is(filteredPartitions));
+    assertThat(partitionsAndStatistics.getStatisticsForPartition(partitionOneTwo), is(nullValue()));
+    verify(metaStoreClient, never())
+        .getPartitionColumnStatistics(anyString(), anyString(), anyListOf(String.class), anyListOf(String.class));
+  }
+
+  @Test
+  public void getPartitionPagesWithFilter() throws Exception {
+    List<Partition> filteredPartitions = Arrays.asList(partitionOneTwo, partitionThreeFour);
+    when(metaStoreClient.listPartitionsByFilter(DATABASE, TABLE, PARTITION_PREDICATE, (short) -1))
+        .thenReturn(filteredPartitions);
+    when(metaStoreClient.getPartitionColumnStatistics(DATABASE, TABLE, PARTITION_NAMES, COLUMN_NAMES))
+        .thenReturn(partitionStatsMap);
+    when(metaStoreClient
+        .getPartitionColumnStatistics(DATABASE, TABLE, Arrays.asList(PARTITION_THREE_FOUR), COLUMN_NAMES))
+            .thenReturn(Collections.<String, List<ColumnStatisticsObj>> emptyMap());
+
+    Iterator<PartitionsAndStatistics> pages = hiveEndpoint
+        .getPartitionPages(metaStoreClient, table, PARTITION_PREDICATE, -1, (short) 1);
+
+    PartitionsAndStatistics page = pages.next();
+    assertThat(page.getPartitions(), is(Arrays.asList(partitionOneTwo)));
+    assertThat(page.getStatisticsForPartition(partitionOneTwo), is(partitionColumnStatistics));
+    page = pages.next();
+    assertThat(page.getPartitions(), is(Arrays.asList(partitionThreeFour)));
+    assertThat(page.getStatisticsForPartition(partitionThreeFour), is(nullValue()));
+    assertThat(pages.hasNext(), is(false));
+  }
+
+  @Test
+  public void getPartitionPagesWithFilterAndLimitOutOfShortRange() throws Exception {
+    List<Partition> filteredPartitions = Arrays.asList(partitionOneTwo, partitionThreeFour);
+    when(metaStoreClient.listPartitionsByFilter(DATABASE, TABLE, PARTITION_PREDICATE, (short) -1))
+        .thenReturn(filteredPartitions);
+
+    Iterator<PartitionsAndStatistics> pages = hiveEndpoint
+        .getPartitionPages(metaStoreClient, table, PARTITION_PREDICATE, 70000, (short) 2);
+
+    assertThat(pages.next().getPartitions(), is(filteredPartitions));
+    assertThat(pages.hasNext(), is(false));
+  }
+
+  @Test
+  public void getPartitionPagesWithFilterIsLimited() throws Exception {
+    when(metaStoreClient.listPartitionsByFilter(DATABASE, TABLE, PARTITION_PREDICATE, (short) -1))
+        .thenReturn(Arrays.asList(partitionOneTwo, partitionThreeFour));
+
+    Iterator<PartitionsAndStatistics> pages = hiveEndpoint
+        .getPartitionPages(metaStoreClient, table, PARTITION_PREDICATE, 1, (short) 2);
+
+    assertThat(pages.next().getPartitions(), is(Arrays.asList(partitionOneTwo)));
+    assertThat(pages.hasNext(), is(false));
+  }
+
 }
@@ -18,6 +18,8 @@ package com.hotels.bdp.circustrain.core;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
@@ -104,7 +106,13 @@ public class LocomotiveTest {
               EventTableReplication eventTableReplication,
               String eventId,
               Throwable t) {}
-        });
+        }, 1);
+  }
+
+  private Locomotive newConcurrentLocomotive(int maxConcurrentReplications) {
+    return new Locomotive(sourceCatalog, replicaCatalog, security, tableReplications, replicationFactory,
+        MetricSender.DEFAULT_LOG_ONLY, mock(LocomotiveListener.class), mock(TableReplicationListener.class),
+        maxConcurrentReplications);
   }
 
   @Test
@@ -134,4 +142,35 @@ public class LocomotiveTest {
     assertThat(locomotive.getExitCode(), is(-2));
   }
 
+  @Test
+  public void concurrencyDefaultsToOne() {
+    assertThat(locomotive.getConcurrency(), is(1));
+  }
+
+  @Test
+  public void concurrencyIsCappedByCatalogs() {
+    when(sourceCatalog.getMaxConcurrentReplications()).thenReturn(4);
+    when(replicaCatalog.getMaxConcurrentReplications()).thenReturn(3);
+    assertThat(newConcurrentLocomotive(8).getConcurrency(), is(3));
+  }
+
+  @Test
+  public void concurrentExitCodeIsMinusTwoWhenOneReplicationFails() {
+    doThrow(new RuntimeException()).when(replication2).replicate();
+    Locomotive concurrentLocomotive = newConcurrentLocomotive(2);
+    concurrentLocomotive.run(applicationArguments);
+    verify(replication1).replicate();
+    verify(replication2).replicate();
+    assertThat(concurrentLocomotive.getExitCode(), is(-2));
+  }
+
+  @Test
+  public void concurrentExitCodeIsMinusOneWhenAllReplicationsFail() {
+    doThrow(new RuntimeException()).when(replication1).replicate();
+    doThrow(new RuntimeException()).when(replication2).replicate();
+    Locomotive concurrentLocomotive = newConcurrentLocomotive(2);
+    concurrentLocomotive.run(applicationArguments);
+    assertThat(concurrentLocomotive.getExitCode(), is(-1));
+  }
+
 }
@@ -31,12 +31,13 @@ import static com.hotels.bdp.circustrain.core.metastore.HiveEntityFactory.newSto
 import static com.hotels.bdp.circustrain.core.metastore.HiveEntityFactory.newTable;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
-import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
@@ -132,8 +133,8 @@ public class PartitionedTableMetadataUpdateReplicationTest {
     when(previousReplicaTable.getSd()).thenReturn(sd);
     when(sd.getLocation()).thenReturn(tableLocation);
     // mimics that the first partitions exist but second partition didn't so it will be filtered
-    when(replicaClient.getPartition(DATABASE, TABLE, sourcePartition2.getValues()))
-        .thenThrow(new NoSuchObjectException());
+    when(replicaClient.getPartitionsByNames(DATABASE, TABLE, Lists.newArrayList("a=1", "a=2")))
+        .thenReturn(Lists.newArrayList(sourcePartition1));
 
     PartitionedTableMetadataUpdateReplication replication = new PartitionedTableMetadataUpdateReplication(DATABASE,
         TABLE, partitionPredicate, source, replica, eventIdFactory, replicaLocation, DATABASE, TABLE);
@@ -152,6 +153,33 @@ public class PartitionedTableMetadataUpdateReplicationTest {
     assertThat(value.getPartitionNames().get(0), is("a=1"));
   }
 
+  @Test
+  public void nonExistingPartitionsAreFilteredUsingReplicaPartitionNames() throws Exception {
+    List<Partition> manySourcePartitions = new ArrayList<>();
+    for (int i = 0; i <= PartitionedTableMetadataUpdateReplication.MAX_PARTITIONS_BY_NAME; i++) {
+      manySourcePartitions.add(newPartition(sourceTable, Integer.toString(i)));
+    }
+    when(partitionsAndStatistics.getPartitions()).thenReturn(manySourcePartitions);
+    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    when(replica.getTable(replicaClient, DATABASE, TABLE)).thenReturn(Optional.of(previousReplicaTable));
+    when(previousReplicaTable.getSd()).thenReturn(sd);
+    when(sd.getLocation()).thenReturn(tableLocation);
+    when(replicaClient.listPartitionNames(DATABASE, TABLE, (short) -1))
+        .thenReturn(Lists.newArrayList("a=0", "a=2", "a=unknown"));
+
+    PartitionedTableMetadataUpdateReplication replication = new PartitionedTableMetadataUpdateReplication(DATABASE,
+        TABLE, partitionPredicate, source, replica, eventIdFactory, replicaLocation, DATABASE, TABLE);
+    replication.replicate();
+
+    ArgumentCaptor<PartitionsAndStatistics> partitionsAndStatisticsCaptor = ArgumentCaptor
+        .forClass(PartitionsAndStatistics.class);
+    verify(replica)
+        .updateMetadata(eq(EVENT_ID), eq(sourceTableAndStatistics), partitionsAndStatisticsCaptor.capture(),
+            eq(DATABASE), eq(TABLE), any(ReplicaLocationManager.class));
+    assertThat(partitionsAndStatisticsCaptor.getValue().getPartitionNames(),
+        is(Arrays.asList("a=0", "a=2")));
+  }
+
   @Test
   public void noMatchingPartitions() throws Exception {
     PartitionsAndStatistics emptyPartitionsAndStats = new PartitionsAndStatistics(sourceTable.getPartitionKeys(),
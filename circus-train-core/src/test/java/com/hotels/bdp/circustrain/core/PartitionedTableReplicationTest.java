@@ -15,10 +15,14 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
@@ -34,25 +38,32 @@ import org.apache.hadoop.hive.metastore.api.Table;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.ReplicaLocationManager;
 import com.hotels.bdp.circustrain.api.SourceLocationManager;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.copier.CopierFactory;
+import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.event.CopierListener;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.core.replica.Replica;
 import com.hotels.bdp.circustrain.core.replica.TableType;
 import com.hotels.bdp.circustrain.core.source.Source;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PartitionedTableReplicationTest {
 
   private static final short MAX_PARTITIONS = 1;
+  private static final short PAGE_SIZE = 1;
   private static final String PARTITION_PREDICATE = "partitionPredicate";
   private static final String EVENT_ID = "event_id";
   private static final String TABLE = "table";
@@ -74,6 +85,11 @@ public class PartitionedTableReplicationTest {
   private @Mock ReplicaLocationManager replicaLocationManager;
   private @Mock CopierListener listener;
   private @Mock PartitionPredicate partitionPredicate;
+  private @Mock CloseableMetaStoreClient sourceClient;
+  private @Mock PartitionsAndStatistics page1;
+  private @Mock PartitionsAndStatistics page2;
+  private @Mock SourceLocationManager pageLocationManager1;
+  private @Mock SourceLocationManager pageLocationManager2;
 
   private final Path sourceTableLocation = new Path("sourceTableLocation");
   private final Path replicaTableLocation = new Path("replicaTableLocation");
@@ -160,6 +176,35 @@ public class PartitionedTableReplicationTest {
     replicationOrder.verify(replicaLocationManager).cleanUpLocations();
   }
 
+  @Test
+  public void previousReplicaLocationsArePassedToTheCopier() throws Exception {
+    when(replica
+        .getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager, DATABASE,
+            TABLE)).thenReturn(replicaLocationManager);
+    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    partition1.setValues(Arrays.asList("1"));
+    partition2.setValues(Arrays.asList("2"));
+    Path previousReplicaLocation = new Path("replicaTableLocation/previous-event-id/partition2");
+    Map<List<String>, Path> replicaPartitionLocations = ImmutableMap
+        .of(partition2.getValues(), previousReplicaLocation);
+    when(replica.getPartitionLocations(DATABASE, TABLE, partitionsAndStatistics))
+        .thenReturn(replicaPartitionLocations);
+    ArgumentCaptor<Map> options = ArgumentCaptor.forClass(Map.class);
+    when(copierFactory
+        .newInstance(eq(EVENT_ID), eq(sourceTableLocation), eq(sourcePartitionLocations), eq(replicaTableLocation),
+            options.capture())).thenReturn(copier);
+
+    PartitionedTableReplication replication = new PartitionedTableReplication(DATABASE, TABLE, partitionPredicate,
+        source, replica, copierFactoryManager, eventIdFactory, targetTableLocation, DATABASE, TABLE, copierOptions,
+        listener);
+    replication.replicate();
+
+    Map<Path, Path> previousReplicaLocations = ImmutableMap
+        .of(sourcePartitionLocations.get(1), previousReplicaLocation);
+    assertThat(options.getValue().get(CopierOptions.PREVIOUS_REPLICA_LOCATIONS), is((Object) previousReplicaLocations));
+    verify(copier).copy();
+  }
+
   @Test
   public void mappedNames() throws Exception {
     when(replica
@@ -212,4 +257,63 @@ public class PartitionedTableReplicationTest {
       replicationOrder.verify(listener).copierEnd(any(Metrics.class));
     }
   }
+
+  @Test
+  public void pagedPartitions() throws Exception {
+    when(replica
+        .getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager, DATABASE,
+            TABLE)).thenReturn(replicaLocationManager);
+    when(source.getLocationManager(sourceTable, Collections.<Partition> emptyList(), EVENT_ID, copierOptions))
+        .thenReturn(sourceLocationManager);
+    when(source.getMetaStoreClientSupplier()).thenReturn(Suppliers.ofInstance(sourceClient));
+    List<Partition> partitions1 = Arrays.asList(partition1);
+    List<Partition> partitions2 = Arrays.asList(partition2);
+    when(page1.getPartitions()).thenReturn(partitions1);
+    when(page2.getPartitions()).thenReturn(partitions2);
+    when(source.getPartitionPages(sourceClient, sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(Arrays.asList(page1, page2).iterator());
+    List<Path> partitionLocations1 = Arrays.asList(new Path("partition1"));
+    List<Path> partitionLocations2 = Arrays.asList(new Path("partition2"));
+    when(pageLocationManager1.getPartitionLocations()).thenReturn(partitionLocations1);
+    when(pageLocationManager2.getPartitionLocations()).thenReturn(partitionLocations2);
+    when(source.getLocationManager(sourceLocationManager, sourceTableLocation, partitions1, copierOptions))
+        .thenReturn(pageLocationManager1);
+    when(source.getLocationManager(sourceLocationManager, sourceTableLocation, partitions2, copierOptions))
+        .thenReturn(pageLocationManager2);
+    when(copierFactory.newInstance(EVENT_ID, sourceTableLocation, partitionLocations1, replicaTableLocation,
+        copierOptions)).thenReturn(copier);
+    when(copierFactory.newInstance(EVENT_ID, sourceTableLocation, partitionLocations2, replicaTableLocation,
+        copierOptions)).thenReturn(copier);
+    when(copier.copy()).thenReturn(Metrics.NULL_VALUE);
+
+    PartitionedTableReplication replication = new PartitionedTableReplication(DATABASE, TABLE, partitionPredicate,
+        source, replica, copierFactoryManager, eventIdFactory, targetTableLocation, DATABASE, TABLE, copierOptions,
+        listener, PAGE_SIZE);
+    replication.replicate();
+
+    InOrder replicationOrder = inOrder(copierFactory, copier, sourceLocationManager, replica, replicaLocationManager,
+        listener);
+    replicationOrder.verify(replica).validateReplicaTable(DATABASE, TABLE);
+    replicationOrder
+        .verify(copierFactory)
+        .newInstance(EVENT_ID, sourceTableLocation, partitionLocations1, replicaTableLocation, copierOptions);
+    replicationOrder.verify(listener).copierStart(anyString());
+    replicationOrder.verify(copier).copy();
+    replicationOrder
+        .verify(replica)
+        .updateMetadata(EVENT_ID, sourceTableAndStatistics, page1, DATABASE, TABLE, replicaLocationManager);
+    replicationOrder.verify(replicaLocationManager).cleanUpLocations();
+    replicationOrder
+        .verify(copierFactory)
+        .newInstance(EVENT_ID, sourceTableLocation, partitionLocations2, replicaTableLocation, copierOptions);
+    replicationOrder.verify(copier).copy();
+    replicationOrder
+        .verify(replica)
+        .updatePartitionMetadata(EVENT_ID, sourceTableAndStatistics, page2, DATABASE, TABLE, replicaLocationManager);
+    replicationOrder.verify(replicaLocationManager).cleanUpLocations();
+    replicationOrder.verify(listener).copierEnd(any(Metrics.class));
+    replicationOrder.verify(sourceLocationManager).cleanUpLocations();
+    verify(listener).copierStart(anyString());
+    verify(sourceClient).close();
+  }
 }
@@ -16,6 +16,7 @@
 package com.hotels.bdp.circustrain.core;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.empty;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
@@ -26,6 +27,7 @@ import static com.hotels.bdp.circustrain.core.metastore.HiveEntityFactory.newSto
 import static com.hotels.bdp.circustrain.core.metastore.HiveEntityFactory.newTable;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -120,4 +122,43 @@ public class PartitionsAndStatisticsTest {
 
     assertNull(partitionsAndStatistics.getStatisticsForPartition(partitions.get(0)));
   }
+
+  @Test
+  public void getStatisticsForEqualPartition() throws Exception {
+    List<FieldSchema> partitionKeys = Lists.newArrayList(newFieldSchema("a"));
+    Table table = newTable("t1", "db1", partitionKeys, newStorageDescriptor(new File("bla"), "col1"));
+    List<Partition> partitions = Lists.newArrayList(newPartition(table, "b"));
+    statisticsPerPartitionName.put("a=b", columnStats);
+
+    PartitionsAndStatistics partitionsAndStatistics = new PartitionsAndStatistics(partitionKeys, partitions,
+        statisticsPerPartitionName);
+
+    Partition equalPartition = new Partition(partitions.get(0));
+    assertThat(partitionsAndStatistics.getStatisticsForPartition(equalPartition).getStatsObj(), is(columnStats));
+    equalPartition.setValues(Lists.newArrayList("c"));
+    assertNull(partitionsAndStatistics.getStatisticsForPartition(equalPartition));
+  }
+
+  @Test
+  public void largeNumberOfPartitions() throws Exception {
+    List<FieldSchema> partitionKeys = Lists.newArrayList(newFieldSchema("a"));
+    Table table = newTable("t1", "db1", partitionKeys, newStorageDescriptor(new File("bla"), "col1"));
+    List<Partition> partitions = new ArrayList<>(100000);
+    for (int i = 0; i < 100000; i++) {
+      partitions.add(newPartition(table, Integer.toString(i)));
+      if (i % 2 == 0) {
+        statisticsPerPartitionName.put("a=" + i, columnStats);
+      }
+    }
+
+    PartitionsAndStatistics partitionsAndStatistics = new PartitionsAndStatistics(partitionKeys, partitions,
+        statisticsPerPartitionName);
+
+    assertThat(partitionsAndStatistics.getPartitions(), is(sameInstance(partitionsAndStatistics.getPartitions())));
+    assertThat(partitionsAndStatistics.getPartitionNames().get(99999), is("a=99999"));
+    for (int i = 0; i < 100000; i++) {
+      ColumnStatistics statistics = partitionsAndStatistics.getStatisticsForPartition(partitions.get(i));
+      assertThat(statistics == null, is(i % 2 != 0));
+    }
+  }
 }
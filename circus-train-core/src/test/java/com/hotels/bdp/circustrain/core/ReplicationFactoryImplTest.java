@@ -103,7 +103,7 @@ public class ReplicationFactoryImplTest {
     when(replicaTable.getTableName()).thenReturn(TABLE);
 
     when(copierFactoryManager.getCopierFactory(any(Path.class), any(Path.class), anyMap())).thenReturn(copierFactory);
-    when(partitionPredicateFactory.newInstance(tableReplication)).thenReturn(partitionPredicate);
+    when(partitionPredicateFactory.newInstance(tableReplication, source, replica)).thenReturn(partitionPredicate);
     when(partitionPredicate.getPartitionPredicate()).thenReturn(PARTITION_PREDICATE);
     when(sourceTable.getPartitionLimit()).thenReturn((short) MAX_PARTITIONS);
     when(replicaFactory.newInstance(tableReplication)).thenReturn(replica);
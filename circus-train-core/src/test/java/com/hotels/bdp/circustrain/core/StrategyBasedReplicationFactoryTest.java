@@ -25,9 +25,11 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Replication;
+import com.hotels.bdp.circustrain.api.conf.PartitionBatching;
 import com.hotels.bdp.circustrain.api.conf.ReplicaTable;
 import com.hotels.bdp.circustrain.api.conf.ReplicationStrategy;
 import com.hotels.bdp.circustrain.api.conf.SourceTable;
@@ -61,7 +63,8 @@ public class StrategyBasedReplicationFactoryTest {
   @Test
   public void newInstance() throws Exception {
     StrategyBasedReplicationFactory factory = new StrategyBasedReplicationFactory(upsertReplicationFactory,
-        sourceMetaStoreClientSupplier, replicaMetaStoreClientSupplier, housekeepingListener, replicaCatalogListener);
+        sourceMetaStoreClientSupplier, replicaMetaStoreClientSupplier, housekeepingListener, replicaCatalogListener,
+        new PartitionBatching(), new MetricRegistry());
     tableReplication.setReplicationStrategy(ReplicationStrategy.PROPAGATE_DELETES);
     Replication replication = factory.newInstance(tableReplication);
     assertThat(replication, instanceOf(DestructiveReplication.class));
@@ -70,7 +73,8 @@ public class StrategyBasedReplicationFactoryTest {
   @Test
   public void newInstanceUpsert() throws Exception {
     StrategyBasedReplicationFactory factory = new StrategyBasedReplicationFactory(upsertReplicationFactory,
-        sourceMetaStoreClientSupplier, replicaMetaStoreClientSupplier, housekeepingListener, replicaCatalogListener);
+        sourceMetaStoreClientSupplier, replicaMetaStoreClientSupplier, housekeepingListener, replicaCatalogListener,
+        new PartitionBatching(), new MetricRegistry());
     tableReplication.setReplicationStrategy(ReplicationStrategy.UPSERT);
     factory.newInstance(tableReplication);
     verify(upsertReplicationFactory).newInstance(tableReplication);
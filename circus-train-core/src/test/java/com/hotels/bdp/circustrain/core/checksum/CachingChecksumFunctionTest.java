@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.checksum;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Function;
+
+import com.hotels.bdp.circustrain.comparator.hive.functions.PathToPathMetadata;
+import com.hotels.bdp.circustrain.comparator.hive.wrappers.PathMetadata;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingChecksumFunctionTest {
+
+  public @Rule TemporaryFolder tmp = new TemporaryFolder();
+
+  private @Mock Function<PathMetadata, String> digest;
+
+  private final MetricRegistry registry = new MetricRegistry();
+  private final Configuration conf = new Configuration();
+  private Path cacheFile;
+  private Path location;
+
+  @Before
+  public void init() throws Exception {
+    cacheFile = new Path(new File(tmp.getRoot(), "checksums.tsv").toURI());
+    location = new Path(tmp.newFolder("partition").toURI());
+    when(digest.apply(any(PathMetadata.class))).thenReturn("checksum");
+  }
+
+  private CachingChecksumFunction newFunction(String variant) {
+    return newFunction(new PathToPathMetadata(conf, 2, false), variant);
+  }
+
+  private CachingChecksumFunction newFunction(PathToPathMetadata pathToPathMetadata, String variant) {
+    FileChecksumStore store = new FileChecksumStore(cacheFile, conf, 10,
+        registry.counter(ChecksumCacheMetrics.CHECKSUM_CACHE_EVICTIONS.name()));
+    return new CachingChecksumFunction(pathToPathMetadata, digest, store, variant, registry);
+  }
+
+  private long count(ChecksumCacheMetrics metric) {
+    return registry.counter(metric.name()).getCount();
+  }
+
+  @Test
+  public void checksumIsReusedAcrossRuns() throws Exception {
+    CachingChecksumFunction function = newFunction("v");
+    assertThat(function.apply(location), is("checksum"));
+    function.close();
+
+    assertThat(newFunction("v").apply(location), is("checksum"));
+    verify(digest, times(1)).apply(any(PathMetadata.class));
+    assertThat(count(ChecksumCacheMetrics.CHECKSUM_CACHE_MISSES), is(1L));
+    assertThat(count(ChecksumCacheMetrics.CHECKSUM_CACHE_HITS), is(1L));
+  }
+
+  @Test
+  public void changedLocationIsChecksummedAgain() throws Exception {
+    CachingChecksumFunction function = newFunction("v");
+    function.apply(location);
+    File directory = new File(location.toUri());
+    directory.setLastModified(directory.lastModified() - 10000L);
+
+    function.apply(location);
+    verify(digest, times(2)).apply(any(PathMetadata.class));
+    assertThat(count(ChecksumCacheMetrics.CHECKSUM_CACHE_MISSES), is(2L));
+  }
+
+  @Test
+  public void changedNestedFileIsChecksummedAgain() throws Exception {
+    File directory = new File(location.toUri());
+    File nested = new File(directory, "nested");
+    nested.mkdir();
+    File file = new File(nested, "file");
+    Files.write(file.toPath(), "a".getBytes(StandardCharsets.UTF_8));
+    file.setLastModified(file.lastModified() - 10000L);
+    long directoryModificationTime = directory.lastModified();
+    CachingChecksumFunction function = newFunction("v");
+    function.apply(location);
+
+    Files.write(file.toPath(), "b".getBytes(StandardCharsets.UTF_8));
+    directory.setLastModified(directoryModificationTime);
+    function.apply(location);
+    verify(digest, times(2)).apply(any(PathMetadata.class));
+  }
+
+  @Test
+  public void otherVariantIsChecksummedAgain() throws Exception {
+    CachingChecksumFunction function = newFunction("v");
+    function.apply(location);
+    function.close();
+
+    newFunction("w").apply(location);
+    verify(digest, times(2)).apply(any(PathMetadata.class));
+  }
+
+  @Test
+  public void unchangedLocationWithoutDirectoryModificationTimeIsCached() throws Exception {
+    Path s3Location = new Path("s3://bucket/table/partition");
+    FileStatus directoryStatus = new FileStatus(0L, true, 1, 0L, 0L, s3Location);
+    FileStatus fileStatus = new FileStatus(42L, false, 1, 0L, 1000L, new Path(s3Location, "file"));
+    PathToPathMetadata.Listing listing = mock(PathToPathMetadata.Listing.class);
+    when(listing.getStatuses()).thenReturn(Arrays.asList(directoryStatus, fileStatus));
+    PathToPathMetadata pathToPathMetadata = mock(PathToPathMetadata.class);
+    when(pathToPathMetadata.list(s3Location)).thenReturn(listing);
+
+    CachingChecksumFunction function = newFunction(pathToPathMetadata, "v");
+    assertThat(function.apply(s3Location), is("checksum"));
+    assertThat(function.apply(s3Location), is("checksum"));
+
+    verify(digest, times(1)).apply(any(PathMetadata.class));
+    verify(pathToPathMetadata, times(1)).apply(listing);
+    verify(pathToPathMetadata, never()).apply(s3Location);
+    assertThat(count(ChecksumCacheMetrics.CHECKSUM_CACHE_MISSES), is(1L));
+    assertThat(count(ChecksumCacheMetrics.CHECKSUM_CACHE_HITS), is(1L));
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.checksum;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.codahale.metrics.Counter;
+
+public class FileChecksumStoreTest {
+
+  public @Rule TemporaryFolder tmp = new TemporaryFolder();
+
+  private final Counter evictions = new Counter();
+  private Path file;
+
+  @Before
+  public void init() {
+    file = new Path(new File(tmp.getRoot(), "checksums.tsv").toURI());
+  }
+
+  private FileChecksumStore newStore(int maxEntries) {
+    return new FileChecksumStore(file, new Configuration(), maxEntries, evictions);
+  }
+
+  @Test
+  public void emptyWhenFileDoesNotExist() {
+    assertThat(newStore(10).get("s3://bucket/a", "fingerprint"), is(nullValue()));
+  }
+
+  @Test
+  public void fingerprintMustMatch() {
+    FileChecksumStore store = newStore(10);
+    store.put("s3://bucket/a", "fingerprint", "checksum");
+    assertThat(store.get("s3://bucket/a", "fingerprint"), is("checksum"));
+    assertThat(store.get("s3://bucket/a", "other"), is(nullValue()));
+  }
+
+  @Test
+  public void persistedOnClose() throws Exception {
+    FileChecksumStore store = newStore(10);
+    store.put("s3://bucket/a", "fingerprint", "checksum");
+    store.close();
+
+    assertThat(newStore(10).get("s3://bucket/a", "fingerprint"), is("checksum"));
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvicted() {
+    FileChecksumStore store = newStore(2);
+    store.put("a", "f", "1");
+    store.put("b", "f", "2");
+    store.get("a", "f");
+    store.put("c", "f", "3");
+
+    assertThat(store.get("a", "f"), is("1"));
+    assertThat(store.get("b", "f"), is(nullValue()));
+    assertThat(store.get("c", "f"), is("3"));
+    assertThat(evictions.getCount(), is(1L));
+  }
+
+}
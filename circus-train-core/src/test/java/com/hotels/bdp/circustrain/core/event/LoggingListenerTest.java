@@ -103,4 +103,29 @@ public class LoggingListenerTest {
     assertThat(listener.getBytesReplicated(), is(0L));
   }
 
+  @Test
+  public void stateIsRemovedOnFailure() {
+    EventPartitions eventPartitions = new EventPartitions(new LinkedHashMap<String, String>());
+    eventPartitions.add(eventPartition);
+    listener.tableReplicationStart(tableReplication, "event-id");
+    listener.partitionsToCreate(eventPartitions);
+    when(metrics.getBytesReplicated()).thenReturn(100L);
+    listener.copierEnd(metrics);
+
+    listener.tableReplicationFailure(tableReplication, "event-id", new Throwable("Test"));
+    assertThat(listener.getPartitionsAltered(), is(0));
+    assertThat(listener.getBytesReplicated(), is(0L));
+  }
+
+  @Test
+  public void stateIsRemovedOnSuccess() {
+    EventPartitions eventPartitions = new EventPartitions(new LinkedHashMap<String, String>());
+    eventPartitions.add(eventPartition);
+    listener.tableReplicationStart(tableReplication, "event-id");
+    listener.partitionsToAlter(eventPartitions);
+
+    listener.tableReplicationSuccess(tableReplication, "event-id");
+    assertThat(listener.getPartitionsAltered(), is(0));
+  }
+
 }
@@ -19,6 +19,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -129,4 +130,35 @@ public class MetricsListenerTest {
     assertThat(metrics.get("target.bytes_replicated"), is(0L));
   }
 
+  @Test
+  public void concurrentReplicationsAreTrackedSeparately() throws Exception {
+    final EventTableReplication otherTableReplication = mock(EventTableReplication.class);
+    when(otherTableReplication.getQualifiedReplicaName()).thenReturn("other");
+    when(metrics.getBytesReplicated()).thenReturn(13L);
+
+    listener.tableReplicationStart(tableReplication, "eventId");
+    listener.copierStart("");
+    Thread otherReplication = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        listener.tableReplicationStart(otherTableReplication, "otherEventId");
+        listener.tableReplicationFailure(otherTableReplication, "otherEventId", new RuntimeException());
+      }
+    });
+    otherReplication.start();
+    otherReplication.join();
+    listener.copierEnd(metrics);
+    listener.tableReplicationSuccess(tableReplication, "eventId");
+
+    verify(scheduledReporterFactory).newInstance(TARGET);
+    verify(metricSender, times(2)).send(metricsCaptor.capture());
+
+    Map<String, Long> otherMetrics = metricsCaptor.getAllValues().get(0);
+    assertThat(otherMetrics.get("other.completion_code"), is(-1L));
+    assertThat(otherMetrics.get("other.bytes_replicated"), is(0L));
+    Map<String, Long> metrics = metricsCaptor.getAllValues().get(1);
+    assertThat(metrics.get("target.completion_code"), is(1L));
+    assertThat(metrics.get("target.bytes_replicated"), is(13L));
+  }
+
 }
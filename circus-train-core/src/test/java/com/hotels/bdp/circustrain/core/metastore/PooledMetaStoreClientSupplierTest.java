@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.metastore;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PooledMetaStoreClientSupplierTest {
+
+  private static class FakeTicker extends Ticker {
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long millis) {
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+  }
+
+  private @Mock Supplier<CloseableMetaStoreClient> delegate;
+  private @Mock CloseableMetaStoreClient client1;
+  private @Mock CloseableMetaStoreClient client2;
+  private @Mock ScheduledExecutorService evictionExecutor;
+
+  private final FakeTicker ticker = new FakeTicker();
+  private final MetricRegistry registry = new MetricRegistry();
+  private PooledMetaStoreClientSupplier supplier;
+
+  @Before
+  public void init() {
+    when(delegate.get()).thenReturn(client1, client2);
+    supplier = newSupplier(0L);
+  }
+
+  private PooledMetaStoreClientSupplier newSupplier(long borrowTimeoutMs) {
+    return new PooledMetaStoreClientSupplier("catalog", "replica", delegate, 1, 1000L, 100L, borrowTimeoutMs,
+        registry, ticker, evictionExecutor);
+  }
+
+  @Test
+  public void clientIsReused() throws Exception {
+    supplier.get().close();
+    CloseableMetaStoreClient client = supplier.get();
+    client.getAllDatabases();
+
+    verify(delegate, times(1)).get();
+    verify(client1).getAllDatabases();
+    verify(client1, never()).close();
+    assertThat(registry.counter("METASTORE_CLIENT_CREATED.replica").getCount(), is(1L));
+    assertThat(registry.timer("METASTORE_CLIENT_BORROW.replica").getCount(), is(2L));
+  }
+
+  @Test
+  public void clientIsReusedAfterMetastoreError() throws Exception {
+    when(client1.getDatabase("db")).thenThrow(new NoSuchObjectException());
+    CloseableMetaStoreClient client = supplier.get();
+    try {
+      client.getDatabase("db");
+      fail("Exception should have been thrown");
+    } catch (NoSuchObjectException e) {
+      client.close();
+    }
+    supplier.get();
+
+    verify(delegate, times(1)).get();
+  }
+
+  @Test
+  public void brokenClientIsNotReused() throws Exception {
+    when(client1.getAllDatabases()).thenThrow(new TTransportException());
+    CloseableMetaStoreClient client = supplier.get();
+    try {
+      client.getAllDatabases();
+      fail("Exception should have been thrown");
+    } catch (TTransportException e) {
+      client.close();
+    }
+    supplier.get();
+
+    verify(delegate, times(2)).get();
+    verify(client1).close();
+  }
+
+  @Test
+  public void idleClientIsEvicted() throws Exception {
+    supplier.get().close();
+    ticker.advance(1000L);
+    supplier.get();
+
+    verify(delegate, times(2)).get();
+    verify(client1).close();
+    assertThat(registry.counter("METASTORE_CLIENT_EVICTED.replica").getCount(), is(1L));
+  }
+
+  @Test
+  public void staleClientIsValidated() throws Exception {
+    supplier.get().close();
+    ticker.advance(100L);
+    supplier.get();
+
+    verify(client1).getDatabase("default");
+    verify(delegate, times(1)).get();
+  }
+
+  @Test
+  public void invalidClientIsReplaced() throws Exception {
+    when(client1.getDatabase("default")).thenThrow(new TException());
+    supplier.get().close();
+    ticker.advance(100L);
+    supplier.get();
+
+    verify(delegate, times(2)).get();
+    verify(client1).close();
+  }
+
+  @Test
+  public void borrowFailsWhenAllClientsAreInUse() throws Exception {
+    supplier.get();
+    try {
+      supplier.get();
+      fail("Exception should have been thrown");
+    } catch (CircusTrainException e) {
+      assertThat(supplier.inUseCount(), is(1));
+    }
+
+    verify(delegate, times(1)).get();
+    assertThat(registry.timer("METASTORE_CLIENT_BORROW_WAIT.replica").getCount(), is(2L));
+  }
+
+  @Test
+  public void borrowWaitsForAClientToBeReturned() throws Exception {
+    final PooledMetaStoreClientSupplier waitingSupplier = newSupplier(TimeUnit.MINUTES.toMillis(1));
+    CloseableMetaStoreClient first = waitingSupplier.get();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<CloseableMetaStoreClient> second = executor.submit(new Callable<CloseableMetaStoreClient>() {
+        @Override
+        public CloseableMetaStoreClient call() throws Exception {
+          return waitingSupplier.get();
+        }
+      });
+      try {
+        second.get(100L, TimeUnit.MILLISECONDS);
+        fail("Borrow should have waited");
+      } catch (TimeoutException e) {
+        first.close();
+      }
+      second.get(10L, TimeUnit.SECONDS).getAllDatabases();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(delegate, times(1)).get();
+    verify(client1).getAllDatabases();
+    assertThat(waitingSupplier.inUseCount(), is(1));
+  }
+
+  @Test
+  public void idleClientsAreEvictedWhenThePoolIsNotUsed() throws Exception {
+    ArgumentCaptor<Runnable> eviction = ArgumentCaptor.forClass(Runnable.class);
+    verify(evictionExecutor)
+        .scheduleWithFixedDelay(eviction.capture(), eq(1000L), eq(1000L), eq(TimeUnit.MILLISECONDS));
+    supplier.get().close();
+    ticker.advance(1000L);
+    eviction.getValue().run();
+
+    verify(client1).close();
+    assertThat(supplier.idleCount(), is(0));
+  }
+
+  @Test
+  public void idleClientsAreClosedWithPool() throws Exception {
+    supplier.get().close();
+    supplier.close();
+
+    verify(client1).close();
+    verify(evictionExecutor).shutdownNow();
+    assertThat(supplier.idleCount(), is(0));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void closedClientCannotBeUsed() throws Exception {
+    CloseableMetaStoreClient client = supplier.get();
+    client.close();
+    client.getAllDatabases();
+  }
+
+}
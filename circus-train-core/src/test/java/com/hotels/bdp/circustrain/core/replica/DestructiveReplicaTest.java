@@ -22,6 +22,7 @@ import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyShort;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -46,10 +47,12 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 import com.google.common.collect.Lists;
 
 import com.hotels.bdp.circustrain.api.CircusTrainTableParameter;
+import com.hotels.bdp.circustrain.api.conf.PartitionBatching;
 import com.hotels.bdp.circustrain.api.conf.ReplicaTable;
 import com.hotels.bdp.circustrain.api.conf.SourceTable;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
@@ -159,6 +162,38 @@ public class DestructiveReplicaTest {
     verify(cleanupLocationManager).scheduleLocations();
   }
 
+  @Test
+  public void dropDeletedPartitionsInBatches() throws Exception {
+    PartitionBatching partitionBatching = new PartitionBatching();
+    partitionBatching.setSize(1);
+    MetricRegistry registry = new MetricRegistry();
+    replica = new DestructiveReplica(replicaMetaStoreClientSupplier, cleanupLocationManager, tableReplication,
+        partitionBatching, registry);
+    when(client.tableExists(DATABASE, REPLICA_TABLE)).thenReturn(true);
+    when(client.getTable(DATABASE, REPLICA_TABLE)).thenReturn(table);
+    Path location1 = new Path("loc1");
+    Partition replicaPartition1 = newPartition("value1", location1);
+    Path location2 = new Path("loc2");
+    Partition replicaPartition2 = newPartition("value2", location2);
+    Path location3 = new Path("loc3");
+    Partition replicaPartition3 = newPartition("value3", location3);
+    mockPartitionIterator(Lists.newArrayList(replicaPartition1, replicaPartition2, replicaPartition3));
+    // Dropped by a previous attempt
+    doThrow(new NoSuchObjectException())
+        .when(client)
+        .dropPartition(DATABASE, REPLICA_TABLE, "part1=value3", false);
+
+    replica.dropDeletedPartitions(Lists.newArrayList("part1=value2"));
+    verify(client).dropPartition(DATABASE, REPLICA_TABLE, "part1=value1", false);
+    verify(client, never()).dropPartition(DATABASE, REPLICA_TABLE, "part1=value2", false);
+    verify(cleanupLocationManager).addCleanupLocation(EVENT_ID, location1);
+    verify(cleanupLocationManager, never()).addCleanupLocation(EVENT_ID, location2);
+    verify(cleanupLocationManager).addCleanupLocation(EVENT_ID, location3);
+    assertThat(registry.counter(RunningMetrics.REPLICA_PARTITIONS_SCANNED_FOR_DELETION.name()).getCount(), is(3L));
+    assertThat(registry.counter(RunningMetrics.REPLICA_PARTITIONS_DROPPED.name()).getCount(), is(2L));
+    assertThat(registry.timer(RunningMetrics.REPLICA_DROP_PARTITIONS_BATCH.name()).getCount(), is(2L));
+  }
+
   @Test
   public void dropDeletedPartitionsTableDoesNotExist() throws Exception {
     when(client.tableExists(DATABASE, REPLICA_TABLE)).thenReturn(false);
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.replica;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.thrift.TException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Supplier;
+
+import com.hotels.bdp.circustrain.api.conf.PartitionBatching;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartitionBatchWriterTest {
+
+  private static final List<Integer> ITEMS = Arrays.asList(1, 2, 3, 4, 5, 6, 7);
+
+  private @Mock Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private @Mock CloseableMetaStoreClient client;
+
+  private final PartitionBatching batching = new PartitionBatching();
+  private final MetricRegistry registry = new MetricRegistry();
+  private final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<List<Integer>>());
+  private PartitionBatchWriter writer;
+
+  @Before
+  public void init() {
+    when(metaStoreClientSupplier.get()).thenReturn(client);
+    batching.setTargetLatencyMs(60000L);
+    writer = new PartitionBatchWriter(batching, metaStoreClientSupplier, registry);
+  }
+
+  private PartitionBatchWriter.BatchOperation<Integer> recordingOperation() {
+    return new PartitionBatchWriter.BatchOperation<Integer>() {
+      @Override
+      public void apply(CloseableMetaStoreClient client, List<Integer> batch) throws TException {
+        batches.add(new ArrayList<>(batch));
+      }
+    };
+  }
+
+  private int writtenItems() {
+    int count = 0;
+    for (List<Integer> batch : batches) {
+      count += batch.size();
+    }
+    return count;
+  }
+
+  @Test
+  public void unbatchedByDefault() throws TException {
+    writer.write(client, RunningMetrics.REPLICA_ADD_PARTITIONS_BATCH, ITEMS, recordingOperation());
+    assertThat(batches.size(), is(1));
+    assertThat(batches.get(0), is(ITEMS));
+    assertThat(registry.timer(RunningMetrics.REPLICA_ADD_PARTITIONS_BATCH.name()).getCount(), is(1L));
+  }
+
+  @Test
+  public void fastBatchesGrow() throws TException {
+    batching.setSize(1);
+    batching.setMaxSize(2);
+    writer.write(client, RunningMetrics.REPLICA_ADD_PARTITIONS_BATCH, ITEMS, recordingOperation());
+    assertThat(batches.size(), is(4));
+    assertThat(batches.get(0), is(Arrays.asList(1)));
+    assertThat(batches.get(1), is(Arrays.asList(2, 3)));
+    assertThat(batches.get(3), is(Arrays.asList(6, 7)));
+    assertThat(registry.timer(RunningMetrics.REPLICA_ADD_PARTITIONS_BATCH.name()).getCount(), is(4L));
+  }
+
+  @Test
+  public void onlyFailedBatchIsRetried() throws TException {
+    batching.setSize(3);
+    batching.setMaxSize(3);
+    batching.setRetries(1);
+    final int[] calls = new int[1];
+    writer.write(client, RunningMetrics.REPLICA_ALTER_PARTITIONS_BATCH, ITEMS,
+        new PartitionBatchWriter.BatchOperation<Integer>() {
+          @Override
+          public void apply(CloseableMetaStoreClient client, List<Integer> batch) throws TException {
+            if (calls[0]++ == 1) {
+              throw new TException("failed");
+            }
+            batches.add(new ArrayList<>(batch));
+          }
+        });
+    assertThat(batches.get(0), is(Arrays.asList(1, 2, 3)));
+    assertThat(batches.get(1), is(Arrays.asList(4, 5, 6)));
+    assertThat(batches.get(2), is(Arrays.asList(7)));
+    assertThat(calls[0], is(4));
+  }
+
+  @Test
+  public void retryUsesNewClient() throws TException {
+    CloseableMetaStoreClient retryClient = mock(CloseableMetaStoreClient.class);
+    when(metaStoreClientSupplier.get()).thenReturn(retryClient);
+    batching.setRetries(1);
+    final List<CloseableMetaStoreClient> clients = new ArrayList<>();
+    writer.write(client, RunningMetrics.REPLICA_ADD_PARTITIONS_BATCH, ITEMS,
+        new PartitionBatchWriter.BatchOperation<Integer>() {
+          @Override
+          public void apply(CloseableMetaStoreClient client, List<Integer> batch) throws TException {
+            clients.add(client);
+            if (clients.size() == 1) {
+              throw new TException("failed");
+            }
+          }
+        });
+    assertThat(clients, is(Arrays.asList(client, retryClient)));
+    verify(retryClient).close();
+  }
+
+  @Test
+  public void failsWhenRetriesAreExhausted() {
+    batching.setSize(3);
+    batching.setRetries(1);
+    try {
+      writer.write(client, RunningMetrics.REPLICA_ADD_PARTITIONS_BATCH, ITEMS,
+          new PartitionBatchWriter.BatchOperation<Integer>() {
+            @Override
+            public void apply(CloseableMetaStoreClient client, List<Integer> batch) throws TException {
+              throw new TException("failed");
+            }
+          });
+      fail("Expected TException");
+    } catch (TException e) {
+      assertThat(registry.timer(RunningMetrics.REPLICA_ADD_PARTITIONS_BATCH.name()).getCount(), is(2L));
+    }
+  }
+
+  @Test
+  public void concurrentBatchesWriteAllItems() throws TException {
+    batching.setSize(2);
+    batching.setMaxSize(2);
+    batching.setMaxConcurrency(3);
+    writer.write(client, RunningMetrics.REPLICA_SET_PARTITION_STATISTICS_BATCH, ITEMS, recordingOperation());
+    assertThat(batches.size(), is(4));
+    assertThat(writtenItems(), is(ITEMS.size()));
+  }
+
+  @Test
+  public void slowBatchesShrink() {
+    batching.setTargetLatencyMs(100L);
+    assertThat(writer.nextBatchSize(8, 101L, false), is(4));
+    assertThat(writer.nextBatchSize(8, 10L, true), is(4));
+    assertThat(writer.nextBatchSize(1, 101L, false), is(1));
+    assertThat(writer.nextBatchSize(8, 75L, false), is(8));
+  }
+
+}
@@ -25,6 +25,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
@@ -49,7 +50,7 @@ public class ReplicaFactoryTest {
   @Before
   public void setUp() {
     replicaFactory = new ReplicaFactory(replicaCatalog, replicaHiveConf, replicaMetaStoreClientSupplier,
-        housekeepingListener, replicaCatalogListener, replicaTableFactoryPicker);
+        housekeepingListener, replicaCatalogListener, replicaTableFactoryPicker, new MetricRegistry());
   }
 
   @Test
@@ -52,6 +52,7 @@ import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.SetPartitionsStatsRequest;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
@@ -67,11 +68,14 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
 import com.google.common.collect.Lists;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.ReplicaLocationManager;
+import com.hotels.bdp.circustrain.api.conf.PartitionBatching;
 import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
 import com.hotels.bdp.circustrain.api.conf.ReplicationMode;
 import com.hotels.bdp.circustrain.api.event.ReplicaCatalogListener;
@@ -173,7 +177,8 @@ public class ReplicaTest {
 
   private Replica newReplica(ReplicationMode replicationMode) {
     return new Replica(replicaCatalog, hiveConf, metaStoreClientSupplier, tableFactory, houseKeepingListener,
-        replicaCatalogListener, replicationMode);
+        replicaCatalogListener, replicationMode,
+        new PartitionBatchWriter(new PartitionBatching(), metaStoreClientSupplier, new MetricRegistry()));
   }
 
   @Test
@@ -382,6 +387,48 @@ public class ReplicaTest {
     assertThat(replica.getName(), is(NAME));
   }
 
+  @Test
+  public void getPartitionLocationsOfExistingPartitions() throws Exception {
+    Partition newPartition = newPartition("three", "four");
+    when(mockMetaStoreClient
+        .getPartitionsByNames(DB_NAME, TABLE_NAME, Lists.newArrayList("c=one/d=two", "c=three/d=four")))
+            .thenReturn(Arrays.asList(existingPartition));
+    PartitionsAndStatistics partitionsAndStatistics = new PartitionsAndStatistics(sourceTable.getPartitionKeys(),
+        Arrays.asList(new Partition(existingPartition), newPartition),
+        Collections.<String, List<ColumnStatisticsObj>> emptyMap());
+
+    Map<List<String>, Path> locations = replica.getPartitionLocations(DB_NAME, TABLE_NAME, partitionsAndStatistics);
+
+    assertThat(locations.size(), is(1));
+    assertThat(locations.get(existingPartition.getValues()), is(new Path(existingPartition.getSd().getLocation())));
+  }
+
+  @Test
+  public void getPartitionLocationsWithoutReplicaTable() throws Exception {
+    when(mockMetaStoreClient.getTable(DB_NAME, TABLE_NAME)).thenThrow(new NoSuchObjectException());
+    PartitionsAndStatistics partitionsAndStatistics = new PartitionsAndStatistics(sourceTable.getPartitionKeys(),
+        Arrays.asList(existingPartition), Collections.<String, List<ColumnStatisticsObj>> emptyMap());
+
+    Map<List<String>, Path> locations = replica.getPartitionLocations(DB_NAME, TABLE_NAME, partitionsAndStatistics);
+
+    assertThat(locations.isEmpty(), is(true));
+    verify(mockMetaStoreClient, never()).getPartitionsByNames(anyString(), anyString(), any(List.class));
+  }
+
+  @Test
+  public void getTableLocationOfUnpartitionedReplicaTable() throws Exception {
+    existingReplicaTable.setPartitionKeys(Collections.<FieldSchema> emptyList());
+
+    Optional<Path> location = replica.getTableLocation(DB_NAME, TABLE_NAME);
+
+    assertThat(location.get(), is(new Path(existingReplicaTable.getSd().getLocation())));
+  }
+
+  @Test
+  public void getTableLocationOfPartitionedReplicaTable() throws Exception {
+    assertThat(replica.getTableLocation(DB_NAME, TABLE_NAME).isPresent(), is(false));
+  }
+
   @Test
   public void alteringExistingPartitionedReplicaTableWithPartitionsSucceeds() throws TException, IOException {
     Partition newPartition = newPartition("three", "four");
@@ -415,7 +462,7 @@ public class ReplicaTest {
     verify(mockMetaStoreClient).alter_table(eq(DB_NAME), eq(TABLE_NAME), any(Table.class));
     verify(mockMetaStoreClient).updateTableColumnStatistics(columnStatistics);
     verify(mockMetaStoreClient).alter_partitions(eq(DB_NAME), eq(TABLE_NAME), alterPartitionCaptor.capture());
-    verify(mockMetaStoreClient).add_partitions(addPartitionCaptor.capture());
+    verify(mockMetaStoreClient).add_partitions(addPartitionCaptor.capture(), eq(true), eq(false));
 
     assertThat(alterPartitionCaptor.getValue().size(), is(1));
     assertThat(addPartitionCaptor.getValue().size(), is(1));
@@ -482,7 +529,7 @@ public class ReplicaTest {
     verify(mockMetaStoreClient).alter_table(eq(DB_NAME), eq(TABLE_NAME), any(Table.class));
     verify(mockMetaStoreClient).updateTableColumnStatistics(columnStatistics);
     verify(mockMetaStoreClient).alter_partitions(eq(DB_NAME), eq(TABLE_NAME), alterPartitionCaptor.capture());
-    verify(mockMetaStoreClient).add_partitions(addPartitionCaptor.capture());
+    verify(mockMetaStoreClient).add_partitions(addPartitionCaptor.capture(), eq(true), eq(false));
     verify(mockReplicaLocationManager, never()).addCleanUpLocation(anyString(), any(Path.class));
 
     assertThat(alterPartitionCaptor.getValue().size(), is(1));
@@ -58,6 +58,8 @@ public class FilterMissingPartitionsLocationManagerTest {
     filterMissingPartitionsLocationManager = new FilterMissingPartitionsLocationManager(sourceLocationManager,
         hiveConf);
     when(path.getFileSystem(hiveConf)).thenReturn(fileSystem);
+    when(missingPath.getFileSystem(hiveConf)).thenReturn(fileSystem);
+    when(exceptionThrowingPath.getFileSystem(hiveConf)).thenReturn(fileSystem);
     when(fileSystem.exists(path)).thenReturn(true);
     when(fileSystem.exists(missingPath)).thenReturn(false);
     when(fileSystem.exists(exceptionThrowingPath)).thenThrow(new IOException());
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2016-2017 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.source;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.hotels.bdp.circustrain.api.SourceLocationManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartitionPageLocationManagerTest {
+
+  private static final String PARTITION_LOCATION = "hdfs://server/table/a=1";
+
+  private @Mock SourceLocationManager tableLocationManager;
+
+  private final Path tableLocation = new Path("hdfs://server/table/.snapshot/event");
+  private final Partition partition = new Partition();
+  private PartitionPageLocationManager locationManager;
+
+  @Before
+  public void setUp() {
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setLocation(PARTITION_LOCATION);
+    partition.setSd(sd);
+    when(tableLocationManager.getPartitionSubPath(new Path(PARTITION_LOCATION))).thenReturn(new Path("a=1"));
+    locationManager = new PartitionPageLocationManager(tableLocationManager, tableLocation, Arrays.asList(partition));
+  }
+
+  @Test
+  public void partitionLocationsResolvedAgainstTableLocation() {
+    assertThat(locationManager.getTableLocation(), is(tableLocation));
+    assertThat(locationManager.getPartitionLocations(),
+        is(Arrays.asList(new Path("hdfs://server/table/.snapshot/event/a=1"))));
+  }
+
+  @Test
+  public void cleanUpIsLeftToTableLocationManager() {
+    locationManager.cleanUpLocations();
+    verify(tableLocationManager).getPartitionSubPath(new Path(PARTITION_LOCATION));
+    verifyNoMoreInteractions(tableLocationManager);
+  }
+
+}
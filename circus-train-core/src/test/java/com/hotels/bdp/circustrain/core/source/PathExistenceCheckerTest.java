@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.source;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PathExistenceCheckerTest {
+
+  public @Rule TemporaryFolder tmp = new TemporaryFolder();
+
+  private final Configuration conf = new Configuration();
+  private Path existing;
+  private Path otherExisting;
+  private Path missing;
+  private Path missingParent;
+
+  @Before
+  public void init() throws Exception {
+    File table = tmp.newFolder("table");
+    existing = new Path(new File(table, "a=1").toURI());
+    otherExisting = new Path(new File(table, "a=2").toURI());
+    new File(table, "a=1").mkdir();
+    new File(table, "a=2").mkdir();
+    missing = new Path(new File(table, "a=3").toURI());
+    missingParent = new Path(new File(tmp.getRoot(), "other/a=1").toURI());
+  }
+
+  private void assertExistence(Map<Path, Boolean> result) {
+    assertThat(result.size(), is(4));
+    assertThat(result.get(existing), is(true));
+    assertThat(result.get(otherExisting), is(true));
+    assertThat(result.get(missing), is(false));
+    assertThat(result.get(missingParent), is(false));
+  }
+
+  @Test
+  public void checkedOneByOne() {
+    PathExistenceChecker checker = new PathExistenceChecker(conf, 1);
+    assertExistence(checker.exist(Arrays.asList(existing, otherExisting, missing, missingParent)));
+  }
+
+  @Test
+  public void checkedConcurrently() {
+    PathExistenceChecker checker = new PathExistenceChecker(conf, 4);
+    assertExistence(checker.exist(Arrays.asList(existing, otherExisting, missing, missingParent)));
+  }
+
+  @Test
+  public void checkedByListingParents() {
+    PathExistenceChecker checker = new PathExistenceChecker(conf, 2) {
+      @Override
+      boolean isObjectStore(FileSystem fileSystem) {
+        return true;
+      }
+    };
+    assertExistence(checker.exist(Arrays.asList(existing, otherExisting, missing, missingParent)));
+  }
+
+}
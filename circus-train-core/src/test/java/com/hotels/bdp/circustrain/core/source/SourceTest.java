@@ -50,6 +50,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.SourceLocationManager;
+import com.hotels.bdp.circustrain.api.conf.PartitionStatistics;
 import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
 import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.event.SourceCatalogListener;
@@ -122,7 +123,8 @@ public class SourceTest {
     partition.setSd(sd);
     partitions = Arrays.asList(partition);
 
-    source = new Source(sourceCatalog, hiveConf, metaStoreClientSupplier, sourceCatalogListener, true, null);
+    source = new Source(sourceCatalog, hiveConf, metaStoreClientSupplier, sourceCatalogListener, true, null,
+        new PartitionStatistics());
 
     ColumnStatisticsObj columnStatisticsObj1 = new ColumnStatisticsObj(COLUMN_A, "string",
         new ColumnStatisticsData(_Fields.LONG_STATS, new LongColumnStatsData(0, 1)));
@@ -217,7 +219,7 @@ public class SourceTest {
     partition.setSd(sd);
 
     Source source = new Source(sourceCatalog, hiveConf, metaStoreClientSupplier, sourceCatalogListener, true,
-        TABLE_BASE_PATH);
+        TABLE_BASE_PATH, new PartitionStatistics());
     SourceLocationManager locationManager = source.getLocationManager(table, partitions, EVENT_ID, copierOptions);
     assertThat(locationManager.getTableLocation(), is(new Path(TABLE_BASE_PATH)));
   }
@@ -264,7 +266,7 @@ public class SourceTest {
   @Test
   public void overrideUnpartitionedTableLocation() throws Exception {
     source = new Source(sourceCatalog, hiveConf, metaStoreClientSupplier, sourceCatalogListener, true,
-        "file:///foo/bar");
+        "file:///foo/bar", new PartitionStatistics());
     SourceLocationManager locationManager = source.getLocationManager(table, EVENT_ID);
     assertThat(locationManager.getTableLocation(), is(new Path("file:///foo/bar")));
   }
@@ -272,7 +274,7 @@ public class SourceTest {
   @Test
   public void overridePartitionedTableLocationWithConfigLocation() throws Exception {
     source = new Source(sourceCatalog, hiveConf, metaStoreClientSupplier, sourceCatalogListener, true,
-        "file:///abc/xyz");
+        "file:///abc/xyz", new PartitionStatistics());
     SourceLocationManager locationManager = source.getLocationManager(table, partitions, EVENT_ID, copierOptions);
     assertThat(locationManager.getTableLocation(), is(new Path("file:///abc/xyz")));
   }
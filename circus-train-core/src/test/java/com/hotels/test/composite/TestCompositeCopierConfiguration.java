@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.test.composite;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.fs.Path;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.google.common.collect.ImmutableList;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.copier.CompositeCopierFactory;
+import com.hotels.bdp.circustrain.api.copier.Copier;
+import com.hotels.bdp.circustrain.api.copier.CopierFactory;
+import com.hotels.bdp.circustrain.api.copier.CopierPathGenerator;
+import com.hotels.bdp.circustrain.api.copier.MetricsMerger;
+import com.hotels.bdp.circustrain.api.metrics.Metrics;
+
+// Required for CircusTrainTest.compositeCopierFactoryMaxConcurrencyFromCopierOptions
+@Configuration
+public class TestCompositeCopierConfiguration {
+
+  public static final AtomicInteger completedCopies = new AtomicInteger();
+
+  @Bean
+  public CopierFactory compositeCopierFactory() {
+    // Delegates only complete when they run at the same time
+    CyclicBarrier bothCopiersStarted = new CyclicBarrier(2);
+    List<CopierFactory> delegates = ImmutableList
+        .<CopierFactory> of(new BarrierCopierFactory(bothCopiersStarted), new BarrierCopierFactory(bothCopiersStarted));
+    return new CompositeCopierFactory(delegates, CopierPathGenerator.IDENTITY, MetricsMerger.DEFAULT);
+  }
+
+  static class BarrierCopierFactory implements CopierFactory {
+
+    private final CyclicBarrier barrier;
+
+    BarrierCopierFactory(CyclicBarrier barrier) {
+      this.barrier = barrier;
+    }
+
+    @Override
+    public boolean supportsSchemes(String sourceScheme, String replicaScheme) {
+      return true;
+    }
+
+    @Override
+    public Copier newInstance(
+        String eventId,
+        Path sourceBaseLocation,
+        List<Path> sourceSubLocations,
+        Path replicaLocation,
+        Map<String, Object> copierOptions) {
+      return new Copier() {
+        @Override
+        public Metrics copy() throws CircusTrainException {
+          try {
+            barrier.await(10, TimeUnit.SECONDS);
+          } catch (Exception e) {
+            throw new CircusTrainException("Copiers did not run concurrently", e);
+          }
+          completedCopies.incrementAndGet();
+          return Metrics.NULL_VALUE;
+        }
+      };
+    }
+
+    @Override
+    public Copier newInstance(
+        String eventId,
+        Path sourceBaseLocation,
+        Path replicaLocation,
+        Map<String, Object> copierOptions) {
+      return newInstance(eventId, sourceBaseLocation, Collections.<Path> emptyList(), replicaLocation, copierOptions);
+    }
+
+  }
+
+}
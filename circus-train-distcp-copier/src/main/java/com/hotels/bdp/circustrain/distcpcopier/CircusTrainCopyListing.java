@@ -24,8 +24,16 @@ import static org.apache.hadoop.io.SequenceFile.Writer.valueClass;
 import static org.apache.hadoop.tools.DistCpConstants.CONF_LABEL_COPY_LISTING_CLASS;
 
 import java.io.IOException;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
@@ -41,6 +49,10 @@ import org.apache.hadoop.tools.SimpleCopyListing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 
 /**
@@ -64,12 +76,26 @@ import com.hotels.bdp.circustrain.api.CircusTrainException;
  * <p>
  * With {@link CircusTrainCopyListing}, the above information is provided along with a source root path. In this case it
  * would be {@code /source}. The result would then be {@code /target/foo/bar}.
+ * <p>
+ * Source paths are walked concurrently, each by a single thread, and their files are written to the listing as they
+ * are found. The number of listed paths is reported as a meter in the metric registry set with
+ * {@link #setMetricRegistry(Configuration, MetricRegistry)}. Sync markers are written after every
+ * {@value #SYNC_INTERVAL_RECORDS} records or {@value #SYNC_INTERVAL_BYTES} bytes of listed files, whichever comes
+ * first, so that the listing threads do not write a marker after every record while holding the writer.
  */
 public class CircusTrainCopyListing extends SimpleCopyListing {
 
   private static final Logger LOG = LoggerFactory.getLogger(CircusTrainCopyListing.class);
 
   static final String CONF_ROOT_PATH = CircusTrainCopyListing.class + "_ROOT_PATH";
+  static final String CONF_LISTING_THREADS = CircusTrainCopyListing.class + "_LISTING_THREADS";
+  static final String CONF_METRIC_REGISTRY_ID = CircusTrainCopyListing.class + "_METRIC_REGISTRY_ID";
+  static final int DEFAULT_LISTING_THREADS = 10;
+  static final int SYNC_INTERVAL_RECORDS = 100;
+  static final long SYNC_INTERVAL_BYTES = 64L * 1024 * 1024;
+
+  // DistCp instantiates the listing from its configuration so the registry can't be handed over directly
+  private static final ConcurrentMap<String, MetricRegistry> METRIC_REGISTRIES = new ConcurrentHashMap<>();
 
   static void setAsCopyListingClass(Configuration conf) {
     conf.setClass(CONF_LABEL_COPY_LISTING_CLASS, CircusTrainCopyListing.class, CopyListing.class);
@@ -87,33 +113,133 @@ public class CircusTrainCopyListing extends SimpleCopyListing {
     return new Path(pathString);
   }
 
-  public CircusTrainCopyListing(Configuration configuration, Credentials credentials) {
-    super(configuration, credentials);
+  static void setListingThreads(Configuration conf, int listingThreads) {
+    conf.setInt(CONF_LISTING_THREADS, listingThreads);
   }
 
-  @Override
-  public void doBuildListing(Path pathToListFile, DistCpOptions options) throws IOException {
-    try (Writer writer = newWriter(pathToListFile)) {
+  /**
+   * Must be followed by {@link #removeMetricRegistry(Configuration)} once the listing has been built.
+   */
+  static void setMetricRegistry(Configuration conf, MetricRegistry registry) {
+    String id = UUID.randomUUID().toString();
+    METRIC_REGISTRIES.put(id, registry);
+    conf.set(CONF_METRIC_REGISTRY_ID, id);
+  }
 
-      Path sourceRootPath = getRootPath(getConf());
+  static void removeMetricRegistry(Configuration conf) {
+    String id = conf.get(CONF_METRIC_REGISTRY_ID);
+    if (id != null) {
+      METRIC_REGISTRIES.remove(id);
+      conf.unset(CONF_METRIC_REGISTRY_ID);
+    }
+  }
 
-      for (Path sourcePath : options.getSourcePaths()) {
+  // Guarded by the listing writer
+  private long recordsSinceSync = 0;
+  private long bytesSinceSync = 0;
 
-        FileSystem fileSystem = sourcePath.getFileSystem(getConf());
-        FileStatus directory = fileSystem.getFileStatus(sourcePath);
+  public CircusTrainCopyListing(Configuration configuration, Credentials credentials) {
+    super(configuration, credentials);
+  }
 
-        Map<String, CopyListingFileStatus> children = new FileStatusTreeTraverser(fileSystem)
-            .preOrderTraversal(directory)
-            .transform(new CopyListingFileStatusFunction(fileSystem, options))
-            .uniqueIndex(new RelativePathFunction(sourceRootPath));
+  @Override
+  public void doBuildListing(Path pathToListFile, final DistCpOptions options) throws IOException {
+    final Path sourceRootPath = getRootPath(getConf());
+    final Meter listedPaths = getListedPathsMeter();
+    List<Path> sourcePaths = options.getSourcePaths();
+    int listingThreads = Math.min(getConf().getInt(CONF_LISTING_THREADS, DEFAULT_LISTING_THREADS), sourcePaths.size());
+    long start = System.nanoTime();
+    long count = listedPaths.getCount();
+    recordsSinceSync = 0;
+    bytesSinceSync = 0;
+
+    try (final Writer writer = newWriter(pathToListFile)) {
+      if (listingThreads <= 1) {
+        for (Path sourcePath : sourcePaths) {
+          addToListing(writer, sourcePath, sourceRootPath, options, listedPaths);
+        }
+      } else {
+        ExecutorService executor = Executors
+            .newFixedThreadPool(listingThreads,
+                new ThreadFactoryBuilder().setNameFormat("copy-listing-%d").setDaemon(true).build());
+        try {
+          List<Future<Void>> futures = new ArrayList<>(sourcePaths.size());
+          for (final Path sourcePath : sourcePaths) {
+            futures.add(executor.submit(new Callable<Void>() {
+              @Override
+              public Void call() throws IOException {
+                addToListing(writer, sourcePath, sourceRootPath, options, listedPaths);
+                return null;
+              }
+            }));
+          }
+          for (Future<Void> future : futures) {
+            future.get();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new CircusTrainException("Interrupted while building copy listing", e);
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          }
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          throw new CircusTrainException("Unable to build copy listing", cause);
+        } finally {
+          executor.shutdownNow();
+        }
+      }
+    }
 
-        for (Entry<String, CopyListingFileStatus> entry : children.entrySet()) {
-          LOG.debug("Adding '{}' with relative path '{}'", entry.getValue().getPath(), entry.getKey());
-          writer.append(new Text(entry.getKey()), entry.getValue());
+    long elapsedMillis = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+    count = listedPaths.getCount() - count;
+    LOG.info("Listed {} paths under {} source paths in {} ms ({} paths/s).", count, sourcePaths.size(),
+        elapsedMillis, count * 1000L / elapsedMillis);
+  }
+
+  private void addToListing(
+      Writer writer,
+      Path sourcePath,
+      Path sourceRootPath,
+      DistCpOptions options,
+      Meter listedPaths)
+    throws IOException {
+    FileSystem fileSystem = sourcePath.getFileSystem(getConf());
+    FileStatus directory = fileSystem.getFileStatus(sourcePath);
+    CopyListingFileStatusFunction copyListingFileStatusFunction = new CopyListingFileStatusFunction(fileSystem,
+        options);
+    RelativePathFunction relativePathFunction = new RelativePathFunction(sourceRootPath);
+
+    for (FileStatus fileStatus : new FileStatusTreeTraverser(fileSystem).preOrderTraversal(directory)) {
+      CopyListingFileStatus copyListingFileStatus = copyListingFileStatusFunction.apply(fileStatus);
+      String relativePath = relativePathFunction.apply(copyListingFileStatus);
+      LOG.debug("Adding '{}' with relative path '{}'", copyListingFileStatus.getPath(), relativePath);
+      synchronized (writer) {
+        writer.append(new Text(relativePath), copyListingFileStatus);
+        recordsSinceSync++;
+        if (!copyListingFileStatus.isDirectory()) {
+          bytesSinceSync += copyListingFileStatus.getLen();
+        }
+        if (recordsSinceSync >= SYNC_INTERVAL_RECORDS || bytesSinceSync >= SYNC_INTERVAL_BYTES) {
           writer.sync();
+          recordsSinceSync = 0;
+          bytesSinceSync = 0;
         }
       }
+      listedPaths.mark();
+    }
+  }
+
+  private Meter getListedPathsMeter() {
+    String id = getConf().get(CONF_METRIC_REGISTRY_ID);
+    MetricRegistry registry = id == null ? null : METRIC_REGISTRIES.get(id);
+    if (registry == null) {
+      return new Meter();
     }
+    return registry.meter(RunningMetrics.DIST_CP_PATHS_LISTED.name());
   }
 
   private Writer newWriter(Path pathToListFile) throws IOException {
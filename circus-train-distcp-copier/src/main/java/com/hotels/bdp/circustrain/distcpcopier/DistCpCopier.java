@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.commons.collections.MapUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -35,12 +36,12 @@ import org.slf4j.LoggerFactory;
 import com.codahale.metrics.MetricRegistry;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
-import com.hotels.bdp.circustrain.api.copier.Copier;
+import com.hotels.bdp.circustrain.api.copier.CancellableCopier;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.metrics.JobCounterGauge;
 import com.hotels.bdp.circustrain.metrics.JobMetrics;
 
-public class DistCpCopier implements Copier {
+public class DistCpCopier implements CancellableCopier {
 
   interface DistCpExecutor {
 
@@ -56,6 +57,7 @@ public class DistCpCopier implements Copier {
 
   private static final Logger LOG = LoggerFactory.getLogger(DistCpCopier.class);
 
+  private final String eventId;
   private final Configuration conf;
   private final Path sourceDataBaseLocation;
   private final List<Path> sourceDataLocations;
@@ -65,18 +67,23 @@ public class DistCpCopier implements Copier {
 
   private final MetricRegistry registry;
 
+  private volatile Job runningJob;
+  private volatile boolean cancelled;
+
   public DistCpCopier(
+      String eventId,
       Configuration conf,
       Path sourceDataBaseLocation,
       List<Path> sourceDataLocations,
       Path replicaDataLocation,
       Map<String, Object> copierOptions,
       MetricRegistry registry) {
-    this(conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions, DistCpExecutor.DEFAULT,
-        registry);
+    this(eventId, conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions,
+        DistCpExecutor.DEFAULT, registry);
   }
 
   DistCpCopier(
+      String eventId,
       Configuration conf,
       Path sourceDataBaseLocation,
       List<Path> sourceDataLocations,
@@ -84,6 +91,7 @@ public class DistCpCopier implements Copier {
       Map<String, Object> copierOptions,
       DistCpExecutor executor,
       MetricRegistry registry) {
+    this.eventId = eventId;
     this.executor = executor;
     this.registry = registry;
     this.conf = new Configuration(conf); // a copy as we'll be modifying it
@@ -115,10 +123,24 @@ public class DistCpCopier implements Copier {
 
     CircusTrainCopyListing.setAsCopyListingClass(conf);
     CircusTrainCopyListing.setRootPath(conf, sourceDataBaseLocation);
+    CircusTrainCopyListing.setListingThreads(conf, MapUtils.getIntValue(copierOptions,
+        DistCpOptionsParser.COPY_LISTING_THREADS, CircusTrainCopyListing.DEFAULT_LISTING_THREADS));
 
     try {
       distCpOptions.setBlocking(false);
-      Job job = executor.exec(conf, distCpOptions);
+      Job job;
+      CircusTrainCopyListing.setMetricRegistry(conf, registry);
+      try {
+        // The copy listing is built before the job is submitted
+        job = executor.exec(conf, distCpOptions);
+      } finally {
+        CircusTrainCopyListing.removeMetricRegistry(conf);
+      }
+      runningJob = job;
+      if (cancelled) {
+        // Cancelled while the job was being submitted
+        killJob(job);
+      }
       String counter = String
           .format("%s_BYTES_WRITTEN", replicaDataLocation.toUri().getScheme().toUpperCase(Locale.ROOT));
       registerRunningJobMetrics(job, counter);
@@ -131,14 +153,42 @@ public class DistCpCopier implements Copier {
     } catch (Exception e) {
       cleanUpReplicaDataLocation();
       throw new CircusTrainException("Unable to copy file(s)", e);
+    } finally {
+      registry.remove(runningMetricName());
+    }
+  }
+
+  /**
+   * Kills the running job, {@link #copy()} then fails and cleans up the replica data location.
+   */
+  @Override
+  public void cancel() {
+    cancelled = true;
+    Job job = runningJob;
+    if (job != null) {
+      killJob(job);
+    }
+  }
+
+  private static void killJob(Job job) {
+    try {
+      LOG.info("Killing job {}", job.getJobID());
+      job.killJob();
+    } catch (Exception e) {
+      LOG.warn("Unable to kill job {}", job.getJobID(), e);
     }
   }
 
   private void registerRunningJobMetrics(final Job job, final String counter) {
-    registry.remove(RunningMetrics.DIST_CP_BYTES_REPLICATED.name());
-    registry
-        .register(RunningMetrics.DIST_CP_BYTES_REPLICATED.name(),
-            new JobCounterGauge(job, FileSystemCounter.class.getName(), counter));
+    registry.remove(runningMetricName());
+    registry.register(runningMetricName(), new JobCounterGauge(job, FileSystemCounter.class.getName(), counter));
+  }
+
+  /**
+   * Replications may run concurrently: each one reports the bytes it has replicated under its own event id.
+   */
+  String runningMetricName() {
+    return MetricRegistry.name(RunningMetrics.DIST_CP_BYTES_REPLICATED.name(), eventId);
   }
 
   private void cleanUpReplicaDataLocation() {
@@ -60,7 +60,7 @@ public class DistCpCopierFactory implements CopierFactory {
       List<Path> sourceSubLocations,
       Path replicaLocation,
       Map<String, Object> copierOptions) {
-    return new DistCpCopier(conf, sourceBaseLocation, sourceSubLocations, replicaLocation, copierOptions,
+    return new DistCpCopier(eventId, conf, sourceBaseLocation, sourceSubLocations, replicaLocation, copierOptions,
         runningMetricsRegistry);
   }
 
@@ -43,6 +43,7 @@ public class DistCpOptionsParser {
   public static final String MAX_MAPS = "max-maps"; // int
   public static final String SKIP_CRC = "skip-crc"; // boolean
   public static final String SSL_CONFIGURATION_FILE = "ssl-configuration-file"; // string
+  public static final String COPY_LISTING_THREADS = "copy-listing-threads"; // int
 
   private final DistCpOptions distCpOptions;
 
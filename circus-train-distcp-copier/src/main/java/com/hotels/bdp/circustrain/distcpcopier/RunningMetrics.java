@@ -17,6 +17,7 @@ package com.hotels.bdp.circustrain.distcpcopier;
 
 public enum RunningMetrics {
 
-  DIST_CP_BYTES_REPLICATED;
+  DIST_CP_BYTES_REPLICATED,
+  DIST_CP_PATHS_LISTED;
 
 }
@@ -26,7 +26,9 @@ import static org.junit.Assert.assertTrue;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -40,6 +42,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Sets;
 import com.google.common.io.Files;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
@@ -107,4 +111,42 @@ public class CircusTrainCopyListingTest {
     }
   }
 
+  @Test
+  public void sourcePathsListedConcurrently() throws IOException {
+    File input = temp.newFolder("input");
+    List<Path> sourceDataLocations = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      File partition = new File(input, "part=" + i);
+      partition.mkdirs();
+      Files.asCharSink(new File(partition, "data"), UTF_8).write("test" + i);
+      sourceDataLocations.add(new Path(partition.toURI()));
+    }
+
+    File listFile = temp.newFile("listFile");
+    Path pathToListFile = new Path(listFile.toURI());
+    DistCpOptions options = new DistCpOptions(sourceDataLocations, new Path("dummy"));
+
+    MetricRegistry registry = new MetricRegistry();
+    CircusTrainCopyListing.setRootPath(conf, new Path(input.toURI()));
+    CircusTrainCopyListing.setListingThreads(conf, 2);
+    CircusTrainCopyListing.setMetricRegistry(conf, registry);
+    try {
+      new CircusTrainCopyListing(conf, null).doBuildListing(pathToListFile, options);
+    } finally {
+      CircusTrainCopyListing.removeMetricRegistry(conf);
+    }
+
+    Set<String> keys = new HashSet<>();
+    try (Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(pathToListFile))) {
+      Text key = new Text();
+      CopyListingFileStatus value = new CopyListingFileStatus();
+      while (reader.next(key, value)) {
+        keys.add(key.toString());
+      }
+    }
+    assertThat(keys, is((Set<String>) Sets
+        .newHashSet("/part=0", "/part=0/data", "/part=1", "/part=1/data", "/part=2", "/part=2/data")));
+    assertThat(registry.meter(RunningMetrics.DIST_CP_PATHS_LISTED.name()).getCount(), is(6L));
+  }
+
 }
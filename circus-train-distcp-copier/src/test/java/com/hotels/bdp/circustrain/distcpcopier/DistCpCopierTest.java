@@ -27,6 +27,7 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,7 +39,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricRegistryListener;
 import com.google.common.io.Files;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
@@ -46,6 +49,8 @@ import com.hotels.bdp.circustrain.api.metrics.Metrics;
 
 public class DistCpCopierTest {
 
+  private static final String EVENT_ID = "event-id";
+
   @Rule
   public TemporaryFolder temp = new TemporaryFolder();
 
@@ -77,7 +82,15 @@ public class DistCpCopierTest {
 
   @Test
   public void typical() throws Exception {
-    copier = new DistCpCopier(conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, null, registry);
+    copier = new DistCpCopier(EVENT_ID, conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, null,
+        registry);
+    final List<String> gaugesAdded = new ArrayList<>();
+    registry.addListener(new MetricRegistryListener.Base() {
+      @Override
+      public void onGaugeAdded(String name, Gauge<?> gauge) {
+        gaugesAdded.add(name);
+      }
+    });
 
     Metrics metrics = copier.copy();
     assertThat(metrics, not(nullValue()));
@@ -91,15 +104,16 @@ public class DistCpCopierTest {
     File outputSub4Data = new File(outputPath, "sub3/sub4/data");
     assertTrue(outputSub4Data.exists());
     assertThat(Files.asCharSource(outputSub4Data, UTF_8).read(), is("test2"));
-    assertThat(registry.getGauges().containsKey(RunningMetrics.DIST_CP_BYTES_REPLICATED.name()), is(true));
+    assertThat(gaugesAdded, is(Collections.singletonList("DIST_CP_BYTES_REPLICATED.event-id")));
+    assertThat(registry.getGauges().isEmpty(), is(true));
   }
 
   @Test
   public void cleanUpOnFailure() throws Exception {
     Map<String, Object> copierOptions = new HashMap<>();
     copierOptions.put("file-attribute", "xattr"); // This will cause the copier to fail after having copied the data
-    copier = new DistCpCopier(conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions,
-        registry);
+    copier = new DistCpCopier(EVENT_ID, conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation,
+        copierOptions, registry);
 
     try {
       copier.copy();
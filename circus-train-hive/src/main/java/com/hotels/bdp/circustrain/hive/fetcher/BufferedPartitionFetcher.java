@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2017 Expedia Inc.
+ * Copyright (C) 2016-2019 Expedia Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,18 @@
  */
 package com.hotels.bdp.circustrain.hive.fetcher;
 
+import java.io.Closeable;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.Warehouse;
@@ -29,21 +37,37 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
-/** Fetches partitions ahead in batches and keeps them in cache until a non-cached partition is requested. */
-public class BufferedPartitionFetcher implements PartitionFetcher {
+/**
+ * Fetches partitions ahead in batches and keeps them in cache until a non-cached partition is requested. Optionally the
+ * batch following the current one is fetched in the background, once half of the current one has been read, so that
+ * sequential access does not wait on the metastore. Prefetching uses the given metastore client from another thread but
+ * never concurrently with this fetcher, so the client must not be used elsewhere while partitions are being fetched and
+ * the fetcher must be closed before the client is closed or released.
+ */
+public class BufferedPartitionFetcher implements PartitionFetcher, Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(BufferedPartitionFetcher.class);
 
   private static final short NO_LIMIT = (short) -1;
 
   private final List<String> partitionNames;
+  private final Map<String, Integer> partitionPositions;
   private final IMetaStoreClient metastore;
   private final Table table;
   private final short bufferSize;
+  private final ExecutorService prefetchExecutor;
   private Map<String, Partition> buffer;
+  private int bufferPosition;
+  private Future<Map<String, Partition>> nextBuffer;
+  private int nextBufferPosition = -1;
 
   public BufferedPartitionFetcher(IMetaStoreClient metastore, Table table, short bufferSize) {
+    this(metastore, table, bufferSize, false);
+  }
+
+  public BufferedPartitionFetcher(IMetaStoreClient metastore, Table table, short bufferSize, boolean prefetch) {
 
     try {
       LOG.debug("Fetching all partition names.");
@@ -53,28 +77,83 @@ public class BufferedPartitionFetcher implements PartitionFetcher {
       throw new RuntimeException("Unable to fetch partition names of table " + Warehouse.getQualifiedName(table), e);
     }
 
+    partitionPositions = new HashMap<>((int) (partitionNames.size() / 0.75f) + 1);
+    for (int i = 0; i < partitionNames.size(); i++) {
+      partitionPositions.put(partitionNames.get(i), i);
+    }
+
     this.table = table;
     this.metastore = metastore;
     this.bufferSize = bufferSize;
     buffer = Collections.emptyMap();
+    if (prefetch) {
+      // The single thread is let go when idle, close() waits for a prefetch that is using the metastore client
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1L, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(),
+          new ThreadFactoryBuilder().setNameFormat("partition-prefetch-%d").setDaemon(true).build());
+      executor.allowCoreThreadTimeOut(true);
+      prefetchExecutor = executor;
+    } else {
+      prefetchExecutor = null;
+    }
   }
 
   @Override
   public Partition fetch(String partitionName) {
-    int partitionPosition = partitionNames.indexOf(partitionName);
-    if (partitionPosition < 0) {
+    Integer partitionPosition = partitionPositions.get(partitionName);
+    if (partitionPosition == null) {
       throw new PartitionNotFoundException("Unknown partition " + partitionName);
     }
 
     if (!buffer.containsKey(partitionName)) {
-      bufferPartitions(partitionPosition);
+      Map<String, Partition> prefetched = takeNextBuffer(partitionPosition);
+      if (prefetched != null) {
+        buffer = prefetched;
+        bufferPosition = nextBufferPosition;
+      } else {
+        bufferPartitions(partitionPosition);
+        bufferPosition = partitionPosition;
+      }
+    }
+    // The next buffer is only fetched when reads progress through this one, not when they stop early in it
+    if (nextBuffer == null && partitionPosition >= bufferPosition + bufferSize / 2) {
+      prefetch(bufferPosition + bufferSize);
     }
 
     return buffer.get(partitionName);
   }
 
+  /**
+   * Cancels a prefetch that has not started yet and waits for one in progress, so that the metastore client is no
+   * longer in use when this method returns.
+   */
+  @Override
+  public void close() {
+    if (prefetchExecutor == null) {
+      return;
+    }
+    if (nextBuffer != null) {
+      nextBuffer.cancel(false);
+      nextBuffer = null;
+    }
+    prefetchExecutor.shutdown();
+    try {
+      while (!prefetchExecutor.awaitTermination(1L, TimeUnit.MINUTES)) {
+        LOG.warn("Waiting for the prefetch of partitions of table {} to complete", Warehouse.getQualifiedName(table));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the prefetch of partitions of table "
+          + Warehouse.getQualifiedName(table), e);
+    }
+  }
+
   @VisibleForTesting
   void bufferPartitions(int firstPartition) {
+    buffer = loadPartitions(firstPartition);
+  }
+
+  private Map<String, Partition> loadPartitions(int firstPartition) {
     int totalPartitionsToLoad = Math.min(partitionNames.size(), firstPartition + bufferSize);
     List<String> partitionsToLoad = partitionNames.subList(firstPartition, totalPartitionsToLoad);
 
@@ -84,13 +163,52 @@ public class BufferedPartitionFetcher implements PartitionFetcher {
           partitionsToLoad);
       LOG.debug("Fetched {} partitions for table {}.", partitions.size(), Warehouse.getQualifiedName(table));
 
-      buffer = new HashMap<>(partitions.size());
+      Map<String, Partition> loaded = new HashMap<>(partitions.size());
       for (Partition partition : partitions) {
-        buffer.put(Warehouse.makePartName(table.getPartitionKeys(), partition.getValues()), partition);
+        loaded.put(Warehouse.makePartName(table.getPartitionKeys(), partition.getValues()), partition);
       }
+      return loaded;
     } catch (TException e) {
       throw new RuntimeException("Unable to fetch partitions of table " + Warehouse.getQualifiedName(table), e);
     }
   }
 
+  private void prefetch(final int firstPartition) {
+    if (prefetchExecutor == null || firstPartition >= partitionNames.size()) {
+      return;
+    }
+    nextBufferPosition = firstPartition;
+    nextBuffer = prefetchExecutor.submit(new Callable<Map<String, Partition>>() {
+      @Override
+      public Map<String, Partition> call() throws Exception {
+        return loadPartitions(firstPartition);
+      }
+    });
+  }
+
+  /**
+   * Waits for any pending prefetch so that the metastore client is free, and returns its result if it holds the
+   * requested partition.
+   */
+  private Map<String, Partition> takeNextBuffer(int partitionPosition) {
+    if (nextBuffer == null) {
+      return null;
+    }
+    Future<Map<String, Partition>> pending = nextBuffer;
+    nextBuffer = null;
+    try {
+      Map<String, Partition> prefetched = pending.get();
+      if (partitionPosition >= nextBufferPosition && partitionPosition < nextBufferPosition + bufferSize) {
+        return prefetched;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while prefetching partitions of table "
+          + Warehouse.getQualifiedName(table), e);
+    } catch (ExecutionException e) {
+      LOG.debug("Prefetch of partitions failed, fetching them again.", e.getCause());
+    }
+    return null;
+  }
+
 }
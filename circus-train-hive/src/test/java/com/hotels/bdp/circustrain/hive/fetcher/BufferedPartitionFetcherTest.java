@@ -17,12 +17,17 @@ package com.hotels.bdp.circustrain.hive.fetcher;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
@@ -32,7 +37,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 @RunWith(MockitoJUnitRunner.class)
 public class BufferedPartitionFetcherTest {
@@ -111,4 +118,75 @@ public class BufferedPartitionFetcherTest {
     verify(fetcher, times(1)).bufferPartitions(2);
   }
 
+  @Test
+  public void prefetchNextBuffer() throws Exception {
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=01", "a=02")))
+        .thenReturn(Arrays.asList(p01, p02));
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=03")))
+        .thenReturn(Arrays.asList(p03));
+
+    BufferedPartitionFetcher fetcher = spy(new BufferedPartitionFetcher(metastore, table, (short) 2, true));
+
+    assertThat(fetcher.fetch("a=01"), is(p01));
+    assertThat(fetcher.fetch("a=02"), is(p02));
+    assertThat(fetcher.fetch("a=03"), is(p03));
+    verify(fetcher, times(1)).bufferPartitions(0);
+    verify(fetcher, never()).bufferPartitions(2);
+    verify(metastore, times(1)).getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=03"));
+  }
+
+  @Test
+  public void prefetchedBufferIsDiscardedOnRandomAccess() throws Exception {
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=02")))
+        .thenReturn(Arrays.asList(p02));
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=03")))
+        .thenReturn(Arrays.asList(p03));
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=01")))
+        .thenReturn(Arrays.asList(p01));
+
+    BufferedPartitionFetcher fetcher = spy(new BufferedPartitionFetcher(metastore, table, (short) 1, true));
+
+    assertThat(fetcher.fetch("a=02"), is(p02));
+    assertThat(fetcher.fetch("a=01"), is(p01));
+    verify(fetcher, times(1)).bufferPartitions(1);
+    verify(fetcher, times(1)).bufferPartitions(0);
+  }
+
+  @Test
+  public void noPrefetchBeforeHalfOfBufferIsRead() throws Exception {
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=01", "a=02")))
+        .thenReturn(Arrays.asList(p01, p02));
+
+    BufferedPartitionFetcher fetcher = new BufferedPartitionFetcher(metastore, table, (short) 2, true);
+
+    assertThat(fetcher.fetch("a=01"), is(p01));
+    fetcher.close();
+    verify(metastore, never()).getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=03"));
+  }
+
+  @Test
+  public void closeWaitsForPrefetchInProgress() throws Exception {
+    final CountDownLatch prefetchStarted = new CountDownLatch(1);
+    final AtomicBoolean prefetchCompleted = new AtomicBoolean();
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=01")))
+        .thenReturn(Arrays.asList(p01));
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=02")))
+        .thenAnswer(new Answer<List<Partition>>() {
+          @Override
+          public List<Partition> answer(InvocationOnMock invocation) throws Throwable {
+            prefetchStarted.countDown();
+            Thread.sleep(100L);
+            prefetchCompleted.set(true);
+            return Arrays.asList(p02);
+          }
+        });
+
+    BufferedPartitionFetcher fetcher = new BufferedPartitionFetcher(metastore, table, (short) 1, true);
+
+    assertThat(fetcher.fetch("a=01"), is(p01));
+    assertThat(prefetchStarted.await(10L, TimeUnit.SECONDS), is(true));
+    fetcher.close();
+    assertThat(prefetchCompleted.get(), is(true));
+  }
+
 }
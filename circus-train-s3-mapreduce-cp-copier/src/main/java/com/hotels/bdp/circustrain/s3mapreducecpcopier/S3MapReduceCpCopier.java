@@ -32,7 +32,7 @@ import org.slf4j.LoggerFactory;
 import com.codahale.metrics.MetricRegistry;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
-import com.hotels.bdp.circustrain.api.copier.Copier;
+import com.hotels.bdp.circustrain.api.copier.CancellableCopier;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.metrics.JobCounterGauge;
 import com.hotels.bdp.circustrain.metrics.JobMetrics;
@@ -41,7 +41,7 @@ import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpOptions;
 import com.hotels.bdp.circustrain.s3mapreducecp.SimpleCopyListing;
 import com.hotels.bdp.circustrain.s3mapreducecp.mapreduce.Counter;
 
-public class S3MapReduceCpCopier implements Copier {
+public class S3MapReduceCpCopier implements CancellableCopier {
 
   interface S3MapReduceCpExecutor {
 
@@ -57,6 +57,7 @@ public class S3MapReduceCpCopier implements Copier {
 
   private static final Logger LOG = LoggerFactory.getLogger(S3MapReduceCpCopier.class);
 
+  private final String eventId;
   private final Configuration conf;
   private final Path sourceDataBaseLocation;
   private final List<Path> sourceDataLocations;
@@ -66,18 +67,23 @@ public class S3MapReduceCpCopier implements Copier {
 
   private final MetricRegistry registry;
 
+  private volatile Job runningJob;
+  private volatile boolean cancelled;
+
   public S3MapReduceCpCopier(
+      String eventId,
       Configuration conf,
       Path sourceDataBaseLocation,
       List<Path> sourceDataLocations,
       Path replicaDataLocation,
       Map<String, Object> copierOptions,
       MetricRegistry registry) {
-    this(conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions,
+    this(eventId, conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions,
         S3MapReduceCpExecutor.DEFAULT, registry);
   }
 
   S3MapReduceCpCopier(
+      String eventId,
       Configuration conf,
       Path sourceDataBaseLocation,
       List<Path> sourceDataLocations,
@@ -85,6 +91,7 @@ public class S3MapReduceCpCopier implements Copier {
       Map<String, Object> copierOptions,
       S3MapReduceCpExecutor executor,
       MetricRegistry registry) {
+    this.eventId = eventId;
     this.executor = executor;
     this.registry = registry;
     this.conf = new Configuration(conf); // a copy as we'll be modifying it
@@ -135,6 +142,11 @@ public class S3MapReduceCpCopier implements Copier {
     try {
       Enum<?> counter = Counter.BYTESCOPIED;
       Job job = executor.exec(conf, s3MapReduceCpOptions);
+      runningJob = job;
+      if (cancelled) {
+        // Cancelled while the job was being submitted
+        killJob(job);
+      }
       registerRunningJobMetrics(job, counter);
       if (!job.waitForCompletion(true)) {
         throw new IOException(
@@ -145,13 +157,42 @@ public class S3MapReduceCpCopier implements Copier {
     } catch (Exception e) {
       cleanUpReplicaDataLocation();
       throw new CircusTrainException("Unable to copy file(s)", e);
+    } finally {
+      registry.remove(runningMetricName());
+    }
+  }
+
+  /**
+   * Kills the running job, {@link #copy()} then fails and cleans up the replica data location.
+   */
+  @Override
+  public void cancel() {
+    cancelled = true;
+    Job job = runningJob;
+    if (job != null) {
+      killJob(job);
+    }
+  }
+
+  private static void killJob(Job job) {
+    try {
+      LOG.info("Killing job {}", job.getJobID());
+      job.killJob();
+    } catch (Exception e) {
+      LOG.warn("Unable to kill job {}", job.getJobID(), e);
     }
   }
 
   private void registerRunningJobMetrics(final Job job, final Enum<?> counter) {
-    registry.remove(RunningMetrics.S3_MAPREDUCE_CP_BYTES_REPLICATED.name());
-    registry.register(RunningMetrics.S3_MAPREDUCE_CP_BYTES_REPLICATED.name(), new JobCounterGauge(job, counter));
+    registry.remove(runningMetricName());
+    registry.register(runningMetricName(), new JobCounterGauge(job, counter));
+  }
 
+  /**
+   * Replications may run concurrently: each one reports the bytes it has replicated under its own event id.
+   */
+  String runningMetricName() {
+    return MetricRegistry.name(RunningMetrics.S3_MAPREDUCE_CP_BYTES_REPLICATED.name(), eventId);
   }
 
   private void cleanUpReplicaDataLocation() {
@@ -62,8 +62,8 @@ public class S3MapReduceCpCopierFactory implements CopierFactory {
       List<Path> sourceSubLocations,
       Path replicaLocation,
       Map<String, Object> copierOptions) {
-    return new S3MapReduceCpCopier(conf, sourceBaseLocation, sourceSubLocations, replicaLocation, copierOptions,
-        runningMetricsRegistry);
+    return new S3MapReduceCpCopier(eventId, conf, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        copierOptions, runningMetricsRegistry);
   }
 
   @Override
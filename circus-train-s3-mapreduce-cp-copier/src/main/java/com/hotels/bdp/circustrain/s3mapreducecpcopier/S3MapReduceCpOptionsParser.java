@@ -34,12 +34,18 @@ public class S3MapReduceCpOptionsParser {
 
   public static final String CREDENTIAL_PROVIDER = "credential-provider";
   public static final String TASK_BANDWIDTH = "task-bandwidth";
+  public static final String JOB_BANDWIDTH = "job-bandwidth";
+  public static final String TASK_BANDWIDTH_BURST = "task-bandwidth-burst";
   public static final String STORAGE_CLASS = "storage-class";
   public static final String S3_SERVER_SIDE_ENCRYPTION = "s3-server-side-encryption";
   public static final String MULTIPART_UPLOAD_CHUNK_SIZE = "multipart-upload-chunk-size";
   public static final String MULTIPART_UPLOAD_THRESHOLD = "multipart-upload-threshold";
   public static final String MAX_MAPS = "max-maps";
   public static final String NUMBER_OF_WORKERS_PER_MAP = "num-of-workers-per-map";
+  public static final String CONCURRENT_UPLOADS_PER_MAP = "concurrent-uploads-per-map";
+  public static final String SMALL_FILE_UPLOAD_THRESHOLD = "small-file-upload-threshold";
+  public static final String PARALLEL_UPLOAD_THRESHOLD = "parallel-upload-threshold";
+  public static final String PARALLEL_UPLOAD_MEMORY = "parallel-upload-memory";
   public static final String COPY_STRATEGY = "copy-strategy";
   public static final String LOG_PATH = "log-path";
   public static final String REGION = "region";
@@ -87,6 +93,20 @@ public class S3MapReduceCpOptionsParser {
     }
     optionsBuilder.maxBandwidth(maxBandwidth);
 
+    long maxJobBandwidth = MapUtils.getLongValue(copierOptions, JOB_BANDWIDTH,
+        ConfigurationVariable.MAX_JOB_BANDWIDTH.defaultLongValue());
+    if (maxJobBandwidth < 0) {
+      throw new IllegalArgumentException("Parameter " + JOB_BANDWIDTH + " must be a positive number");
+    }
+    optionsBuilder.maxJobBandwidth(maxJobBandwidth);
+
+    long bandwidthBurst = MapUtils.getLongValue(copierOptions, TASK_BANDWIDTH_BURST,
+        ConfigurationVariable.BANDWIDTH_BURST.defaultLongValue());
+    if (bandwidthBurst < 0) {
+      throw new IllegalArgumentException("Parameter " + TASK_BANDWIDTH_BURST + " must be a positive number");
+    }
+    optionsBuilder.bandwidthBurst(bandwidthBurst);
+
     int numberOfUploadWorkers = MapUtils.getIntValue(copierOptions, NUMBER_OF_WORKERS_PER_MAP,
         ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.defaultIntValue());
     if (numberOfUploadWorkers <= 0) {
@@ -95,6 +115,35 @@ public class S3MapReduceCpOptionsParser {
     }
     optionsBuilder.numberOfUploadWorkers(numberOfUploadWorkers);
 
+    int concurrentUploadsPerMap = MapUtils.getIntValue(copierOptions, CONCURRENT_UPLOADS_PER_MAP,
+        ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP.defaultIntValue());
+    if (concurrentUploadsPerMap <= 0) {
+      throw new IllegalArgumentException(
+          "Parameter " + CONCURRENT_UPLOADS_PER_MAP + " must be a positive number greater than zero");
+    }
+    optionsBuilder.concurrentUploadsPerMap(concurrentUploadsPerMap);
+
+    long smallFileUploadThreshold = MapUtils.getLongValue(copierOptions, SMALL_FILE_UPLOAD_THRESHOLD,
+        ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD.defaultLongValue());
+    if (smallFileUploadThreshold < 0) {
+      throw new IllegalArgumentException("Parameter " + SMALL_FILE_UPLOAD_THRESHOLD + " must be a positive number");
+    }
+    optionsBuilder.smallFileUploadThreshold(smallFileUploadThreshold);
+
+    long parallelUploadThreshold = MapUtils.getLongValue(copierOptions, PARALLEL_UPLOAD_THRESHOLD,
+        ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.defaultLongValue());
+    if (parallelUploadThreshold < 0) {
+      throw new IllegalArgumentException("Parameter " + PARALLEL_UPLOAD_THRESHOLD + " must be a positive number");
+    }
+    optionsBuilder.parallelUploadThreshold(parallelUploadThreshold);
+
+    long parallelUploadMemory = MapUtils.getLongValue(copierOptions, PARALLEL_UPLOAD_MEMORY,
+        ConfigurationVariable.PARALLEL_UPLOAD_MEMORY.defaultLongValue());
+    if (parallelUploadMemory <= 0) {
+      throw new IllegalArgumentException("Parameter " + PARALLEL_UPLOAD_MEMORY + " must be greater than zero");
+    }
+    optionsBuilder.parallelUploadMemory(parallelUploadMemory);
+
     long multipartUploadThreshold = MapUtils.getLongValue(copierOptions, MULTIPART_UPLOAD_THRESHOLD,
         ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD.defaultLongValue());
     if (multipartUploadThreshold <= 0) {
@@ -19,8 +19,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -53,14 +56,19 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
 import com.amazonaws.services.s3.model.StorageClass;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 
+import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpOptions;
 import com.hotels.bdp.circustrain.s3mapreducecp.SimpleCopyListing;
@@ -69,6 +77,8 @@ import com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpCopier.S3MapR
 @RunWith(MockitoJUnitRunner.class)
 public class S3MapReduceCpCopierTest {
 
+  private static final String EVENT_ID = "event-id";
+
   private @Mock S3MapReduceCpExecutor executor;
   private @Mock Job job;
   private @Mock Map<String, Object> copierOptions;
@@ -91,8 +101,8 @@ public class S3MapReduceCpCopierTest {
 
   @Test
   public void tableArgsAndConfiguration() throws Exception {
-    S3MapReduceCpCopier copier = new S3MapReduceCpCopier(conf, sourceDataBaseLocation, Collections.<Path> emptyList(),
-        replicaDataLocation, copierOptions, executor, metricRegistry);
+    S3MapReduceCpCopier copier = new S3MapReduceCpCopier(EVENT_ID, conf, sourceDataBaseLocation,
+        Collections.<Path> emptyList(), replicaDataLocation, copierOptions, executor, metricRegistry);
     Metrics metrics = copier.copy();
     assertThat(metrics, not(nullValue()));
 
@@ -120,8 +130,8 @@ public class S3MapReduceCpCopierTest {
     when(copierOptions.get(IGNORE_FAILURES)).thenReturn("true");
     when(copierOptions.get(CANNED_ACL)).thenReturn(CannedAccessControlList.BucketOwnerFullControl.toString());
 
-    S3MapReduceCpCopier copier = new S3MapReduceCpCopier(conf, sourceDataBaseLocation, Collections.<Path> emptyList(),
-        replicaDataLocation, copierOptions, executor, metricRegistry);
+    S3MapReduceCpCopier copier = new S3MapReduceCpCopier(EVENT_ID, conf, sourceDataBaseLocation,
+        Collections.<Path> emptyList(), replicaDataLocation, copierOptions, executor, metricRegistry);
     Metrics metrics = copier.copy();
     assertThat(metrics, not(nullValue()));
 
@@ -145,11 +155,32 @@ public class S3MapReduceCpCopierTest {
     assertThat(options.getCannedAcl(), is(CannedAccessControlList.BucketOwnerFullControl.toString()));
   }
 
+  @Test
+  public void copyIsNotResumable() throws Exception {
+    S3MapReduceCpCopier copier = new S3MapReduceCpCopier(EVENT_ID, conf, sourceDataBaseLocation,
+        Collections.<Path> emptyList(), replicaDataLocation, copierOptions, executor, metricRegistry);
+    copier.copy();
+
+    verify(executor).exec(confCaptor.capture(), optionsCaptor.capture());
+    assertThat(optionsCaptor.getValue().getResumeId(), is(nullValue()));
+  }
+
+  @Test
+  public void runningMetricsAreRegisteredPerReplication() throws Exception {
+    S3MapReduceCpCopier copier = new S3MapReduceCpCopier(EVENT_ID, conf, sourceDataBaseLocation,
+        Collections.<Path> emptyList(), replicaDataLocation, copierOptions, executor, metricRegistry);
+    copier.copy();
+
+    InOrder inOrder = inOrder(metricRegistry);
+    inOrder.verify(metricRegistry).register(eq("S3_MAPREDUCE_CP_BYTES_REPLICATED.event-id"), any(Gauge.class));
+    inOrder.verify(metricRegistry).remove("S3_MAPREDUCE_CP_BYTES_REPLICATED.event-id");
+  }
+
   @Test
   public void partitionsArgsAndConfiguration() throws Exception {
     List<Path> partitionLocations = Arrays.asList(new Path(sourceDataBaseLocation, "p1"),
         new Path(sourceDataBaseLocation, "p2"));
-    S3MapReduceCpCopier copier = new S3MapReduceCpCopier(conf, sourceDataBaseLocation, partitionLocations,
+    S3MapReduceCpCopier copier = new S3MapReduceCpCopier(EVENT_ID, conf, sourceDataBaseLocation, partitionLocations,
         replicaDataLocation, copierOptions, executor, metricRegistry);
 
     copier.copy();
@@ -165,4 +196,43 @@ public class S3MapReduceCpCopierTest {
     assertThat(options.getCredentialsProvider(), is(credentialsProvider));
   }
 
+  @Test
+  public void cancelKillsRunningJob() throws Exception {
+    final S3MapReduceCpCopier copier = new S3MapReduceCpCopier(EVENT_ID, conf, sourceDataBaseLocation,
+        Collections.<Path> emptyList(), replicaDataLocation, copierOptions, executor, metricRegistry);
+    when(job.waitForCompletion(anyBoolean())).thenAnswer(new Answer<Boolean>() {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable {
+        copier.cancel();
+        return false;
+      }
+    });
+    try {
+      copier.copy();
+      fail("Expected CircusTrainException");
+    } catch (CircusTrainException e) {
+      verify(job).killJob();
+    }
+  }
+
+  @Test
+  public void cancelDuringSubmissionKillsJob() throws Exception {
+    final S3MapReduceCpCopier copier = new S3MapReduceCpCopier(EVENT_ID, conf, sourceDataBaseLocation,
+        Collections.<Path> emptyList(), replicaDataLocation, copierOptions, executor, metricRegistry);
+    when(executor.exec(any(Configuration.class), any(S3MapReduceCpOptions.class))).thenAnswer(new Answer<Job>() {
+      @Override
+      public Job answer(InvocationOnMock invocation) throws Throwable {
+        copier.cancel();
+        return job;
+      }
+    });
+    when(job.waitForCompletion(anyBoolean())).thenReturn(false);
+    try {
+      copier.copy();
+      fail("Expected CircusTrainException");
+    } catch (CircusTrainException e) {
+      verify(job).killJob();
+    }
+  }
+
 }
@@ -21,19 +21,25 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.CANNED_ACL;
+import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.CONCURRENT_UPLOADS_PER_MAP;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.COPY_STRATEGY;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.CREDENTIAL_PROVIDER;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.IGNORE_FAILURES;
+import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.JOB_BANDWIDTH;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.LOG_PATH;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.MAX_MAPS;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.MULTIPART_UPLOAD_CHUNK_SIZE;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.MULTIPART_UPLOAD_THRESHOLD;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.NUMBER_OF_WORKERS_PER_MAP;
+import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.PARALLEL_UPLOAD_MEMORY;
+import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.PARALLEL_UPLOAD_THRESHOLD;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.REGION;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.S3_ENDPOINT_URI;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.S3_SERVER_SIDE_ENCRYPTION;
+import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.SMALL_FILE_UPLOAD_THRESHOLD;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.STORAGE_CLASS;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.TASK_BANDWIDTH;
+import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.TASK_BANDWIDTH_BURST;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.UPLOAD_BUFFER_SIZE;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.UPLOAD_RETRY_COUNT;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.UPLOAD_RETRY_DELAY_MS;
@@ -70,7 +76,13 @@ public class S3MapReduceCpOptionsParserTest {
     copierOptions.put(S3_SERVER_SIDE_ENCRYPTION, true);
     copierOptions.put(STORAGE_CLASS, StorageClass.Glacier.toString());
     copierOptions.put(TASK_BANDWIDTH, 1024);
+    copierOptions.put(JOB_BANDWIDTH, 4096);
+    copierOptions.put(TASK_BANDWIDTH_BURST, 64);
     copierOptions.put(NUMBER_OF_WORKERS_PER_MAP, 12);
+    copierOptions.put(CONCURRENT_UPLOADS_PER_MAP, 4);
+    copierOptions.put(SMALL_FILE_UPLOAD_THRESHOLD, 65536L);
+    copierOptions.put(PARALLEL_UPLOAD_THRESHOLD, 4096L);
+    copierOptions.put(PARALLEL_UPLOAD_MEMORY, 128L);
     copierOptions.put(MULTIPART_UPLOAD_THRESHOLD, 2048L);
     copierOptions.put(MAX_MAPS, 5);
     copierOptions.put(COPY_STRATEGY, "mycopystrategy");
@@ -91,7 +103,13 @@ public class S3MapReduceCpOptionsParserTest {
     assertThat(options.isS3ServerSideEncryption(), is(true));
     assertThat(options.getStorageClass(), is(StorageClass.Glacier.toString()));
     assertThat(options.getMaxBandwidth(), is(1024L));
+    assertThat(options.getMaxJobBandwidth(), is(4096L));
+    assertThat(options.getBandwidthBurst(), is(64L));
     assertThat(options.getNumberOfUploadWorkers(), is(12));
+    assertThat(options.getConcurrentUploadsPerMap(), is(4));
+    assertThat(options.getSmallFileUploadThreshold(), is(65536L));
+    assertThat(options.getParallelUploadThreshold(), is(4096L));
+    assertThat(options.getParallelUploadMemory(), is(128L));
     assertThat(options.getMultipartUploadThreshold(), is(2048L));
     assertThat(options.getMaxMaps(), is(5));
     assertThat(options.getCopyStrategy(), is("mycopystrategy"));
@@ -213,6 +231,32 @@ public class S3MapReduceCpOptionsParserTest {
     parser.parse(copierOptions);
   }
 
+  @Test
+  public void missingJobBandwidth() {
+    copierOptions.remove(JOB_BANDWIDTH);
+    S3MapReduceCpOptions options = parser.parse(copierOptions);
+    assertThat(options.getMaxJobBandwidth(), is(ConfigurationVariable.MAX_JOB_BANDWIDTH.defaultLongValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeJobBandwidth() {
+    copierOptions.put(JOB_BANDWIDTH, -1);
+    parser.parse(copierOptions);
+  }
+
+  @Test
+  public void missingTaskBandwidthBurst() {
+    copierOptions.remove(TASK_BANDWIDTH_BURST);
+    S3MapReduceCpOptions options = parser.parse(copierOptions);
+    assertThat(options.getBandwidthBurst(), is(ConfigurationVariable.BANDWIDTH_BURST.defaultLongValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeTaskBandwidthBurst() {
+    copierOptions.put(TASK_BANDWIDTH_BURST, -1);
+    parser.parse(copierOptions);
+  }
+
   @Test
   public void missingNumberOfUploadWorkers() {
     copierOptions.remove(NUMBER_OF_WORKERS_PER_MAP);
@@ -241,6 +285,61 @@ public class S3MapReduceCpOptionsParserTest {
     parser.parse(copierOptions);
   }
 
+  @Test
+  public void missingConcurrentUploadsPerMap() {
+    copierOptions.remove(CONCURRENT_UPLOADS_PER_MAP);
+    S3MapReduceCpOptions options = parser.parse(copierOptions);
+    assertThat(options.getConcurrentUploadsPerMap(),
+        is(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP.defaultIntValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroConcurrentUploadsPerMap() {
+    copierOptions.put(CONCURRENT_UPLOADS_PER_MAP, 0);
+    parser.parse(copierOptions);
+  }
+
+  @Test
+  public void missingSmallFileUploadThreshold() {
+    copierOptions.remove(SMALL_FILE_UPLOAD_THRESHOLD);
+    S3MapReduceCpOptions options = parser.parse(copierOptions);
+    assertThat(options.getSmallFileUploadThreshold(),
+        is(ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD.defaultLongValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeSmallFileUploadThreshold() {
+    copierOptions.put(SMALL_FILE_UPLOAD_THRESHOLD, -1L);
+    parser.parse(copierOptions);
+  }
+
+  @Test
+  public void missingParallelUploadThreshold() {
+    copierOptions.remove(PARALLEL_UPLOAD_THRESHOLD);
+    S3MapReduceCpOptions options = parser.parse(copierOptions);
+    assertThat(options.getParallelUploadThreshold(),
+        is(ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.defaultLongValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeParallelUploadThreshold() {
+    copierOptions.put(PARALLEL_UPLOAD_THRESHOLD, -1L);
+    parser.parse(copierOptions);
+  }
+
+  @Test
+  public void missingParallelUploadMemory() {
+    copierOptions.remove(PARALLEL_UPLOAD_MEMORY);
+    S3MapReduceCpOptions options = parser.parse(copierOptions);
+    assertThat(options.getParallelUploadMemory(), is(ConfigurationVariable.PARALLEL_UPLOAD_MEMORY.defaultLongValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroParallelUploadMemory() {
+    copierOptions.put(PARALLEL_UPLOAD_MEMORY, 0L);
+    parser.parse(copierOptions);
+  }
+
   @Test
   public void missingMultipartUploadThreshold() {
     copierOptions.remove(MULTIPART_UPLOAD_THRESHOLD);
@@ -422,6 +521,12 @@ public class S3MapReduceCpOptionsParserTest {
     parser.parse(copierOptions);
   }
 
+  @Test
+  public void notResumableByDefault() {
+    S3MapReduceCpOptions options = parser.parse(copierOptions);
+    assertThat(options.getResumeId(), is(nullValue()));
+  }
+
   @Test
   public void missingCannedAcl() {
     copierOptions.remove(CANNED_ACL);
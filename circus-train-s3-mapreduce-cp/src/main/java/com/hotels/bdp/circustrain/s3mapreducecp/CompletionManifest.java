@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Files copied by the previous runs of a resumable S3MapReduceCp job. Each map task attempt writes the files it has
+ * copied to its own file of the manifest folder, one line per file with its size, ETag and relative path. Lines are
+ * flushed as they are written so that the files copied by a task that dies are still known to the next run. Partially
+ * written lines are ignored.
+ */
+public final class CompletionManifest {
+  private static final Logger LOG = LoggerFactory.getLogger(CompletionManifest.class);
+
+  static final String FOLDER_NAME = "_manifest";
+
+  private static final char SEPARATOR = '\t';
+  private static final char LINE_SEPARATOR = '\n';
+
+  private CompletionManifest() {}
+
+  /**
+   * A file copied by a previous run.
+   */
+  public static final class Entry {
+    private final String relativePath;
+    private final long size;
+    private final String eTag;
+
+    Entry(String relativePath, long size, String eTag) {
+      this.relativePath = relativePath;
+      this.size = size;
+      this.eTag = eTag;
+    }
+
+    public String getRelativePath() {
+      return relativePath;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public String getETag() {
+      return eTag;
+    }
+  }
+
+  /**
+   * Appends the files copied by a task attempt to its manifest file.
+   */
+  public static final class Writer implements Closeable {
+    private final FSDataOutputStream out;
+
+    private Writer(FSDataOutputStream out) {
+      this.out = out;
+    }
+
+    public void append(String relativePath, long size, String eTag) throws IOException {
+      String line = Long.toString(size) + SEPARATOR + (eTag == null ? "" : eTag) + SEPARATOR + relativePath
+          + LINE_SEPARATOR;
+      out.write(line.getBytes(StandardCharsets.UTF_8));
+      out.hflush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+  /**
+   * @param metaFolder Meta folder of the job.
+   * @return Folder of the manifest files of the job.
+   */
+  public static Path getFolder(Path metaFolder) {
+    return new Path(metaFolder, FOLDER_NAME);
+  }
+
+  /**
+   * Deletes the content of the meta folder of a job, except its manifest.
+   *
+   * @param fs File system of the meta folder
+   * @param metaFolder Meta folder of the job
+   * @throws IOException If the content cannot be deleted.
+   */
+  public static void deleteAllButManifest(FileSystem fs, Path metaFolder) throws IOException {
+    if (!fs.exists(metaFolder)) {
+      return;
+    }
+    for (FileStatus fileStatus : fs.listStatus(metaFolder)) {
+      if (!fileStatus.getPath().getName().equals(FOLDER_NAME)) {
+        fs.delete(fileStatus.getPath(), true);
+      }
+    }
+  }
+
+  /**
+   * @param conf Configuration
+   * @param folder Manifest folder
+   * @param name Name of the manifest file, unique to the task attempt.
+   * @return A writer to a new manifest file.
+   * @throws IOException If the file cannot be created.
+   */
+  public static Writer newWriter(Configuration conf, Path folder, String name) throws IOException {
+    Path path = new Path(folder, name);
+    FileSystem fs = path.getFileSystem(conf);
+    return new Writer(fs.create(path, true));
+  }
+
+  /**
+   * @param conf Configuration
+   * @param folder Manifest folder
+   * @return Files copied by the previous runs of the job by relative path, empty if there is no manifest.
+   * @throws IOException If the manifest cannot be read.
+   */
+  public static Map<String, Entry> read(Configuration conf, Path folder) throws IOException {
+    Map<String, Entry> entries = new HashMap<>();
+    FileSystem fs = folder.getFileSystem(conf);
+    if (!fs.exists(folder)) {
+      return entries;
+    }
+    for (FileStatus fileStatus : fs.listStatus(folder)) {
+      if (fileStatus.isFile()) {
+        readFile(fs, fileStatus.getPath(), entries);
+      }
+    }
+    LOG.info("Read {} copied files from manifest {}", entries.size(), folder);
+    return entries;
+  }
+
+  private static void readFile(FileSystem fs, Path path, Map<String, Entry> entries) throws IOException {
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    InputStream in = fs.open(path);
+    try {
+      IOUtils.copyBytes(in, content, 4096, false);
+    } finally {
+      IOUtils.closeStream(in);
+    }
+    String text = new String(content.toByteArray(), StandardCharsets.UTF_8);
+    int start = 0;
+    int end;
+    while ((end = text.indexOf(LINE_SEPARATOR, start)) >= 0) {
+      Entry entry = parse(text.substring(start, end));
+      if (entry == null) {
+        LOG.warn("Ignoring malformed line in manifest file {}", path);
+      } else {
+        entries.put(entry.getRelativePath(), entry);
+      }
+      start = end + 1;
+    }
+  }
+
+  static Entry parse(String line) {
+    int sizeEnd = line.indexOf(SEPARATOR);
+    if (sizeEnd < 0) {
+      return null;
+    }
+    int eTagEnd = line.indexOf(SEPARATOR, sizeEnd + 1);
+    if (eTagEnd < 0) {
+      return null;
+    }
+    long size;
+    try {
+      size = Long.parseLong(line.substring(0, sizeEnd));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    String eTag = line.substring(sizeEnd + 1, eTagEnd);
+    return new Entry(line.substring(eTagEnd + 1), size, eTag.isEmpty() ? null : eTag);
+  }
+
+}
@@ -33,6 +33,7 @@ final class Constants {
 public enum ConfigurationVariable {
 
   CANNED_ACL("com.hotels.bdp.circustrain.s3mapreducecp.cannedAcl", null),
+  RESUME_ID("com.hotels.bdp.circustrain.s3mapreducecp.resumeId", null),
   CREDENTIAL_PROVIDER("com.hotels.bdp.circustrain.s3mapreducecp.credentialsProvider", null),
   MINIMUM_UPLOAD_PART_SIZE("com.hotels.bdp.circustrain.s3mapreducecp.minimumUploadPartSize",
       String.valueOf(DEFAULT_TRANSFER_MANAGER_CONFIGURATION.getMinimumUploadPartSize())),
@@ -44,8 +45,20 @@ public enum ConfigurationVariable {
   REGION("com.hotels.bdp.circustrain.s3mapreducecp.region", null),
   MAX_BANDWIDTH("com.hotels.bdp.circustrain.s3mapreducecp.maxBandwidth",
       String.valueOf(S3MapReduceCpConstants.DEFAULT_BANDWIDTH_MB)),
+  MAX_JOB_BANDWIDTH("com.hotels.bdp.circustrain.s3mapreducecp.maxJobBandwidth",
+      String.valueOf(S3MapReduceCpConstants.DEFAULT_JOB_BANDWIDTH_MB)),
+  BANDWIDTH_BURST("com.hotels.bdp.circustrain.s3mapreducecp.bandwidthBurst",
+      String.valueOf(S3MapReduceCpConstants.DEFAULT_BANDWIDTH_BURST_MB)),
   NUMBER_OF_UPLOAD_WORKERS("com.hotels.bdp.circustrain.s3mapreducecp.numberOfUploadWorkers",
       String.valueOf(S3MapReduceCpConstants.DEFAULT_NUM_OF_UPLOAD_WORKERS)),
+  CONCURRENT_UPLOADS_PER_MAP("com.hotels.bdp.circustrain.s3mapreducecp.concurrentUploadsPerMap",
+      String.valueOf(S3MapReduceCpConstants.DEFAULT_CONCURRENT_UPLOADS_PER_MAP)),
+  SMALL_FILE_UPLOAD_THRESHOLD("com.hotels.bdp.circustrain.s3mapreducecp.smallFileUploadThreshold",
+      String.valueOf(S3MapReduceCpConstants.DEFAULT_SMALL_FILE_UPLOAD_THRESHOLD)),
+  PARALLEL_UPLOAD_THRESHOLD("com.hotels.bdp.circustrain.s3mapreducecp.parallelUploadThreshold",
+      String.valueOf(S3MapReduceCpConstants.DEFAULT_PARALLEL_UPLOAD_THRESHOLD)),
+  PARALLEL_UPLOAD_MEMORY("com.hotels.bdp.circustrain.s3mapreducecp.parallelUploadMemory",
+      String.valueOf(S3MapReduceCpConstants.DEFAULT_PARALLEL_UPLOAD_MEMORY_MB)),
   MAX_MAPS("com.hotels.bdp.circustrain.s3mapreducecp.maxMaps", String.valueOf(S3MapReduceCpConstants.DEFAULT_MAPS)),
   COPY_STRATEGY("com.hotels.bdp.circustrain.s3mapreducecp.copyStrategy", S3MapReduceCpConstants.UNIFORMSIZE),
   IGNORE_FAILURES("com.hotels.bdp.circustrain.s3mapreducecp.ignoreFailures", Boolean.FALSE.toString()),
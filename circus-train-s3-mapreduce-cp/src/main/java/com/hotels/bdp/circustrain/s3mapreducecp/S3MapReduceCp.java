@@ -145,6 +145,10 @@ public class S3MapReduceCp extends Configured implements Tool {
         // Don't cleanup while we are setting up.
         metaFolder = createMetaFolderPath();
         jobFS = metaFolder.getFileSystem(getConf());
+        if (inputOptions.getResumeId() != null) {
+          // Listing and splits of the previous run are stale, only its manifest is kept
+          CompletionManifest.deleteAllButManifest(jobFS, metaFolder);
+        }
 
         prepareConf();
 
@@ -294,7 +298,8 @@ public class S3MapReduceCp extends Configured implements Tool {
   }
 
   /**
-   * Create a default working folder for the job, under the job staging directory
+   * Create a default working folder for the job, under the job staging directory. The working folder of a resumable job
+   * is named after its resume identifier so that a later run of the job finds the manifest of the files already copied.
    *
    * @return Returns the working folder information
    * @throws Exception - EXception if any
@@ -302,7 +307,13 @@ public class S3MapReduceCp extends Configured implements Tool {
   private Path createMetaFolderPath() throws Exception {
     Configuration configuration = getConf();
     Path stagingDir = JobSubmissionFiles.getStagingDir(new Cluster(configuration), configuration);
-    Path metaFolderPath = new Path(stagingDir, PREFIX + String.valueOf(rand.nextInt()));
+    Path metaFolderPath;
+    if (inputOptions != null && inputOptions.getResumeId() != null) {
+      String resumeId = inputOptions.getResumeId().replaceAll("[^A-Za-z0-9._-]", "_");
+      metaFolderPath = new Path(stagingDir, PREFIX + "_" + resumeId);
+    } else {
+      metaFolderPath = new Path(stagingDir, PREFIX + String.valueOf(rand.nextInt()));
+    }
     LOG.debug("Meta folder location: {}", metaFolderPath);
     configuration.set(S3MapReduceCpConstants.CONF_LABEL_META_FOLDER, metaFolderPath.toString());
     return metaFolderPath;
@@ -367,7 +378,11 @@ public class S3MapReduceCp extends Configured implements Tool {
         return;
       }
 
-      jobFS.delete(metaFolder, true);
+      if (inputOptions != null && inputOptions.getResumeId() != null) {
+        CompletionManifest.deleteAllButManifest(jobFS, metaFolder);
+      } else {
+        jobFS.delete(metaFolder, true);
+      }
       metaFolder = null;
     } catch (IOException e) {
       LOG.error("Unable to cleanup meta folder: {}", metaFolder, e);
@@ -31,9 +31,27 @@ public class S3MapReduceCpConstants {
   /* Default number of upload workers to use for each S3MapReduceCp Map */
   public static final int DEFAULT_NUM_OF_UPLOAD_WORKERS = 20;
 
+  /* Default number of files uploaded at the same time by each S3MapReduceCp Map */
+  public static final int DEFAULT_CONCURRENT_UPLOADS_PER_MAP = 1;
+
+  /* Default size in bytes under which files are uploaded with a single request: 0 means no small file uploads */
+  public static final long DEFAULT_SMALL_FILE_UPLOAD_THRESHOLD = 0L;
+
+  /* Default size in bytes from which files are uploaded in ranges read in parallel: 0 means no parallel uploads */
+  public static final long DEFAULT_PARALLEL_UPLOAD_THRESHOLD = 0L;
+
+  /* Default memory in MB that the parts read by the parallel uploads of a Map can hold together */
+  public static final long DEFAULT_PARALLEL_UPLOAD_MEMORY_MB = 256L;
+
   /* Default bandwidth if none specified */
   public static final int DEFAULT_BANDWIDTH_MB = 100;
 
+  /* Default bandwidth of the whole job: 0 means only the bandwidth per task applies */
+  public static final int DEFAULT_JOB_BANDWIDTH_MB = 0;
+
+  /* Default burst size of the bandwidth of a task: 0 means no burst */
+  public static final int DEFAULT_BANDWIDTH_BURST_MB = 0;
+
   /*
    * Default strategy for copying. Implementation looked up from s3mapreducecp-default.xml
    */
@@ -69,6 +87,9 @@ public class S3MapReduceCpConstants {
   /* S3MapReduceCp CopyListing class override param */
   public static final String CONF_LABEL_COPY_LISTING_CLASS = "distcp.copy.listing.class";
 
+  /* Number of source paths listed at the same time when building the copy listing */
+  public static final String CONF_LABEL_LISTING_THREADS = "s3mapreducecp.listing.threads";
+
   /**
    * Constants for S3MapReduceCp return code to shell / consumer of ToolRunner's run
    */
@@ -94,5 +115,8 @@ public class S3MapReduceCpConstants {
   /* Default buffer size used during data transfer: 0 means use the default provided by the file system */
   public static final int DEFAULT_UPLOAD_BUFFER_SIZE = 0;
 
+  /* Default number of source paths listed at the same time by SimpleCopyListing */
+  public static final int DEFAULT_LISTING_THREADS = 10;
+
   private S3MapReduceCpConstants() {}
 }
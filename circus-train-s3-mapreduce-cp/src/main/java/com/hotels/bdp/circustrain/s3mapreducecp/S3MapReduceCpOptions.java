@@ -81,11 +81,41 @@ public class S3MapReduceCpOptions {
       return this;
     }
 
+    public Builder maxJobBandwidth(long maxJobBandwidth) {
+      options.setMaxJobBandwidth(maxJobBandwidth);
+      return this;
+    }
+
+    public Builder bandwidthBurst(long bandwidthBurst) {
+      options.setBandwidthBurst(bandwidthBurst);
+      return this;
+    }
+
     public Builder numberOfUploadWorkers(int numberOfUploadWorkers) {
       options.setNumberOfUploadWorkers(numberOfUploadWorkers);
       return this;
     }
 
+    public Builder concurrentUploadsPerMap(int concurrentUploadsPerMap) {
+      options.setConcurrentUploadsPerMap(concurrentUploadsPerMap);
+      return this;
+    }
+
+    public Builder smallFileUploadThreshold(long smallFileUploadThreshold) {
+      options.setSmallFileUploadThreshold(smallFileUploadThreshold);
+      return this;
+    }
+
+    public Builder parallelUploadThreshold(long parallelUploadThreshold) {
+      options.setParallelUploadThreshold(parallelUploadThreshold);
+      return this;
+    }
+
+    public Builder parallelUploadMemory(long parallelUploadMemory) {
+      options.setParallelUploadMemory(parallelUploadMemory);
+      return this;
+    }
+
     public Builder multipartUploadThreshold(long multipartUploadThreshold) {
       options.setMultipartUploadThreshold(multipartUploadThreshold);
       return this;
@@ -141,6 +171,11 @@ public class S3MapReduceCpOptions {
       return this;
     }
 
+    public Builder resumeId(String resumeId) {
+      options.setResumeId(resumeId);
+      return this;
+    }
+
     public S3MapReduceCpOptions build() {
       return options;
     }
@@ -177,9 +212,27 @@ public class S3MapReduceCpOptions {
   @Parameter(names = "--maxBandwidth", description = "Maximum bandwidth per task specified in MB", validateWith = PositiveNonZeroLong.class)
   private long maxBandwidth = ConfigurationVariable.MAX_BANDWIDTH.defaultLongValue();
 
+  @Parameter(names = "--maxJobBandwidth", description = "Maximum bandwidth of the whole job specified in MB, split into a fixed share per task", validateWith = PositiveLong.class)
+  private long maxJobBandwidth = ConfigurationVariable.MAX_JOB_BANDWIDTH.defaultLongValue();
+
+  @Parameter(names = "--bandwidthBurst", description = "Number of MB a task can read above its bandwidth after being idle", validateWith = PositiveLong.class)
+  private long bandwidthBurst = ConfigurationVariable.BANDWIDTH_BURST.defaultLongValue();
+
   @Parameter(names = "--numberOfUploadWorkers", description = "Number of threads that perform uploads to S3", validateWith = PositiveNonZeroInteger.class)
   private int numberOfUploadWorkers = ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.defaultIntValue();
 
+  @Parameter(names = "--concurrentUploadsPerMap", description = "Number of files uploaded at the same time by each mapper", validateWith = PositiveNonZeroInteger.class)
+  private int concurrentUploadsPerMap = ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP.defaultIntValue();
+
+  @Parameter(names = "--smallFileUploadThreshold", description = "Size in bytes under which files are read in memory and uploaded with a single request", validateWith = PositiveLong.class)
+  private long smallFileUploadThreshold = ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD.defaultLongValue();
+
+  @Parameter(names = "--parallelUploadThreshold", description = "Size in bytes from which files are uploaded in parts read in parallel by the upload workers", validateWith = PositiveLong.class)
+  private long parallelUploadThreshold = ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.defaultLongValue();
+
+  @Parameter(names = "--parallelUploadMemory", description = "Memory in MB that the parts read by the parallel uploads of a task can hold together", validateWith = PositiveNonZeroLong.class)
+  private long parallelUploadMemory = ConfigurationVariable.PARALLEL_UPLOAD_MEMORY.defaultLongValue();
+
   @Parameter(names = "--multipartUploadThreshold", description = "Multipart upload threshold in MB", validateWith = PositiveNonZeroLong.class)
   private long multipartUploadThreshold = ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD.defaultLongValue();
 
@@ -213,6 +266,9 @@ public class S3MapReduceCpOptions {
   @Parameter(names = "--cannedAcl", description = "AWS Canned ACL")
   private String cannedAcl = ConfigurationVariable.CANNED_ACL.defaultValue();
 
+  @Parameter(names = "--resumeId", description = "Identifier of a resumable copy: a copy run again with the same identifier after a failure only copies the files that were not copied before")
+  private String resumeId = ConfigurationVariable.RESUME_ID.defaultValue();
+
   public S3MapReduceCpOptions() {}
 
   public S3MapReduceCpOptions(S3MapReduceCpOptions options) {
@@ -225,7 +281,13 @@ public class S3MapReduceCpOptions {
     s3ServerSideEncryption = options.s3ServerSideEncryption;
     storageClass = options.storageClass;
     maxBandwidth = options.maxBandwidth;
+    maxJobBandwidth = options.maxJobBandwidth;
+    bandwidthBurst = options.bandwidthBurst;
     numberOfUploadWorkers = options.numberOfUploadWorkers;
+    concurrentUploadsPerMap = options.concurrentUploadsPerMap;
+    smallFileUploadThreshold = options.smallFileUploadThreshold;
+    parallelUploadThreshold = options.parallelUploadThreshold;
+    parallelUploadMemory = options.parallelUploadMemory;
     multipartUploadThreshold = options.multipartUploadThreshold;
     maxMaps = options.maxMaps;
     copyStrategy = options.copyStrategy;
@@ -237,6 +299,7 @@ public class S3MapReduceCpOptions {
     uploadRetryDelayMs = options.uploadRetryDelayMs;
     uploadBufferSize = options.uploadBufferSize;
     cannedAcl = options.cannedAcl;
+    resumeId = options.resumeId;
   }
 
   public boolean isHelp() {
@@ -313,6 +376,22 @@ public class S3MapReduceCpOptions {
     this.maxBandwidth = maxBandwidth;
   }
 
+  public long getMaxJobBandwidth() {
+    return maxJobBandwidth;
+  }
+
+  void setMaxJobBandwidth(long maxJobBandwidth) {
+    this.maxJobBandwidth = maxJobBandwidth;
+  }
+
+  public long getBandwidthBurst() {
+    return bandwidthBurst;
+  }
+
+  void setBandwidthBurst(long bandwidthBurst) {
+    this.bandwidthBurst = bandwidthBurst;
+  }
+
   public int getNumberOfUploadWorkers() {
     return numberOfUploadWorkers;
   }
@@ -321,6 +400,38 @@ public class S3MapReduceCpOptions {
     this.numberOfUploadWorkers = numberOfUploadWorkers;
   }
 
+  public int getConcurrentUploadsPerMap() {
+    return concurrentUploadsPerMap;
+  }
+
+  void setConcurrentUploadsPerMap(int concurrentUploadsPerMap) {
+    this.concurrentUploadsPerMap = concurrentUploadsPerMap;
+  }
+
+  public long getSmallFileUploadThreshold() {
+    return smallFileUploadThreshold;
+  }
+
+  void setSmallFileUploadThreshold(long smallFileUploadThreshold) {
+    this.smallFileUploadThreshold = smallFileUploadThreshold;
+  }
+
+  public long getParallelUploadThreshold() {
+    return parallelUploadThreshold;
+  }
+
+  void setParallelUploadThreshold(long parallelUploadThreshold) {
+    this.parallelUploadThreshold = parallelUploadThreshold;
+  }
+
+  public long getParallelUploadMemory() {
+    return parallelUploadMemory;
+  }
+
+  void setParallelUploadMemory(long parallelUploadMemory) {
+    this.parallelUploadMemory = parallelUploadMemory;
+  }
+
   public long getMultipartUploadThreshold() {
     return multipartUploadThreshold;
   }
@@ -411,6 +522,14 @@ public class S3MapReduceCpOptions {
     this.cannedAcl = cannedAcl;
   }
 
+  public String getResumeId() {
+    return resumeId;
+  }
+
+  void setResumeId(String resumeId) {
+    this.resumeId = resumeId;
+  }
+
   public Map<String, String> toMap() {
     ImmutableMap.Builder<String, String> builder = ImmutableMap
         .<String, String>builder()
@@ -418,7 +537,13 @@ public class S3MapReduceCpOptions {
         .put(ConfigurationVariable.S3_SERVER_SIDE_ENCRYPTION.getName(), String.valueOf(s3ServerSideEncryption))
         .put(ConfigurationVariable.STORAGE_CLASS.getName(), storageClass)
         .put(ConfigurationVariable.MAX_BANDWIDTH.getName(), String.valueOf(maxBandwidth))
+        .put(ConfigurationVariable.MAX_JOB_BANDWIDTH.getName(), String.valueOf(maxJobBandwidth))
+        .put(ConfigurationVariable.BANDWIDTH_BURST.getName(), String.valueOf(bandwidthBurst))
         .put(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.getName(), String.valueOf(numberOfUploadWorkers))
+        .put(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP.getName(), String.valueOf(concurrentUploadsPerMap))
+        .put(ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD.getName(), String.valueOf(smallFileUploadThreshold))
+        .put(ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.getName(), String.valueOf(parallelUploadThreshold))
+        .put(ConfigurationVariable.PARALLEL_UPLOAD_MEMORY.getName(), String.valueOf(parallelUploadMemory))
         .put(ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD.getName(), String.valueOf(multipartUploadThreshold))
         .put(ConfigurationVariable.MAX_MAPS.getName(), String.valueOf(maxMaps))
         .put(ConfigurationVariable.COPY_STRATEGY.getName(), copyStrategy)
@@ -438,6 +563,9 @@ public class S3MapReduceCpOptions {
     if (cannedAcl != null) {
       builder.put(ConfigurationVariable.CANNED_ACL.getName(), cannedAcl);
     }
+    if (resumeId != null) {
+      builder.put(ConfigurationVariable.RESUME_ID.getName(), resumeId);
+    }
     return builder.build();
   }
 
@@ -453,7 +581,13 @@ public class S3MapReduceCpOptions {
         ", s3ServerSideEncryption=" + s3ServerSideEncryption +
         ", storageClass='" + storageClass + '\'' +
         ", maxBandwidth=" + maxBandwidth +
+        ", maxJobBandwidth=" + maxJobBandwidth +
+        ", bandwidthBurst=" + bandwidthBurst +
         ", numberOfUploadWorkers=" + numberOfUploadWorkers +
+        ", concurrentUploadsPerMap=" + concurrentUploadsPerMap +
+        ", smallFileUploadThreshold=" + smallFileUploadThreshold +
+        ", parallelUploadThreshold=" + parallelUploadThreshold +
+        ", parallelUploadMemory=" + parallelUploadMemory +
         ", multipartUploadThreshold=" + multipartUploadThreshold +
         ", maxMaps=" + maxMaps +
         ", copyStrategy='" + copyStrategy + '\'' +
@@ -465,6 +599,7 @@ public class S3MapReduceCpOptions {
         ", uploadRetryDelayMs=" + uploadRetryDelayMs +
         ", uploadBufferSize=" + uploadBufferSize +
         ", cannedAcl='" + cannedAcl + '\'' +
+        ", resumeId='" + resumeId + '\'' +
         '}';
   }
 }
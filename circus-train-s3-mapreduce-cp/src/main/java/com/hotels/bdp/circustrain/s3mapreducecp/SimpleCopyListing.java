@@ -26,13 +26,21 @@ package com.hotels.bdp.circustrain.s3mapreducecp;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Stack;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
@@ -42,6 +50,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.hotels.bdp.circustrain.s3mapreducecp.util.IoUtil;
 import com.hotels.bdp.circustrain.s3mapreducecp.util.PathUtil;
@@ -50,6 +59,15 @@ import com.hotels.bdp.circustrain.s3mapreducecp.util.PathUtil;
  * The SimpleCopyListing is responsible for making the exhaustive list of all files/directories under its specified list
  * of input-paths. These are written into the specified copy-listing file. Note: The SimpleCopyListing doesn't handle
  * wild-cards in the input-paths.
+ * <p>
+ * Each input-path is listed with a single recursive {@link FileSystem#listFiles(Path, boolean)} call, which object
+ * stores serve with flat listings and other file systems with one listing per directory. Input-paths are listed
+ * concurrently on {@link S3MapReduceCpConstants#CONF_LABEL_LISTING_THREADS} threads. Sync markers are written after
+ * every {@value #SYNC_INTERVAL_RECORDS} records or {@value #SYNC_INTERVAL_BYTES} bytes of listed files, whichever comes
+ * first, so that large files can still be placed at split boundaries without a marker after every record.
+ * <p>
+ * When the copy is resumable, files of the {@link CompletionManifest} of the job that have the same size as the source
+ * file are left out of the listing as they were copied by a previous run.
  */
 public class SimpleCopyListing extends CopyListing {
   private static final Logger LOG = LoggerFactory.getLogger(SimpleCopyListing.class);
@@ -57,8 +75,16 @@ public class SimpleCopyListing extends CopyListing {
   public static final String CONF_LABEL_ROOT_PATH = "com.hotels.bdp.circustrain.s3mapreducecp."
       + "SimpleCopyListing.rootPath";
 
+  static final int SYNC_INTERVAL_RECORDS = 100;
+  static final long SYNC_INTERVAL_BYTES = 64L * 1024 * 1024;
+
   private long totalPaths = 0;
   private long totalBytesToCopy = 0;
+  private long recordsSinceSync = 0;
+  private long bytesSinceSync = 0;
+  private Map<String, CompletionManifest.Entry> copiedFiles = Collections.emptyMap();
+  private long filesAlreadyCopied = 0;
+  private long bytesAlreadyCopied = 0;
   private final Path rootPath;
 
   /**
@@ -157,37 +183,92 @@ public class SimpleCopyListing extends CopyListing {
   }
 
   @VisibleForTesting
-  public void doBuildListing(SequenceFile.Writer fileListWriter, S3MapReduceCpOptions options, List<Path> globbedPaths)
+  public void doBuildListing(
+      final SequenceFile.Writer fileListWriter,
+      final S3MapReduceCpOptions options,
+      List<Path> globbedPaths)
     throws IOException {
+    SequenceFile.Writer writer = fileListWriter;
     try {
-      for (Path path : globbedPaths) {
-        FileSystem sourceFS = path.getFileSystem(getConf());
-        path = makeQualified(path);
-
-        FileStatus rootStatus = sourceFS.getFileStatus(path);
-        Path sourcePathRoot = computeSourceRootPath(rootStatus, options);
-        LOG.info("Root source path is {}", sourcePathRoot);
-
-        FileStatus[] sourceFiles = sourceFS.listStatus(path);
-        boolean explore = (sourceFiles != null && sourceFiles.length > 0);
-        if (explore || rootStatus.isDirectory()) {
-          for (FileStatus sourceStatus : sourceFiles) {
-            if (sourceStatus.isFile()) {
-              LOG.debug("Recording source-path: {} for copy.", sourceStatus.getPath());
-              CopyListingFileStatus sourceCopyListingStatus = new CopyListingFileStatus(sourceStatus);
-              writeToFileListing(fileListWriter, sourceCopyListingStatus, sourcePathRoot, options);
-            }
-            if (isDirectoryAndNotEmpty(sourceFS, sourceStatus)) {
-              LOG.debug("Traversing non-empty source dir: {}", sourceStatus.getPath());
-              traverseNonEmptyDirectory(fileListWriter, sourceStatus, sourcePathRoot, options);
-            }
-          }
+      String metaFolder = getConf().get(S3MapReduceCpConstants.CONF_LABEL_META_FOLDER);
+      if (options.getResumeId() != null && metaFolder != null) {
+        copiedFiles = CompletionManifest.read(getConf(), CompletionManifest.getFolder(new Path(metaFolder)));
+      }
+      int listingThreads = getConf()
+          .getInt(S3MapReduceCpConstants.CONF_LABEL_LISTING_THREADS, S3MapReduceCpConstants.DEFAULT_LISTING_THREADS);
+      listingThreads = Math.min(listingThreads, globbedPaths.size());
+      if (listingThreads <= 1) {
+        for (Path path : globbedPaths) {
+          addToFileListing(fileListWriter, path, options);
         }
+      } else {
+        addToFileListingConcurrently(fileListWriter, options, globbedPaths, listingThreads);
+      }
+      writer.close();
+      writer = null;
+      if (filesAlreadyCopied > 0) {
+        LOG.info("Left {} files ({} bytes) copied by previous runs of {} out of the listing", filesAlreadyCopied,
+            bytesAlreadyCopied, options.getResumeId());
       }
-      fileListWriter.close();
-      fileListWriter = null;
     } finally {
-      IoUtil.closeSilently(LOG, fileListWriter);
+      IoUtil.closeSilently(LOG, writer);
+    }
+  }
+
+  private void addToFileListingConcurrently(
+      final SequenceFile.Writer fileListWriter,
+      final S3MapReduceCpOptions options,
+      List<Path> globbedPaths,
+      int listingThreads)
+    throws IOException {
+    ExecutorService executor = Executors
+        .newFixedThreadPool(listingThreads,
+            new ThreadFactoryBuilder().setNameFormat("copy-listing-%d").setDaemon(true).build());
+    try {
+      List<Future<Void>> futures = new ArrayList<>(globbedPaths.size());
+      for (final Path path : globbedPaths) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws IOException {
+            addToFileListing(fileListWriter, path, options);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while building copy listing", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Unable to build copy listing", cause);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void addToFileListing(SequenceFile.Writer fileListWriter, Path path, S3MapReduceCpOptions options)
+    throws IOException {
+    FileSystem sourceFS = path.getFileSystem(getConf());
+    path = makeQualified(path);
+
+    FileStatus rootStatus = sourceFS.getFileStatus(path);
+    Path sourcePathRoot = computeSourceRootPath(rootStatus, options);
+    LOG.info("Root source path is {}", sourcePathRoot);
+
+    RemoteIterator<LocatedFileStatus> sourceFiles = sourceFS.listFiles(path, true);
+    while (sourceFiles.hasNext()) {
+      LocatedFileStatus sourceStatus = sourceFiles.next();
+      LOG.debug("Recording source-path: {} for copy.", sourceStatus.getPath());
+      writeToFileListing(fileListWriter, new CopyListingFileStatus(sourceStatus), sourcePathRoot, options);
     }
   }
 
@@ -238,39 +319,6 @@ public class SimpleCopyListing extends CopyListing {
             SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE));
   }
 
-  private static boolean isDirectoryAndNotEmpty(FileSystem fileSystem, FileStatus fileStatus) throws IOException {
-    return fileStatus.isDirectory() && getChildren(fileSystem, fileStatus).length > 0;
-  }
-
-  private static FileStatus[] getChildren(FileSystem fileSystem, FileStatus parent) throws IOException {
-    return fileSystem.listStatus(parent.getPath());
-  }
-
-  private void traverseNonEmptyDirectory(
-      SequenceFile.Writer fileListWriter,
-      FileStatus sourceStatus,
-      Path sourcePathRoot,
-      S3MapReduceCpOptions options)
-    throws IOException {
-    FileSystem sourceFS = sourcePathRoot.getFileSystem(getConf());
-    Stack<FileStatus> pathStack = new Stack<>();
-    pathStack.push(sourceStatus);
-
-    while (!pathStack.isEmpty()) {
-      for (FileStatus child : getChildren(sourceFS, pathStack.pop())) {
-        if (child.isFile()) {
-          LOG.debug("Recording source-path: {} for copy.", sourceStatus.getPath());
-          CopyListingFileStatus childCopyListingStatus = new CopyListingFileStatus(child);
-          writeToFileListing(fileListWriter, childCopyListingStatus, sourcePathRoot, options);
-        }
-        if (isDirectoryAndNotEmpty(sourceFS, child)) {
-          LOG.debug("Traversing non-empty source dir: {}", sourceStatus.getPath());
-          pathStack.push(child);
-        }
-      }
-    }
-  }
-
   private void writeToFileListing(
       SequenceFile.Writer fileListWriter,
       CopyListingFileStatus fileStatus,
@@ -287,13 +335,32 @@ public class SimpleCopyListing extends CopyListing {
       return;
     }
 
-    fileListWriter.append(new Text(PathUtil.getRelativePath(sourcePathRoot, fileStatus.getPath())), status);
-    fileListWriter.sync();
-
+    Text relativePath = new Text(PathUtil.getRelativePath(sourcePathRoot, fileStatus.getPath()));
     if (!fileStatus.isDirectory()) {
-      totalBytesToCopy += fileStatus.getLen();
+      CompletionManifest.Entry copiedFile = copiedFiles.get(relativePath.toString());
+      if (copiedFile != null && copiedFile.getSize() == fileStatus.getLen()) {
+        synchronized (this) {
+          filesAlreadyCopied++;
+          bytesAlreadyCopied += fileStatus.getLen();
+        }
+        return;
+      }
+    }
+    synchronized (this) {
+      fileListWriter.append(relativePath, status);
+
+      if (!fileStatus.isDirectory()) {
+        totalBytesToCopy += fileStatus.getLen();
+        bytesSinceSync += fileStatus.getLen();
+      }
+      totalPaths++;
+      recordsSinceSync++;
+      if (recordsSinceSync >= SYNC_INTERVAL_RECORDS || bytesSinceSync >= SYNC_INTERVAL_BYTES) {
+        fileListWriter.sync();
+        recordsSinceSync = 0;
+        bytesSinceSync = 0;
+      }
     }
-    totalPaths++;
   }
 
 }
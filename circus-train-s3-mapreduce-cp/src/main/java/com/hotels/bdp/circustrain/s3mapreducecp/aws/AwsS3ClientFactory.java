@@ -48,6 +48,37 @@ public class AwsS3ClientFactory {
     return new EndpointConfiguration(endpointUrl, getRegion(conf));
   }
 
+  /**
+   * The connection pool must be large enough for the upload workers of the transfer manager, the uploads of small
+   * files in flight and the parts uploaded by the readers of large files uploaded in parallel, otherwise requests wait
+   * for a connection or open a new one. The readers are shared by all the parallel uploads of the mapper.
+   */
+  static int getMaxConnections(Configuration conf) {
+    int uploadWorkers = conf.getInt(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.getName(),
+        ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.defaultIntValue());
+    int largeUploadsInFlight = conf.getInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP.getName(),
+        ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP.defaultIntValue());
+    int uploadsInFlight = largeUploadsInFlight;
+    if (isSmallFileUploadEnabled(conf)) {
+      uploadsInFlight = Math.max(uploadsInFlight, uploadWorkers);
+    }
+    int connections = uploadWorkers + uploadsInFlight;
+    if (isParallelUploadEnabled(conf)) {
+      connections += uploadWorkers;
+    }
+    return Math.max(ClientConfiguration.DEFAULT_MAX_CONNECTIONS, connections);
+  }
+
+  private static boolean isParallelUploadEnabled(Configuration conf) {
+    return conf.getLong(ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.getName(),
+        ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.defaultLongValue()) > 0;
+  }
+
+  private static boolean isSmallFileUploadEnabled(Configuration conf) {
+    return conf.getLong(ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD.getName(),
+        ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD.defaultLongValue()) > 0;
+  }
+
   public AmazonS3 newInstance(Configuration conf) {
     int maxErrorRetry = conf.getInt(ConfigurationVariable.UPLOAD_RETRY_COUNT.getName(),
         ConfigurationVariable.UPLOAD_RETRY_COUNT.defaultIntValue());
@@ -62,6 +93,7 @@ public class AwsS3ClientFactory {
     ClientConfiguration clientConfiguration = new ClientConfiguration();
     clientConfiguration.setRetryPolicy(retryPolicy);
     clientConfiguration.setMaxErrorRetry(maxErrorRetry);
+    clientConfiguration.setMaxConnections(getMaxConnections(conf));
 
     AmazonS3ClientBuilder builder = AmazonS3ClientBuilder
         .standard()
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.io;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+/**
+ * Token bucket shared by all the streams that must not exceed a bandwidth together. Tokens are added at the permitted
+ * number of bytes per second up to the burst size, so a reader that has been idle can read up to the burst size
+ * without waiting. Readers take the tokens for the bytes they have read and wait while the bucket is in debt, which
+ * keeps the total rate at the permitted bandwidth regardless of how many streams share the bucket or how large their
+ * reads are. The bucket starts empty.
+ */
+public class BandwidthGovernor {
+
+  /* Waits shorter than this are carried over as debt rather than slept, as very short sleeps overshoot */
+  private static final long MIN_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final Ticker ticker;
+  private final long bytesPerSecond;
+  private final double burstBytes;
+
+  private double tokens = 0;
+  private long lastRefillNanos;
+  private long bytesAcquired = 0;
+  private long totalWaitNanos = 0;
+
+  /**
+   * @param bytesPerSecond Permitted bandwidth, {@link Long#MAX_VALUE} for no limit.
+   * @param burstBytes Maximum number of bytes that can be read without waiting after being idle.
+   */
+  public BandwidthGovernor(long bytesPerSecond, long burstBytes) {
+    this(bytesPerSecond, burstBytes, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  BandwidthGovernor(long bytesPerSecond, long burstBytes, Ticker ticker) {
+    if (bytesPerSecond <= 0) {
+      throw new IllegalArgumentException("Bandwidth " + bytesPerSecond + " is invalid");
+    }
+    if (burstBytes < 0) {
+      throw new IllegalArgumentException("Burst size " + burstBytes + " is invalid");
+    }
+    this.bytesPerSecond = bytesPerSecond;
+    this.burstBytes = burstBytes;
+    this.ticker = ticker;
+    lastRefillNanos = ticker.read();
+  }
+
+  /**
+   * Takes the tokens for the given number of bytes, waiting as long as needed to keep the permitted bandwidth.
+   *
+   * @param bytes Number of bytes read.
+   * @return Number of nanoseconds spent waiting.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  public long acquire(long bytes) throws InterruptedException {
+    if (bytes <= 0) {
+      return 0;
+    }
+    long waitNanos;
+    synchronized (this) {
+      bytesAcquired += bytes;
+      if (bytesPerSecond == Long.MAX_VALUE) {
+        return 0;
+      }
+      refill();
+      tokens -= bytes;
+      if (tokens >= 0) {
+        return 0;
+      }
+      waitNanos = (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+      if (waitNanos < MIN_WAIT_NANOS) {
+        return 0;
+      }
+      totalWaitNanos += waitNanos;
+    }
+    sleep(waitNanos);
+    return waitNanos;
+  }
+
+  private void refill() {
+    long now = ticker.read();
+    double refilled = (now - lastRefillNanos) * (double) bytesPerSecond / TimeUnit.SECONDS.toNanos(1);
+    tokens = Math.min(burstBytes, tokens + refilled);
+    lastRefillNanos = now;
+  }
+
+  @VisibleForTesting
+  void sleep(long nanos) throws InterruptedException {
+    TimeUnit.NANOSECONDS.sleep(nanos);
+  }
+
+  /**
+   * @return The permitted bandwidth in bytes per second.
+   */
+  public long getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  /**
+   * @return Number of bytes acquired since creation.
+   */
+  public synchronized long getBytesAcquired() {
+    return bytesAcquired;
+  }
+
+  /**
+   * @return Number of milliseconds readers have been asked to wait since creation, summed over readers.
+   */
+  public synchronized long getTotalWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos);
+  }
+
+  @Override
+  public String toString() {
+    return "BandwidthGovernor{bytesPerSecond=" + bytesPerSecond + ", burstBytes=" + (long) burstBytes + "}";
+  }
+
+}
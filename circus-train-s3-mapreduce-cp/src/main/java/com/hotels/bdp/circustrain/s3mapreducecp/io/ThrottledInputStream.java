@@ -22,35 +22,36 @@ package com.hotels.bdp.circustrain.s3mapreducecp.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.fs.PositionedReadable;
 
 /**
  * The ThrottleInputStream provides bandwidth throttling on a specified InputStream. It is implemented as a wrapper on
- * top of another InputStream instance. The throttling works by examining the number of bytes read from the underlying
- * InputStream from the beginning, and sleep()ing for a time interval if the byte-transfer is found to exceed the
- * specified tolerable maximum. (Thus, while the read-rate might exceed the maximum for a given short interval, the
- * average tends towards the specified maximum, overall.)
+ * top of another InputStream instance. The bytes read from the underlying InputStream are taken from a
+ * {@link BandwidthGovernor}, which may be shared with other streams, and the read waits for as long as the governor
+ * requires to keep the bytes read by all the streams sharing it at the permitted bandwidth.
  */
 public class ThrottledInputStream extends InputStream {
 
   private final InputStream rawStream;
-  private final long maxBytesPerSec;
+  private final BandwidthGovernor governor;
   private final long startTime = System.currentTimeMillis();
 
   private long bytesRead = 0;
   private long totalSleepTime = 0;
 
-  private static final long SLEEP_DURATION_MS = 50;
-
   public ThrottledInputStream(InputStream rawStream) {
     this(rawStream, Long.MAX_VALUE);
   }
 
   public ThrottledInputStream(InputStream rawStream, long maxBytesPerSec) {
-    assert maxBytesPerSec > 0 : "Bandwidth " + maxBytesPerSec + " is invalid";
+    this(rawStream, new BandwidthGovernor(maxBytesPerSec, 0));
+  }
+
+  public ThrottledInputStream(InputStream rawStream, BandwidthGovernor governor) {
     this.rawStream = rawStream;
-    this.maxBytesPerSec = maxBytesPerSec;
+    this.governor = governor;
   }
 
   @Override
@@ -61,10 +62,9 @@ public class ThrottledInputStream extends InputStream {
   /** @inheritDoc */
   @Override
   public int read() throws IOException {
-    throttle();
     int data = rawStream.read();
     if (data != -1) {
-      bytesRead++;
+      throttle(1);
     }
     return data;
   }
@@ -72,10 +72,9 @@ public class ThrottledInputStream extends InputStream {
   /** @inheritDoc */
   @Override
   public int read(byte[] b) throws IOException {
-    throttle();
     int readLen = rawStream.read(b);
     if (readLen != -1) {
-      bytesRead += readLen;
+      throttle(readLen);
     }
     return readLen;
   }
@@ -83,10 +82,9 @@ public class ThrottledInputStream extends InputStream {
   /** @inheritDoc */
   @Override
   public int read(byte[] b, int off, int len) throws IOException {
-    throttle();
     int readLen = rawStream.read(b, off, len);
     if (readLen != -1) {
-      bytesRead += readLen;
+      throttle(readLen);
     }
     return readLen;
   }
@@ -99,22 +97,20 @@ public class ThrottledInputStream extends InputStream {
     if (!(rawStream instanceof PositionedReadable)) {
       throw new UnsupportedOperationException("positioned read is not supported by the internal stream");
     }
-    throttle();
     int readLen = ((PositionedReadable) rawStream).read(position, buffer, offset, length);
     if (readLen != -1) {
-      bytesRead += readLen;
+      throttle(readLen);
     }
     return readLen;
   }
 
-  private void throttle() throws IOException {
-    if (getBytesPerSec() > maxBytesPerSec) {
-      try {
-        Thread.sleep(SLEEP_DURATION_MS);
-        totalSleepTime += SLEEP_DURATION_MS;
-      } catch (InterruptedException e) {
-        throw new IOException("Thread aborted", e);
-      }
+  private void throttle(int readLen) throws IOException {
+    bytesRead += readLen;
+    try {
+      totalSleepTime += TimeUnit.NANOSECONDS.toMillis(governor.acquire(readLen));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Thread aborted", e);
     }
   }
 
@@ -157,7 +153,7 @@ public class ThrottledInputStream extends InputStream {
         + "bytesRead="
         + bytesRead
         + ", maxBytesPerSec="
-        + maxBytesPerSec
+        + governor.getBytesPerSecond()
         + ", bytesPerSec="
         + getBytesPerSec()
         + ", totalSleepTime="
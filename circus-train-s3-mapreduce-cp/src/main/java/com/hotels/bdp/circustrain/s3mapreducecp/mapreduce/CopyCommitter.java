@@ -32,12 +32,15 @@ import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.hotels.bdp.circustrain.s3mapreducecp.CompletionManifest;
+import com.hotels.bdp.circustrain.s3mapreducecp.ConfigurationVariable;
 import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpConstants;
 
 /**
  * The CopyCommitter class is S3MapReduceCp's OutputCommitter implementation. It is responsible for handling the
  * completion/cleanup of the S3MapReduceCp run. Specifically, it does cleanup of the meta-folder (where S3MapReduceCp
- * maintains its file-list, etc.)
+ * maintains its file-list, etc.) The manifest of the files copied by a resumable job is kept when the job is aborted
+ * so that the next run of the job only copies the files that are missing.
  */
 public class CopyCommitter extends FileOutputCommitter {
   private static final Logger LOG = LoggerFactory.getLogger(CopyCommitter.class);
@@ -73,10 +76,15 @@ public class CopyCommitter extends FileOutputCommitter {
   /** @inheritDoc */
   @Override
   public void abortJob(JobContext jobContext, JobStatus.State state) throws IOException {
+    Configuration conf = jobContext.getConfiguration();
     try {
       super.abortJob(jobContext, state);
     } finally {
-      cleanup(jobContext.getConfiguration());
+      if (conf.get(ConfigurationVariable.RESUME_ID.getName()) != null) {
+        cleanupAllButManifest(conf);
+      } else {
+        cleanup(conf);
+      }
     }
   }
 
@@ -96,4 +104,15 @@ public class CopyCommitter extends FileOutputCommitter {
     }
   }
 
+  private void cleanupAllButManifest(Configuration conf) {
+    Path metaFolder = new Path(conf.get(S3MapReduceCpConstants.CONF_LABEL_META_FOLDER));
+    try {
+      FileSystem fs = metaFolder.getFileSystem(conf);
+      LOG.info("Cleaning up temporary work folder {}, keeping the manifest of copied files", metaFolder);
+      CompletionManifest.deleteAllButManifest(fs, metaFolder);
+    } catch (IOException ignore) {
+      LOG.error("Exception encountered ", ignore);
+    }
+  }
+
 }
@@ -23,13 +23,21 @@ package com.hotels.bdp.circustrain.s3mapreducecp.mapreduce;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.MRJobConfig;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.util.StringUtils;
 import org.slf4j.Logger;
@@ -39,25 +47,92 @@ import com.amazonaws.client.builder.ExecutorFactory;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import com.hotels.bdp.circustrain.s3mapreducecp.CompletionManifest;
 import com.hotels.bdp.circustrain.s3mapreducecp.ConfigurationVariable;
 import com.hotels.bdp.circustrain.s3mapreducecp.CopyListingFileStatus;
 import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpConfiguration;
 import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpConstants;
 import com.hotels.bdp.circustrain.s3mapreducecp.aws.AwsS3ClientFactory;
+import com.hotels.bdp.circustrain.s3mapreducecp.io.BandwidthGovernor;
+import com.hotels.bdp.circustrain.s3mapreducecp.mapreduce.lib.BinPackingInputSplit;
+import com.hotels.bdp.circustrain.s3mapreducecp.util.IoUtil;
 import com.hotels.bdp.circustrain.s3mapreducecp.util.PathUtil;
 
 /**
  * Mapper class that executes the S3MapReduceCp copy operation. Implements the o.a.h.mapreduce.Mapper<> interface.
+ * <p>
+ * When more than one concurrent upload per map is configured, {@link #map(Text, CopyListingFileStatus, Context)}
+ * returns as soon as the upload of the file has started and only waits when the maximum number of uploads is in
+ * flight. Counters and failures of the uploads are processed by the map thread as they complete and all the remaining
+ * uploads are waited for in {@link #cleanup(Context)}, unless a call to {@code map} has failed, in which case they are
+ * cancelled so that the failure of the task is not hidden by the failures of other uploads.
+ * <p>
+ * Small files, as defined by {@link RetriableFileCopyCommand#isSmallFile(org.apache.hadoop.conf.Configuration, long)},
+ * are always uploaded in this way and up to as many of them as there are upload workers can be in flight, on top of
+ * the concurrent uploads of larger files.
+ * <p>
+ * Files uploaded in parts read in parallel, as defined by
+ * {@link RetriableFileCopyCommand#isParallelUpload(org.apache.hadoop.conf.Configuration, long)}, share the readers
+ * and the memory budget of a single {@link PartUploadPool}.
+ * <p>
+ * The mappers of a resumable job write the relative path, size and ETag of each file they copy to the
+ * {@link CompletionManifest} of the job.
  */
 public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text> {
   private static final Logger LOG = LoggerFactory.getLogger(CopyMapper.class);
 
+  private static final long PROGRESS_INTERVAL_SECONDS = 60;
+
+  private static class FileUpload {
+    private final String description;
+    private final String relPath;
+    private final FileStatus sourceFileStatus;
+    private final FileStatus sourceCurrStatus;
+    private final S3UploadDescriptor uploadDescriptor;
+    private final Path targetPath;
+    private final boolean smallFile;
+    private long bytesCopied;
+    private String eTag;
+    private IOException failure;
+
+    private FileUpload(
+        String description,
+        String relPath,
+        FileStatus sourceFileStatus,
+        FileStatus sourceCurrStatus,
+        S3UploadDescriptor uploadDescriptor,
+        Path targetPath,
+        boolean smallFile) {
+      this.description = description;
+      this.relPath = relPath;
+      this.sourceFileStatus = sourceFileStatus;
+      this.sourceCurrStatus = sourceCurrStatus;
+      this.uploadDescriptor = uploadDescriptor;
+      this.targetPath = targetPath;
+      this.smallFile = smallFile;
+    }
+  }
+
   private S3MapReduceCpConfiguration conf;
 
   private boolean ignoreFailures = false;
   private Path targetFinalPath;
   private TransferManager transferManager;
+  private long bytesPlanned = -1;
+  private BandwidthGovernor bandwidthGovernor;
+  private PartUploadPool partUploadPool;
+  private long startNanos;
+  private int concurrentUploads;
+  private int maxUploadsInFlight;
+  private ExecutorService uploadExecutor;
+  private CompletionService<FileUpload> completedUploads;
+  private int uploadsInFlight = 0;
+  private int largeUploadsInFlight = 0;
+  private final UploadThroughputHistogram throughputHistogram = new UploadThroughputHistogram();
+  private CompletionManifest.Writer manifestWriter;
+  private boolean mapFailed = false;
 
   /**
    * Implementation of the Mapper::setup() method. This extracts the S3MapReduceCp options specified in the Job's
@@ -75,6 +150,16 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
 
     targetFinalPath = new Path(conf.get(S3MapReduceCpConstants.CONF_LABEL_TARGET_FINAL_PATH));
 
+    bandwidthGovernor = newBandwidthGovernor(conf);
+    startNanos = System.nanoTime();
+    LOG.info("Uploads of this mapper are limited by {}", bandwidthGovernor);
+
+    InputSplit inputSplit = context.getInputSplit();
+    if (inputSplit instanceof BinPackingInputSplit) {
+      bytesPlanned = inputSplit.getLength();
+      incrementCounter(context, Counter.BYTESPLANNED, bytesPlanned);
+    }
+
     AwsS3ClientFactory awsS3ClientFactory = new AwsS3ClientFactory();
     transferManager = TransferManagerBuilder
         .standard()
@@ -89,16 +174,77 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
           }
         })
         .build();
+
+    if (conf.get(ConfigurationVariable.RESUME_ID.getName()) != null) {
+      Path metaFolder = new Path(conf.get(S3MapReduceCpConstants.CONF_LABEL_META_FOLDER));
+      manifestWriter = CompletionManifest
+          .newWriter(conf, CompletionManifest.getFolder(metaFolder), context.getTaskAttemptID().toString());
+    }
+
+    concurrentUploads = conf.getInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP);
+    maxUploadsInFlight = concurrentUploads;
+    long smallFileUploadThreshold = conf.getLong(ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD);
+    if (smallFileUploadThreshold > 0) {
+      maxUploadsInFlight = Math.max(concurrentUploads, conf.getInt(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS));
+      LOG.info("Uploading files of up to {} bytes with single requests", smallFileUploadThreshold);
+    }
+    long parallelUploadThreshold = conf.getLong(ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD);
+    if (parallelUploadThreshold > 0) {
+      partUploadPool = PartUploadPool.newInstance(conf);
+      LOG.info("Uploading files of {} bytes or more in parts read by {} readers holding up to {} MB",
+          parallelUploadThreshold, partUploadPool.getNumberOfReaders(),
+          conf.getLong(ConfigurationVariable.PARALLEL_UPLOAD_MEMORY));
+    }
+    if (maxUploadsInFlight > 1) {
+      LOG.info("Keeping up to {} uploads in flight, {} of which for large files", maxUploadsInFlight,
+          concurrentUploads);
+      uploadExecutor = Executors
+          .newFixedThreadPool(maxUploadsInFlight,
+              new ThreadFactoryBuilder().setNameFormat("copy-mapper-upload-%d").setDaemon(true).build());
+      completedUploads = new ExecutorCompletionService<>(uploadExecutor);
+    }
   }
 
   /**
-   * Shutdown transfer queue and release other engaged resources.
+   * Wait for the uploads still in flight, shutdown transfer queue and release other engaged resources. The uploads in
+   * flight are cancelled instead when the task is already failing.
    */
   @Override
   protected void cleanup(Mapper<Text, CopyListingFileStatus, Text, Text>.Context context)
     throws IOException, InterruptedException {
-    if (transferManager != null) {
-      transferManager.shutdownNow(true);
+    try {
+      if (mapFailed && uploadsInFlight > 0) {
+        LOG.info("Cancelling {} uploads in flight as a copy of this mapper has failed", uploadsInFlight);
+      }
+      while (!mapFailed && uploadsInFlight > 0) {
+        processCompletedUpload(context, takeCompletedUpload(context));
+      }
+    } finally {
+      if (uploadExecutor != null) {
+        uploadExecutor.shutdownNow();
+      }
+      if (partUploadPool != null) {
+        partUploadPool.close();
+      }
+      if (transferManager != null) {
+        transferManager.shutdownNow(true);
+      }
+      IoUtil.closeSilently(LOG, manifestWriter);
+    }
+    if (bandwidthGovernor != null) {
+      long elapsedSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos));
+      if (bandwidthGovernor.getBytesPerSecond() != Long.MAX_VALUE) {
+        incrementCounter(context, Counter.BANDWIDTHPERMITTED, bandwidthGovernor.getBytesPerSecond());
+      }
+      incrementCounter(context, Counter.BANDWIDTHUSED, bandwidthGovernor.getBytesAcquired() / elapsedSeconds);
+      incrementCounter(context, Counter.THROTTLEDMILLIS, bandwidthGovernor.getTotalWaitMillis());
+    }
+    throughputHistogram.incrementCounters(context);
+    LOG.info("Upload throughput per file size: {}", throughputHistogram);
+    if (bytesPlanned >= 0) {
+      LOG
+          .info("Copied {} bytes of {} bytes planned for this mapper",
+              context.getCounter(Counter.BYTESCOPIED).getValue(), bytesPlanned);
     }
   }
 
@@ -111,6 +257,20 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
    */
   @Override
   public void map(Text relPath, CopyListingFileStatus sourceFileStatus, Context context)
+    throws IOException, InterruptedException {
+    boolean mapped = false;
+    try {
+      copy(relPath, sourceFileStatus, context);
+      mapped = true;
+    } finally {
+      if (!mapped) {
+        // Mapper.run() still calls cleanup()
+        mapFailed = true;
+      }
+    }
+  }
+
+  private void copy(Text relPath, CopyListingFileStatus sourceFileStatus, Context context)
     throws IOException, InterruptedException {
     Path sourcePath = sourceFileStatus.getPath();
 
@@ -140,15 +300,103 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
       S3UploadDescriptor uploadDescriptor = describeUpload(sourceCurrStatus, targetPath);
 
       incrementCounter(context, Counter.BYTESEXPECTED, sourceFileStatus.getLen());
-      long bytesCopied = copyFileWithRetry(description, context, sourceCurrStatus, uploadDescriptor);
-      incrementCounter(context, Counter.BYTESCOPIED, bytesCopied);
-      incrementCounter(context, Counter.COPY, 1L);
+      boolean smallFile = RetriableFileCopyCommand.isSmallFile(conf, sourceCurrStatus.getLen());
+      FileUpload upload = new FileUpload(description, relPath.toString(), sourceFileStatus, sourceCurrStatus,
+          uploadDescriptor, targetPath, smallFile);
+      if (uploadExecutor != null && (smallFile || concurrentUploads > 1)) {
+        submitUpload(context, upload);
+        return;
+      }
+      copyFileWithRetry(context, upload);
+      recordCopiedFile(context, upload);
 
     } catch (IOException exception) {
       handleFailures(exception, sourceFileStatus, targetPath, context);
     }
   }
 
+  private void submitUpload(final Context context, final FileUpload upload) throws IOException, InterruptedException {
+    while (uploadsInFlight >= maxUploadsInFlight || (!upload.smallFile && largeUploadsInFlight >= concurrentUploads)) {
+      processCompletedUpload(context, takeCompletedUpload(context));
+    }
+    completedUploads.submit(new Callable<FileUpload>() {
+      @Override
+      public FileUpload call() {
+        try {
+          copyFileWithRetry(context, upload);
+        } catch (IOException e) {
+          upload.failure = e;
+        }
+        return upload;
+      }
+    });
+    uploadsInFlight++;
+    if (!upload.smallFile) {
+      largeUploadsInFlight++;
+    }
+
+    Future<FileUpload> completedUpload;
+    while ((completedUpload = completedUploads.poll()) != null) {
+      processCompletedUpload(context, completedUpload);
+    }
+  }
+
+  private Future<FileUpload> takeCompletedUpload(Context context) throws InterruptedException {
+    Future<FileUpload> completedUpload;
+    while ((completedUpload = completedUploads.poll(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS)) == null) {
+      context.progress();
+    }
+    return completedUpload;
+  }
+
+  private void processCompletedUpload(Context context, Future<FileUpload> future)
+    throws IOException, InterruptedException {
+    uploadsInFlight--;
+    FileUpload completedUpload;
+    try {
+      completedUpload = future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Upload failed", cause);
+    }
+    if (!completedUpload.smallFile) {
+      largeUploadsInFlight--;
+    }
+    if (completedUpload.failure != null) {
+      handleFailures(completedUpload.failure, completedUpload.sourceFileStatus, completedUpload.targetPath, context);
+      return;
+    }
+    recordCopiedFile(context, completedUpload);
+  }
+
+  private void recordCopiedFile(Context context, FileUpload upload) throws IOException {
+    incrementCounter(context, Counter.BYTESCOPIED, upload.bytesCopied);
+    incrementCounter(context, Counter.COPY, 1L);
+    if (manifestWriter != null) {
+      manifestWriter.append(upload.relPath, upload.sourceCurrStatus.getLen(), upload.eTag);
+    }
+  }
+
+  /**
+   * Creates the governor shared by all the uploads of this mapper. Its bandwidth is the bandwidth per task, capped to
+   * an even share of the bandwidth of the whole job when one is set. The share is static: tasks that are not running
+   * concurrently, because the cluster has no room for them or they have finished, do not hand their share over.
+   */
+  static BandwidthGovernor newBandwidthGovernor(S3MapReduceCpConfiguration conf) {
+    long bytesPerSecond = conf.getLong(ConfigurationVariable.MAX_BANDWIDTH) * 1024 * 1024;
+    long maxJobBandwidth = conf.getLong(ConfigurationVariable.MAX_JOB_BANDWIDTH);
+    if (maxJobBandwidth > 0) {
+      // The job submitter replaces the requested number of maps with the number of splits the input format created
+      int numMaps = Math.max(1, conf.getInt(MRJobConfig.NUM_MAPS, 1));
+      bytesPerSecond = Math.min(bytesPerSecond, Math.max(1L, maxJobBandwidth * 1024 * 1024 / numMaps));
+    }
+    long burstBytes = conf.getLong(ConfigurationVariable.BANDWIDTH_BURST) * 1024 * 1024;
+    return new BandwidthGovernor(bytesPerSecond, burstBytes);
+  }
+
   private S3UploadDescriptor describeUpload(FileStatus sourceFileStatus, Path targetPath) throws IOException {
     URI targetUri = targetPath.toUri();
     String bucketName = PathUtil.toBucketName(targetUri);
@@ -164,26 +412,32 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
     return new S3UploadDescriptor(sourcePath, bucketName, key, metadata);
   }
 
-  private long copyFileWithRetry(
-      String description,
-      Context context,
-      FileStatus sourceFileStatus,
-      S3UploadDescriptor uploadDescriptor)
-    throws IOException {
+  private void copyFileWithRetry(Context context, FileUpload upload) throws IOException {
+    FileStatus sourceFileStatus = upload.sourceCurrStatus;
     try {
-      return new RetriableFileCopyCommand(description, transferManager).execute(context, sourceFileStatus,
-          uploadDescriptor);
+      long uploadStartNanos = System.nanoTime();
+      RetriableFileCopyCommand command = newCopyCommand(upload.description);
+      upload.bytesCopied = command.execute(context, sourceFileStatus, upload.uploadDescriptor);
+      upload.eTag = command.getETag();
+      throughputHistogram.record(upload.bytesCopied, System.nanoTime() - uploadStartNanos);
     } catch (Exception e) {
       context.setStatus("Copy Failure: " + sourceFileStatus.getPath());
       throw new IOException("File copy failed: " + sourceFileStatus.getPath(), e);
     }
   }
 
+  /**
+   * Package private, for testability.
+   */
+  RetriableFileCopyCommand newCopyCommand(String description) {
+    return new RetriableFileCopyCommand(description, transferManager, bandwidthGovernor, partUploadPool);
+  }
+
   private void handleFailures(IOException exception, FileStatus sourceFileStatus, Path target, Context context)
     throws IOException, InterruptedException {
     LOG.error("Failure in copying {} to {}", sourceFileStatus.getPath(), target, exception);
 
-    if (ignoreFailures && exception.getCause() instanceof RetriableFileCopyCommand.CopyReadException) {
+    if (ignoreFailures && isCopyReadFailure(exception)) {
       incrementCounter(context, Counter.FAIL, 1);
       incrementCounter(context, Counter.BYTESFAILED, sourceFileStatus.getLen());
       context.write(null,
@@ -193,6 +447,19 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
     }
   }
 
+  /**
+   * Read failures of uploads reach here wrapped by both {@link RetriableFileCopyCommand#execute(Object...)} and
+   * {@link #copyFileWithRetry(Context, FileUpload)}.
+   */
+  private static boolean isCopyReadFailure(IOException exception) {
+    for (Throwable cause = exception.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof RetriableFileCopyCommand.CopyReadException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Increments the given counter by the given value.
    *
@@ -32,4 +32,8 @@ public enum Counter {
   BYTESEXPECTED, // Number of bytes expected to be copied.
   BYTESFAILED, // Number of bytes that failed to be copied.
   BYTESSKIPPED, // Number of bytes that were skipped from copy.
+  BYTESPLANNED, // Number of bytes planned for the mapper by the bin-packing copy strategy.
+  BANDWIDTHPERMITTED, // Bandwidth permitted to the mapper in bytes per second, summed over mappers.
+  BANDWIDTHUSED, // Average bandwidth used by the mapper in bytes per second, summed over mappers.
+  THROTTLEDMILLIS, // Number of milliseconds uploads waited on the bandwidth limit.
 }
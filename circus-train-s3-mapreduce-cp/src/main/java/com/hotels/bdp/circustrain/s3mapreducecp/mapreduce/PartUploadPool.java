@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.mapreduce;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.hadoop.conf.Configuration;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.bdp.circustrain.s3mapreducecp.ConfigurationVariable;
+
+/**
+ * Readers of the files uploaded in parts read in parallel, shared by all the parallel uploads of a mapper, and the
+ * memory budget of the parts they hold. A reader holds the memory of the part it reads until the part is uploaded; a
+ * part larger than the whole budget is read once all the memory is available.
+ */
+class PartUploadPool implements Closeable {
+
+  private final int numberOfReaders;
+  private final long memoryBudget;
+  private final ExecutorService executor;
+  private long availableMemory;
+
+  PartUploadPool(int numberOfReaders, long memoryBudget) {
+    this.numberOfReaders = numberOfReaders;
+    this.memoryBudget = memoryBudget;
+    availableMemory = memoryBudget;
+    executor = Executors
+        .newFixedThreadPool(numberOfReaders,
+            new ThreadFactoryBuilder().setNameFormat("parallel-upload-%d").setDaemon(true).build());
+  }
+
+  static PartUploadPool newInstance(Configuration conf) {
+    int numberOfReaders = conf.getInt(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.getName(),
+        ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.defaultIntValue());
+    long memoryMB = conf.getLong(ConfigurationVariable.PARALLEL_UPLOAD_MEMORY.getName(),
+        ConfigurationVariable.PARALLEL_UPLOAD_MEMORY.defaultLongValue());
+    return new PartUploadPool(numberOfReaders, memoryMB * 1024 * 1024);
+  }
+
+  int getNumberOfReaders() {
+    return numberOfReaders;
+  }
+
+  ExecutorService getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Waits until the memory of a part is available and reserves it.
+   *
+   * @return Number of bytes reserved, to be passed to {@link #releaseMemory(long)}.
+   */
+  synchronized long acquireMemory(long bytes) throws InterruptedException {
+    long reserved = Math.min(bytes, memoryBudget);
+    while (availableMemory < reserved) {
+      wait();
+    }
+    availableMemory -= reserved;
+    return reserved;
+  }
+
+  synchronized void releaseMemory(long reserved) {
+    availableMemory += reserved;
+    notifyAll();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+}
@@ -24,14 +24,26 @@ import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.IO_FILE_BUFFER_
 import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.IO_FILE_BUFFER_SIZE_KEY;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,23 +51,47 @@ import org.slf4j.LoggerFactory;
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.event.ProgressEvent;
 import com.amazonaws.event.ProgressListener;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PutObjectRequest;
-import com.amazonaws.services.s3.transfer.Transfer;
+import com.amazonaws.services.s3.model.UploadPartRequest;
 import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.Upload;
 
 import com.hotels.bdp.circustrain.aws.CannedAclUtils;
 import com.hotels.bdp.circustrain.s3mapreducecp.ConfigurationVariable;
 import com.hotels.bdp.circustrain.s3mapreducecp.command.RetriableCommand;
+import com.hotels.bdp.circustrain.s3mapreducecp.io.BandwidthGovernor;
 import com.hotels.bdp.circustrain.s3mapreducecp.io.ThrottledInputStream;
 
 /**
  * This class extends RetriableCommand to implement the copy of files, with retries on failure.
+ * <p>
+ * Files that are not larger than the small file upload threshold, nor than the multipart upload threshold, are read in
+ * memory and uploaded with a single request of known length instead of being streamed through the
+ * {@code TransferManager}.
+ * <p>
+ * Files that are not smaller than the parallel upload threshold, nor than the multipart upload threshold, are uploaded
+ * in parts read from several positioned readers of the source file instead of a single sequential stream. The readers
+ * and the memory of the parts they hold are those of the {@link PartUploadPool} shared by the copies of the mapper.
  */
 public class RetriableFileCopyCommand extends RetriableCommand<Long> {
   private static final Logger LOG = LoggerFactory.getLogger(RetriableFileCopyCommand.class);
 
   private final TransferManager transferManager;
+  private final BandwidthGovernor bandwidthGovernor;
+  private final PartUploadPool partUploadPool;
+  private volatile String eTag;
+
+  /* Small files and the parts of parallel uploads are read in a single array */
+  private static final long MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  /* Maximum number of parts of a multipart upload accepted by S3 */
+  private static final int MAX_UPLOAD_PARTS = 10000;
 
   private static class UploadProgressListener implements ProgressListener {
     private final Mapper.Context context;
@@ -94,8 +130,44 @@ public class RetriableFileCopyCommand extends RetriableCommand<Long> {
    * @param transferManager AWS S3 transfer manager
    */
   public RetriableFileCopyCommand(String description, TransferManager transferManager) {
+    this(description, transferManager, null);
+  }
+
+  /**
+   * Constructor, taking a description of the action, a {@code TransferManager} and the {@code BandwidthGovernor} shared
+   * by all the copies of the mapper.
+   *
+   * @param description Verbose description of the copy operation.
+   * @param transferManager AWS S3 transfer manager
+   * @param bandwidthGovernor Bandwidth limit of the source reads, {@code null} to limit each copy to the bandwidth per
+   *          task on its own.
+   */
+  public RetriableFileCopyCommand(
+      String description,
+      TransferManager transferManager,
+      BandwidthGovernor bandwidthGovernor) {
+    this(description, transferManager, bandwidthGovernor, null);
+  }
+
+  /**
+   * Constructor, taking a description of the action, a {@code TransferManager}, the {@code BandwidthGovernor} and the
+   * {@code PartUploadPool} shared by all the copies of the mapper.
+   *
+   * @param description Verbose description of the copy operation.
+   * @param transferManager AWS S3 transfer manager
+   * @param bandwidthGovernor Bandwidth limit of the source reads, {@code null} to limit each copy to the bandwidth per
+   *          task on its own.
+   * @param partUploadPool Readers of parallel uploads, {@code null} to give each parallel upload readers of its own.
+   */
+  RetriableFileCopyCommand(
+      String description,
+      TransferManager transferManager,
+      BandwidthGovernor bandwidthGovernor,
+      PartUploadPool partUploadPool) {
     super(description);
     this.transferManager = transferManager;
+    this.bandwidthGovernor = bandwidthGovernor;
+    this.partUploadPool = partUploadPool;
   }
 
   /**
@@ -115,19 +187,73 @@ public class RetriableFileCopyCommand extends RetriableCommand<Long> {
     return doCopy(context, source, uploadDescriptor);
   }
 
+  /**
+   * @return ETag of the object uploaded by the last successful execution, {@code null} if the file has not been copied.
+   */
+  public String getETag() {
+    return eTag;
+  }
+
+  /**
+   * @return Whether a file of the given size is uploaded with a single request from memory.
+   */
+  public static boolean isSmallFile(Configuration conf, long fileSize) {
+    long threshold = conf.getLong(ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD.getName(),
+        ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD.defaultLongValue());
+    long multipartUploadThreshold = conf.getLong(ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD.getName(),
+        ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD.defaultLongValue());
+    return fileSize <= threshold && fileSize < multipartUploadThreshold && fileSize <= MAX_ARRAY_SIZE;
+  }
+
+  /**
+   * @return Whether a file of the given size is uploaded in parts read in parallel from the source.
+   */
+  public static boolean isParallelUpload(Configuration conf, long fileSize) {
+    long threshold = conf.getLong(ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.getName(),
+        ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.defaultLongValue());
+    long multipartUploadThreshold = conf.getLong(ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD.getName(),
+        ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD.defaultLongValue());
+    return threshold > 0
+        && fileSize >= threshold
+        && fileSize >= multipartUploadThreshold
+        && getPartSize(conf, fileSize) <= MAX_ARRAY_SIZE;
+  }
+
+  private static long getPartSize(Configuration conf, long fileSize) {
+    return getPartSize(fileSize, conf.getLong(ConfigurationVariable.MINIMUM_UPLOAD_PART_SIZE.getName(),
+        ConfigurationVariable.MINIMUM_UPLOAD_PART_SIZE.defaultLongValue()));
+  }
+
+  /**
+   * @return Size of the parts of a parallel upload: the minimum part size unless the file would need more parts than
+   *         S3 accepts.
+   */
+  static long getPartSize(long fileSize, long minimumPartSize) {
+    long partSize = (fileSize + MAX_UPLOAD_PARTS - 1) / MAX_UPLOAD_PARTS;
+    return Math.max(minimumPartSize, partSize);
+  }
+
   private long doCopy(Mapper.Context context, FileStatus sourceFileStatus, S3UploadDescriptor uploadDescriptor)
     throws IOException {
     LOG.debug("Copying {} to {}", sourceFileStatus.getPath(), uploadDescriptor.getTargetPath());
 
+    if (isSmallFile(context.getConfiguration(), sourceFileStatus.getLen())) {
+      return uploadSmallFile(context, sourceFileStatus, uploadDescriptor);
+    }
+    if (isParallelUpload(context.getConfiguration(), sourceFileStatus.getLen())) {
+      return uploadInParallel(context, sourceFileStatus, uploadDescriptor);
+    }
+
     final Path sourcePath = sourceFileStatus.getPath();
 
-    Transfer transfer = startTransfer(context, uploadDescriptor);
+    Upload transfer = startTransfer(context, uploadDescriptor);
     transfer.addProgressListener(new UploadProgressListener(context, description));
     try {
       AmazonClientException e = transfer.waitForException();
       if (e != null) {
         throw new IOException(e);
       }
+      eTag = transfer.waitForUploadResult().getETag();
     } catch (InterruptedException e) {
       throw new RuntimeException("Unable to upload file " + sourcePath, e);
     }
@@ -135,19 +261,265 @@ public class RetriableFileCopyCommand extends RetriableCommand<Long> {
     return transfer.getProgress().getBytesTransferred();
   }
 
-  private static ThrottledInputStream getInputStream(Path path, Configuration conf) throws IOException {
+  private ThrottledInputStream getInputStream(Path path, Configuration conf) throws IOException {
+    return getInputStream(path, conf, bandwidthGovernor);
+  }
+
+  private static ThrottledInputStream getInputStream(Path path, Configuration conf, BandwidthGovernor governor)
+    throws IOException {
     try {
       FileSystem fs = path.getFileSystem(conf);
-      long bandwidthMB = conf
-          .getInt(ConfigurationVariable.MAX_BANDWIDTH.getName(), ConfigurationVariable.MAX_BANDWIDTH.defaultIntValue());
       FSDataInputStream in = fs.open(path);
-      return new ThrottledInputStream(in, bandwidthMB * 1024 * 1024);
+      if (governor != null) {
+        return new ThrottledInputStream(in, governor);
+      }
+      return new ThrottledInputStream(in, getMaxBytesPerSecond(conf));
     } catch (IOException e) {
       throw new CopyReadException(e);
     }
   }
 
-  private Transfer startTransfer(Mapper.Context context, S3UploadDescriptor uploadDescriptor) throws IOException {
+  private static long getMaxBytesPerSecond(Configuration conf) {
+    long bandwidthMB = conf
+        .getInt(ConfigurationVariable.MAX_BANDWIDTH.getName(), ConfigurationVariable.MAX_BANDWIDTH.defaultIntValue());
+    return bandwidthMB * 1024 * 1024;
+  }
+
+  private long uploadSmallFile(
+      Mapper.Context context,
+      FileStatus sourceFileStatus,
+      S3UploadDescriptor uploadDescriptor)
+    throws IOException {
+    // The input stream is not buffered: the whole file is read in an array of its length
+    byte[] content = new byte[(int) sourceFileStatus.getLen()];
+    InputStream input = getInputStream(uploadDescriptor.getSource(), context.getConfiguration());
+    try {
+      IOUtils.readFully(input, content, 0, content.length);
+    } catch (IOException e) {
+      throw new CopyReadException(e);
+    } finally {
+      IOUtils.closeStream(input);
+    }
+
+    PutObjectRequest request = newPutObjectRequest(context, uploadDescriptor, new ByteArrayInputStream(content));
+    // The content is in memory and can be read again entirely if the request is retried
+    request.getRequestClientOptions().setReadLimit(content.length + 1);
+    try {
+      eTag = transferManager.getAmazonS3Client().putObject(request).getETag();
+    } catch (AmazonClientException e) {
+      throw new IOException(e);
+    }
+    context.setStatus("Completed: " + description);
+    return content.length;
+  }
+
+  private long uploadInParallel(
+      final Mapper.Context context,
+      FileStatus sourceFileStatus,
+      final S3UploadDescriptor uploadDescriptor)
+    throws IOException {
+    PartUploadPool pool = partUploadPool != null ? partUploadPool
+        : PartUploadPool.newInstance(context.getConfiguration());
+    try {
+      return uploadInParallel(context, sourceFileStatus, uploadDescriptor, pool);
+    } finally {
+      if (pool != partUploadPool) {
+        pool.close();
+      }
+    }
+  }
+
+  private long uploadInParallel(
+      final Mapper.Context context,
+      FileStatus sourceFileStatus,
+      final S3UploadDescriptor uploadDescriptor,
+      final PartUploadPool pool)
+    throws IOException {
+    Configuration conf = context.getConfiguration();
+    final long fileSize = sourceFileStatus.getLen();
+    final long partSize = getPartSize(conf, fileSize);
+    int numberOfParts = (int) ((fileSize + partSize - 1) / partSize);
+    int numberOfReaders = Math.min(numberOfParts, pool.getNumberOfReaders());
+    // All the readers of the file share the bandwidth of the task
+    final BandwidthGovernor governor = bandwidthGovernor != null ? bandwidthGovernor
+        : new BandwidthGovernor(getMaxBytesPerSecond(conf), 0);
+    final AmazonS3 s3Client = transferManager.getAmazonS3Client();
+
+    final String uploadId;
+    try {
+      uploadId = s3Client.initiateMultipartUpload(newInitiateMultipartUploadRequest(context, uploadDescriptor))
+          .getUploadId();
+    } catch (AmazonClientException e) {
+      throw new IOException(e);
+    }
+    LOG.info("Uploading {} in {} parts of {} bytes read by {} readers", uploadDescriptor.getSource(), numberOfParts,
+        partSize, numberOfReaders);
+    context.setStatus("Starting: " + description);
+
+    final PartETag[] partETags = new PartETag[numberOfParts];
+    final AtomicInteger nextPartNumber = new AtomicInteger(1);
+    // The readers of the pool are shared with the other parallel uploads of the mapper: they are cancelled one by one
+    CompletionService<Void> completedReaders = new ExecutorCompletionService<>(pool.getExecutor());
+    List<Future<Void>> readers = new ArrayList<>(numberOfReaders);
+    boolean completed = false;
+    try {
+      for (int i = 0; i < numberOfReaders; i++) {
+        readers.add(completedReaders.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            uploadParts(context, uploadDescriptor, uploadId, governor, pool, nextPartNumber, partETags, partSize,
+                fileSize);
+            return null;
+          }
+        }));
+      }
+      for (int i = 0; i < numberOfReaders; i++) {
+        completedReaders.take().get();
+      }
+      eTag = s3Client
+          .completeMultipartUpload(new CompleteMultipartUploadRequest(uploadDescriptor.getBucketName(),
+              uploadDescriptor.getKey(), uploadId, Arrays.asList(partETags)))
+          .getETag();
+      completed = true;
+    } catch (InterruptedException e) {
+      throw new RuntimeException("Unable to upload file " + sourceFileStatus.getPath(), e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException && !(cause instanceof AmazonClientException)) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    } catch (AmazonClientException e) {
+      throw new IOException(e);
+    } finally {
+      if (!completed) {
+        for (Future<Void> reader : readers) {
+          reader.cancel(true);
+        }
+        abortMultipartUpload(s3Client, uploadDescriptor, uploadId);
+      }
+    }
+    context.setStatus("Completed: " + description);
+    return fileSize;
+  }
+
+  /**
+   * Reads the parts that are not taken by other readers yet from a positioned reader of its own and uploads them. The
+   * memory of each part is reserved before the part is taken and released once it has been uploaded.
+   */
+  private void uploadParts(
+      Mapper.Context context,
+      S3UploadDescriptor uploadDescriptor,
+      String uploadId,
+      BandwidthGovernor governor,
+      PartUploadPool pool,
+      AtomicInteger nextPartNumber,
+      PartETag[] partETags,
+      long partSize,
+      long fileSize)
+    throws IOException, InterruptedException {
+    AmazonS3 s3Client = transferManager.getAmazonS3Client();
+    ThrottledInputStream input = getInputStream(uploadDescriptor.getSource(), context.getConfiguration(), governor);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        long reserved = pool.acquireMemory(Math.min(partSize, fileSize));
+        try {
+          int partNumber = nextPartNumber.getAndIncrement();
+          if (partNumber > partETags.length) {
+            return;
+          }
+          long position = (partNumber - 1) * partSize;
+          int length = (int) Math.min(partSize, fileSize - position);
+          // The buffer is only referenced while the memory of the part is reserved
+          byte[] buffer = new byte[length];
+          readFully(input, position, buffer, length);
+
+          UploadPartRequest request = new UploadPartRequest()
+              .withBucketName(uploadDescriptor.getBucketName())
+              .withKey(uploadDescriptor.getKey())
+              .withUploadId(uploadId)
+              .withPartNumber(partNumber)
+              .withPartSize(length)
+              .withInputStream(new ByteArrayInputStream(buffer))
+              .withLastPart(partNumber == partETags.length);
+          // The part is in memory and can be read again entirely if the request is retried
+          request.getRequestClientOptions().setReadLimit(length + 1);
+          partETags[partNumber - 1] = s3Client.uploadPart(request).getPartETag();
+          context.progress();
+        } finally {
+          pool.releaseMemory(reserved);
+        }
+      }
+    } finally {
+      IOUtils.closeStream(input);
+    }
+  }
+
+  private static void readFully(ThrottledInputStream input, long position, byte[] buffer, int length)
+    throws CopyReadException {
+    try {
+      int offset = 0;
+      while (offset < length) {
+        int bytesRead = input.read(position + offset, buffer, offset, length - offset);
+        if (bytesRead < 0) {
+          throw new EOFException("Unexpected end of file at position " + (position + offset));
+        }
+        offset += bytesRead;
+      }
+    } catch (IOException e) {
+      throw new CopyReadException(e);
+    }
+  }
+
+  private static void abortMultipartUpload(AmazonS3 s3Client, S3UploadDescriptor uploadDescriptor, String uploadId) {
+    try {
+      s3Client.abortMultipartUpload(
+          new AbortMultipartUploadRequest(uploadDescriptor.getBucketName(), uploadDescriptor.getKey(), uploadId));
+    } catch (AmazonClientException e) {
+      LOG.warn("Unable to abort multipart upload {} of {}", uploadId, uploadDescriptor.getTargetPath(), e);
+    }
+  }
+
+  private InitiateMultipartUploadRequest newInitiateMultipartUploadRequest(
+      Mapper.Context context,
+      S3UploadDescriptor uploadDescriptor) {
+    InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(uploadDescriptor.getBucketName(),
+        uploadDescriptor.getKey(), uploadDescriptor.getMetadata());
+    CannedAccessControlList acl = getCannedAcl(context);
+    if (acl != null) {
+      request.withCannedACL(acl);
+    }
+    return request;
+  }
+
+  private static CannedAccessControlList getCannedAcl(Mapper.Context context) {
+    String cannedAcl = context.getConfiguration().get(ConfigurationVariable.CANNED_ACL.getName());
+    if (cannedAcl == null) {
+      return null;
+    }
+    CannedAccessControlList acl = CannedAclUtils.toCannedAccessControlList(cannedAcl);
+    LOG.debug("Using CannedACL {}", acl.name());
+    return acl;
+  }
+
+  private PutObjectRequest newPutObjectRequest(
+      Mapper.Context context,
+      S3UploadDescriptor uploadDescriptor,
+      InputStream input) {
+    PutObjectRequest request = new PutObjectRequest(uploadDescriptor.getBucketName(), uploadDescriptor.getKey(), input,
+        uploadDescriptor.getMetadata());
+
+    CannedAccessControlList acl = getCannedAcl(context);
+    if (acl != null) {
+      request.withCannedAcl(acl);
+    }
+    return request;
+  }
+
+  private Upload startTransfer(Mapper.Context context, S3UploadDescriptor uploadDescriptor) throws IOException {
     InputStream input = getInputStream(uploadDescriptor.getSource(), context.getConfiguration());
     int bufferSize = context.getConfiguration().getInt(ConfigurationVariable.UPLOAD_BUFFER_SIZE.getName(), -1);
     if (bufferSize <= 0) {
@@ -160,15 +532,7 @@ public class RetriableFileCopyCommand extends RetriableCommand<Long> {
     // input stream should not be closed; transfer manager will do it
     input = new BufferedInputStream(input, bufferSize);
     try {
-      PutObjectRequest request = new PutObjectRequest(uploadDescriptor.getBucketName(), uploadDescriptor.getKey(),
-          input, uploadDescriptor.getMetadata());
-
-      String cannedAcl = context.getConfiguration().get(ConfigurationVariable.CANNED_ACL.getName());
-      if (cannedAcl != null) {
-        CannedAccessControlList acl = CannedAclUtils.toCannedAccessControlList(cannedAcl);
-        LOG.debug("Using CannedACL {}", acl.name());
-        request.withCannedAcl(acl);
-      }
+      PutObjectRequest request = newPutObjectRequest(context, uploadDescriptor, input);
 
       // We add 1 to the buffer size as per the com.amazonaws.RequestClientOptions doc
       request.getRequestClientOptions().setReadLimit(bufferSize + 1);
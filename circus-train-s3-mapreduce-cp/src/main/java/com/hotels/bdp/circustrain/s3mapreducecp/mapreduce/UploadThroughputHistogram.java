@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.mapreduce;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import com.hotels.bdp.circustrain.s3mapreducecp.io.BytesFormatter;
+
+/**
+ * Number of files, bytes and upload time of the files copied by a mapper, grouped by file size. Uploads can be recorded
+ * from several threads.
+ */
+public class UploadThroughputHistogram {
+
+  static final String COUNTER_GROUP = "S3MapReduceCp upload throughput";
+
+  private static final long KB = 1024L;
+  private static final long MB = 1024L * KB;
+
+  /* Upper bounds of the size classes, the last class holds all the larger files */
+  private static final long[] SIZE_CLASS_BOUNDS = { 64 * KB, MB, 16 * MB, 128 * MB, Long.MAX_VALUE };
+  private static final String[] SIZE_CLASS_LABELS = { "<=64KB", "<=1MB", "<=16MB", "<=128MB", ">128MB" };
+
+  private final long[] files = new long[SIZE_CLASS_BOUNDS.length];
+  private final long[] bytes = new long[SIZE_CLASS_BOUNDS.length];
+  private final long[] nanos = new long[SIZE_CLASS_BOUNDS.length];
+
+  static int sizeClass(long fileSize) {
+    int sizeClass = 0;
+    while (fileSize > SIZE_CLASS_BOUNDS[sizeClass]) {
+      sizeClass++;
+    }
+    return sizeClass;
+  }
+
+  /**
+   * @param bytesCopied Number of bytes of the file uploaded.
+   * @param elapsedNanos Time it took to read and upload the file, retries included.
+   */
+  public synchronized void record(long bytesCopied, long elapsedNanos) {
+    int sizeClass = sizeClass(bytesCopied);
+    files[sizeClass]++;
+    bytes[sizeClass] += bytesCopied;
+    nanos[sizeClass] += elapsedNanos;
+  }
+
+  synchronized long getFiles(int sizeClass) {
+    return files[sizeClass];
+  }
+
+  synchronized long getBytes(int sizeClass) {
+    return bytes[sizeClass];
+  }
+
+  /**
+   * @return Average throughput of a single upload of the size class in bytes per second, {@code 0} if no file of the
+   *         size class has been uploaded.
+   */
+  synchronized long getBytesPerSecond(int sizeClass) {
+    if (nanos[sizeClass] == 0) {
+      return 0L;
+    }
+    return (long) (bytes[sizeClass] * (double) TimeUnit.SECONDS.toNanos(1) / nanos[sizeClass]);
+  }
+
+  /**
+   * Adds the files, bytes and upload milliseconds of each size class to the counters of the task.
+   */
+  public synchronized void incrementCounters(TaskAttemptContext context) {
+    for (int i = 0; i < SIZE_CLASS_BOUNDS.length; i++) {
+      if (files[i] == 0) {
+        continue;
+      }
+      context.getCounter(COUNTER_GROUP, SIZE_CLASS_LABELS[i] + " files").increment(files[i]);
+      context.getCounter(COUNTER_GROUP, SIZE_CLASS_LABELS[i] + " bytes").increment(bytes[i]);
+      context
+          .getCounter(COUNTER_GROUP, SIZE_CLASS_LABELS[i] + " millis")
+          .increment(TimeUnit.NANOSECONDS.toMillis(nanos[i]));
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < SIZE_CLASS_BOUNDS.length; i++) {
+      if (files[i] == 0) {
+        continue;
+      }
+      if (builder.length() > 0) {
+        builder.append(", ");
+      }
+      builder
+          .append(SIZE_CLASS_LABELS[i])
+          .append(": ")
+          .append(files[i])
+          .append(" files at ")
+          .append(BytesFormatter.getStringDescriptionFor(getBytesPerSecond(i)))
+          .append("/s");
+    }
+    return builder.length() == 0 ? "no uploads" : builder.toString();
+  }
+
+}
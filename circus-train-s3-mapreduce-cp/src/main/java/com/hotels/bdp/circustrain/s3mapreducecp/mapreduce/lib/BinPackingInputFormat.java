@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.mapreduce.lib;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.SequenceFileRecordReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hotels.bdp.circustrain.s3mapreducecp.CopyListingFileStatus;
+import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpConstants;
+import com.hotels.bdp.circustrain.s3mapreducecp.util.ConfigurationUtil;
+import com.hotels.bdp.circustrain.s3mapreducecp.util.IoUtil;
+
+/**
+ * BinPackingInputFormat balances the number of bytes copied by each map regardless of the order of the copy-listing.
+ * Files are assigned largest first to the map with the fewest bytes so far (longest-processing-time-first) and the
+ * records of each map are written to their own bin file next to the copy-listing. Unlike
+ * {@link com.hotels.bdp.circustrain.s3mapreducecp.mapreduce.UniformSizeInputFormat} a large file at the start of the
+ * listing does not drag its neighbours into the same split, and unlike {@link DynamicInputFormat} splits are balanced
+ * on bytes rather than on the number of files. The planned bytes of each split are exposed through
+ * {@link BinPackingInputSplit#getLength()}.
+ */
+public class BinPackingInputFormat extends InputFormat<Text, CopyListingFileStatus> {
+  private static final Logger LOG = LoggerFactory.getLogger(BinPackingInputFormat.class);
+
+  private static final String BIN_DIR = "binDir";
+
+  /**
+   * Implementation of InputFormat::getSplits(). Returns at most one split per map, each one reading a bin file with
+   * approximately the same number of bytes to copy.
+   *
+   * @param context JobContext for the job.
+   * @return The list of bin-packed input-splits.
+   * @throws IOException: On failure.
+   * @throws InterruptedException
+   */
+  @Override
+  public List<InputSplit> getSplits(JobContext context) throws IOException, InterruptedException {
+    Configuration configuration = context.getConfiguration();
+    int numMaps = ConfigurationUtil.getInt(configuration, MRJobConfig.NUM_MAPS);
+    if (numMaps == 0) {
+      return new ArrayList<>();
+    }
+
+    Path listingFilePath = getListingFilePath(configuration);
+    long[] fileSizes = readFileSizes(configuration, listingFilePath);
+    int numBins = Math.min(numMaps, fileSizes.length);
+    if (numBins == 0) {
+      return new ArrayList<>();
+    }
+    return writeBins(configuration, listingFilePath, pack(fileSizes, numBins), numBins);
+  }
+
+  /**
+   * Package private, for testability. Assigns each file to a bin, largest file first, always picking the bin with the
+   * fewest bytes. Ties are broken on the position of the file in the listing and the index of the bin, so the result
+   * is deterministic.
+   *
+   * @param fileSizes Sizes of the files in listing order.
+   * @param numBins Number of bins to pack the files into.
+   * @return The bin of each file, in listing order.
+   */
+  static int[] pack(final long[] fileSizes, int numBins) {
+    Integer[] largestFirst = new Integer[fileSizes.length];
+    for (int i = 0; i < fileSizes.length; i++) {
+      largestFirst[i] = i;
+    }
+    Arrays.sort(largestFirst, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer left, Integer right) {
+        int bySize = Long.compare(fileSizes[right], fileSizes[left]);
+        return bySize != 0 ? bySize : Integer.compare(left, right);
+      }
+    });
+
+    final long[] binSizes = new long[numBins];
+    PriorityQueue<Integer> bins = new PriorityQueue<>(numBins, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer left, Integer right) {
+        int bySize = Long.compare(binSizes[left], binSizes[right]);
+        return bySize != 0 ? bySize : Integer.compare(left, right);
+      }
+    });
+    for (int bin = 0; bin < numBins; bin++) {
+      bins.add(bin);
+    }
+
+    int[] binOfFile = new int[fileSizes.length];
+    for (Integer file : largestFirst) {
+      int bin = bins.poll();
+      binOfFile[file] = bin;
+      binSizes[bin] += fileSizes[file];
+      bins.add(bin);
+    }
+    return binOfFile;
+  }
+
+  private static long[] readFileSizes(Configuration configuration, Path listingFilePath) throws IOException {
+    long[] fileSizes = new long[Math
+        .max(16, configuration.getInt(S3MapReduceCpConstants.CONF_LABEL_TOTAL_NUMBER_OF_RECORDS, 0))];
+    int numFiles = 0;
+
+    CopyListingFileStatus srcFileStatus = new CopyListingFileStatus();
+    Text srcRelPath = new Text();
+    SequenceFile.Reader reader = new SequenceFile.Reader(configuration, SequenceFile.Reader.file(listingFilePath));
+    try {
+      while (reader.next(srcRelPath, srcFileStatus)) {
+        if (numFiles == fileSizes.length) {
+          fileSizes = Arrays.copyOf(fileSizes, fileSizes.length * 2);
+        }
+        fileSizes[numFiles++] = srcFileStatus.getLen();
+      }
+    } finally {
+      IOUtils.closeStream(reader);
+    }
+    return Arrays.copyOf(fileSizes, numFiles);
+  }
+
+  private static List<InputSplit> writeBins(
+      Configuration configuration,
+      Path listingFilePath,
+      int[] binOfFile,
+      int numBins)
+    throws IOException {
+    Path binRootPath = new Path(listingFilePath.getParent(), BIN_DIR);
+    FileSystem fs = binRootPath.getFileSystem(configuration);
+    Path[] binPaths = new Path[numBins];
+    long[] binBytes = new long[numBins];
+    long[] binFiles = new long[numBins];
+
+    SequenceFile.Writer[] writers = new SequenceFile.Writer[numBins];
+    SequenceFile.Reader reader = null;
+    try {
+      for (int bin = 0; bin < numBins; bin++) {
+        binPaths[bin] = new Path(binRootPath, listingFilePath.getName() + ".bin." + String.format("%05d", bin));
+        writers[bin] = SequenceFile
+            .createWriter(configuration, SequenceFile.Writer.file(binPaths[bin]),
+                SequenceFile.Writer.keyClass(Text.class), SequenceFile.Writer.valueClass(CopyListingFileStatus.class),
+                SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE));
+      }
+
+      CopyListingFileStatus srcFileStatus = new CopyListingFileStatus();
+      Text srcRelPath = new Text();
+      reader = new SequenceFile.Reader(configuration, SequenceFile.Reader.file(listingFilePath));
+      int file = 0;
+      while (reader.next(srcRelPath, srcFileStatus)) {
+        int bin = binOfFile[file++];
+        writers[bin].append(srcRelPath, srcFileStatus);
+        binBytes[bin] += srcFileStatus.getLen();
+        binFiles[bin]++;
+      }
+
+      for (int bin = 0; bin < numBins; bin++) {
+        writers[bin].close();
+        writers[bin] = null;
+      }
+    } finally {
+      IOUtils.closeStream(reader);
+      IoUtil.closeSilently(LOG, writers);
+    }
+
+    List<InputSplit> splits = new ArrayList<>(numBins);
+    long smallestBin = Long.MAX_VALUE;
+    long largestBin = 0;
+    for (int bin = 0; bin < numBins; bin++) {
+      BinPackingInputSplit split = new BinPackingInputSplit(binPaths[bin], fs.getFileStatus(binPaths[bin]).getLen(),
+          binBytes[bin], binFiles[bin]);
+      LOG.debug("Creating split : {}", split);
+      splits.add(split);
+      smallestBin = Math.min(smallestBin, binBytes[bin]);
+      largestBin = Math.max(largestBin, binBytes[bin]);
+    }
+    LOG
+        .info("Packed {} files into {} splits, smallest split: {} bytes, largest split: {} bytes", binOfFile.length,
+            numBins, smallestBin, largestBin);
+    return splits;
+  }
+
+  private static Path getListingFilePath(Configuration configuration) {
+    final String listingFilePathString = configuration.get(S3MapReduceCpConstants.CONF_LABEL_LISTING_FILE_PATH, "");
+
+    if ("".equals(listingFilePathString)) {
+      throw new IllegalArgumentException("Couldn't find listing file. Invalid input.");
+    }
+    return new Path(listingFilePathString);
+  }
+
+  /**
+   * Implementation of InputFormat::createRecordReader().
+   *
+   * @param split The split for which the RecordReader is sought.
+   * @param context The context of the current task-attempt.
+   * @return A SequenceFileRecordReader instance reading the whole bin file of the split.
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @Override
+  public RecordReader<Text, CopyListingFileStatus> createRecordReader(InputSplit split, TaskAttemptContext context)
+    throws IOException, InterruptedException {
+    return new SequenceFileRecordReader<Text, CopyListingFileStatus>() {
+      @Override
+      public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
+        super.initialize(((BinPackingInputSplit) split).toFileSplit(), context);
+      }
+    };
+  }
+}
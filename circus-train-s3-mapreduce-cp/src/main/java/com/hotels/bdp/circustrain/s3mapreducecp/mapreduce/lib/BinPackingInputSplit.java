@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.mapreduce.lib;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/**
+ * Input split produced by {@link BinPackingInputFormat}. It points to a whole bin file of the copy-listing and reports
+ * the number of bytes of the files in the bin as its length, so that the framework schedules the largest bins first.
+ */
+public class BinPackingInputSplit extends InputSplit implements Writable {
+
+  private static final String[] NO_LOCATIONS = new String[0];
+
+  private Path binPath;
+  private long binFileLength;
+  private long bytesToCopy;
+  private long filesToCopy;
+
+  public BinPackingInputSplit() {}
+
+  BinPackingInputSplit(Path binPath, long binFileLength, long bytesToCopy, long filesToCopy) {
+    this.binPath = binPath;
+    this.binFileLength = binFileLength;
+    this.bytesToCopy = bytesToCopy;
+    this.filesToCopy = filesToCopy;
+  }
+
+  /**
+   * @return The number of bytes the bin was planned to copy.
+   */
+  @Override
+  public long getLength() {
+    return bytesToCopy;
+  }
+
+  @Override
+  public String[] getLocations() {
+    return NO_LOCATIONS;
+  }
+
+  public long getFilesToCopy() {
+    return filesToCopy;
+  }
+
+  /**
+   * @return A split covering the whole bin file, to be read with a {@code SequenceFileRecordReader}.
+   */
+  FileSplit toFileSplit() {
+    return new FileSplit(binPath, 0, binFileLength, null);
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    Text.writeString(out, binPath.toString());
+    out.writeLong(binFileLength);
+    out.writeLong(bytesToCopy);
+    out.writeLong(filesToCopy);
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    binPath = new Path(Text.readString(in));
+    binFileLength = in.readLong();
+    bytesToCopy = in.readLong();
+    filesToCopy = in.readLong();
+  }
+
+  @Override
+  public String toString() {
+    return binPath + " (files: " + filesToCopy + ", bytes: " + bytesToCopy + ")";
+  }
+
+}
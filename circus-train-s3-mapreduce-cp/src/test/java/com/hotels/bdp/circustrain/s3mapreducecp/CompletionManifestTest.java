@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CompletionManifestTest {
+
+  public @Rule TemporaryFolder tmp = new TemporaryFolder();
+
+  private final Configuration conf = new Configuration();
+  private Path metaFolder;
+  private Path folder;
+
+  @Before
+  public void init() {
+    metaFolder = new Path(new File(tmp.getRoot(), "meta").toURI());
+    folder = CompletionManifest.getFolder(metaFolder);
+  }
+
+  @Test
+  public void emptyWhenThereIsNoManifest() throws Exception {
+    assertThat(CompletionManifest.read(conf, folder).isEmpty(), is(true));
+  }
+
+  @Test
+  public void entriesOfAllTaskAttempts() throws Exception {
+    try (CompletionManifest.Writer writer = CompletionManifest.newWriter(conf, folder, "attempt_1")) {
+      writer.append("/a/1", 10L, "etag1");
+    }
+    try (CompletionManifest.Writer writer = CompletionManifest.newWriter(conf, folder, "attempt_2")) {
+      writer.append("/a/name\twith tab", 20L, null);
+    }
+
+    Map<String, CompletionManifest.Entry> entries = CompletionManifest.read(conf, folder);
+    assertThat(entries.size(), is(2));
+    assertThat(entries.get("/a/1").getSize(), is(10L));
+    assertThat(entries.get("/a/1").getETag(), is("etag1"));
+    assertThat(entries.get("/a/name\twith tab").getSize(), is(20L));
+    assertThat(entries.get("/a/name\twith tab").getETag(), is(nullValue()));
+  }
+
+  @Test
+  public void partialAndMalformedLinesAreIgnored() throws Exception {
+    FileSystem fs = folder.getFileSystem(conf);
+    try (OutputStream out = fs.create(new Path(folder, "attempt_1"))) {
+      out.write("1\tetag1\t/1\nnot a size\tetag2\t/2\n3\tetag3\t/3".getBytes(StandardCharsets.UTF_8));
+    }
+
+    Map<String, CompletionManifest.Entry> entries = CompletionManifest.read(conf, folder);
+    assertThat(entries.size(), is(1));
+    assertThat(entries.get("/1").getSize(), is(1L));
+  }
+
+  @Test
+  public void manifestIsKept() throws Exception {
+    FileSystem fs = metaFolder.getFileSystem(conf);
+    CompletionManifest.newWriter(conf, folder, "attempt_1").close();
+    fs.create(new Path(metaFolder, "fileList.seq")).close();
+
+    CompletionManifest.deleteAllButManifest(fs, metaFolder);
+
+    assertThat(fs.exists(new Path(metaFolder, "fileList.seq")), is(false));
+    assertThat(fs.exists(new Path(folder, "attempt_1")), is(true));
+  }
+
+}
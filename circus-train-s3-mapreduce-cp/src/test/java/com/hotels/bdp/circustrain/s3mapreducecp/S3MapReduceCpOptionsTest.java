@@ -47,7 +47,14 @@ public class S3MapReduceCpOptionsTest {
     assertThat(options.isS3ServerSideEncryption(), is(false));
     assertThat(options.getStorageClass(), is(StorageClass.Standard.toString()));
     assertThat(options.getMaxBandwidth(), is(100L));
+    assertThat(options.getMaxJobBandwidth(), is(0L));
+    assertThat(options.getBandwidthBurst(), is(0L));
     assertThat(options.getNumberOfUploadWorkers(), is(20));
+    assertThat(options.getConcurrentUploadsPerMap(), is(1));
+    assertThat(options.getSmallFileUploadThreshold(), is(0L));
+    assertThat(options.getParallelUploadThreshold(), is(0L));
+    assertThat(options.getParallelUploadMemory(), is(256L));
+    assertThat(options.getResumeId(), is(nullValue()));
     assertThat(options.getMultipartUploadThreshold(), is(16L * 1024 * 1024));
     assertThat(options.getMaxMaps(), is(20));
     assertThat(options.getCopyStrategy(), is("uniformsize"));
@@ -75,6 +82,8 @@ public class S3MapReduceCpOptionsTest {
         is(ConfigurationVariable.S3_SERVER_SIDE_ENCRYPTION.defaultBooleanValue()));
     assertThat(options.getStorageClass(), is(ConfigurationVariable.STORAGE_CLASS.defaultValue()));
     assertThat(options.getMaxBandwidth(), is(ConfigurationVariable.MAX_BANDWIDTH.defaultLongValue()));
+    assertThat(options.getMaxJobBandwidth(), is(ConfigurationVariable.MAX_JOB_BANDWIDTH.defaultLongValue()));
+    assertThat(options.getBandwidthBurst(), is(ConfigurationVariable.BANDWIDTH_BURST.defaultLongValue()));
     assertThat(options.getNumberOfUploadWorkers(),
         is(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.defaultIntValue()));
     assertThat(options.getMultipartUploadThreshold(),
@@ -33,8 +33,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -228,6 +230,71 @@ public class SimpleCopyListingTest {
     assertThat(listing.getNumberOfPaths(), is(2L));
   }
 
+  @Test(timeout = 10000)
+  public void filesCopiedByPreviousRunAreLeftOut() throws Exception {
+    FileSystem fs = FileSystem.get(config);
+    Path source = new Path(temporaryRoot + "/in");
+    OutputStream out = fs.create(new Path(source, "1"));
+    out.write("ABC".getBytes());
+    out.close();
+    out = fs.create(new Path(source, "2"));
+    out.write("DEF".getBytes());
+    out.close();
+    URI target = URI.create("s3://bucket/tmp/out/");
+
+    Path metaFolder = new Path(temporaryRoot + "/meta");
+    try (CompletionManifest.Writer writer = CompletionManifest
+        .newWriter(config, CompletionManifest.getFolder(metaFolder), "attempt_1")) {
+      writer.append("/1", 3L, "etag1");
+      writer.append("/2", 2L, "etag2");
+    }
+    Configuration conf = new Configuration(config);
+    conf.set(S3MapReduceCpConstants.CONF_LABEL_META_FOLDER, metaFolder.toString());
+    listing = new SimpleCopyListing(conf, CREDENTIALS);
+    S3MapReduceCpOptions options = S3MapReduceCpOptions
+        .builder(Arrays.asList(source), target)
+        .resumeId("event-id")
+        .build();
+
+    listing.buildListing(new Path(temporaryRoot + "/file"), options);
+    assertThat(listing.getBytesToCopy(), is(3L));
+    assertThat(listing.getNumberOfPaths(), is(1L));
+  }
+
+  @Test(timeout = 10000)
+  public void manySourcesListedConcurrently() throws Exception {
+    FileSystem fs = FileSystem.get(config);
+    Path testRoot = new Path(temporaryRoot + "/sources");
+    List<Path> sources = new ArrayList<>();
+    Set<String> expectedRelativePaths = new HashSet<>();
+    for (int i = 0; i < 25; i++) {
+      Path sourceDir = new Path(testRoot, "dir_" + i);
+      createFile(fs, new Path(sourceDir, "file_" + i + ".dat"));
+      createFile(fs, new Path(sourceDir, "nested/nested_" + i + ".dat"));
+      sources.add(sourceDir);
+      expectedRelativePaths.add("/file_" + i + ".dat");
+      expectedRelativePaths.add("/nested/nested_" + i + ".dat");
+    }
+    URI target = URI.create("s3://bucket/target/");
+
+    Configuration conf = new Configuration(config);
+    conf.setInt(S3MapReduceCpConstants.CONF_LABEL_LISTING_THREADS, 4);
+    listing = new SimpleCopyListing(conf, CREDENTIALS);
+    Path listFile = new Path(temporaryRoot + "/fileList.seq");
+    listing.buildListing(listFile, options(sources, target));
+
+    assertThat(listing.getNumberOfPaths(), is(50L));
+    Set<String> actualRelativePaths = new HashSet<>();
+    try (SequenceFile.Reader reader = new SequenceFile.Reader(config, SequenceFile.Reader.file(listFile))) {
+      CopyListingFileStatus fileStatus = new CopyListingFileStatus();
+      Text relativePath = new Text();
+      while (reader.next(relativePath, fileStatus)) {
+        actualRelativePaths.add(relativePath.toString());
+      }
+    }
+    assertThat(actualRelativePaths, is(expectedRelativePaths));
+  }
+
   @Test(timeout = 10000)
   public void invalidInput() throws Exception {
     Path source = new Path(temporaryRoot + "/path/does/not/exist");
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertThat;
 import org.apache.hadoop.conf.Configuration;
 import org.junit.Test;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.model.Region;
@@ -43,4 +44,29 @@ public class AwsS3ClientFactoryTest {
     assertThat(client.getRegion(), is(Region.EU_Ireland));
   }
 
+  @Test
+  public void defaultMaxConnections() {
+    assertThat(AwsS3ClientFactory.getMaxConnections(new Configuration()),
+        is(ClientConfiguration.DEFAULT_MAX_CONNECTIONS));
+  }
+
+  @Test
+  public void maxConnectionsCoverUploadsInFlight() {
+    Configuration conf = new Configuration();
+    conf.setInt(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.getName(), 40);
+    conf.setInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP.getName(), 4);
+    assertThat(AwsS3ClientFactory.getMaxConnections(conf), is(ClientConfiguration.DEFAULT_MAX_CONNECTIONS));
+    conf.setLong(ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD.getName(), 65536L);
+    assertThat(AwsS3ClientFactory.getMaxConnections(conf), is(80));
+  }
+
+  @Test
+  public void maxConnectionsCoverPartsUploadedInParallel() {
+    Configuration conf = new Configuration();
+    conf.setInt(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.getName(), 40);
+    conf.setInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP.getName(), 2);
+    conf.setLong(ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.getName(), 1024L * 1024 * 1024);
+    assertThat(AwsS3ClientFactory.getMaxConnections(conf), is(82));
+  }
+
 }
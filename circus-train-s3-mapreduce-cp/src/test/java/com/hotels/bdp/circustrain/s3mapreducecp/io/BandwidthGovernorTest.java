@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class BandwidthGovernorTest {
+
+  private static final long MB = 1024 * 1024;
+
+  private static class FakeTicker extends Ticker {
+    private long nanos = 0;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long duration, TimeUnit unit) {
+      nanos += unit.toNanos(duration);
+    }
+  }
+
+  private final FakeTicker ticker = new FakeTicker();
+
+  private BandwidthGovernor newGovernor(long bytesPerSecond, long burstBytes) {
+    return new BandwidthGovernor(bytesPerSecond, burstBytes, ticker) {
+      @Override
+      void sleep(long nanos) {
+        ticker.advance(nanos, TimeUnit.NANOSECONDS);
+      }
+    };
+  }
+
+  @Test
+  public void readsAreSpreadAtPermittedRate() throws Exception {
+    BandwidthGovernor governor = newGovernor(MB, 0);
+    long waited = 0;
+    for (int i = 0; i < 10; i++) {
+      waited += governor.acquire(MB);
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(waited), is(10000L));
+    assertThat(ticker.read(), is(TimeUnit.SECONDS.toNanos(10)));
+    assertThat(governor.getBytesAcquired(), is(10 * MB));
+    assertThat(governor.getTotalWaitMillis(), is(10000L));
+  }
+
+  @Test
+  public void burstIsAvailableAfterIdling() throws Exception {
+    BandwidthGovernor governor = newGovernor(MB, 2 * MB);
+    ticker.advance(10, TimeUnit.SECONDS);
+    assertThat(governor.acquire(2 * MB), is(0L));
+    assertThat(TimeUnit.NANOSECONDS.toMillis(governor.acquire(MB)), is(1000L));
+  }
+
+  @Test
+  public void shortWaitsAreCarriedOver() throws Exception {
+    BandwidthGovernor governor = newGovernor(MB, 0);
+    assertThat(governor.acquire(1024), is(0L));
+    assertThat(TimeUnit.NANOSECONDS.toMillis(governor.acquire(MB - 1024)), is(1000L));
+  }
+
+  @Test
+  public void unlimited() throws Exception {
+    BandwidthGovernor governor = newGovernor(Long.MAX_VALUE, 0);
+    assertThat(governor.acquire(100 * MB), is(0L));
+    assertThat(governor.getBytesAcquired(), is(100 * MB));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidBandwidth() {
+    new BandwidthGovernor(0, 0);
+  }
+
+}
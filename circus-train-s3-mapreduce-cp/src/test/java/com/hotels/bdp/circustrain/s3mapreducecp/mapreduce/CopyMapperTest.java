@@ -0,0 +1,274 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.mapreduce;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.retry.RetryPolicies;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.hotels.bdp.circustrain.s3mapreducecp.ConfigurationVariable;
+import com.hotels.bdp.circustrain.s3mapreducecp.CopyListingFileStatus;
+import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpConfiguration;
+import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpConstants;
+import com.hotels.bdp.circustrain.s3mapreducecp.StubContext;
+
+public class CopyMapperTest {
+
+  private static final long MB = 1024 * 1024;
+
+  private interface Upload {
+    long copy(FileStatus source) throws Exception;
+  }
+
+  private class TestCopyMapper extends CopyMapper {
+    @Override
+    RetriableFileCopyCommand newCopyCommand(String description) {
+      RetriableFileCopyCommand command = new RetriableFileCopyCommand(description, null) {
+        @Override
+        protected Long doExecute(Object... arguments) throws Exception {
+          return upload.copy((FileStatus) arguments[1]);
+        }
+      };
+      command.setRetryPolicy(RetryPolicies.TRY_ONCE_THEN_FAIL);
+      return command;
+    }
+  }
+
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
+
+  private final S3MapReduceCpConfiguration conf = new S3MapReduceCpConfiguration();
+  private final CopyMapper mapper = new TestCopyMapper();
+  private final AtomicInteger uploadsInFlight = new AtomicInteger();
+  private final AtomicInteger maxUploadsInFlight = new AtomicInteger();
+  private Upload upload;
+
+  @Before
+  public void init() {
+    conf.setLong(ConfigurationVariable.MAX_BANDWIDTH, 100L);
+    conf.setInt(MRJobConfig.NUM_MAPS, 4);
+    conf.set(S3MapReduceCpConstants.CONF_LABEL_TARGET_FINAL_PATH, "s3://bucket/target");
+    upload = new Upload() {
+      @Override
+      public long copy(FileStatus source) throws Exception {
+        return source.getLen();
+      }
+    };
+  }
+
+  @Test
+  public void bandwidthPerTask() {
+    assertThat(CopyMapper.newBandwidthGovernor(conf).getBytesPerSecond(), is(100L * MB));
+  }
+
+  @Test
+  public void bandwidthIsShareOfJobBandwidthPerSplit() {
+    conf.setLong(ConfigurationVariable.MAX_JOB_BANDWIDTH, 200L);
+    assertThat(CopyMapper.newBandwidthGovernor(conf).getBytesPerSecond(), is(50L * MB));
+  }
+
+  @Test
+  public void shareOfJobBandwidthIsCappedToBandwidthPerTask() {
+    conf.setLong(ConfigurationVariable.MAX_JOB_BANDWIDTH, 1000L);
+    assertThat(CopyMapper.newBandwidthGovernor(conf).getBytesPerSecond(), is(100L * MB));
+  }
+
+  @Test
+  public void countersAreIncrementedOncePerFile() throws Exception {
+    conf.setInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP, 2);
+    StubContext stubContext = new StubContext(conf, null, 0);
+
+    run(stubContext, newFile("a", 10), newFile("b", 20), newFile("c", 30));
+
+    assertThat(counter(stubContext, Counter.COPY), is(3L));
+    assertThat(counter(stubContext, Counter.BYTESCOPIED), is(60L));
+    assertThat(counter(stubContext, Counter.BYTESEXPECTED), is(60L));
+    assertThat(counter(stubContext, Counter.FAIL), is(0L));
+  }
+
+  @Test
+  public void largeFilesInFlightAreLimitedToConcurrentUploads() throws Exception {
+    conf.setInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP, 2);
+    conf.setInt(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS, 4);
+    upload = new TrackingUpload();
+    StubContext stubContext = new StubContext(conf, null, 0);
+
+    run(stubContext, newFiles(8, 100));
+
+    assertThat(maxUploadsInFlight.get(), is(2));
+    assertThat(counter(stubContext, Counter.COPY), is(8L));
+  }
+
+  @Test
+  public void smallFilesInFlightAreLimitedToUploadWorkers() throws Exception {
+    conf.setInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP, 1);
+    conf.setInt(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS, 3);
+    conf.setLong(ConfigurationVariable.SMALL_FILE_UPLOAD_THRESHOLD, 1024L);
+    upload = new TrackingUpload();
+    StubContext stubContext = new StubContext(conf, null, 0);
+
+    run(stubContext, newFiles(8, 100));
+
+    assertThat(maxUploadsInFlight.get(), is(3));
+    assertThat(counter(stubContext, Counter.COPY), is(8L));
+  }
+
+  @Test
+  public void ignoredReadFailureOnUploadThread() throws Exception {
+    conf.setInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP, 2);
+    conf.setBoolean(ConfigurationVariable.IGNORE_FAILURES, true);
+    upload = new Upload() {
+      @Override
+      public long copy(FileStatus source) throws Exception {
+        if (source.getPath().getName().equals("b")) {
+          throw new RetriableFileCopyCommand.CopyReadException(new IOException("read failed"));
+        }
+        return source.getLen();
+      }
+    };
+    StubContext stubContext = new StubContext(conf, null, 0);
+
+    run(stubContext, newFile("a", 10), newFile("b", 20));
+
+    assertThat(counter(stubContext, Counter.COPY), is(1L));
+    assertThat(counter(stubContext, Counter.BYTESCOPIED), is(10L));
+    assertThat(counter(stubContext, Counter.FAIL), is(1L));
+    assertThat(counter(stubContext, Counter.BYTESFAILED), is(20L));
+    assertThat(stubContext.getWriter().values().size(), is(1));
+    assertThat(stubContext.getWriter().values().get(0).toString(), startsWith("FAIL: "));
+  }
+
+  @Test
+  public void failureOnUploadThreadFailsTask() throws Exception {
+    conf.setInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP, 2);
+    upload = new Upload() {
+      @Override
+      public long copy(FileStatus source) throws Exception {
+        throw new IOException("write failed");
+      }
+    };
+    StubContext stubContext = new StubContext(conf, null, 0);
+
+    try {
+      run(stubContext, newFile("a", 10));
+      fail("Expected the failed upload to fail the task");
+    } catch (IOException e) {
+      assertThat(e.getCause(), instanceOf(IOException.class));
+    }
+    assertThat(counter(stubContext, Counter.COPY), is(0L));
+  }
+
+  @Test(timeout = 10000)
+  public void cleanupAfterFailedMapCancelsUploadsInFlight() throws Exception {
+    conf.setInt(ConfigurationVariable.CONCURRENT_UPLOADS_PER_MAP, 2);
+    final CountDownLatch neverReleased = new CountDownLatch(1);
+    upload = new Upload() {
+      @Override
+      public long copy(FileStatus source) throws Exception {
+        neverReleased.await();
+        return source.getLen();
+      }
+    };
+    StubContext stubContext = new StubContext(conf, null, 0);
+    Mapper<Text, CopyListingFileStatus, Text, Text>.Context context = stubContext.getContext();
+    CopyListingFileStatus missingFile = new CopyListingFileStatus(newFile("missing", 10));
+    new File(missingFile.getPath().toUri()).delete();
+
+    mapper.setup(context);
+    try {
+      map(context, new CopyListingFileStatus(newFile("a", 10)));
+      map(context, missingFile);
+      fail("Expected the missing file to fail the map");
+    } catch (IOException e) {
+      assertThat(e.getCause(), instanceOf(RetriableFileCopyCommand.CopyReadException.class));
+    } finally {
+      mapper.cleanup(context);
+    }
+    assertThat(counter(stubContext, Counter.COPY), is(0L));
+  }
+
+  private class TrackingUpload implements Upload {
+    @Override
+    public long copy(FileStatus source) throws Exception {
+      int inFlight = uploadsInFlight.incrementAndGet();
+      try {
+        int max = maxUploadsInFlight.get();
+        while (inFlight > max && !maxUploadsInFlight.compareAndSet(max, inFlight)) {
+          max = maxUploadsInFlight.get();
+        }
+        Thread.sleep(50);
+        return source.getLen();
+      } finally {
+        uploadsInFlight.decrementAndGet();
+      }
+    }
+  }
+
+  private void run(StubContext stubContext, FileStatus... files) throws IOException, InterruptedException {
+    Mapper<Text, CopyListingFileStatus, Text, Text>.Context context = stubContext.getContext();
+    mapper.setup(context);
+    try {
+      for (FileStatus file : files) {
+        map(context, new CopyListingFileStatus(file));
+      }
+    } finally {
+      mapper.cleanup(context);
+    }
+  }
+
+  private void map(Mapper<Text, CopyListingFileStatus, Text, Text>.Context context, CopyListingFileStatus file)
+    throws IOException, InterruptedException {
+    mapper.map(new Text("/" + file.getPath().getName()), file, context);
+  }
+
+  private FileStatus[] newFiles(int count, int length) throws IOException {
+    FileStatus[] files = new FileStatus[count];
+    for (int i = 0; i < count; i++) {
+      files[i] = newFile("file" + i, length);
+    }
+    return files;
+  }
+
+  private FileStatus newFile(String name, int length) throws IOException {
+    File file = temp.newFile(name);
+    Files.write(file.toPath(), new String(new char[length]).replace('\0', 'x').getBytes(StandardCharsets.UTF_8));
+    return new FileStatus(length, false, 1, length, file.lastModified(), new Path(file.toURI()));
+  }
+
+  private static long counter(StubContext stubContext, Counter counter) {
+    return stubContext.getReporter().getCounter(counter).getValue();
+  }
+
+}
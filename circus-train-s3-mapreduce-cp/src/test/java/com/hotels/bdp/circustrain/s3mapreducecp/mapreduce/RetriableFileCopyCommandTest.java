@@ -0,0 +1,251 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.mapreduce;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.retry.RetryPolicies;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.amazonaws.services.s3.transfer.TransferManager;
+
+import com.hotels.bdp.circustrain.s3mapreducecp.ConfigurationVariable;
+import com.hotels.bdp.circustrain.s3mapreducecp.StubContext;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RetriableFileCopyCommandTest {
+
+  private static final long MB = 1024L * 1024;
+  private static final int FILE_SIZE = 95;
+
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
+
+  private @Mock TransferManager transferManager;
+  private @Mock AmazonS3 s3Client;
+
+  private final Configuration conf = new Configuration();
+  private final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+  private final AtomicInteger partsInFlight = new AtomicInteger();
+  private final AtomicInteger maxPartsInFlight = new AtomicInteger();
+  private byte[] content;
+  private Path source;
+
+  @Before
+  public void init() throws Exception {
+    content = new byte[FILE_SIZE];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    File file = temp.newFile("source");
+    Files.write(file.toPath(), content);
+    source = new Path(file.toURI());
+
+    conf.setLong(ConfigurationVariable.MINIMUM_UPLOAD_PART_SIZE.getName(), 10L);
+    conf.setLong(ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD.getName(), 1L);
+    conf.setLong(ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.getName(), 1L);
+    conf.setInt(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS.getName(), 3);
+
+    when(transferManager.getAmazonS3Client()).thenReturn(s3Client);
+    InitiateMultipartUploadResult initiateResult = new InitiateMultipartUploadResult();
+    initiateResult.setUploadId("upload-id");
+    when(s3Client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiateResult);
+    CompleteMultipartUploadResult completeResult = new CompleteMultipartUploadResult();
+    completeResult.setETag("etag");
+    when(s3Client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).thenReturn(completeResult);
+    when(s3Client.uploadPart(any(UploadPartRequest.class))).thenAnswer(new Answer<UploadPartResult>() {
+      @Override
+      public UploadPartResult answer(InvocationOnMock invocation) throws Throwable {
+        int inFlight = partsInFlight.incrementAndGet();
+        try {
+          synchronized (maxPartsInFlight) {
+            maxPartsInFlight.set(Math.max(maxPartsInFlight.get(), inFlight));
+          }
+          UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+          byte[] part = new byte[(int) request.getPartSize()];
+          IOUtils.readFully(request.getInputStream(), part, 0, part.length);
+          uploadedParts.put(request.getPartNumber(), part);
+          Thread.sleep(20);
+          UploadPartResult result = new UploadPartResult();
+          result.setPartNumber(request.getPartNumber());
+          result.setETag("etag-" + request.getPartNumber());
+          return result;
+        } finally {
+          partsInFlight.decrementAndGet();
+        }
+      }
+    });
+  }
+
+  @Test
+  public void minimumPartSize() {
+    assertThat(RetriableFileCopyCommand.getPartSize(1024 * MB, 5 * MB), is(5 * MB));
+  }
+
+  @Test
+  public void partSizeIsIncreasedToStayWithinMaximumNumberOfParts() {
+    long fileSize = 50L * 1024 * MB;
+    long partSize = RetriableFileCopyCommand.getPartSize(fileSize, 5 * MB);
+    assertThat(partSize, is(5368710L));
+    assertThat((fileSize + partSize - 1) / partSize, is(10000L));
+  }
+
+  @Test
+  public void parallelUploadIsDisabledByDefault() {
+    assertThat(RetriableFileCopyCommand.isParallelUpload(conf, 1024 * MB), is(false));
+  }
+
+  @Test
+  public void parallelUploadOfLargeFiles() {
+    conf.setLong(ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.getName(), 128 * MB);
+    assertThat(RetriableFileCopyCommand.isParallelUpload(conf, 128 * MB - 1), is(false));
+    assertThat(RetriableFileCopyCommand.isParallelUpload(conf, 128 * MB), is(true));
+  }
+
+  @Test
+  public void filesBelowMultipartUploadThresholdAreNotUploadedInParallel() {
+    conf.setLong(ConfigurationVariable.PARALLEL_UPLOAD_THRESHOLD.getName(), 1L);
+    conf.setLong(ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD.getName(), 16 * MB);
+    assertThat(RetriableFileCopyCommand.isParallelUpload(conf, 16 * MB - 1), is(false));
+    assertThat(RetriableFileCopyCommand.isParallelUpload(conf, 16 * MB), is(true));
+  }
+
+  @Test
+  public void partsAreNumberedAndCompletedInOrder() throws Exception {
+    long bytesCopied = copy(newCommand(null), FILE_SIZE);
+
+    assertThat(bytesCopied, is((long) FILE_SIZE));
+    assertThat(uploadedParts.size(), is(10));
+    byte[] uploaded = new byte[FILE_SIZE];
+    for (int partNumber = 1; partNumber <= 10; partNumber++) {
+      byte[] part = uploadedParts.get(partNumber);
+      assertThat(part.length, is(partNumber < 10 ? 10 : 5));
+      System.arraycopy(part, 0, uploaded, (partNumber - 1) * 10, part.length);
+    }
+    assertThat(uploaded, is(content));
+
+    ArgumentCaptor<CompleteMultipartUploadRequest> request = ArgumentCaptor
+        .forClass(CompleteMultipartUploadRequest.class);
+    verify(s3Client).completeMultipartUpload(request.capture());
+    List<PartETag> partETags = request.getValue().getPartETags();
+    assertThat(partETags.size(), is(10));
+    for (int i = 0; i < partETags.size(); i++) {
+      assertThat(partETags.get(i).getPartNumber(), is(i + 1));
+      assertThat(partETags.get(i).getETag(), is("etag-" + (i + 1)));
+    }
+    verify(s3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+  }
+
+  @Test
+  public void failedPartAbortsUpload() throws Exception {
+    when(s3Client.uploadPart(any(UploadPartRequest.class))).thenThrow(new AmazonServiceException("Part failed"));
+
+    try {
+      copy(newCommand(null), FILE_SIZE);
+      fail("Exception expected");
+    } catch (IOException e) {
+      assertThat(e.getCause(), instanceOf(IOException.class));
+      assertThat(e.getCause().getCause(), instanceOf(AmazonServiceException.class));
+    }
+
+    verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+  }
+
+  @Test
+  public void shortReadIsCopyReadFailure() throws Exception {
+    try {
+      copy(newCommand(null), FILE_SIZE + 10);
+      fail("Exception expected");
+    } catch (IOException e) {
+      assertThat(e.getCause(), instanceOf(RetriableFileCopyCommand.CopyReadException.class));
+    }
+
+    verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+  }
+
+  @Test
+  public void partsInMemoryAreLimitedByMemoryBudget() throws Exception {
+    try (PartUploadPool pool = new PartUploadPool(4, 20L)) {
+      copy(newCommand(pool), FILE_SIZE);
+    }
+
+    assertThat(uploadedParts.size(), is(10));
+    assertThat(maxPartsInFlight.get(), is(2));
+  }
+
+  @Test
+  public void partLargerThanMemoryBudgetIsReadOnItsOwn() throws Exception {
+    try (PartUploadPool pool = new PartUploadPool(4, 5L)) {
+      copy(newCommand(pool), FILE_SIZE);
+    }
+
+    assertThat(uploadedParts.size(), is(10));
+    assertThat(maxPartsInFlight.get(), is(1));
+  }
+
+  private RetriableFileCopyCommand newCommand(PartUploadPool pool) {
+    RetriableFileCopyCommand command = new RetriableFileCopyCommand("Copying source", transferManager, null, pool);
+    command.setRetryPolicy(RetryPolicies.TRY_ONCE_THEN_FAIL);
+    return command;
+  }
+
+  private long copy(RetriableFileCopyCommand command, long length) throws Exception {
+    FileStatus sourceStatus = new FileStatus(length, false, 1, 0, 0, source);
+    S3UploadDescriptor uploadDescriptor = new S3UploadDescriptor(source, "bucket", "key", new ObjectMetadata());
+    return command.execute(new StubContext(conf, null, 0).getContext(), sourceStatus, uploadDescriptor);
+  }
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.mapreduce;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.junit.Test;
+
+public class UploadThroughputHistogramTest {
+
+  private final UploadThroughputHistogram histogram = new UploadThroughputHistogram();
+
+  @Test
+  public void sizeClasses() {
+    assertThat(UploadThroughputHistogram.sizeClass(0L), is(0));
+    assertThat(UploadThroughputHistogram.sizeClass(64 * 1024L), is(0));
+    assertThat(UploadThroughputHistogram.sizeClass(64 * 1024L + 1), is(1));
+    assertThat(UploadThroughputHistogram.sizeClass(1024 * 1024L), is(1));
+    assertThat(UploadThroughputHistogram.sizeClass(16 * 1024 * 1024L), is(2));
+    assertThat(UploadThroughputHistogram.sizeClass(128 * 1024 * 1024L), is(3));
+    assertThat(UploadThroughputHistogram.sizeClass(Long.MAX_VALUE), is(4));
+  }
+
+  @Test
+  public void throughputPerSizeClass() {
+    histogram.record(10 * 1024L, TimeUnit.MILLISECONDS.toNanos(10));
+    histogram.record(30 * 1024L, TimeUnit.MILLISECONDS.toNanos(30));
+    histogram.record(1024 * 1024L, TimeUnit.MILLISECONDS.toNanos(100));
+
+    assertThat(histogram.getFiles(0), is(2L));
+    assertThat(histogram.getBytes(0), is(40 * 1024L));
+    assertThat(histogram.getBytesPerSecond(0), is(1024000L));
+    assertThat(histogram.getFiles(1), is(1L));
+    assertThat(histogram.getBytesPerSecond(1), is(10 * 1024 * 1024L));
+    assertThat(histogram.getFiles(2), is(0L));
+    assertThat(histogram.getBytesPerSecond(2), is(0L));
+  }
+
+  @Test
+  public void countersOfUploadedSizeClasses() {
+    histogram.record(10 * 1024L, TimeUnit.MILLISECONDS.toNanos(10));
+    TaskAttemptContext context = mock(TaskAttemptContext.class);
+    org.apache.hadoop.mapreduce.Counter files = mock(org.apache.hadoop.mapreduce.Counter.class);
+    org.apache.hadoop.mapreduce.Counter bytes = mock(org.apache.hadoop.mapreduce.Counter.class);
+    org.apache.hadoop.mapreduce.Counter millis = mock(org.apache.hadoop.mapreduce.Counter.class);
+    when(context.getCounter(UploadThroughputHistogram.COUNTER_GROUP, "<=64KB files")).thenReturn(files);
+    when(context.getCounter(UploadThroughputHistogram.COUNTER_GROUP, "<=64KB bytes")).thenReturn(bytes);
+    when(context.getCounter(UploadThroughputHistogram.COUNTER_GROUP, "<=64KB millis")).thenReturn(millis);
+
+    histogram.incrementCounters(context);
+
+    verify(files).increment(1L);
+    verify(bytes).increment(10 * 1024L);
+    verify(millis).increment(10L);
+    verify(context, never()).getCounter(UploadThroughputHistogram.COUNTER_GROUP, "<=1MB files");
+  }
+
+  @Test
+  public void noUploads() {
+    assertThat(histogram.toString(), is("no uploads"));
+  }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2016-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3mapreducecp.mapreduce.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.JobID;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.apache.hadoop.security.Credentials;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.hotels.bdp.circustrain.s3mapreducecp.CopyListing;
+import com.hotels.bdp.circustrain.s3mapreducecp.CopyListingFileStatus;
+import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpOptions;
+import com.hotels.bdp.circustrain.s3mapreducecp.StubContext;
+
+public class BinPackingInputFormatTest {
+
+  private static final Credentials CREDENTIALS = new Credentials();
+
+  public @Rule TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  public void largestFilesArePackedFirst() {
+    int[] binOfFile = BinPackingInputFormat.pack(new long[] { 100L, 1L, 1L, 1L, 50L, 50L }, 2);
+    assertThat(binOfFile, is(new int[] { 0, 0, 1, 0, 1, 1 }));
+  }
+
+  @Test
+  public void fewerFilesThanBins() {
+    int[] binOfFile = BinPackingInputFormat.pack(new long[] { 10L, 20L }, 5);
+    assertThat(binOfFile, is(new int[] { 1, 0 }));
+  }
+
+  @Test
+  public void splitsAreBalancedOnBytes() throws Exception {
+    FileSystem fs = FileSystem.getLocal(configuration);
+    Path source = new Path(temporaryFolder.getRoot().getAbsolutePath(), "source");
+    Set<String> expectedPaths = new HashSet<>();
+    expectedPaths.add(createFile(fs, new Path(source, "0"), 1000));
+    for (int i = 1; i < 10; i++) {
+      expectedPaths.add(createFile(fs, new Path(source, String.valueOf(i)), 100));
+    }
+    URI target = URI.create("s3://bucket/target/");
+    S3MapReduceCpOptions options = S3MapReduceCpOptions.builder(Arrays.asList(source), target).build();
+    Path listingFile = new Path(temporaryFolder.getRoot().getAbsolutePath(), "meta/fileList.seq");
+    CopyListing.getCopyListing(configuration, CREDENTIALS, options).buildListing(listingFile, options);
+    configuration.setInt(MRJobConfig.NUM_MAPS, 2);
+
+    JobContext jobContext = new JobContextImpl(configuration, new JobID());
+    BinPackingInputFormat inputFormat = new BinPackingInputFormat();
+    List<InputSplit> splits = inputFormat.getSplits(jobContext);
+
+    assertThat(splits.size(), is(2));
+    assertThat(splits.get(0).getLength(), is(1000L));
+    assertThat(((BinPackingInputSplit) splits.get(0)).getFilesToCopy(), is(1L));
+    assertThat(splits.get(1).getLength(), is(900L));
+    assertThat(((BinPackingInputSplit) splits.get(1)).getFilesToCopy(), is(9L));
+
+    List<String> actualPaths = new ArrayList<>();
+    int taskId = 0;
+    for (InputSplit split : splits) {
+      RecordReader<Text, CopyListingFileStatus> recordReader = inputFormat.createRecordReader(split, null);
+      StubContext stubContext = new StubContext(jobContext.getConfiguration(), recordReader, taskId++);
+      recordReader.initialize(split, stubContext.getContext());
+      long bytes = 0;
+      while (recordReader.nextKeyValue()) {
+        actualPaths.add(recordReader.getCurrentValue().getPath().toString());
+        bytes += recordReader.getCurrentValue().getLen();
+      }
+      recordReader.close();
+      assertThat(bytes, is(split.getLength()));
+    }
+    assertThat(actualPaths.size(), is(expectedPaths.size()));
+    assertThat(new HashSet<>(actualPaths), is(expectedPaths));
+  }
+
+  private static String createFile(FileSystem fs, Path path, int length) throws Exception {
+    try (OutputStream out = fs.create(path)) {
+      out.write(new byte[length]);
+    }
+    return fs.makeQualified(path).toString();
+  }
+
+}
@@ -20,10 +20,16 @@ import com.amazonaws.services.s3.transfer.Copy;
 public class CopyJob {
   private Copy copy;
   private CopyJobRequest copyJobRequest;
+  private int attempt;
 
   public CopyJob(Copy copy, CopyJobRequest copyJobRequest) {
+    this(copy, copyJobRequest, 1);
+  }
+
+  public CopyJob(Copy copy, CopyJobRequest copyJobRequest, int attempt) {
     this.copy = copy;
     this.copyJobRequest = copyJobRequest;
+    this.attempt = attempt;
   }
 
   public Copy getCopy() {
@@ -33,4 +39,8 @@ public class CopyJob {
   public CopyJobRequest getCopyJobRequest() {
     return copyJobRequest;
   }
+
+  public int getAttempt() {
+    return attempt;
+  }
 }
@@ -21,10 +21,23 @@ import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
 public class CopyJobRequest {
   private CopyObjectRequest copyObjectRequest;
   private TransferStateChangeListener transferStateChangeListener;
+  private CopyJobRequest sourceCopyJobRequest;
 
   public CopyJobRequest(CopyObjectRequest copyObjectRequest, TransferStateChangeListener transferStateChangeListener) {
+    this(copyObjectRequest, transferStateChangeListener, null);
+  }
+
+  /**
+   * @param sourceCopyJobRequest copies the same object from source, set when this request copies it from the previous
+   *          replica instead
+   */
+  public CopyJobRequest(
+      CopyObjectRequest copyObjectRequest,
+      TransferStateChangeListener transferStateChangeListener,
+      CopyJobRequest sourceCopyJobRequest) {
     this.copyObjectRequest = copyObjectRequest;
     this.transferStateChangeListener = transferStateChangeListener;
+    this.sourceCopyJobRequest = sourceCopyJobRequest;
   }
 
   public CopyObjectRequest getCopyObjectRequest() {
@@ -34,4 +47,12 @@ public class CopyJobRequest {
   public TransferStateChangeListener getTransferStateChangeListener() {
     return transferStateChangeListener;
   }
+
+  public boolean isFromPreviousReplica() {
+    return sourceCopyJobRequest != null;
+  }
+
+  public CopyJobRequest getSourceCopyJobRequest() {
+    return sourceCopyJobRequest;
+  }
 }
@@ -18,7 +18,23 @@ package com.hotels.bdp.circustrain.s3s3copier;
 import static com.hotels.bdp.circustrain.s3s3copier.aws.AmazonS3URIs.toAmazonS3URI;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
@@ -27,6 +43,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3URI;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
@@ -43,10 +60,12 @@ import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
+import com.hotels.bdp.circustrain.aws.S3Schemes;
 import com.hotels.bdp.circustrain.s3s3copier.aws.AmazonS3ClientFactory;
 import com.hotels.bdp.circustrain.s3s3copier.aws.ListObjectsRequestFactory;
 import com.hotels.bdp.circustrain.s3s3copier.aws.TransferManagerFactory;
@@ -55,6 +74,10 @@ public class S3S3Copier implements Copier {
 
   private static final Logger LOG = LoggerFactory.getLogger(S3S3Copier.class);
 
+  private static final long POLL_INTERVAL_MILLIS = 100L;
+  private static final int SLOW_DOWN_STATUS_CODE = 503;
+  private static final String SLOW_DOWN_ERROR_CODE = "SlowDown";
+
   private static class BytesTransferStateChangeListener implements TransferStateChangeListener {
 
     private final S3ObjectSummary s3ObjectSummary;
@@ -84,6 +107,106 @@ public class S3S3Copier implements Copier {
     }
   }
 
+  private static class CopyLocation {
+
+    private final AmazonS3URI source;
+    private final AmazonS3URI target;
+    /** Previous replica location of the same data, {@code null} if all objects are copied from source. */
+    private final AmazonS3URI previousTarget;
+
+    private CopyLocation(AmazonS3URI source, AmazonS3URI target, AmazonS3URI previousTarget) {
+      this.source = source;
+      this.target = target;
+      this.previousTarget = previousTarget;
+    }
+  }
+
+  /**
+   * Walks the objects of a previous replica location one page at a time. S3 lists keys in lexicographic order so the
+   * walk can advance alongside the listing of the matching source location without holding either one in memory.
+   */
+  private static class PreviousReplicaObjects {
+
+    private final AmazonS3 client;
+    private final String prefix;
+    private ObjectListing listing;
+    private Iterator<S3ObjectSummary> objectSummaries;
+    private S3ObjectSummary current;
+    private String currentName;
+
+    private PreviousReplicaObjects(AmazonS3 client, ListObjectsRequest request) {
+      this.client = client;
+      prefix = request.getPrefix();
+      listing = client.listObjects(request);
+      objectSummaries = listing.getObjectSummaries().iterator();
+      next();
+    }
+
+    /**
+     * Skips all objects sorted before the given name. Names are only ever matched exactly, an object found out of order
+     * is simply copied from source.
+     *
+     * @return the object with the given name relative to the previous replica location or {@code null} if there is none
+     */
+    private S3ObjectSummary find(String name) {
+      while (current != null && currentName.compareTo(name) < 0) {
+        next();
+      }
+      if (current != null && currentName.equals(name)) {
+        return current;
+      }
+      return null;
+    }
+
+    private void next() {
+      while (!objectSummaries.hasNext() && listing.isTruncated()) {
+        listing = client.listNextBatchOfObjects(listing);
+        objectSummaries = listing.getObjectSummaries().iterator();
+      }
+      if (objectSummaries.hasNext()) {
+        current = objectSummaries.next();
+        currentName = StringUtils.removeStart(current.getKey(), prefix);
+      } else {
+        current = null;
+        currentName = null;
+      }
+    }
+  }
+
+  private static class CompletedCopy {
+
+    private final CopyJob copyJob;
+    private final AmazonClientException exception;
+
+    private CompletedCopy(CopyJob copyJob, AmazonClientException exception) {
+      this.copyJob = copyJob;
+      this.exception = exception;
+    }
+  }
+
+  private static class DelayedCopyJobRequest implements Delayed {
+
+    private final CopyJobRequest copyJobRequest;
+    private final int attempt;
+    private final long dueNanos;
+
+    private DelayedCopyJobRequest(CopyJobRequest copyJobRequest, int attempt, long delayMillis) {
+      this.copyJobRequest = copyJobRequest;
+      this.attempt = attempt;
+      dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+  }
+
   private static class AtomicLongGauge implements Gauge<Long> {
 
     private final AtomicLong value;
@@ -98,6 +221,7 @@ public class S3S3Copier implements Copier {
     }
   }
 
+  private final String eventId;
   private final Path sourceBaseLocation;
   private final List<Path> sourceSubLocations;
   private final Path replicaLocation;
@@ -108,15 +232,17 @@ public class S3S3Copier implements Copier {
   private final S3S3CopierOptions s3s3CopierOptions;
 
   private TransferManager transferManager;
-  private final List<CopyJobRequest> copyJobRequests = new ArrayList<>();
 
-  private long totalBytesToReplicate = 0;
+  private final AtomicLong totalBytesToReplicate = new AtomicLong(0);
+  private final AtomicLong copyJobsListed = new AtomicLong(0);
+  private final AtomicLong bytesSkipped = new AtomicLong(0);
   private AtomicLong bytesReplicated = new AtomicLong(0);
   private AmazonS3 targetClient;
 
   private AmazonS3 srcClient;
 
   public S3S3Copier(
+      String eventId,
       Path sourceBaseLocation,
       List<Path> sourceSubLocations,
       Path replicaLocation,
@@ -125,6 +251,7 @@ public class S3S3Copier implements Copier {
       ListObjectsRequestFactory listObjectsRequestFactory,
       MetricRegistry registry,
       S3S3CopierOptions s3s3CopierOptions) {
+    this.eventId = eventId;
     this.sourceBaseLocation = sourceBaseLocation;
     this.sourceSubLocations = sourceSubLocations;
     this.replicaLocation = replicaLocation;
@@ -140,7 +267,7 @@ public class S3S3Copier implements Copier {
     registerRunningMetrics(bytesReplicated);
     try {
       try {
-        initialiseAllCopyRequests();
+        initialiseClients();
         processAllCopyJobs();
         return gatherMetrics();
       } catch (AmazonClientException e) {
@@ -151,73 +278,148 @@ public class S3S3Copier implements Copier {
       if (transferManager != null) {
         transferManager.shutdownNow();
       }
+      registry.remove(runningMetricName());
     }
   }
 
-  private void initialiseAllCopyRequests() {
-    LOG
-        .info("Initialising all copy jobs");
+  private void initialiseClients() {
     AmazonS3URI sourceBase = toAmazonS3URI(sourceBaseLocation.toUri());
     AmazonS3URI targetBase = toAmazonS3URI(replicaLocation.toUri());
     srcClient = s3ClientFactory.newInstance(sourceBase, s3s3CopierOptions);
     targetClient = s3ClientFactory.newInstance(targetBase, s3s3CopierOptions);
     transferManager = transferManagerFactory.newInstance(targetClient, s3s3CopierOptions);
+  }
+
+  private List<CopyLocation> getLocationsToCopy() {
+    AmazonS3URI sourceBase = toAmazonS3URI(sourceBaseLocation.toUri());
+    AmazonS3URI targetBase = toAmazonS3URI(replicaLocation.toUri());
+    Map<Path, Path> previousReplicaLocations = Collections.emptyMap();
+    if (s3s3CopierOptions.isSkipUnchangedObjects()) {
+      previousReplicaLocations = s3s3CopierOptions.getPreviousReplicaLocations();
+    }
+    List<CopyLocation> locations = new ArrayList<>();
     if (sourceSubLocations.isEmpty()) {
-      initialiseCopyJobs(sourceBase, targetBase);
+      locations
+          .add(new CopyLocation(sourceBase, targetBase,
+              previousTarget(previousReplicaLocations.get(sourceBaseLocation), targetBase)));
     } else {
       for (Path path : sourceSubLocations) {
         AmazonS3URI subLocation = toAmazonS3URI(path.toUri());
         String partitionKey = StringUtils.removeStart(subLocation.getKey(), sourceBase.getKey());
         partitionKey = StringUtils.removeStart(partitionKey, "/");
         AmazonS3URI targetS3Uri = toAmazonS3URI(new Path(replicaLocation, partitionKey).toUri());
-        initialiseCopyJobs(subLocation, targetS3Uri);
+        locations
+            .add(new CopyLocation(subLocation, targetS3Uri,
+                previousTarget(previousReplicaLocations.get(path), targetS3Uri)));
       }
     }
+    return locations;
+  }
+
+  /**
+   * @return the previous replica location to copy unchanged objects from or {@code null} if there is none
+   */
+  private static AmazonS3URI previousTarget(Path previousReplicaLocation, AmazonS3URI target) {
+    if (previousReplicaLocation == null) {
+      return null;
+    }
+    if (!S3Schemes.isS3Scheme(previousReplicaLocation.toUri().getScheme())) {
+      LOG
+          .info("Previous replica location {} is not on S3, copying all objects of {} from source.",
+              previousReplicaLocation, target);
+      return null;
+    }
     LOG
-        .info("Finished initialising {} copy job(s)", copyJobRequests.size());
+        .debug("Copying unchanged objects of {} from previous replica location {}", target, previousReplicaLocation);
+    return toAmazonS3URI(previousReplicaLocation.toUri());
   }
 
-  private void initialiseCopyJobs(AmazonS3URI source, AmazonS3URI target) {
+  private void initialiseCopyJobs(CopyLocation location, BlockingQueue<CopyJobRequest> queue)
+    throws InterruptedException {
+    PreviousReplicaObjects previousObjects = null;
+    if (location.previousTarget != null) {
+      String previousPrefix = Strings.nullToEmpty(location.previousTarget.getKey());
+      if (!previousPrefix.isEmpty() && !previousPrefix.endsWith("/")) {
+        previousPrefix += "/";
+      }
+      previousObjects = new PreviousReplicaObjects(targetClient,
+          listObjectsRequestFactory
+              .newInstance()
+              .withBucketName(location.previousTarget.getBucket())
+              .withPrefix(previousPrefix));
+    }
     ListObjectsRequest request = listObjectsRequestFactory
         .newInstance()
-        .withBucketName(source.getBucket())
-        .withPrefix(source.getKey());
+        .withBucketName(location.source.getBucket())
+        .withPrefix(location.source.getKey());
     ObjectListing listing = srcClient.listObjects(request);
-    initialiseCopyJobsFromListing(source, target, request, listing);
+    initialiseCopyJobsFromListing(location, request, listing, previousObjects, queue);
     while (listing.isTruncated()) {
       listing = srcClient.listNextBatchOfObjects(listing);
-      initialiseCopyJobsFromListing(source, target, request, listing);
+      initialiseCopyJobsFromListing(location, request, listing, previousObjects, queue);
     }
   }
 
+  private static boolean isUnchanged(S3ObjectSummary source, S3ObjectSummary previous) {
+    return previous != null
+        && previous.getSize() == source.getSize()
+        && source.getETag() != null
+        && source.getETag().equals(previous.getETag());
+  }
+
   private void initialiseCopyJobsFromListing(
-      AmazonS3URI sourceS3Uri,
-      final AmazonS3URI targetS3Uri,
+      CopyLocation location,
       ListObjectsRequest request,
-      ObjectListing listing) {
+      ObjectListing listing,
+      PreviousReplicaObjects previousObjects,
+      BlockingQueue<CopyJobRequest> queue)
+    throws InterruptedException {
+    AmazonS3URI sourceS3Uri = location.source;
+    AmazonS3URI targetS3Uri = location.target;
     LOG
         .debug("Found objects to copy {}, for request {}/{}", listing.getObjectSummaries(), request.getBucketName(),
             request.getPrefix());
     List<S3ObjectSummary> objectSummaries = listing.getObjectSummaries();
     for (final S3ObjectSummary s3ObjectSummary : objectSummaries) {
-      totalBytesToReplicate += s3ObjectSummary.getSize();
+      totalBytesToReplicate.addAndGet(s3ObjectSummary.getSize());
       String fileName = StringUtils.removeStart(s3ObjectSummary.getKey(), sourceS3Uri.getKey());
       final String targetKey = Strings.nullToEmpty(targetS3Uri.getKey()) + fileName;
-      CopyObjectRequest copyObjectRequest = new CopyObjectRequest(s3ObjectSummary.getBucketName(),
-          s3ObjectSummary.getKey(), targetS3Uri.getBucket(), targetKey);
-
-      if (s3s3CopierOptions.getCannedAcl() != null) {
-        copyObjectRequest.withCannedAccessControlList(s3s3CopierOptions.getCannedAcl());
-      }
-
-      applyObjectMetadata(copyObjectRequest);
-
       TransferStateChangeListener stateChangeListener = new BytesTransferStateChangeListener(s3ObjectSummary,
           targetS3Uri, targetKey);
-      copyJobRequests.add(new CopyJobRequest(copyObjectRequest, stateChangeListener));
+      CopyJobRequest copyJobRequest = new CopyJobRequest(
+          newCopyObjectRequest(s3ObjectSummary.getBucketName(), s3ObjectSummary.getKey(), targetS3Uri.getBucket(),
+              targetKey),
+          stateChangeListener);
+      if (previousObjects != null) {
+        S3ObjectSummary previousObject = previousObjects.find(StringUtils.removeStart(fileName, "/"));
+        if (isUnchanged(s3ObjectSummary, previousObject)) {
+          // Server side copy from the previous replica, the object is not read from source again
+          copyJobRequest = new CopyJobRequest(
+              newCopyObjectRequest(previousObject.getBucketName(), previousObject.getKey(), targetS3Uri.getBucket(),
+                  targetKey),
+              stateChangeListener, copyJobRequest);
+        }
+      }
+      // Blocks while the copy queue is full so that listing does not run ahead of copying
+      queue.put(copyJobRequest);
+      copyJobsListed.incrementAndGet();
     }
   }
 
+  private CopyObjectRequest newCopyObjectRequest(
+      String sourceBucketName,
+      String sourceKey,
+      String destinationBucketName,
+      String destinationKey) {
+    CopyObjectRequest copyObjectRequest = new CopyObjectRequest(sourceBucketName, sourceKey, destinationBucketName,
+        destinationKey);
+    if (s3s3CopierOptions.getCannedAcl() != null) {
+      copyObjectRequest.withCannedAccessControlList(s3s3CopierOptions.getCannedAcl());
+    }
+    applyObjectMetadata(copyObjectRequest);
+    return copyObjectRequest;
+  }
+
   private void applyObjectMetadata(CopyObjectRequest copyObjectRequest) {
     if (s3s3CopierOptions.isS3ServerSideEncryption()) {
       ObjectMetadata objectMetadata = new ObjectMetadata();
@@ -226,91 +428,287 @@ public class S3S3Copier implements Copier {
     }
   }
 
+  /**
+   * Lists all source locations in parallel and copies each object as soon as it is listed. Listed objects wait in a
+   * bounded queue and at most {@link S3S3CopierOptions#getMaxCopiesInFlight()} copies are in progress at any time, so
+   * memory does not grow with the number of objects. Copies are gathered in the order in which they complete and a
+   * failed copy is retried on its own after an exponential backoff with jitter, or copied from source if it was copied
+   * from the previous replica. When S3 asks to slow down the number of copies in progress is halved, it then grows
+   * again by one with every successful copy.
+   */
   private void processAllCopyJobs() {
-    List<CopyJobRequest> copyJobsToSubmit = copyJobRequests;
+    LOG
+        .info("Initialising all copy jobs");
+    final BlockingQueue<CopyJobRequest> queue = new ArrayBlockingQueue<>(s3s3CopierOptions.getCopyQueueSize());
+    List<CopyLocation> locations = getLocationsToCopy();
+    ExecutorService listingExecutor = Executors
+        .newFixedThreadPool(Math.max(1, Math.min(s3s3CopierOptions.getListingThreads(), locations.size())),
+            new ThreadFactoryBuilder().setNameFormat("s3s3-listing-%d").build());
+    List<Future<?>> listings = new ArrayList<>(locations.size());
+    for (final CopyLocation location : locations) {
+      listings.add(listingExecutor.submit(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            initialiseCopyJobs(location, queue);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CircusTrainException("Interrupted while listing " + location.source, e);
+          }
+        }
+      }));
+    }
+    listingExecutor.shutdown();
+
+    int maxCopiesInFlight = s3s3CopierOptions.getMaxCopiesInFlight();
     int maxCopyAttempts = s3s3CopierOptions.getMaxCopyAttempts();
-    for (int copyAttempt = 1; copyAttempt <= maxCopyAttempts; copyAttempt++) {
-      LOG
-          .info("Submitting {} copy job(s), attempt {}/{}", copyJobsToSubmit.size(), copyAttempt, maxCopyAttempts);
-      copyJobsToSubmit = submitAndGatherCopyJobs(copyJobsToSubmit);
-      if (copyJobsToSubmit.isEmpty()) {
-        LOG
-            .info("Successfully gathered all copy jobs on attempt {}/{}", copyAttempt, maxCopyAttempts);
-        return;
+    ExecutorService gatheringExecutor = Executors
+        .newFixedThreadPool(maxCopiesInFlight, new ThreadFactoryBuilder().setNameFormat("s3s3-copy-%d").build());
+    CompletionService<CompletedCopy> completedCopies = new ExecutorCompletionService<>(gatheringExecutor);
+    DelayQueue<DelayedCopyJobRequest> retries = new DelayQueue<>();
+    int copiesInFlight = 0;
+    int window = maxCopiesInFlight;
+    int failedCopyJobs = 0;
+    boolean listingFinished = false;
+    try {
+      while (true) {
+        while (copiesInFlight < window) {
+          CopyJob copyJob = nextCopyJob(retries, queue);
+          if (copyJob == null) {
+            break;
+          }
+          try {
+            submitCopyJob(copyJob, completedCopies, maxCopyAttempts);
+            copiesInFlight++;
+          } catch (AmazonServiceException e) {
+            // The transfer manager reads the metadata of the object to copy before it submits the copy
+            if (isSlowDown(e)) {
+              window = slowDown(window);
+            } else if (!copyJob.getCopyJobRequest().isFromPreviousReplica()) {
+              throw e;
+            }
+            if (!retry(copyJob, e, retries, maxCopyAttempts)) {
+              throw e;
+            }
+          }
+        }
+        if (!listingFinished) {
+          checkListings(listings, false);
+          if (listingExecutor.isTerminated()) {
+            checkListings(listings, true);
+            listingFinished = true;
+            LOG
+                .info("Finished initialising {} copy job(s)", copyJobsListed.get());
+          }
+        }
+        if (listingFinished && queue.isEmpty() && retries.isEmpty() && copiesInFlight == 0) {
+          break;
+        }
+
+        Future<CompletedCopy> completed = completedCopies.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (completed == null) {
+          continue;
+        }
+        copiesInFlight--;
+        CompletedCopy completedCopy = getCompletedCopy(completed);
+        if (completedCopy.exception == null) {
+          window = Math.min(maxCopiesInFlight, window + 1);
+          continue;
+        }
+        if (isSlowDown(completedCopy.exception)) {
+          window = slowDown(window);
+        }
+        if (!retry(completedCopy.copyJob, completedCopy.exception, retries, maxCopyAttempts)) {
+          failedCopyJobs++;
+        }
       }
-      if (copyAttempt == maxCopyAttempts) {
-        throw new CircusTrainException(copyJobsToSubmit.size() + " job(s) failed the maximum number of copy attempts, " + maxCopyAttempts);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CircusTrainException(e);
+    } finally {
+      listingExecutor.shutdownNow();
+      gatheringExecutor.shutdownNow();
+    }
+    if (failedCopyJobs > 0) {
+      throw new CircusTrainException(
+          failedCopyJobs + " job(s) failed the maximum number of copy attempts, " + maxCopyAttempts);
+    }
+    LOG
+        .info("Successfully gathered all copy jobs");
+  }
+
+  /**
+   * Retries which are due take precedence over newly listed objects.
+   */
+  private CopyJob nextCopyJob(DelayQueue<DelayedCopyJobRequest> retries, BlockingQueue<CopyJobRequest> queue) {
+    DelayedCopyJobRequest retry = retries.poll();
+    if (retry != null) {
+      return new CopyJob(null, retry.copyJobRequest, retry.attempt);
+    }
+    CopyJobRequest copyJobRequest = queue.poll();
+    if (copyJobRequest != null) {
+      return new CopyJob(null, copyJobRequest, 1);
+    }
+    return null;
+  }
+
+  private void submitCopyJob(
+      CopyJob copyJob,
+      CompletionService<CompletedCopy> completedCopies,
+      int maxCopyAttempts) {
+    CopyObjectRequest copyObjectRequest = copyJob.getCopyJobRequest().getCopyObjectRequest();
+    LOG
+        .info("Copying object from '{}/{}' to '{}/{}', attempt {}/{}", copyObjectRequest.getSourceBucketName(),
+            copyObjectRequest.getSourceKey(), copyObjectRequest.getDestinationBucketName(),
+            copyObjectRequest.getDestinationKey(), copyJob.getAttempt(), maxCopyAttempts);
+    AmazonS3 copySourceClient = copyJob.getCopyJobRequest().isFromPreviousReplica() ? targetClient : srcClient;
+    final Copy copy = transferManager
+        .copy(copyObjectRequest, copySourceClient, copyJob.getCopyJobRequest().getTransferStateChangeListener());
+    final CopyJob submittedCopyJob = new CopyJob(copy, copyJob.getCopyJobRequest(), copyJob.getAttempt());
+    completedCopies.submit(new Callable<CompletedCopy>() {
+      @Override
+      public CompletedCopy call() throws Exception {
+        try {
+          copy.waitForCompletion();
+          gatherCopyJob(submittedCopyJob);
+          return new CompletedCopy(submittedCopyJob, null);
+        } catch (AmazonClientException e) {
+          return new CompletedCopy(submittedCopyJob, e);
+        }
       }
+    });
+  }
+
+  private void gatherCopyJob(CopyJob copyJob) {
+    long bytesTransferred = copyJob.getCopy().getProgress().getTotalBytesToTransfer();
+    if (copyJob.getCopyJobRequest().isFromPreviousReplica()) {
+      bytesSkipped.addAndGet(bytesTransferred);
+    }
+    long alreadyReplicated = bytesReplicated.addAndGet(bytesTransferred);
+    long totalBytes = totalBytesToReplicate.get();
+    if (totalBytes > 0) {
       LOG
-          .info("Finished gathering jobs on attempt {}/{}. Retrying {} failed job(s).",
-              copyAttempt,
-              maxCopyAttempts,
-              copyJobsToSubmit.size());
+          .info("Replicating...': {}% complete",
+              String.format("%.0f", (alreadyReplicated / (double) totalBytes) * 100.0));
     }
   }
 
-  private List<CopyJobRequest> submitAndGatherCopyJobs(List<CopyJobRequest> copyJobsToSubmit) {
-    List<CopyJob> submittedCopyJobs = new ArrayList<>();
-    for (CopyJobRequest copyJobRequest : copyJobsToSubmit) {
-      Copy copy = submitCopyJob(copyJobRequest);
-      CopyJob newCopyJob = new CopyJob(copy, copyJobRequest);
-      submittedCopyJobs.add(newCopyJob);
+  /**
+   * A failed copy from the previous replica is not retried, the object is copied from source instead.
+   *
+   * @return {@code false} if the copy has reached the maximum number of attempts
+   */
+  private boolean retry(
+      CopyJob copyJob,
+      AmazonClientException e,
+      DelayQueue<DelayedCopyJobRequest> retries,
+      int maxCopyAttempts) {
+    CopyObjectRequest copyObjectRequest = copyJob.getCopyJobRequest().getCopyObjectRequest();
+    CopyJobRequest sourceCopyJobRequest = copyJob.getCopyJobRequest().getSourceCopyJobRequest();
+    if (sourceCopyJobRequest != null) {
+      LOG
+          .info("Copying '{}/{}' from the previous replica failed, copying it from source instead.",
+              copyObjectRequest.getSourceBucketName(), copyObjectRequest.getSourceKey());
+      LOG
+          .debug("Copy failed with exception:", e);
+      retries.add(new DelayedCopyJobRequest(sourceCopyJobRequest, 1, 0L));
+      return true;
+    }
+    if (copyJob.getAttempt() >= maxCopyAttempts) {
+      LOG
+          .error("Copying '{}/{}' failed {} time(s), giving up.", copyObjectRequest.getSourceBucketName(),
+              copyObjectRequest.getSourceKey(), copyJob.getAttempt(), e);
+      return false;
     }
-    return gatherCopyJobs(submittedCopyJobs);
+    long backoffMillis = backoffMillis(copyJob.getAttempt());
+    LOG
+        .info("Copying '{}/{}' failed, retrying in {}ms.", copyObjectRequest.getSourceBucketName(),
+            copyObjectRequest.getSourceKey(), backoffMillis);
+    LOG
+        .debug("Copy failed with exception:", e);
+    retries.add(new DelayedCopyJobRequest(copyJob.getCopyJobRequest(), copyJob.getAttempt() + 1, backoffMillis));
+    return true;
   }
 
-  private Copy submitCopyJob(CopyJobRequest copyJob) {
-    CopyObjectRequest copyObjectRequest = copyJob.getCopyObjectRequest();
-    LOG
-        .info("Copying object from '{}/{}' to '{}/{}'", copyObjectRequest.getSourceBucketName(), copyObjectRequest.getSourceKey(),
-            copyObjectRequest.getDestinationBucketName(), copyObjectRequest.getDestinationKey());
-    return transferManager.copy(copyObjectRequest, srcClient, copyJob.getTransferStateChangeListener());
+  /**
+   * Exponential backoff with jitter: a random delay between half and all of {@code base * 2^(attempt - 1)}, capped at
+   * the maximum backoff.
+   */
+  private long backoffMillis(int attempt) {
+    long maxBackoffMillis = s3s3CopierOptions.getRetryMaxBackoffMillis();
+    long backoffMillis = Math.min(maxBackoffMillis,
+        s3s3CopierOptions.getRetryBackoffMillis() << Math.min(attempt - 1, 30));
+    return backoffMillis / 2 + (long) (ThreadLocalRandom.current().nextDouble() * (backoffMillis / 2 + 1));
+  }
+
+  private static boolean isSlowDown(AmazonClientException e) {
+    if (e instanceof AmazonServiceException) {
+      AmazonServiceException serviceException = (AmazonServiceException) e;
+      return serviceException.getStatusCode() == SLOW_DOWN_STATUS_CODE
+          || SLOW_DOWN_ERROR_CODE.equals(serviceException.getErrorCode());
+    }
+    return false;
+  }
+
+  private static int slowDown(int window) {
+    int newWindow = Math.max(1, window / 2);
+    if (newWindow < window) {
+      LOG
+          .info("S3 asked to slow down, reducing copies in progress to {}", newWindow);
+    }
+    return newWindow;
+  }
+
+  private static CompletedCopy getCompletedCopy(Future<CompletedCopy> completed) throws InterruptedException {
+    try {
+      return completed.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new CircusTrainException(cause);
+    }
   }
 
   /**
-   * Waits for all running copy jobs to complete and updates overall progress.
-   * @param copyJobs A list of copy jobs which have been submitted
-   * @return A list of failed copy job requests
+   * Rethrows the error of any failed listing.
+   *
+   * @param wait whether to wait for listings which have not completed yet
    */
-  private List<CopyJobRequest> gatherCopyJobs(List<CopyJob> copyJobs) {
-    List<CopyJobRequest> failedCopyJobRequests = new ArrayList<>();
-    for (CopyJob copyJob : copyJobs) {
-      try {
-        Copy copy = copyJob.getCopy();
+  private void checkListings(List<Future<?>> listings, boolean wait) throws InterruptedException {
+    for (Future<?> listing : listings) {
+      if (wait || listing.isDone()) {
         try {
-          copy.waitForCompletion();
-          long alreadyReplicated = bytesReplicated.addAndGet(copy.getProgress().getTotalBytesToTransfer());
-          if (totalBytesToReplicate > 0) {
-            LOG
-                .info("Replicating...': {}% complete",
-                    String.format("%.0f", (alreadyReplicated / (double) totalBytesToReplicate) * 100.0));
+          listing.get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
           }
-        } catch (AmazonClientException e) {
-          CopyObjectRequest copyObjectRequest = copyJob.getCopyJobRequest().getCopyObjectRequest();
-          LOG
-              .info("Copying '{}/{}' failed, adding to retry list.",
-                  copyObjectRequest.getSourceBucketName(),
-                  copyObjectRequest.getSourceKey());
-          LOG
-              .debug("Copy failed with exception:", e);
-          failedCopyJobRequests.add(copyJob.getCopyJobRequest());
+          throw new CircusTrainException("Unable to list source objects", cause);
         }
-      } catch (InterruptedException e) {
-        throw new CircusTrainException(e);
       }
     }
-    return failedCopyJobRequests;
   }
 
   private Metrics gatherMetrics() {
     ImmutableMap<String, Long> metrics = ImmutableMap
-        .of(S3S3CopierMetrics.Metrics.TOTAL_BYTES_TO_REPLICATE.name(), totalBytesToReplicate);
+        .of(S3S3CopierMetrics.Metrics.TOTAL_BYTES_TO_REPLICATE.name(), totalBytesToReplicate.get(),
+            S3S3CopierMetrics.Metrics.TOTAL_BYTES_SKIPPED.name(), bytesSkipped.get());
     return new S3S3CopierMetrics(metrics, bytesReplicated.get());
   }
 
   private void registerRunningMetrics(final AtomicLong bytesReplicated) {
     Gauge<Long> gauge = new AtomicLongGauge(bytesReplicated);
-    registry.remove(RunningMetrics.S3S3_CP_BYTES_REPLICATED.name());
-    registry.register(RunningMetrics.S3S3_CP_BYTES_REPLICATED.name(), gauge);
+    registry.remove(runningMetricName());
+    registry.register(runningMetricName(), gauge);
+  }
+
+  /**
+   * Replications may run concurrently: each one reports the bytes it has replicated under its own event id.
+   */
+  private String runningMetricName() {
+    return MetricRegistry.name(RunningMetrics.S3S3_CP_BYTES_REPLICATED.name(), eventId);
   }
 }
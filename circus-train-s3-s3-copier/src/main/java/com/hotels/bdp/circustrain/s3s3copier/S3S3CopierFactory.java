@@ -70,7 +70,7 @@ public class S3S3CopierFactory implements CopierFactory {
       List<Path> sourceSubLocations,
       Path replicaLocation,
       Map<String, Object> copierOptions) {
-    return new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, clientFactory,
+    return new S3S3Copier(eventId, sourceBaseLocation, sourceSubLocations, replicaLocation, clientFactory,
         transferManagerFactory, listObjectsRequestFactory, runningMetricsRegistry,
         new S3S3CopierOptions(copierOptions));
   }
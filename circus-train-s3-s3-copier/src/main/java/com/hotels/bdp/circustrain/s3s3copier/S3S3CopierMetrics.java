@@ -24,7 +24,9 @@ import com.hotels.bdp.circustrain.api.metrics.Metrics;
 public class S3S3CopierMetrics implements Metrics {
 
   public static enum Metrics {
-    TOTAL_BYTES_TO_REPLICATE;
+    TOTAL_BYTES_TO_REPLICATE,
+    /** Bytes of unchanged objects copied from the previous replica instead of from source. */
+    TOTAL_BYTES_SKIPPED;
   }
 
   private final long bytesReplicated;
@@ -16,15 +16,18 @@
 package com.hotels.bdp.circustrain.s3s3copier;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.collections.MapUtils;
+import org.apache.hadoop.fs.Path;
 
 import com.amazonaws.services.s3.model.CannedAccessControlList;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.transfer.TransferManagerConfiguration;
 
+import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.aws.CannedAclUtils;
 
 public class S3S3CopierOptions {
@@ -56,9 +59,35 @@ public class S3S3CopierOptions {
      */
     CANNED_ACL("canned-acl"),
     /**
-     * Number of copy attempts to allow when copying from S3 to S3. Default value is 3.
+     * Number of copy attempts to allow for each object when copying from S3 to S3. Default value is 3.
      */
-    MAX_COPY_ATTEMPTS("s3s3-retry-max-copy-attempts");
+    MAX_COPY_ATTEMPTS("s3s3-retry-max-copy-attempts"),
+    /**
+     * Number of threads listing source locations in parallel. Default value is 4.
+     */
+    LISTING_THREADS("s3s3-listing-threads"),
+    /**
+     * Maximum number of listed objects waiting to be copied. Default value is 1000.
+     */
+    COPY_QUEUE_SIZE("s3s3-copy-queue-size"),
+    /**
+     * Maximum number of copies in progress at any time. Default value is 100.
+     */
+    MAX_COPIES_IN_FLIGHT("s3s3-max-copies-in-flight"),
+    /**
+     * Delay in milliseconds before the first retry of a failed copy, doubled with every further attempt. Default value
+     * is 500.
+     */
+    RETRY_BACKOFF_MILLIS("s3s3-retry-backoff-millis"),
+    /**
+     * Maximum delay in milliseconds before retrying a failed copy. Default value is 30000.
+     */
+    RETRY_MAX_BACKOFF_MILLIS("s3s3-retry-max-backoff-millis"),
+    /**
+     * Whether to copy objects whose size and ETag are unchanged from the location the replica metastore holds for
+     * them instead of from source. Default value is false.
+     */
+    SKIP_UNCHANGED_OBJECTS("s3s3-skip-unchanged-objects");
 
     private final String keyName;
 
@@ -126,4 +155,46 @@ public class S3S3CopierOptions {
     Integer maxCopyAttempts = MapUtils.getInteger(copierOptions, Keys.MAX_COPY_ATTEMPTS.keyName(), 3);
     return maxCopyAttempts < 1 ? 3 : maxCopyAttempts;
   }
+
+  public int getListingThreads() {
+    Integer listingThreads = MapUtils.getInteger(copierOptions, Keys.LISTING_THREADS.keyName(), 4);
+    return listingThreads < 1 ? 4 : listingThreads;
+  }
+
+  public int getCopyQueueSize() {
+    Integer copyQueueSize = MapUtils.getInteger(copierOptions, Keys.COPY_QUEUE_SIZE.keyName(), 1000);
+    return copyQueueSize < 1 ? 1000 : copyQueueSize;
+  }
+
+  public int getMaxCopiesInFlight() {
+    Integer maxCopiesInFlight = MapUtils.getInteger(copierOptions, Keys.MAX_COPIES_IN_FLIGHT.keyName(), 100);
+    return maxCopiesInFlight < 1 ? 100 : maxCopiesInFlight;
+  }
+
+  public long getRetryBackoffMillis() {
+    Long retryBackoffMillis = MapUtils.getLong(copierOptions, Keys.RETRY_BACKOFF_MILLIS.keyName(), 500L);
+    return retryBackoffMillis < 0 ? 500L : retryBackoffMillis;
+  }
+
+  public long getRetryMaxBackoffMillis() {
+    Long retryMaxBackoffMillis = MapUtils.getLong(copierOptions, Keys.RETRY_MAX_BACKOFF_MILLIS.keyName(), 30000L);
+    return retryMaxBackoffMillis < 0 ? 30000L : retryMaxBackoffMillis;
+  }
+
+  public boolean isSkipUnchangedObjects() {
+    return MapUtils.getBoolean(copierOptions, Keys.SKIP_UNCHANGED_OBJECTS.keyName(), false);
+  }
+
+  /**
+   * @return the previous replica location of each source location, as set by the replication in
+   *         {@link CopierOptions#PREVIOUS_REPLICA_LOCATIONS}
+   */
+  @SuppressWarnings("unchecked")
+  public Map<Path, Path> getPreviousReplicaLocations() {
+    Object previousReplicaLocations = copierOptions.get(CopierOptions.PREVIOUS_REPLICA_LOCATIONS);
+    if (previousReplicaLocations == null) {
+      return Collections.emptyMap();
+    }
+    return (Map<Path, Path>) previousReplicaLocations;
+  }
 }
@@ -20,13 +20,17 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.hadoop.fs.Path;
 import org.junit.Test;
 
 import com.amazonaws.services.s3.model.CannedAccessControlList;
 
+import com.hotels.bdp.circustrain.api.copier.CopierOptions;
+
 public class S3S3CopierOptionsTest {
 
   private final Map<String, Object> copierOptions = new HashMap<>();
@@ -116,4 +120,100 @@ public class S3S3CopierOptionsTest {
     assertThat(options.getMaxCopyAttempts(), is(3));
   }
 
+  @Test
+  public void getListingThreads() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.LISTING_THREADS.keyName(), 8);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getListingThreads(), is(8));
+  }
+
+  @Test
+  public void getListingThreadsDefaultIsFour() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getListingThreads(), is(4));
+  }
+
+  @Test
+  public void getCopyQueueSize() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.COPY_QUEUE_SIZE.keyName(), 10);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getCopyQueueSize(), is(10));
+  }
+
+  @Test
+  public void getCopyQueueSizeDefaultIfLessThanOne() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.COPY_QUEUE_SIZE.keyName(), 0);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getCopyQueueSize(), is(1000));
+  }
+
+  @Test
+  public void getMaxCopiesInFlight() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.MAX_COPIES_IN_FLIGHT.keyName(), 10);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getMaxCopiesInFlight(), is(10));
+  }
+
+  @Test
+  public void getMaxCopiesInFlightDefaultIfLessThanOne() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.MAX_COPIES_IN_FLIGHT.keyName(), 0);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getMaxCopiesInFlight(), is(100));
+  }
+
+  @Test
+  public void getRetryBackoffMillis() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.RETRY_BACKOFF_MILLIS.keyName(), 10);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getRetryBackoffMillis(), is(10L));
+  }
+
+  @Test
+  public void getRetryBackoffMillisDefaultIs500() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getRetryBackoffMillis(), is(500L));
+  }
+
+  @Test
+  public void getRetryMaxBackoffMillis() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.RETRY_MAX_BACKOFF_MILLIS.keyName(), 1000);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getRetryMaxBackoffMillis(), is(1000L));
+  }
+
+  @Test
+  public void getRetryMaxBackoffMillisDefaultIfLessThanZero() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.RETRY_MAX_BACKOFF_MILLIS.keyName(), -1);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getRetryMaxBackoffMillis(), is(30000L));
+  }
+
+  @Test
+  public void isSkipUnchangedObjects() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.SKIP_UNCHANGED_OBJECTS.keyName(), "true");
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.isSkipUnchangedObjects(), is(true));
+  }
+
+  @Test
+  public void isSkipUnchangedObjectsDefaultIsFalse() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.isSkipUnchangedObjects(), is(false));
+  }
+
+  @Test
+  public void getPreviousReplicaLocations() throws Exception {
+    Map<Path, Path> previousReplicaLocations = Collections
+        .singletonMap(new Path("s3://source/table/a=1"), new Path("s3://replica/table/event-id/a=1"));
+    copierOptions.put(CopierOptions.PREVIOUS_REPLICA_LOCATIONS, previousReplicaLocations);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getPreviousReplicaLocations(), is(previousReplicaLocations));
+  }
+
+  @Test
+  public void getPreviousReplicaLocationsDefaultIsEmpty() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getPreviousReplicaLocations().isEmpty(), is(true));
+  }
+
 }
@@ -29,6 +29,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -63,12 +64,15 @@ import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.TransferProgress;
 import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
 import com.amazonaws.util.IOUtils;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricRegistryListener;
 import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
 import com.google.common.io.Files;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.s3s3copier.aws.AmazonS3ClientFactory;
 import com.hotels.bdp.circustrain.s3s3copier.aws.ListObjectsRequestFactory;
@@ -77,6 +81,7 @@ import com.hotels.bdp.circustrain.s3s3copier.aws.TransferManagerFactory;
 @RunWith(MockitoJUnitRunner.class)
 public class S3S3CopierTest {
 
+  private static final String EVENT_ID = "event-id";
   private static final String AWS_ACCESS_KEY = "access";
   private static final String AWS_SECRET_KEY = "secret";
 
@@ -124,6 +129,13 @@ public class S3S3CopierTest {
     Path sourceBaseLocation = new Path("s3://source/");
     Path replicaLocation = new Path("s3://target/");
     List<Path> sourceSubLocations = new ArrayList<>();
+    final List<String> gaugesAdded = new ArrayList<>();
+    registry.addListener(new MetricRegistryListener.Base() {
+      @Override
+      public void onGaugeAdded(String name, Gauge<?> gauge) {
+        gaugesAdded.add(name);
+      }
+    });
     S3S3Copier s3s3Copier = newS3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation);
     Metrics metrics = s3s3Copier.copy();
     assertThat(metrics.getBytesReplicated(), is(7L));
@@ -131,12 +143,135 @@ public class S3S3CopierTest {
     S3Object object = client.getObject("target", "data");
     String data = IOUtils.toString(object.getObjectContent());
     assertThat(data, is("bar foo"));
-    assertThat(registry.getGauges().containsKey(RunningMetrics.S3S3_CP_BYTES_REPLICATED.name()), is(true));
+    assertThat(gaugesAdded, is(Collections.singletonList("S3S3_CP_BYTES_REPLICATED.event-id")));
+    assertThat(registry.getGauges().isEmpty(), is(true));
   }
 
   private S3S3Copier newS3S3Copier(Path sourceBaseLocation, List<Path> sourceSubLocations, Path replicaLocation) {
-    return new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        transferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
+    return new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, transferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
+  }
+
+  @Test
+  public void copyUnchangedObjectsFromPreviousReplica() throws Exception {
+    client.putObject("source", "table/unchanged", inputData);
+    client.putObject("source", "table/changed", inputData);
+    client.putObject("target", "table/ctt-20190103t000000.000z-cccccccc/unchanged", inputData);
+    client.putObject("target", "table/ctt-20190103t000000.000z-cccccccc/changed", "foo bar baz");
+    client.putObject("target", "table/ctt-20190101t000000.000z-aaaaaaaa/changed", inputData);
+    Path sourceBaseLocation = new Path("s3://source/table");
+    Path previousReplicaLocation = new Path("s3://target/table/ctt-20190103t000000.000z-cccccccc");
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.SKIP_UNCHANGED_OBJECTS.keyName(), "true");
+    copierOptions
+        .put(CopierOptions.PREVIOUS_REPLICA_LOCATIONS,
+            Collections.singletonMap(sourceBaseLocation, previousReplicaLocation));
+
+    Path replicaLocation = new Path("s3://target/table/ctt-20190102t000000.000z-bbbbbbbb");
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, new ArrayList<Path>(), replicaLocation,
+        s3ClientFactory, transferManagerFactory, listObjectsRequestFactory, registry,
+        new S3S3CopierOptions(copierOptions));
+    Metrics metrics = s3s3Copier.copy();
+    assertThat(metrics.getBytesReplicated(), is(14L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.TOTAL_BYTES_SKIPPED.name()), is(7L));
+    for (String key : Lists.newArrayList("unchanged", "changed")) {
+      S3Object object = client.getObject("target", "table/ctt-20190102t000000.000z-bbbbbbbb/" + key);
+      assertThat(IOUtils.toString(object.getObjectContent()), is("bar foo"));
+    }
+  }
+
+  @Test
+  public void copyUnchangedObjectsOfPartitionsFromTheirPreviousLocations() throws Exception {
+    for (String key : Lists.newArrayList("table/a=1/x", "table/a=1/y", "table/a=1/z", "table/a=2/x")) {
+      client.putObject("source", key, inputData);
+    }
+    for (String key : Lists.newArrayList("old/a=1/w", "old/a=1/x", "old/a=1/xx", "old/a=1/z", "old/a=2/x")) {
+      client.putObject("target", key, inputData);
+    }
+    Path sourceBaseLocation = new Path("s3://source/table");
+    List<Path> sourceSubLocations = Lists
+        .newArrayList(new Path("s3://source/table/a=1"), new Path("s3://source/table/a=2"));
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.SKIP_UNCHANGED_OBJECTS.keyName(), "true");
+    copierOptions
+        .put(CopierOptions.PREVIOUS_REPLICA_LOCATIONS,
+            Collections.singletonMap(sourceSubLocations.get(0), new Path("s3://target/old/a=1")));
+    // One object per page so that both listings are merged across pages
+    ListObjectsRequestFactory singleObjectPages = new ListObjectsRequestFactory() {
+      @Override
+      public ListObjectsRequest newInstance() {
+        return super.newInstance().withMaxKeys(1);
+      }
+    };
+
+    Path replicaLocation = new Path("s3://target/table/event-id");
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, transferManagerFactory, singleObjectPages, registry, new S3S3CopierOptions(copierOptions));
+    Metrics metrics = s3s3Copier.copy();
+    assertThat(metrics.getBytesReplicated(), is(28L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.TOTAL_BYTES_SKIPPED.name()), is(14L));
+    for (String key : Lists.newArrayList("a=1/x", "a=1/y", "a=1/z", "a=2/x")) {
+      S3Object object = client.getObject("target", "table/event-id/" + key);
+      assertThat(IOUtils.toString(object.getObjectContent()), is("bar foo"));
+    }
+  }
+
+  @Test
+  public void copyFromSourceWhenCopyFromPreviousReplicaFails() throws Exception {
+    client.putObject("source", "table/data", inputData);
+    client.putObject("target", "old/data", inputData);
+    Path sourceBaseLocation = new Path("s3://source/table");
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.SKIP_UNCHANGED_OBJECTS.keyName(), "true");
+    copierOptions
+        .put(CopierOptions.PREVIOUS_REPLICA_LOCATIONS,
+            Collections.singletonMap(sourceBaseLocation, new Path("s3://target/old")));
+    S3S3CopierOptions customOptions = new S3S3CopierOptions(copierOptions);
+
+    TransferManagerFactory mockedTransferManagerFactory = Mockito.mock(TransferManagerFactory.class);
+    TransferManager mockedTransferManager = Mockito.mock(TransferManager.class);
+    when(mockedTransferManagerFactory.newInstance(any(AmazonS3.class), eq(customOptions)))
+        .thenReturn(mockedTransferManager);
+    Copy failedCopy = Mockito.mock(Copy.class);
+    Copy copy = Mockito.mock(Copy.class);
+    when(mockedTransferManager
+        .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class)))
+            .thenReturn(failedCopy, copy);
+    doThrow(new AmazonClientException("cause")).when(failedCopy).waitForCompletion();
+    TransferProgress transferProgress = new TransferProgress();
+    transferProgress.setTotalBytesToTransfer(7);
+    when(copy.getProgress()).thenReturn(transferProgress);
+
+    Path replicaLocation = new Path("s3://target/table/event-id");
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, new ArrayList<Path>(), replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, customOptions);
+    Metrics metrics = s3s3Copier.copy();
+    ArgumentCaptor<CopyObjectRequest> captor = ArgumentCaptor.forClass(CopyObjectRequest.class);
+    verify(mockedTransferManager, Mockito.times(2))
+        .copy(captor.capture(), any(AmazonS3.class), any(TransferStateChangeListener.class));
+    assertThat(captor.getAllValues().get(0).getSourceBucketName(), is("target"));
+    assertThat(captor.getAllValues().get(0).getSourceKey(), is("old/data"));
+    assertThat(captor.getAllValues().get(1).getSourceBucketName(), is("source"));
+    assertThat(captor.getAllValues().get(1).getSourceKey(), is("table/data"));
+    assertThat(metrics.getBytesReplicated(), is(7L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.TOTAL_BYTES_SKIPPED.name()), is(0L));
+  }
+
+  @Test
+  public void copyAllObjectsWhenThereIsNoPreviousReplica() throws Exception {
+    client.putObject("source", "table/data", inputData);
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.SKIP_UNCHANGED_OBJECTS.keyName(), "true");
+
+    Path sourceBaseLocation = new Path("s3://source/table");
+    Path replicaLocation = new Path("s3://target/table/ctt-20190102t000000.000z-bbbbbbbb");
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, new ArrayList<Path>(), replicaLocation,
+        s3ClientFactory, transferManagerFactory, listObjectsRequestFactory, registry,
+        new S3S3CopierOptions(copierOptions));
+    Metrics metrics = s3s3Copier.copy();
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.TOTAL_BYTES_SKIPPED.name()), is(0L));
+    S3Object object = client.getObject("target", "table/ctt-20190102t000000.000z-bbbbbbbb/data");
+    assertThat(IOUtils.toString(object.getObjectContent()), is("bar foo"));
   }
 
   @Test
@@ -208,8 +343,8 @@ public class S3S3CopierTest {
     Path sourceBaseLocation = new Path("s3://source/bar/");
     Path replicaLocation = new Path("s3://target/foo/");
     List<Path> sourceSubLocations = new ArrayList<>();
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        transferManagerFactory, mockListObjectRequestFactory, registry, s3S3CopierOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, transferManagerFactory, mockListObjectRequestFactory, registry, s3S3CopierOptions);
     Metrics metrics = s3s3Copier.copy();
     assertThat(metrics.getBytesReplicated(), is(14L));
 
@@ -221,6 +356,35 @@ public class S3S3CopierTest {
     assertThat(data2, is("bar foo"));
   }
 
+  @Test
+  public void copyMultiplePartitionsThroughBoundedQueue() throws Exception {
+    ListObjectsRequestFactory mockListObjectRequestFactory = Mockito.mock(ListObjectsRequestFactory.class);
+    when(mockListObjectRequestFactory.newInstance()).thenReturn(new ListObjectsRequest().withMaxKeys(1));
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.COPY_QUEUE_SIZE.keyName(), 1);
+    copierOptions.put(S3S3CopierOptions.Keys.LISTING_THREADS.keyName(), 2);
+
+    List<Path> sourceSubLocations = new ArrayList<>();
+    Path sourceBaseLocation = new Path("s3://source/");
+    for (int year = 2016; year < 2019; year++) {
+      client.putObject("source", "year=" + year + "/data1", inputData);
+      client.putObject("source", "year=" + year + "/data2", inputData);
+      sourceSubLocations.add(new Path(sourceBaseLocation, "year=" + year));
+    }
+    Path replicaLocation = new Path("s3://target/foo/");
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, transferManagerFactory, mockListObjectRequestFactory, registry,
+        new S3S3CopierOptions(copierOptions));
+    Metrics metrics = s3s3Copier.copy();
+
+    assertThat(metrics.getBytesReplicated(), is(42L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.TOTAL_BYTES_TO_REPLICATE.name()), is(42L));
+    for (int year = 2016; year < 2019; year++) {
+      S3Object object = client.getObject("target", "foo/year=" + year + "/data2");
+      assertThat(IOUtils.toString(object.getObjectContent()), is("bar foo"));
+    }
+  }
+
   @Test
   public void copyCheckTransferManagerIsShutdown() throws Exception {
     client.putObject("source", "data", inputData);
@@ -237,8 +401,8 @@ public class S3S3CopierTest {
         any(TransferStateChangeListener.class))).thenReturn(copy);
     TransferProgress transferProgress = new TransferProgress();
     when(copy.getProgress()).thenReturn(transferProgress);
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
     s3s3Copier.copy();
     verify(mockedTransferManager).shutdownNow();
   }
@@ -251,8 +415,8 @@ public class S3S3CopierTest {
     TransferManagerFactory mockedTransferManagerFactory = Mockito.mock(TransferManagerFactory.class);
     when(mockedTransferManagerFactory.newInstance(any(AmazonS3.class), eq(s3S3CopierOptions)))
         .thenThrow(new RuntimeException("error in instance"));
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
     try {
       s3s3Copier.copy();
     } catch (RuntimeException e) {
@@ -273,8 +437,8 @@ public class S3S3CopierTest {
         .thenReturn(mockedTransferManager);
     when(mockedTransferManager.copy(any(CopyObjectRequest.class), any(AmazonS3.class),
         any(TransferStateChangeListener.class))).thenThrow(new AmazonServiceException("MyCause"));
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
     try {
       s3s3Copier.copy();
       fail("exception should have been thrown");
@@ -300,8 +464,8 @@ public class S3S3CopierTest {
     when(mockedTransferManager.copy(any(CopyObjectRequest.class), any(AmazonS3.class),
         any(TransferStateChangeListener.class))).thenReturn(copy);
     doThrow(new AmazonClientException("cause")).when(copy).waitForCompletion();
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
     try {
       s3s3Copier.copy();
       fail("exception should have been thrown");
@@ -330,8 +494,8 @@ public class S3S3CopierTest {
     TransferProgress transferProgress = new TransferProgress();
     when(copy.getProgress()).thenReturn(transferProgress);
 
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
     s3s3Copier.copy();
     ArgumentCaptor<CopyObjectRequest> argument = ArgumentCaptor.forClass(CopyObjectRequest.class);
     verify(mockedTransferManager).copy(argument.capture(), any(AmazonS3.class), any(TransferStateChangeListener.class));
@@ -359,8 +523,8 @@ public class S3S3CopierTest {
     TransferProgress transferProgress = new TransferProgress();
     when(copy.getProgress()).thenReturn(transferProgress);
 
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        mockedTransferManagerFactory, listObjectsRequestFactory, registry, customOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, customOptions);
     s3s3Copier.copy();
     ArgumentCaptor<CopyObjectRequest> argument = ArgumentCaptor.forClass(CopyObjectRequest.class);
     verify(mockedTransferManager).copy(argument.capture(), any(AmazonS3.class), any(TransferStateChangeListener.class));
@@ -390,8 +554,8 @@ public class S3S3CopierTest {
     TransferProgress transferProgress = new TransferProgress();
     when(copy.getProgress()).thenReturn(transferProgress);
 
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        mockedTransferManagerFactory, listObjectsRequestFactory, registry, customOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, customOptions);
     s3s3Copier.copy();
     ArgumentCaptor<CopyObjectRequest> argument = ArgumentCaptor.forClass(CopyObjectRequest.class);
     verify(mockedTransferManager).copy(argument.capture(), any(AmazonS3.class), any(TransferStateChangeListener.class));
@@ -416,8 +580,8 @@ public class S3S3CopierTest {
         any(TransferStateChangeListener.class))).thenThrow(new AmazonClientException("S3 error"));
     TransferProgress transferProgress = new TransferProgress();
     when(copy.getProgress()).thenReturn(transferProgress);
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
     try {
       s3s3Copier.copy();
       fail("Exception should have been thrown");
@@ -443,16 +607,16 @@ public class S3S3CopierTest {
     TransferManager mockedTransferManager = Mockito.mock(TransferManager.class);
     when(mockedTransferManagerFactory.newInstance(any(AmazonS3.class), eq(s3S3CopierOptions)))
         .thenReturn(mockedTransferManager);
+    Copy failedCopy = Mockito.mock(Copy.class);
     Copy copy = Mockito.mock(Copy.class);
     when(mockedTransferManager.copy(any(CopyObjectRequest.class), any(AmazonS3.class),
-        any(TransferStateChangeListener.class))).thenReturn(copy);
+        any(TransferStateChangeListener.class))).thenReturn(failedCopy, copy);
     TransferProgress transferProgress = new TransferProgress();
     transferProgress.setTotalBytesToTransfer(7);
     when(copy.getProgress()).thenReturn(transferProgress);
-    doThrow(new AmazonClientException("cause"))
-        .doNothing().when(copy).waitForCompletion();
-    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
-        mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
+    doThrow(new AmazonClientException("cause")).when(failedCopy).waitForCompletion();
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
     try {
       Metrics metrics = s3s3Copier.copy();
       ArgumentCaptor<CopyObjectRequest> captor = ArgumentCaptor.forClass(CopyObjectRequest.class);
@@ -469,4 +633,37 @@ public class S3S3CopierTest {
       fail("Exception should not have been thrown");
     }
   }
+
+  @Test
+  public void copyRetriedWhenS3AsksToSlowDown() throws Exception {
+    client.putObject("source", "data", inputData);
+    Path sourceBaseLocation = new Path("s3://source/");
+    Path replicaLocation = new Path("s3://target/");
+    List<Path> sourceSubLocations = new ArrayList<>();
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.RETRY_BACKOFF_MILLIS.keyName(), 1);
+    S3S3CopierOptions customOptions = new S3S3CopierOptions(copierOptions);
+
+    TransferManagerFactory mockedTransferManagerFactory = Mockito.mock(TransferManagerFactory.class);
+    TransferManager mockedTransferManager = Mockito.mock(TransferManager.class);
+    when(mockedTransferManagerFactory.newInstance(any(AmazonS3.class), eq(customOptions)))
+        .thenReturn(mockedTransferManager);
+    AmazonServiceException slowDown = new AmazonServiceException("Please reduce your request rate.");
+    slowDown.setStatusCode(503);
+    slowDown.setErrorCode("SlowDown");
+    Copy copy = Mockito.mock(Copy.class);
+    when(mockedTransferManager.copy(any(CopyObjectRequest.class), any(AmazonS3.class),
+        any(TransferStateChangeListener.class))).thenThrow(slowDown).thenReturn(copy);
+    TransferProgress transferProgress = new TransferProgress();
+    transferProgress.setTotalBytesToTransfer(7);
+    when(copy.getProgress()).thenReturn(transferProgress);
+
+    S3S3Copier s3s3Copier = new S3S3Copier(EVENT_ID, sourceBaseLocation, sourceSubLocations, replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, customOptions);
+    Metrics metrics = s3s3Copier.copy();
+    verify(mockedTransferManager, Mockito.times(2))
+        .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class));
+    verify(mockedTransferManager).shutdownNow();
+    assertThat(metrics.getBytesReplicated(), is(7L));
+  }
 }
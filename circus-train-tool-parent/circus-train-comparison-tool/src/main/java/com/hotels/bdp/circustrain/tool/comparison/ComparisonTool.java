@@ -35,6 +35,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.validation.BindException;
 import org.springframework.validation.ObjectError;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Modules;
@@ -129,4 +130,10 @@ public class ComparisonTool {
   DiffListener diffListener(ComparisonToolArgs comparisonToolArgs) {
     return new FileOutputDiffListener(comparisonToolArgs.getOutputFile());
   }
+
+  // Pooled metastore clients report to this registry, the tools do not report running metrics
+  @Bean
+  MetricRegistry runningMetricRegistry() {
+    return new MetricRegistry();
+  }
 }
@@ -31,6 +31,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.validation.BindException;
 import org.springframework.validation.ObjectError;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Modules;
@@ -124,4 +125,10 @@ public class FilterTool {
       }
     };
   }
+
+  // Pooled metastore clients report to this registry, the tools do not report running metrics
+  @Bean
+  MetricRegistry runningMetricRegistry() {
+    return new MetricRegistry();
+  }
 }